@@ -29,8 +29,26 @@ public class EmployeeController {
 
     private static final Logger log = LoggerFactory.getLogger(EmployeeController.class);
 
+    private static final int MAX_BATCH_IDS = 500;
+
     @Autowired
     private EmployeeService employeeService;
+
+    /**
+     * Returns the employees for a JSON array of IDs in the request body, keyed by ID. Unknown
+     * IDs are left out of the map rather than failing the request. A POST, because up to
+     * MAX_BATCH_IDS IDs do not fit in a URL.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getEmployeesByIds(@RequestBody List<String> ids) {
+        log.info("API: Request to get {} employees by ID", ids.size());
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " employee IDs can be requested at once.");
+        }
+        Map<String, Employee> employees = employeeService.getEmployeesByIds(ids);
+        log.debug("API: Found {} of {} requested employees.", employees.size(), ids.size());
+        return ResponseEntity.ok(employees);
+    }
   
     @GetMapping("/{empId}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable String empId) {
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import com.employeeservice.model.Employee;
 import com.employeeservice.repo.EmployeeRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -50,6 +51,12 @@ public class EmployeeDAO implements EmployeeDAOInterface {
         return employeeRepository.findAll();
     }
 
+    @Override
+    public List<Employee> findAllById(Collection<String> empIds) {
+        log.debug("DAO: Fetching {} employees by ID.", empIds.size());
+        return employeeRepository.findAllById(empIds);
+    }
+
     @Override
     public boolean existsById(String empId) {
         log.debug("DAO: Checking if employee exists: {}", empId);
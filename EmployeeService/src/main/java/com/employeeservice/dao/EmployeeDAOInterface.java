@@ -1,6 +1,7 @@
 package com.employeeservice.dao;
 
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -14,6 +15,7 @@ public interface EmployeeDAOInterface {
     void delete(String empId);
     Employee findById(String empId);
     List<Employee> findAll();
+    List<Employee> findAllById(Collection<String> empIds);
     boolean existsById(String empId);
     
  // Add pagination methods
@@ -16,7 +16,12 @@ import com.employeeservice.exception.EmployeeNotFoundException;
 import com.employeeservice.model.Employee;
 import com.employeeservice.repo.EmployeeRepository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class EmployeeService implements EmployeeServiceInterface {
@@ -80,6 +85,29 @@ public class EmployeeService implements EmployeeServiceInterface {
         return employeeDAO.findAll();
     }
 
+    /**
+     * Looks up many employees with one query. Blank and duplicate IDs are ignored; IDs
+     * that do not exist are simply absent from the returned map.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Employee> getEmployeesByIds(Collection<String> empIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String empId : empIds) {
+            if (empId != null && !empId.trim().isEmpty()) {
+                ids.add(empId.trim());
+            }
+        }
+        log.info("SERVICE: Fetching {} employees by ID in one batch.", ids.size());
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        if (!ids.isEmpty()) {
+            for (Employee employee : employeeDAO.findAllById(ids)) {
+                employees.put(employee.getEmpId(), employee);
+            }
+        }
+        return employees;
+    }
+
     @Override
     public boolean employeeExists(String empId) {
         log.debug("SERVICE: Checking if employee exists: {}", empId);
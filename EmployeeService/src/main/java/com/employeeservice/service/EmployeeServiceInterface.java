@@ -1,6 +1,8 @@
 package com.employeeservice.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.employeeservice.model.Employee;
 
@@ -10,6 +12,7 @@ public interface EmployeeServiceInterface {
     void deleteEmployee(String empId);
     Employee getEmployeeById(String empId);
     List<Employee> getAllEmployees();
+    Map<String, Employee> getEmployeesByIds(Collection<String> empIds);
     boolean employeeExists(String empId);
     
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.employeeservice.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.employeeservice.service.EmployeeService;
+import com.employeeservice.model.Employee;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeControllerBatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @InjectMocks
+    private EmployeeController employeeController;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(employeeController).build();
+    }
+
+    @Test
+    void idsInTheBodyAreLookedUpAndReturnedById() throws Exception {
+        Employee employee = new Employee();
+        employee.setEmpId("E1");
+        employee.setEmpName("Ravi");
+        when(employeeService.getEmployeesByIds(List.of("E1", "E404"))).thenReturn(Map.of("E1", employee));
+
+        mvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content("[\"E1\",\"E404\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.E1.empName").value("Ravi"))
+                .andExpect(jsonPath("$.E404").doesNotExist());
+    }
+
+    @Test
+    void fiveHundredMaxLengthIdsAreAcceptedAndMoreAreRejected() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(String.format("%020d", i));
+        }
+        when(employeeService.getEmployeesByIds(any())).thenReturn(Map.of());
+
+        mvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk());
+
+        ids.add("one-too-many");
+        mvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At most 500 employee IDs can be requested at once."));
+        verify(employeeService, never()).getEmployeesByIds(ids);
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin
 @RestController
@@ -24,9 +25,27 @@ public class CustomerController {
 
     private static final Logger log = LoggerFactory.getLogger(CustomerController.class);
 
+    private static final int MAX_BATCH_IDS = 500;
+
     @Autowired
     private CustomerServiceInterface customerService;
 
+    /**
+     * Returns the customers for a JSON array of IDs in the request body, keyed by ID. Unknown
+     * IDs are left out of the map rather than failing the request. A POST, because up to
+     * MAX_BATCH_IDS IDs do not fit in a URL.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getCustomersByIds(@RequestBody List<String> ids) {
+        log.info("API: Request to get {} customers by ID", ids.size());
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " customer IDs can be requested at once.");
+        }
+        Map<String, CustomerDetails> customers = customerService.getCustomersByIds(ids);
+        log.debug("API: Found {} of {} requested customers", customers.size(), ids.size());
+        return ResponseEntity.ok(customers);
+    }
+
     @GetMapping("/{customerId}")
     public ResponseEntity<CustomerDetails> getCustomerById(@PathVariable String customerId) {
         log.info("API: Request to get customer by ID: {}", customerId);
@@ -1,7 +1,10 @@
 package com.saasant.customerServiceSpring.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -125,6 +128,16 @@ public class CustomerDao implements CustomerDaoInterface {
         
     }
     
+    @Override
+    public Map<String, CustomerDetails> getCustomersByIds(Collection<String> customerIds) {
+        log.debug("DAO: Fetching {} customers by ID via repository", customerIds.size());
+        Map<String, CustomerDetails> customers = new LinkedHashMap<>();
+        for (Customers customerEntity : customerRepository.findAllById(customerIds)) {
+            customers.put(customerEntity.getCustomerId(), convertToDetails(customerEntity));
+        }
+        return customers;
+    }
+    
     @Override
     public Page<CustomerDetails> searchCustomers(String searchTerm, Pageable pageable) {
     	Page<Customers> customersPageEntity = customerRepository.findBySearchTerm(searchTerm, pageable);
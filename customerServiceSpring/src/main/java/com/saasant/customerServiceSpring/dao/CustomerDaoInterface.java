@@ -1,7 +1,9 @@
 package com.saasant.customerServiceSpring.dao;
 import com.saasant.customerServiceSpring.vo.CustomerDetails;
 import com.saasant.customerServiceSpring.entity.Customers;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,5 +16,6 @@ public interface CustomerDaoInterface {
 	Page<CustomerDetails> getAllCustomers(Pageable pageable);
 	Page<CustomerDetails> searchCustomers(String searchTerm, Pageable pageable);
 	List<CustomerDetails> fetchAllCustomers();
+	Map<String, CustomerDetails> getCustomersByIds(Collection<String> customerIds);
 
 }
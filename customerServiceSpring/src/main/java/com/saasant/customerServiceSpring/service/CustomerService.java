@@ -4,7 +4,11 @@ import com.saasant.customerServiceSpring.vo.CustomerDetails;
 
 import java.time.LocalDateTime;
 // import com.saasant.firstSpringProject.entity.Customers; // Not directly used now
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -123,6 +127,25 @@ public class CustomerService implements CustomerServiceInterface {
     return customersDetailsPage;
   }
 
+  /**
+   * Looks up many customers with one query. Blank and duplicate IDs are ignored; IDs
+   * that do not exist are simply absent from the returned map.
+   */
+  @Override
+  public Map<String, CustomerDetails> getCustomersByIds(Collection<String> customerIds) {
+    Set<String> ids = new LinkedHashSet<>();
+    for (String customerId : customerIds) {
+      if (customerId != null && !customerId.trim().isEmpty()) {
+        ids.add(customerId.trim());
+      }
+    }
+    log.info("SERVICE: Fetching {} customers by ID in one batch", ids.size());
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return customerDao.getCustomersByIds(ids);
+  }
+
   @Override
   public CustomerDetails getCustomerById(String customerId) {
     log.info("SERVICE: Fetching customer by ID: {}", customerId);
@@ -1,6 +1,8 @@
 package com.saasant.customerServiceSpring.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,4 +21,5 @@ public interface CustomerServiceInterface {
 	Page<CustomerDetails> getAllCustomers(Pageable pageable); 
     Page<CustomerDetails> searchCustomers(String searchTerm, Pageable pageable);
     List<CustomerDetails> fetchAllCustomers();
+    Map<String, CustomerDetails> getCustomersByIds(Collection<String> customerIds);
 }
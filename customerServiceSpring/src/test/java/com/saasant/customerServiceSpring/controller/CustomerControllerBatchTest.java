@@ -0,0 +1,78 @@
+package com.saasant.customerServiceSpring.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saasant.customerServiceSpring.service.CustomerServiceInterface;
+import com.saasant.customerServiceSpring.vo.CustomerDetails;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerControllerBatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CustomerServiceInterface customerService;
+
+    @InjectMocks
+    private CustomerController customerController;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(customerController).build();
+    }
+
+    @Test
+    void idsInTheBodyAreLookedUpAndReturnedById() throws Exception {
+        CustomerDetails customer = new CustomerDetails();
+        customer.setCustomerId("C1");
+        customer.setCustomerName("Asha");
+        when(customerService.getCustomersByIds(List.of("C1", "C404"))).thenReturn(Map.of("C1", customer));
+
+        mvc.perform(post("/api/customers/batch").contentType(MediaType.APPLICATION_JSON).content("[\"C1\",\"C404\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.C1.customerName").value("Asha"))
+                .andExpect(jsonPath("$.C404").doesNotExist());
+    }
+
+    @Test
+    void fiveHundredMaxLengthIdsAreAcceptedAndMoreAreRejected() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(String.format("%020d", i));
+        }
+        when(customerService.getCustomersByIds(any())).thenReturn(Map.of());
+
+        mvc.perform(post("/api/customers/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk());
+
+        ids.add("one-too-many");
+        mvc.perform(post("/api/customers/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At most 500 customer IDs can be requested at once."));
+        verify(customerService, never()).getCustomersByIds(ids);
+    }
+}
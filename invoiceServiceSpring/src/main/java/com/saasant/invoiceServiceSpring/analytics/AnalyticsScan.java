@@ -0,0 +1,163 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join scan over column blocks. Each leaf filters and aggregates one block into its
+ * own map; maps are merged on the way back up, so leaves never share mutable state.
+ */
+final class AnalyticsScan extends RecursiveTask<Map<Long, AnalyticsScan.Aggregate>> {
+
+	private static final long serialVersionUID = 1L;
+
+	enum Dimension {
+		DAY("day"), MONTH("month"), CUSTOMER("customerId"), EMPLOYEE("employeeId"), PRODUCT("productId");
+
+		final String label;
+
+		Dimension(String label) {
+			this.label = label;
+		}
+	}
+
+	/** Resolved filter: day range plus optional code sets (null means no restriction). */
+	static final class Filter {
+		final int fromDay;
+		final int toDay;
+		final BitSet customers;
+		final BitSet employees;
+		final BitSet products;
+
+		Filter(int fromDay, int toDay, BitSet customers, BitSet employees, BitSet products) {
+			this.fromDay = fromDay;
+			this.toDay = toDay;
+			this.customers = customers;
+			this.employees = employees;
+			this.products = products;
+		}
+	}
+
+	static final class Aggregate {
+		long lines;
+		long invoices;
+		double quantity;
+		double revenue;
+		// Lines of one invoice are contiguous, so counting invoice changes counts distinct invoices.
+		int lastInvoice = -1;
+
+		void merge(Aggregate other) {
+			lines += other.lines;
+			invoices += other.invoices;
+			quantity += other.quantity;
+			revenue += other.revenue;
+		}
+	}
+
+	private final List<ColumnBlock> blocks;
+	private final int lo;
+	private final int hi;
+	private final Filter filter;
+	private final Dimension[] groupBy;
+
+	AnalyticsScan(List<ColumnBlock> blocks, int lo, int hi, Filter filter, Dimension[] groupBy) {
+		this.blocks = blocks;
+		this.lo = lo;
+		this.hi = hi;
+		this.filter = filter;
+		this.groupBy = groupBy;
+	}
+
+	@Override
+	protected Map<Long, Aggregate> compute() {
+		if (hi - lo <= 1) {
+			return lo < hi ? scan(blocks.get(lo)) : new HashMap<>();
+		}
+		int mid = (lo + hi) >>> 1;
+		AnalyticsScan left = new AnalyticsScan(blocks, lo, mid, filter, groupBy);
+		left.fork();
+		Map<Long, Aggregate> right = new AnalyticsScan(blocks, mid, hi, filter, groupBy).compute();
+		return merge(left.join(), right);
+	}
+
+	private static Map<Long, Aggregate> merge(Map<Long, Aggregate> into, Map<Long, Aggregate> from) {
+		if (into.size() < from.size()) {
+			Map<Long, Aggregate> swap = into;
+			into = from;
+			from = swap;
+		}
+		for (Map.Entry<Long, Aggregate> entry : from.entrySet()) {
+			Aggregate existing = into.putIfAbsent(entry.getKey(), entry.getValue());
+			if (existing != null) {
+				existing.merge(entry.getValue());
+			}
+		}
+		return into;
+	}
+
+	private Map<Long, Aggregate> scan(ColumnBlock block) {
+		Map<Long, Aggregate> groups = new HashMap<>();
+		boolean fullyInRange = block.minDay >= filter.fromDay && block.maxDay <= filter.toDay;
+		int monthDay = Integer.MIN_VALUE;
+		int month = 0;
+		for (int i = block.deleted.nextClearBit(0); i < block.size; i = block.deleted.nextClearBit(i + 1)) {
+			int day = block.day[i];
+			if (!fullyInRange && (day < filter.fromDay || day > filter.toDay)) {
+				continue;
+			}
+			if (filter.customers != null && !filter.customers.get(block.customer[i])) {
+				continue;
+			}
+			if (filter.employees != null && !filter.employees.get(block.employee[i])) {
+				continue;
+			}
+			if (filter.products != null && !filter.products.get(block.product[i])) {
+				continue;
+			}
+			long key = 0;
+			for (Dimension dimension : groupBy) {
+				int value;
+				switch (dimension) {
+				case DAY:
+					value = day;
+					break;
+				case MONTH:
+					if (day != monthDay) {
+						LocalDate date = LocalDate.ofEpochDay(day);
+						month = date.getYear() * 12 + date.getMonthValue() - 1;
+						monthDay = day;
+					}
+					value = month;
+					break;
+				case CUSTOMER:
+					value = block.customer[i];
+					break;
+				case EMPLOYEE:
+					value = block.employee[i];
+					break;
+				default:
+					value = block.product[i];
+					break;
+				}
+				key = (key << 32) | (value & 0xFFFFFFFFL);
+			}
+			Aggregate aggregate = groups.get(key);
+			if (aggregate == null) {
+				aggregate = new Aggregate();
+				groups.put(key, aggregate);
+			}
+			aggregate.lines++;
+			aggregate.quantity += block.quantity[i];
+			aggregate.revenue += block.revenue[i];
+			if (block.invoice[i] != aggregate.lastInvoice) {
+				aggregate.invoices++;
+				aggregate.lastInvoice = block.invoice[i];
+			}
+		}
+		return groups;
+	}
+}
@@ -0,0 +1,63 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.util.BitSet;
+
+/**
+ * A fixed-capacity slab of invoice lines stored column by column in primitive arrays. All
+ * lines of one invoice are kept together in one block, and each block records its day range
+ * so date-filtered scans can skip it. Deleted lines are tombstoned, not removed.
+ */
+final class ColumnBlock {
+	
+	final int[] day;
+	final int[] customer;
+	final int[] employee;
+	// Product dictionary codes, not product IDs.
+	final int[] product;
+	final int[] invoice;
+	final float[] quantity;
+	final double[] revenue;
+	final BitSet deleted = new BitSet();
+	
+	int size;
+	int deletedCount;
+	int minDay = Integer.MAX_VALUE;
+	int maxDay = Integer.MIN_VALUE;
+	
+	ColumnBlock(int capacity) {
+		day = new int[capacity];
+		customer = new int[capacity];
+		employee = new int[capacity];
+		product = new int[capacity];
+		invoice = new int[capacity];
+		quantity = new float[capacity];
+		revenue = new double[capacity];
+	}
+	
+	boolean hasRoom(int lines) {
+		return size + lines <= day.length;
+	}
+	
+	void append(int dayValue, int customerCode, int employeeCode, int productCode, int invoiceCode, float quantityValue,
+			double revenueValue) {
+		day[size] = dayValue;
+		customer[size] = customerCode;
+		employee[size] = employeeCode;
+		product[size] = productCode;
+		invoice[size] = invoiceCode;
+		quantity[size] = quantityValue;
+		revenue[size] = revenueValue;
+		size++;
+		minDay = Math.min(minDay, dayValue);
+		maxDay = Math.max(maxDay, dayValue);
+	}
+	
+	void delete(int start, int count) {
+		deleted.set(start, start + count);
+		deletedCount += count;
+	}
+	
+	boolean overlaps(int fromDay, int toDay) {
+		return size > deletedCount && minDay <= toDay && maxDay >= fromDay;
+	}
+}
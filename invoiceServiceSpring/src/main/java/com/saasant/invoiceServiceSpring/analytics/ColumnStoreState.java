@@ -0,0 +1,161 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The blocks and dictionaries of one generation of the column store. An invoice is replaced
+ * by tombstoning its old lines and appending the new ones to the tail block; compact()
+ * copies the live lines into a fresh, fully date-sorted generation.
+ */
+final class ColumnStoreState {
+
+	final int blockSize;
+	final List<ColumnBlock> blocks = new ArrayList<>();
+	final StringDictionary customers = new StringDictionary();
+	final StringDictionary employees = new StringDictionary();
+	final StringDictionary invoices = new StringDictionary();
+	final IntDictionary products = new IntDictionary();
+
+	// Where each invoice's lines live, indexed by invoice code. locCount 0 means no live lines.
+	private int[] locBlock = new int[1024];
+	private int[] locStart = new int[1024];
+	private int[] locCount = new int[1024];
+
+	long liveLines;
+	long deletedLines;
+
+	ColumnStoreState(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	/** Replaces all lines of an invoice; null or empty lines remove it. */
+	void replaceInvoice(String invoiceId, InvoiceLines lines) {
+		int code = invoices.encode(invoiceId);
+		remove(code);
+		if (lines != null && lines.count > 0) {
+			append(code, lines);
+		}
+	}
+
+	void removeInvoice(String invoiceId) {
+		int code = invoices.lookup(invoiceId);
+		if (code >= 0) {
+			remove(code);
+		}
+	}
+
+	private void remove(int code) {
+		if (code >= locCount.length || locCount[code] == 0) {
+			return;
+		}
+		blocks.get(locBlock[code]).delete(locStart[code], locCount[code]);
+		liveLines -= locCount[code];
+		deletedLines += locCount[code];
+		locCount[code] = 0;
+	}
+
+	private void append(int code, InvoiceLines lines) {
+		ColumnBlock tail = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+		if (tail == null || !tail.hasRoom(lines.count)) {
+			tail = new ColumnBlock(Math.max(blockSize, lines.count));
+			blocks.add(tail);
+		}
+		int customerCode = customers.encode(lines.customerId);
+		int employeeCode = employees.encode(lines.employeeId);
+		int start = tail.size;
+		for (int i = 0; i < lines.count; i++) {
+			tail.append(lines.day, customerCode, employeeCode, products.encode(lines.product[i]), code, lines.quantity[i], lines.revenue[i]);
+		}
+		ensureLocationCapacity(code);
+		locBlock[code] = blocks.size() - 1;
+		locStart[code] = start;
+		locCount[code] = lines.count;
+		liveLines += lines.count;
+	}
+
+	private void ensureLocationCapacity(int code) {
+		if (code >= locCount.length) {
+			int length = Math.max(code + 1, locCount.length * 2);
+			locBlock = Arrays.copyOf(locBlock, length);
+			locStart = Arrays.copyOf(locStart, length);
+			locCount = Arrays.copyOf(locCount, length);
+		}
+	}
+
+	/**
+	 * Builds a new generation holding only live lines, ordered by day then invoice, with
+	 * fresh dictionaries. Reads this generation only, so queries can keep using it meanwhile.
+	 */
+	ColumnStoreState compact() {
+		int invoiceCount = invoices.size();
+		long[] order = new long[invoiceCount];
+		int live = 0;
+		for (int code = 0; code < Math.min(invoiceCount, locCount.length); code++) {
+			if (locCount[code] > 0) {
+				int day = blocks.get(locBlock[code]).day[locStart[code]];
+				order[live++] = ((long) day << 32) | code;
+			}
+		}
+		Arrays.sort(order, 0, live);
+
+		ColumnStoreState next = new ColumnStoreState(blockSize);
+		InvoiceLines lines = new InvoiceLines();
+		for (int i = 0; i < live; i++) {
+			int code = (int) order[i];
+			ColumnBlock block = blocks.get(locBlock[code]);
+			int start = locStart[code];
+			lines.reset(block.day[start], customers.decode(block.customer[start]), employees.decode(block.employee[start]));
+			for (int row = start; row < start + locCount[code]; row++) {
+				lines.add(products.decode(block.product[row]), block.quantity[row], block.revenue[row]);
+			}
+			next.replaceInvoice(invoices.decode(code), lines);
+		}
+		return next;
+	}
+
+	/**
+	 * Reusable buffer for the lines of one invoice, which share day, customer and employee.
+	 * Holds product IDs; they are encoded when the lines are appended to a block.
+	 */
+	static final class InvoiceLines {
+
+		int day;
+		String customerId;
+		String employeeId;
+		int count;
+		int[] product = new int[16];
+		float[] quantity = new float[16];
+		double[] revenue = new double[16];
+
+		void reset(int day, String customerId, String employeeId) {
+			this.day = day;
+			this.customerId = customerId;
+			this.employeeId = employeeId;
+			this.count = 0;
+		}
+
+		InvoiceLines copy() {
+			InvoiceLines copy = new InvoiceLines();
+			copy.reset(day, customerId, employeeId);
+			copy.count = count;
+			copy.product = Arrays.copyOf(product, Math.max(count, 1));
+			copy.quantity = Arrays.copyOf(quantity, Math.max(count, 1));
+			copy.revenue = Arrays.copyOf(revenue, Math.max(count, 1));
+			return copy;
+		}
+
+		void add(int productId, float quantityValue, double revenueValue) {
+			if (count == product.length) {
+				product = Arrays.copyOf(product, count * 2);
+				quantity = Arrays.copyOf(quantity, count * 2);
+				revenue = Arrays.copyOf(revenue, count * 2);
+			}
+			product[count] = productId;
+			quantity[count] = quantityValue;
+			revenue[count] = revenueValue;
+			count++;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps int IDs (product IDs) to dense codes, like StringDictionary, so product filters are a
+ * BitSet sized by the number of distinct products rather than by the largest ID. Not
+ * thread-safe; guarded by the owning store.
+ */
+final class IntDictionary {
+	
+	private final Map<Integer, Integer> codes = new HashMap<>();
+	private int[] values = new int[64];
+	private int size;
+	
+	int encode(int value) {
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = size;
+			codes.put(value, code);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+		return code;
+	}
+	
+	/** Returns the code of value, or -1 when it has never been seen. */
+	int lookup(int value) {
+		Integer code = codes.get(value);
+		return code != null ? code : -1;
+	}
+	
+	int decode(int code) {
+		return values[code];
+	}
+	
+	int size() {
+		return size;
+	}
+}
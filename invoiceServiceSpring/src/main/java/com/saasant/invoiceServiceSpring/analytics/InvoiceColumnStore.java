@@ -0,0 +1,415 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceAnalyticsDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsQuery;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsResult;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory, column-oriented copy of all dated invoice lines for ad hoc filter and
+ * group-by queries.
+ * <ul>
+ * <li>Loaded from MySQL once the application is ready, in invoice date order, so blocks
+ * cover narrow date ranges and date filters skip most of them.</li>
+ * <li>Kept current by re-reading the invoices named in the outbox (InvoicesCommittedEvent
+ * from InvoiceEventRelay), so writes committed on any instance arrive one poll later. Changed
+ * invoices are tombstoned and re-appended; once too many lines are tombstoned the store is
+ * compacted back into date order.</li>
+ * <li>All changes run on the single analyticsApplyExecutor thread and are swapped in under
+ * the write lock. Queries hold the read lock and scan blocks in parallel on a dedicated
+ * fork-join pool.</li>
+ * <li>If the initial load fails, it is retried with exponential backoff; until one succeeds
+ * queries are refused as still loading.</li>
+ * </ul>
+ * Rows are invoice lines, so invoices without items are not represented.
+ */
+@Component
+public class InvoiceColumnStore {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceColumnStore.class);
+
+	private static final int DEFAULT_LIMIT = 1000;
+	private static final int MAX_LIMIT = 10000;
+	private static final int RELOAD_CHUNK = 500;
+
+	@Autowired
+	InvoiceAnalyticsDaoInterface invoiceAnalyticsDao;
+
+	@Autowired
+	@Qualifier("analyticsApplyExecutor")
+	Executor applyExecutor;
+
+	@Autowired
+	TaskScheduler taskScheduler;
+
+	@Value("${invoice.analytics.enabled:true}")
+	boolean enabled;
+
+	@Value("${invoice.analytics.block-size:4096}")
+	int blockSize;
+
+	@Value("${invoice.analytics.compact-deleted-ratio:0.2}")
+	double compactDeletedRatio;
+
+	@Value("${invoice.analytics.parallelism:0}")
+	int parallelism;
+
+	@Value("${invoice.analytics.retry-initial-ms:5000}")
+	long retryInitialMs;
+
+	@Value("${invoice.analytics.retry-max-ms:300000}")
+	long retryMaxMs;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile ColumnStoreState state;
+	private volatile long loadedAt;
+	// Apply thread only: failed loads since the store last had data.
+	private int failedLoads;
+	private ForkJoinPool queryPool;
+
+	@PostConstruct
+	void init() {
+		queryPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		queryPool.shutdownNow();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (enabled) {
+			requestRebuild();
+		}
+	}
+
+	/** Queues a full reload from MySQL. Queries keep using the current data until it finishes. */
+	public void requestRebuild() {
+		applyExecutor.execute(this::rebuild);
+	}
+
+	public boolean isReady() {
+		return enabled && state != null;
+	}
+
+	@EventListener
+	public void onInvoicesCommitted(InvoicesCommittedEvent event) {
+		if (!enabled || event.getInvoiceIds().isEmpty()) {
+			return;
+		}
+		List<String> invoiceIds = event.getInvoiceIds();
+		applyExecutor.execute(() -> reload(invoiceIds));
+	}
+
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		ColumnStoreState current = state;
+		status.put("enabled", enabled);
+		status.put("ready", isReady());
+		if (current != null) {
+			lock.readLock().lock();
+			try {
+				status.put("blocks", current.blocks.size());
+				status.put("liveLines", current.liveLines);
+				status.put("deletedLines", current.deletedLines);
+				status.put("invoices", current.invoices.size());
+				status.put("customers", current.customers.size());
+				status.put("employees", current.employees.size());
+				status.put("products", current.products.size());
+			} finally {
+				lock.readLock().unlock();
+			}
+			status.put("loadedAt", loadedAt);
+		}
+		status.put("parallelism", queryPool.getParallelism());
+		return status;
+	}
+
+	/**
+	 * Runs a query against the current data. Throws IllegalArgumentException for an invalid
+	 * query and IllegalStateException while the store is disabled or still loading.
+	 */
+	public AnalyticsResult query(AnalyticsQuery query) {
+		long start = System.currentTimeMillis();
+		AnalyticsScan.Dimension[] groupBy = parseGroupBy(query.getGroupBy());
+		int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_LIMIT;
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ".");
+		}
+		int fromDay = query.getFrom() != null ? (int) query.getFrom().toEpochDay() : Integer.MIN_VALUE;
+		int toDay = query.getTo() != null ? (int) query.getTo().toEpochDay() : Integer.MAX_VALUE;
+		if (fromDay > toDay) {
+			throw new IllegalArgumentException("from must not be after to.");
+		}
+		if (!isReady()) {
+			throw new IllegalStateException(enabled ? "Analytics store is still loading." : "Analytics store is disabled.");
+		}
+
+		lock.readLock().lock();
+		try {
+			ColumnStoreState current = state;
+			AnalyticsScan.Filter filter = new AnalyticsScan.Filter(fromDay, toDay,
+					codesOf(query.getCustomerIds(), current.customers),
+					codesOf(query.getEmployeeIds(), current.employees),
+					productCodesOf(query.getProductIds(), current.products));
+			List<ColumnBlock> candidates = new ArrayList<>();
+			for (ColumnBlock block : current.blocks) {
+				if (block.overlaps(fromDay, toDay)) {
+					candidates.add(block);
+				}
+			}
+			Map<Long, AnalyticsScan.Aggregate> groups = queryPool.invoke(
+					new AnalyticsScan(candidates, 0, candidates.size(), filter, groupBy));
+
+			List<Map.Entry<Long, AnalyticsScan.Aggregate>> sorted = new ArrayList<>(groups.entrySet());
+			sorted.sort((a, b) -> Double.compare(b.getValue().revenue, a.getValue().revenue));
+			long matchedLines = 0;
+			for (AnalyticsScan.Aggregate aggregate : groups.values()) {
+				matchedLines += aggregate.lines;
+			}
+			List<Map<String, Object>> rows = new ArrayList<>(Math.min(limit, sorted.size()));
+			for (Map.Entry<Long, AnalyticsScan.Aggregate> entry : sorted.subList(0, Math.min(limit, sorted.size()))) {
+				rows.add(toRow(current, groupBy, entry.getKey(), entry.getValue()));
+			}
+			return new AnalyticsResult(rows, groups.size(), matchedLines, candidates.size(),
+					current.blocks.size() - candidates.size(), System.currentTimeMillis() - start);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static AnalyticsScan.Dimension[] parseGroupBy(List<String> names) {
+		if (names == null || names.isEmpty()) {
+			return new AnalyticsScan.Dimension[0];
+		}
+		if (names.size() > 2) {
+			throw new IllegalArgumentException("groupBy accepts at most two dimensions.");
+		}
+		Set<AnalyticsScan.Dimension> dimensions = new LinkedHashSet<>();
+		for (String name : names) {
+			AnalyticsScan.Dimension dimension;
+			try {
+				dimension = AnalyticsScan.Dimension.valueOf(String.valueOf(name).trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(
+						"Unknown groupBy dimension: " + name + ". Use day, month, customer, employee or product.");
+			}
+			if (!dimensions.add(dimension)) {
+				throw new IllegalArgumentException("Duplicate groupBy dimension: " + name);
+			}
+		}
+		return dimensions.toArray(new AnalyticsScan.Dimension[0]);
+	}
+
+	/** Null when the filter is absent; IDs never seen simply match nothing. */
+	private static BitSet codesOf(List<String> ids, StringDictionary dictionary) {
+		if (ids == null || ids.isEmpty()) {
+			return null;
+		}
+		BitSet codes = new BitSet(dictionary.size());
+		for (String id : ids) {
+			int code = dictionary.lookup(id);
+			if (code >= 0) {
+				codes.set(code);
+			}
+		}
+		return codes;
+	}
+
+	private static BitSet productCodesOf(List<Integer> productIds, IntDictionary dictionary) {
+		if (productIds == null || productIds.isEmpty()) {
+			return null;
+		}
+		BitSet codes = new BitSet(dictionary.size());
+		for (Integer productId : productIds) {
+			int code = productId != null ? dictionary.lookup(productId) : -1;
+			if (code >= 0) {
+				codes.set(code);
+			}
+		}
+		return codes;
+	}
+
+	private static Map<String, Object> toRow(ColumnStoreState state, AnalyticsScan.Dimension[] groupBy, long key,
+			AnalyticsScan.Aggregate aggregate) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		for (int i = 0; i < groupBy.length; i++) {
+			int value = (int) (key >>> (32 * (groupBy.length - 1 - i)));
+			switch (groupBy[i]) {
+			case DAY:
+				row.put(groupBy[i].label, LocalDate.ofEpochDay(value).toString());
+				break;
+			case MONTH:
+				row.put(groupBy[i].label, String.format("%04d-%02d", value / 12, value % 12 + 1));
+				break;
+			case CUSTOMER:
+				row.put(groupBy[i].label, state.customers.decode(value));
+				break;
+			case EMPLOYEE:
+				row.put(groupBy[i].label, state.employees.decode(value));
+				break;
+			default:
+				row.put(groupBy[i].label, state.products.decode(value));
+				break;
+			}
+		}
+		row.put("lineCount", aggregate.lines);
+		row.put("invoiceCount", aggregate.invoices);
+		row.put("quantity", aggregate.quantity);
+		row.put("revenue", aggregate.revenue);
+		return row;
+	}
+
+	/** Apply thread only. Builds a complete new generation off-lock, then swaps it in. */
+	private void rebuild() {
+		long start = System.currentTimeMillis();
+		try {
+			ColumnStoreState next = new ColumnStoreState(blockSize);
+			LineCollector collector = new LineCollector(next::replaceInvoice);
+			invoiceAnalyticsDao.streamAllLines(collector);
+			collector.flush();
+			swap(next);
+			failedLoads = 0;
+			log.info("Analytics store loaded {} lines of {} invoices into {} blocks in {} ms", next.liveLines,
+					next.invoices.size(), next.blocks.size(), System.currentTimeMillis() - start);
+		} catch (RuntimeException e) {
+			log.error("Analytics store load failed: {}", e.getMessage(), e);
+			if (state == null) {
+				scheduleRetry();
+			}
+		}
+	}
+
+	/** Apply thread only. With no data to serve, nothing else would trigger another load. */
+	private void scheduleRetry() {
+		failedLoads++;
+		long delayMs = Math.min(retryInitialMs << Math.min(failedLoads - 1, 16), retryMaxMs);
+		log.warn("Analytics store has no data after {} failed load(s). Retrying in {} ms.", failedLoads, delayMs);
+		taskScheduler.schedule(this::requestRebuild, Instant.now().plus(Duration.ofMillis(delayMs)));
+	}
+
+	/** Apply thread only. Re-reads the given invoices and replaces their lines. */
+	private void reload(List<String> invoiceIds) {
+		if (state == null) {
+			// The initial load has not run yet and will read the committed rows itself.
+			return;
+		}
+		try {
+			for (int from = 0; from < invoiceIds.size(); from += RELOAD_CHUNK) {
+				List<String> chunk = invoiceIds.subList(from, Math.min(from + RELOAD_CHUNK, invoiceIds.size()));
+				Map<String, ColumnStoreState.InvoiceLines> fresh = new LinkedHashMap<>();
+				LineCollector collector = new LineCollector((invoiceId, lines) -> fresh.put(invoiceId, lines.copy()));
+				invoiceAnalyticsDao.streamLines(chunk, collector);
+				collector.flush();
+				apply(chunk, fresh);
+			}
+			compactIfNeeded();
+		} catch (RuntimeException e) {
+			log.error("Analytics store update for {} invoices failed, rebuilding: {}", invoiceIds.size(), e.getMessage());
+			rebuild();
+		}
+	}
+
+	private void apply(Collection<String> invoiceIds, Map<String, ColumnStoreState.InvoiceLines> fresh) {
+		lock.writeLock().lock();
+		try {
+			for (String invoiceId : invoiceIds) {
+				ColumnStoreState.InvoiceLines lines = fresh.get(invoiceId);
+				if (lines != null) {
+					state.replaceInvoice(invoiceId, lines);
+				} else {
+					state.removeInvoice(invoiceId);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void compactIfNeeded() {
+		ColumnStoreState current = state;
+		long total = current.liveLines + current.deletedLines;
+		if (total == 0 || current.deletedLines < total * compactDeletedRatio) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		// Only this thread mutates, so reading the current generation without the lock is safe.
+		ColumnStoreState next = current.compact();
+		swap(next);
+		log.info("Analytics store compacted: dropped {} deleted lines in {} ms", current.deletedLines,
+				System.currentTimeMillis() - start);
+	}
+
+	private void swap(ColumnStoreState next) {
+		lock.writeLock().lock();
+		try {
+			state = next;
+			loadedAt = System.currentTimeMillis();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/** Groups the streamed lines (ordered by invoice) and hands over one invoice at a time. */
+	private static final class LineCollector implements InvoiceAnalyticsDaoInterface.LineHandler {
+
+		interface Sink {
+			void accept(String invoiceId, ColumnStoreState.InvoiceLines lines);
+		}
+
+		private final Sink sink;
+		private final ColumnStoreState.InvoiceLines lines = new ColumnStoreState.InvoiceLines();
+		private String currentInvoice;
+
+		LineCollector(Sink sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public void line(String invoiceId, LocalDate invoiceDay, String customerId, String employeeId, int productId,
+				float quantity, double totalCost) {
+			if (!invoiceId.equals(currentInvoice)) {
+				flush();
+				currentInvoice = invoiceId;
+				lines.reset((int) invoiceDay.toEpochDay(), customerId, employeeId);
+			}
+			lines.add(productId, quantity, totalCost);
+		}
+
+		void flush() {
+			if (currentInvoice != null) {
+				sink.accept(currentInvoice, lines);
+				currentInvoice = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps string IDs to dense int codes (0, 1, 2, ...) so columns can store ints and filters
+ * can use a BitSet indexed by code. Codes are never reused. Not thread-safe; guarded by the
+ * owning store.
+ */
+final class StringDictionary {
+	
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+	
+	int encode(String value) {
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = values.size();
+			codes.put(value, code);
+			values.add(value);
+		}
+		return code;
+	}
+	
+	/** Returns the code of value, or -1 when it has never been seen. */
+	int lookup(String value) {
+		Integer code = codes.get(value);
+		return code != null ? code : -1;
+	}
+	
+	String decode(int code) {
+		return values.get(code);
+	}
+	
+	int size() {
+		return values.size();
+	}
+}
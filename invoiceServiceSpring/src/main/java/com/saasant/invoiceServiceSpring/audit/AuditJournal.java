@@ -0,0 +1,565 @@
+package com.saasant.invoiceServiceSpring.audit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.saasant.invoiceServiceSpring.vo.AuditEntry;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only audit journal of invoice creates, edits and deletes, kept in local segment
+ * files instead of MySQL.
+ * <ul>
+ * <li>Committed mutations are queued; one writer thread encodes whatever has queued up into
+ * a single buffer and appends it with one FileChannel write, forcing to disk at most every
+ * fsync-interval-ms (and on shutdown).</li>
+ * <li>Each record carries a CRC32C and a SHA-256 chain over all previous records (see
+ * JournalCodec). On startup a torn tail left by a crash is cut off at the last good record;
+ * a write that fails while running is cut off the same way before the next one.</li>
+ * <li>Segments roll at segment-bytes. Each keeps a sparse (timestamp, offset) index, so
+ * {@link #read} skips whole segments and seeks close to the first record in range.</li>
+ * </ul>
+ * Timestamps are made non-decreasing across the journal, which the index relies on.
+ */
+@Component
+public class AuditJournal {
+
+	private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+	private static final int READ_BUFFER_BYTES = 64 * 1024;
+	private static final int MAX_WRITE_BATCH = 1000;
+
+	@Value("${invoice.audit.enabled:true}")
+	boolean enabled;
+
+	@Value("${invoice.audit.dir:audit-journal}")
+	String directory;
+
+	@Value("${invoice.audit.segment-bytes:67108864}")
+	long segmentBytes;
+
+	@Value("${invoice.audit.index-interval-bytes:65536}")
+	long indexIntervalBytes;
+
+	@Value("${invoice.audit.fsync-interval-ms:1000}")
+	long fsyncIntervalMs;
+
+	@Value("${invoice.audit.queue-capacity:100000}")
+	int queueCapacity;
+
+	private Path journalDir;
+	private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+	private BlockingQueue<AuditEntry> queue;
+	private Thread writer;
+	private volatile boolean running;
+	private final LongAdder dropped = new LongAdder();
+
+	// Writer thread state.
+	private final JournalCodec writeCodec = new JournalCodec();
+	private FileChannel logChannel;
+	private FileChannel indexChannel;
+	private JournalSegment active;
+	private long position;
+	private long lastIndexedAt = -1;
+	private long nextSequence = 1;
+	private long lastTimestamp;
+	private byte[] lastChain = JournalCodec.GENESIS;
+	private boolean dirty;
+	private long lastForceAt;
+	// State after the last write that fully reached the active segment; see rewind().
+	private long goodPosition;
+	private long goodSequence = 1;
+	private long goodTimestamp;
+	private byte[] goodChain = JournalCodec.GENESIS;
+	private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(256 * 1024);
+	private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(64 * JournalSegment.INDEX_ENTRY_BYTES);
+
+	@PostConstruct
+	void open() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		journalDir = Paths.get(directory).toAbsolutePath();
+		Files.createDirectories(journalDir);
+		List<Path> logFiles = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(journalDir, "audit-*.log")) {
+			files.forEach(logFiles::add);
+		}
+		logFiles.sort((a, b) -> Long.compare(JournalSegment.parseBaseSequence(a), JournalSegment.parseBaseSequence(b)));
+		for (Path logFile : logFiles) {
+			JournalSegment segment = new JournalSegment(journalDir, JournalSegment.parseBaseSequence(logFile));
+			segment.load();
+			segments.add(segment);
+		}
+		recoverTail();
+		if (segments.isEmpty()) {
+			segments.add(new JournalSegment(journalDir, nextSequence));
+		}
+		openActive(segments.get(segments.size() - 1));
+
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		writer = new Thread(this::writeLoop, "audit-journal-writer");
+		writer.start();
+		log.info("Audit journal open at {}: {} segment(s), next sequence {}", journalDir, segments.size(), nextSequence);
+	}
+
+	@PreDestroy
+	void close() throws InterruptedException {
+		if (writer == null) {
+			return;
+		}
+		running = false;
+		writer.join(TimeUnit.SECONDS.toMillis(30));
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onInvoiceMutation(InvoiceMutationEvent event) {
+		if (!enabled) {
+			return;
+		}
+		AuditEntry entry = new AuditEntry(0, event.getOccurredAt(), event.getType(), event.getInvoiceId(),
+				event.getInvoiceNumber(), event.getAmountBefore(), event.getAmountAfter(), event.getTransactionId());
+		if (!running || !queue.offer(entry)) {
+			dropped.increment();
+			log.error("Audit journal could not accept {} of invoice {}; record dropped", event.getType(), event.getInvoiceId());
+		}
+	}
+
+	/**
+	 * Records with timestamps in [from, to], oldest first, optionally for one invoice only,
+	 * at most limit of them. Sees everything the writer has appended, fsynced or not.
+	 */
+	public List<AuditEntry> read(Instant from, Instant to, String invoiceId, int limit) {
+		long fromMillis = from.toEpochMilli();
+		long toMillis = to.toEpochMilli();
+		List<AuditEntry> result = new ArrayList<>();
+		List<JournalSegment> snapshot = new ArrayList<>(segments);
+		JournalCodec codec = new JournalCodec();
+		for (int i = 0; i < snapshot.size() && result.size() < limit; i++) {
+			JournalSegment segment = snapshot.get(i);
+			if (segment.firstTimestamp() > toMillis) {
+				break;
+			}
+			// Every record of a segment is at or before the first record of the next one.
+			if (i + 1 < snapshot.size() && snapshot.get(i + 1).firstTimestamp() < fromMillis) {
+				continue;
+			}
+			try {
+				scan(segment, segment.seekOffset(fromMillis), codec, null, decoded -> {
+					long timestamp = decoded.entry.getTimestamp().toEpochMilli();
+					if (timestamp > toMillis) {
+						return false;
+					}
+					if (timestamp >= fromMillis && (invoiceId == null || invoiceId.equals(decoded.entry.getInvoiceId()))) {
+						result.add(decoded.entry);
+					}
+					return result.size() < limit;
+				});
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to read audit segment " + segment.logPath, e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Re-reads the whole journal, checking every CRC, the sequence numbering and the hash chain.
+	 * Reports the first problem found.
+	 */
+	public Map<String, Object> verify() {
+		Map<String, Object> report = new LinkedHashMap<>();
+		JournalCodec codec = new JournalCodec();
+		byte[][] chain = { JournalCodec.GENESIS };
+		long[] expectedSequence = { 0 };
+		long[] records = { 0 };
+		String[] problem = { null };
+		for (JournalSegment segment : new ArrayList<>(segments)) {
+			try {
+				scan(segment, 0, codec, chain, decoded -> {
+					long sequence = decoded.entry.getSequence();
+					if (!decoded.chainValid) {
+						problem[0] = "Hash chain broken at sequence " + sequence + " in " + segment.logPath.getFileName();
+					} else if (expectedSequence[0] != 0 && sequence != expectedSequence[0]) {
+						problem[0] = "Expected sequence " + expectedSequence[0] + " but found " + sequence + " in "
+								+ segment.logPath.getFileName();
+					}
+					expectedSequence[0] = sequence + 1;
+					records[0]++;
+					return problem[0] == null;
+				});
+			} catch (IOException e) {
+				problem[0] = e.getMessage() + " in " + segment.logPath.getFileName();
+			}
+			if (problem[0] != null) {
+				break;
+			}
+		}
+		report.put("valid", problem[0] == null);
+		report.put("recordsChecked", records[0]);
+		report.put("segments", segments.size());
+		if (problem[0] != null) {
+			report.put("problem", problem[0]);
+		}
+		return report;
+	}
+
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("enabled", enabled);
+		if (enabled) {
+			long bytes = 0;
+			for (JournalSegment segment : segments) {
+				bytes += segment.size();
+			}
+			status.put("directory", journalDir.toString());
+			status.put("segments", segments.size());
+			status.put("bytes", bytes);
+			status.put("queued", queue.size());
+			status.put("dropped", dropped.sum());
+		}
+		return status;
+	}
+
+	private interface RecordVisitor {
+		/** Returns false to stop the scan. */
+		boolean visit(JournalCodec.Decoded decoded) throws IOException;
+	}
+
+	/**
+	 * Decodes records from offset up to the segment's published size. With chain non-null the
+	 * chain is checked and chain[0] is advanced; otherwise chain checks are skipped.
+	 */
+	private static void scan(JournalSegment segment, long offset, JournalCodec codec, byte[][] chain, RecordVisitor visitor)
+			throws IOException {
+		long end = segment.size();
+		if (offset >= end) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(segment.logPath, StandardOpenOption.READ)) {
+			channel.position(offset);
+			InputStream bounded = new BoundedInputStream(Channels.newInputStream(channel), end - offset);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(bounded, READ_BUFFER_BYTES));
+			JournalCodec.Decoded decoded;
+			while ((decoded = codec.decode(in, chain != null ? chain[0] : null)) != null) {
+				if (chain != null) {
+					chain[0] = decoded.chain;
+				}
+				if (!visitor.visit(decoded)) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the last record written before the restart and cuts off anything after it that
+	 * does not decode (a write torn by a crash). Sets the sequence, timestamp and chain the
+	 * writer continues from.
+	 */
+	private void recoverTail() throws IOException {
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			JournalSegment segment = segments.get(i);
+			long offset = segment.lastIndexedOffset();
+			long[] goodEnd = { offset };
+			JournalCodec.Decoded[] first = { null };
+			JournalCodec.Decoded[] last = { null };
+			try {
+				scan(segment, offset, new JournalCodec(), null, decoded -> {
+					goodEnd[0] += decoded.length;
+					if (first[0] == null) {
+						first[0] = decoded;
+					}
+					last[0] = decoded;
+					return true;
+				});
+			} catch (JournalCodec.JournalCorruptException e) {
+				log.warn("Audit segment {} has a damaged tail at offset {} ({}); truncating", segment.logPath.getFileName(),
+						goodEnd[0], e.getMessage());
+			}
+			if (goodEnd[0] < segment.size()) {
+				try (FileChannel channel = FileChannel.open(segment.logPath, StandardOpenOption.WRITE)) {
+					channel.truncate(goodEnd[0]);
+				}
+				segment.publishSize(goodEnd[0]);
+				segment.truncateIndex(goodEnd[0]);
+			}
+			// A lost index file still needs its first entry, or reads would skip the segment.
+			if (segment.indexEntries() == 0 && first[0] != null) {
+				segment.addIndexEntry(first[0].entry.getTimestamp().toEpochMilli(), 0);
+			}
+			rewriteIndex(segment);
+			if (last[0] != null) {
+				nextSequence = last[0].entry.getSequence() + 1;
+				lastTimestamp = last[0].entry.getTimestamp().toEpochMilli();
+				lastChain = last[0].chain;
+				return;
+			}
+		}
+	}
+
+	/** Drops index file entries the log no longer backs, so appends continue right after the kept ones. */
+	private static void rewriteIndex(JournalSegment segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			int entries = segment.indexEntries();
+			channel.truncate((long) entries * JournalSegment.INDEX_ENTRY_BYTES);
+			if (entries == 1 && channel.size() == 0) {
+				ByteBuffer entry = ByteBuffer.allocate(JournalSegment.INDEX_ENTRY_BYTES);
+				entry.putLong(segment.firstTimestamp()).putLong(0).flip();
+				channel.write(entry, 0);
+			}
+		}
+	}
+
+	/** Switches the writer to the segment; on failure the previous one stays active. */
+	private void openActive(JournalSegment segment) throws IOException {
+		FileChannel segmentLog = FileChannel.open(segment.logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileChannel segmentIndex;
+		try {
+			segmentIndex = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			segmentLog.position(segment.size());
+			segmentIndex.position((long) segment.indexEntries() * JournalSegment.INDEX_ENTRY_BYTES);
+		} catch (IOException e) {
+			segmentLog.close();
+			throw e;
+		}
+		active = segment;
+		logChannel = segmentLog;
+		indexChannel = segmentIndex;
+		position = segment.size();
+		lastIndexedAt = segment.indexEntries() > 0 ? segment.lastIndexedOffset() : -1;
+		checkpoint();
+	}
+
+	private void writeLoop() {
+		List<AuditEntry> batch = new ArrayList<>(MAX_WRITE_BATCH);
+		while (running || !queue.isEmpty()) {
+			long sequenceBefore = nextSequence;
+			try {
+				AuditEntry first = queue.poll(Math.max(1, fsyncIntervalMs), TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, MAX_WRITE_BATCH - 1);
+					append(batch);
+				}
+				if (dirty && System.currentTimeMillis() - lastForceAt >= fsyncIntervalMs) {
+					force();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (IOException | RuntimeException e) {
+				// Records written before a roll inside the batch are kept; the rest was rewound.
+				long lost = batch.size() - (nextSequence - sequenceBefore);
+				dropped.add(lost);
+				log.error("Audit journal write failed, {} of {} records dropped: {}", lost, batch.size(), e.getMessage(), e);
+			} finally {
+				batch.clear();
+			}
+		}
+		try {
+			force();
+			logChannel.close();
+			indexChannel.close();
+		} catch (IOException e) {
+			log.error("Audit journal close failed: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Encodes the batch into one buffer per segment and writes it with a single call. If the
+	 * write fails, the segment and the writer state are rewound to the last complete write.
+	 */
+	private void append(List<AuditEntry> batch) throws IOException {
+		try {
+			encodeAndWrite(batch);
+		} catch (IOException | RuntimeException e) {
+			rewind();
+			throw e;
+		}
+	}
+
+	private void encodeAndWrite(List<AuditEntry> batch) throws IOException {
+		writeBuffer.clear();
+		indexBuffer.clear();
+		long bufferStart = position;
+		byte[][] chainOut = new byte[1][];
+		for (AuditEntry entry : batch) {
+			long recordOffset = bufferStart + writeBuffer.position();
+			if (recordOffset >= segmentBytes && recordOffset > 0) {
+				flushBuffers();
+				roll();
+				bufferStart = position;
+				recordOffset = position;
+			}
+			entry.setSequence(nextSequence);
+			long timestamp = Math.max(entry.getTimestamp().toEpochMilli(), lastTimestamp);
+			entry.setTimestamp(Instant.ofEpochMilli(timestamp));
+			writeBuffer = writeCodec.encode(entry, lastChain, writeBuffer, chainOut);
+			if (lastIndexedAt < 0 || recordOffset - lastIndexedAt >= indexIntervalBytes) {
+				if (!indexBuffer.hasRemaining()) {
+					flushBuffers();
+					bufferStart = position;
+				}
+				indexBuffer.putLong(timestamp).putLong(recordOffset);
+				lastIndexedAt = recordOffset;
+			}
+			lastChain = chainOut[0];
+			lastTimestamp = timestamp;
+			nextSequence++;
+		}
+		flushBuffers();
+	}
+
+	/** Writes the buffered records, then their index entries, and publishes both to readers. */
+	private void flushBuffers() throws IOException {
+		writeBuffer.flip();
+		while (writeBuffer.hasRemaining()) {
+			position += write(logChannel, writeBuffer);
+		}
+		writeBuffer.clear();
+		indexBuffer.flip();
+		while (indexBuffer.hasRemaining()) {
+			long timestamp = indexBuffer.getLong();
+			long offset = indexBuffer.getLong();
+			active.addIndexEntry(timestamp, offset);
+		}
+		indexBuffer.rewind();
+		while (indexBuffer.hasRemaining()) {
+			indexChannel.write(indexBuffer);
+		}
+		indexBuffer.clear();
+		active.publishSize(position);
+		dirty = true;
+		checkpoint();
+	}
+
+	int write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		return channel.write(buffer);
+	}
+
+	private void checkpoint() {
+		goodPosition = position;
+		goodSequence = nextSequence;
+		goodTimestamp = lastTimestamp;
+		goodChain = lastChain;
+	}
+
+	/**
+	 * Cuts the active segment back to the last complete write and restores the sequence,
+	 * timestamp and chain from then, so the next record follows the last one on disk. If even
+	 * that fails the journal stops accepting records rather than append after a torn one.
+	 */
+	private void rewind() {
+		try {
+			logChannel.truncate(goodPosition);
+			logChannel.position(goodPosition);
+			active.truncateIndex(goodPosition);
+			long indexBytes = (long) active.indexEntries() * JournalSegment.INDEX_ENTRY_BYTES;
+			indexChannel.truncate(indexBytes);
+			indexChannel.position(indexBytes);
+		} catch (IOException e) {
+			running = false;
+			dropped.add(queue.size());
+			queue.clear();
+			log.error("Audit journal could not cut back a failed write in {}; journal disabled: {}",
+					active.logPath.getFileName(), e.getMessage(), e);
+		}
+		position = goodPosition;
+		nextSequence = goodSequence;
+		lastTimestamp = goodTimestamp;
+		lastChain = goodChain;
+		lastIndexedAt = active.indexEntries() > 0 ? active.lastIndexedOffset() : -1;
+		active.publishSize(goodPosition);
+		writeBuffer.clear();
+		indexBuffer.clear();
+	}
+
+	private void roll() throws IOException {
+		force();
+		FileChannel previousLog = logChannel;
+		FileChannel previousIndex = indexChannel;
+		JournalSegment next = new JournalSegment(journalDir, nextSequence);
+		openActive(next);
+		segments.add(next);
+		try {
+			previousLog.close();
+			previousIndex.close();
+		} catch (IOException e) {
+			log.warn("Audit journal could not close the previous segment: {}", e.getMessage());
+		}
+		log.info("Audit journal rolled to {}", next.logPath.getFileName());
+	}
+
+	private void force() throws IOException {
+		logChannel.force(false);
+		indexChannel.force(false);
+		dirty = false;
+		lastForceAt = System.currentTimeMillis();
+	}
+
+	/** Stops an InputStream after a fixed number of bytes: the published end of a segment. */
+	private static final class BoundedInputStream extends InputStream {
+		private final InputStream in;
+		private long remaining;
+
+		BoundedInputStream(InputStream in, long limit) {
+			this.in = in;
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = in.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int n = in.read(buffer, offset, (int) Math.min(length, remaining));
+			if (n > 0) {
+				remaining -= n;
+			}
+			return n;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.saasant.invoiceServiceSpring.audit;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import com.saasant.invoiceServiceSpring.vo.AuditEntry;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+
+/**
+ * Binary layout of one journal record:
+ * <pre>
+ * int   bodyLength
+ * int   crc32c(body)
+ * body: long sequence, long timestampMillis, byte type, byte flags,
+ *       float amountBefore, float amountAfter,
+ *       str invoiceId, str invoiceNumber, str transactionId,
+ *       byte[32] chain
+ * </pre>
+ * str is a short byte length (-1 for null) followed by UTF-8 bytes. chain is
+ * SHA-256(previous record's chain || body without chain), so editing, removing or reordering
+ * any record breaks every chain value after it. The CRC catches torn or corrupted writes.
+ */
+final class JournalCodec {
+
+	static final int HEADER_BYTES = 8;
+	static final int CHAIN_BYTES = 32;
+	static final byte[] GENESIS = new byte[CHAIN_BYTES];
+	// Larger bodies can only come from a corrupt length field.
+	static final int MAX_BODY_BYTES = 64 * 1024;
+
+	private static final String[] TYPES = { InvoiceEvent.CREATED, InvoiceEvent.UPDATED, InvoiceEvent.DELETED };
+	private static final int HAS_BEFORE = 1;
+	private static final int HAS_AFTER = 2;
+	private static final int MAX_STRING_BYTES = 4096;
+
+	private final CRC32C crc = new CRC32C();
+	private final MessageDigest sha256;
+
+	JournalCodec() {
+		try {
+			sha256 = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/** A decoded record plus the values needed to check and continue the chain. */
+	static final class Decoded {
+		final AuditEntry entry;
+		final byte[] chain;
+		final int length;
+		final boolean chainValid;
+
+		Decoded(AuditEntry entry, byte[] chain, int length, boolean chainValid) {
+			this.entry = entry;
+			this.chain = chain;
+			this.length = length;
+			this.chainValid = chainValid;
+		}
+	}
+
+	/**
+	 * Appends one record to out and returns out, or a larger copy when the record did not
+	 * fit. The record's chain value is stored in chainOut[0].
+	 */
+	ByteBuffer encode(AuditEntry entry, byte[] previousChain, ByteBuffer out, byte[][] chainOut) {
+		byte[] invoiceId = bytes(entry.getInvoiceId());
+		byte[] invoiceNumber = bytes(entry.getInvoiceNumber());
+		byte[] transactionId = bytes(entry.getTransactionId());
+		int bodyLength = 8 + 8 + 1 + 1 + 4 + 4 + str(invoiceId) + str(invoiceNumber) + str(transactionId) + CHAIN_BYTES;
+		if (out.remaining() < HEADER_BYTES + bodyLength) {
+			ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + HEADER_BYTES + bodyLength));
+			out.flip();
+			larger.put(out);
+			out = larger;
+		}
+		int recordStart = out.position();
+		out.position(recordStart + HEADER_BYTES);
+		int bodyStart = out.position();
+		out.putLong(entry.getSequence());
+		out.putLong(entry.getTimestamp().toEpochMilli());
+		out.put(typeCode(entry.getType()));
+		out.put((byte) ((entry.getAmountBefore() != null ? HAS_BEFORE : 0) | (entry.getAmountAfter() != null ? HAS_AFTER : 0)));
+		out.putFloat(entry.getAmountBefore() != null ? entry.getAmountBefore() : 0f);
+		out.putFloat(entry.getAmountAfter() != null ? entry.getAmountAfter() : 0f);
+		putString(out, invoiceId);
+		putString(out, invoiceNumber);
+		putString(out, transactionId);
+
+		byte[] chain = chain(previousChain, out, bodyStart, out.position() - bodyStart);
+		out.put(chain);
+
+		crc.reset();
+		ByteBuffer body = out.duplicate();
+		body.position(bodyStart).limit(bodyStart + bodyLength);
+		crc.update(body);
+		out.putInt(recordStart, bodyLength);
+		out.putInt(recordStart + 4, (int) crc.getValue());
+		chainOut[0] = chain;
+		return out;
+	}
+
+	/**
+	 * Reads the next record. Returns null at a clean end of data; throws
+	 * JournalCorruptException for a torn or corrupt record.
+	 */
+	Decoded decode(DataInputStream in, byte[] previousChain) throws IOException {
+		int bodyLength;
+		try {
+			bodyLength = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		int expectedCrc;
+		byte[] body;
+		try {
+			if (bodyLength <= CHAIN_BYTES || bodyLength > MAX_BODY_BYTES) {
+				throw new JournalCorruptException("bad record length " + bodyLength);
+			}
+			expectedCrc = in.readInt();
+			body = new byte[bodyLength];
+			in.readFully(body);
+		} catch (EOFException e) {
+			throw new JournalCorruptException("truncated record");
+		}
+		crc.reset();
+		crc.update(body, 0, bodyLength);
+		if ((int) crc.getValue() != expectedCrc) {
+			throw new JournalCorruptException("CRC mismatch");
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(body);
+		long sequence = buffer.getLong();
+		long timestamp = buffer.getLong();
+		byte type = buffer.get();
+		byte flags = buffer.get();
+		float before = buffer.getFloat();
+		float after = buffer.getFloat();
+		String invoiceId = getString(buffer);
+		String invoiceNumber = getString(buffer);
+		String transactionId = getString(buffer);
+		byte[] chain = Arrays.copyOfRange(body, bodyLength - CHAIN_BYTES, bodyLength);
+		boolean chainValid = previousChain == null
+				|| Arrays.equals(chain, chain(previousChain, ByteBuffer.wrap(body), 0, bodyLength - CHAIN_BYTES));
+
+		AuditEntry entry = new AuditEntry(sequence, Instant.ofEpochMilli(timestamp),
+				type >= 0 && type < TYPES.length ? TYPES[type] : "UNKNOWN", invoiceId, invoiceNumber,
+				(flags & HAS_BEFORE) != 0 ? before : null, (flags & HAS_AFTER) != 0 ? after : null, transactionId);
+		return new Decoded(entry, chain, HEADER_BYTES + bodyLength, chainValid);
+	}
+
+	private byte[] chain(byte[] previousChain, ByteBuffer source, int offset, int length) {
+		sha256.reset();
+		sha256.update(previousChain);
+		ByteBuffer slice = source.duplicate();
+		slice.position(offset).limit(offset + length);
+		sha256.update(slice);
+		return sha256.digest();
+	}
+
+	private static byte typeCode(String type) {
+		for (int i = 0; i < TYPES.length; i++) {
+			if (TYPES[i].equals(type)) {
+				return (byte) i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown audit type: " + type);
+	}
+
+	private static byte[] bytes(String value) {
+		if (value == null) {
+			return null;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return bytes.length <= MAX_STRING_BYTES ? bytes : Arrays.copyOf(bytes, MAX_STRING_BYTES);
+	}
+
+	private static int str(byte[] bytes) {
+		return 2 + (bytes != null ? bytes.length : 0);
+	}
+
+	private static void putString(ByteBuffer out, byte[] bytes) {
+		if (bytes == null) {
+			out.putShort((short) -1);
+		} else {
+			out.putShort((short) bytes.length);
+			out.put(bytes);
+		}
+	}
+
+	private static String getString(ByteBuffer in) {
+		short length = in.getShort();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	static final class JournalCorruptException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		JournalCorruptException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.saasant.invoiceServiceSpring.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One journal segment file (audit-&lt;first sequence&gt;.log) and its sparse index
+ * (audit-&lt;first sequence&gt;.idx). The index holds a (timestamp, offset) pair for the first
+ * record of the segment and then one about every index-interval bytes, so a time range read
+ * starts close to its first record instead of at the beginning of the file.
+ * <p>
+ * Only the writer thread changes a segment; readers see records up to the published size.
+ */
+final class JournalSegment {
+
+	static final int INDEX_ENTRY_BYTES = 16;
+
+	final long baseSequence;
+	final Path logPath;
+	final Path indexPath;
+
+	private long[] indexTimestamps = new long[64];
+	private long[] indexOffsets = new long[64];
+	private volatile int indexSize;
+	private volatile long size;
+
+	JournalSegment(Path directory, long baseSequence) {
+		this.baseSequence = baseSequence;
+		String name = String.format("audit-%020d", baseSequence);
+		this.logPath = directory.resolve(name + ".log");
+		this.indexPath = directory.resolve(name + ".idx");
+	}
+
+	static long parseBaseSequence(Path logFile) {
+		String name = logFile.getFileName().toString();
+		return Long.parseLong(name.substring("audit-".length(), name.length() - ".log".length()));
+	}
+
+	/** Loads the index file and the current file size. Index entries past the end of the log are ignored. */
+	void load() throws IOException {
+		size = Files.exists(logPath) ? Files.size(logPath) : 0;
+		if (!Files.exists(indexPath)) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+			int entries = (int) (channel.size() / INDEX_ENTRY_BYTES);
+			ByteBuffer buffer = ByteBuffer.allocate(entries * INDEX_ENTRY_BYTES);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// read the whole file
+			}
+			buffer.flip();
+			for (int i = 0; i < entries; i++) {
+				long timestamp = buffer.getLong();
+				long offset = buffer.getLong();
+				if (offset < size) {
+					addIndexEntry(timestamp, offset);
+				}
+			}
+		}
+	}
+
+	void addIndexEntry(long timestamp, long offset) {
+		int count = indexSize;
+		if (count == indexOffsets.length) {
+			indexTimestamps = Arrays.copyOf(indexTimestamps, count * 2);
+			indexOffsets = Arrays.copyOf(indexOffsets, count * 2);
+		}
+		indexTimestamps[count] = timestamp;
+		indexOffsets[count] = offset;
+		indexSize = count + 1;
+	}
+
+	/** Drops index entries at or past the given offset (after the log was truncated there). */
+	void truncateIndex(long logSize) {
+		int count = indexSize;
+		while (count > 0 && indexOffsets[count - 1] >= logSize) {
+			count--;
+		}
+		indexSize = count;
+	}
+
+	/** Offset to start scanning from for records at or after fromMillis. */
+	long seekOffset(long fromMillis) {
+		int count = indexSize;
+		int lo = 0;
+		int hi = count - 1;
+		int found = -1;
+		// Last entry strictly before fromMillis: equal timestamps may start before an entry.
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (indexTimestamps[mid] < fromMillis) {
+				found = mid;
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return found >= 0 ? indexOffsets[found] : 0;
+	}
+
+	/** Offset of the last index entry, where a recovery scan can start. */
+	long lastIndexedOffset() {
+		int count = indexSize;
+		return count > 0 ? indexOffsets[count - 1] : 0;
+	}
+
+	/** Timestamp of the first record, or Long.MAX_VALUE for an empty segment. */
+	long firstTimestamp() {
+		return indexSize > 0 ? indexTimestamps[0] : Long.MAX_VALUE;
+	}
+
+	int indexEntries() {
+		return indexSize;
+	}
+
+	long size() {
+		return size;
+	}
+
+	void publishSize(long newSize) {
+		size = newSize;
+	}
+}
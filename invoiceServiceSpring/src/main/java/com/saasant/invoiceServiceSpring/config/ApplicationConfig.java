@@ -19,6 +19,12 @@ import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.saasant.invoiceServiceSpring.service.InvoiceResponseCache;
 
 @Configuration
 public class ApplicationConfig {
@@ -49,4 +55,125 @@ public class ApplicationConfig {
     public ModelMapper getModelMapper() {
         return new ModelMapper();
     }
+    
+    /**
+     * Bounded pool used to run the customer and employee lookups side by side.
+     * When the queue is full the request thread runs the lookup itself, which
+     * degrades to the old sequential behaviour instead of failing the request.
+     */
+    @Bean(name = "enrichmentExecutor")
+    public ThreadPoolTaskExecutor enrichmentExecutor(
+            @Value("${invoice.enrichment.pool-size:16}") int poolSize,
+            @Value("${invoice.enrichment.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("enrich-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Small pool for the stale-while-revalidate refreshes of the customer and employee
+     * caches. Refreshes that do not fit are dropped (the stale value is kept) rather than
+     * run on the request thread.
+     */
+    @Bean(name = "lookupRefreshExecutor")
+    public ThreadPoolTaskExecutor lookupRefreshExecutor(
+            @Value("${invoice.lookup-refresh.pool-size:4}") int poolSize,
+            @Value("${invoice.lookup-refresh.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("lookup-refresh-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the chunks of a recurring invoice run in parallel. When every worker is busy and
+     * the queue is full, the thread reading due templates saves the next chunk itself, which
+     * keeps the number of pages held in memory bounded.
+     */
+    @Bean(name = "recurringInvoiceExecutor")
+    public ThreadPoolTaskExecutor recurringInvoiceExecutor(
+            @Value("${invoice.recurring.workers:4}") int workers,
+            @Value("${invoice.recurring.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("recurring-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs GET /api/invoice/export streams, each holding one database connection until it is
+     * done. Exports that find every worker busy and the queue full are refused with 503.
+     */
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${invoice.export.workers:4}") int workers,
+            @Value("${invoice.export.queue-capacity:8}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /** Assembled GET /api/invoice/{id} responses; see InvoiceResponseCache. */
+    @Bean
+    public InvoiceResponseCache invoiceResponseCache(
+            @Value("${invoice.response-cache.max-size:10000}") int maxSize,
+            @Value("${invoice.response-cache.ttl-ms:60000}") long ttlMs) {
+        return new InvoiceResponseCache(maxSize, ttlMs);
+    }
+    
+    /**
+     * Sends server-sent events to the /api/invoice/events subscribers. Each subscriber has at
+     * most one task here at a time, so a queue as large as the subscriber limit never fills
+     * and a stalled client holds at most one thread.
+     */
+    @Bean(name = "eventDeliveryExecutor")
+    public ThreadPoolTaskExecutor eventDeliveryExecutor(
+            @Value("${invoice.events.delivery-threads:8}") int threads,
+            @Value("${invoice.events.max-subscribers:200}") int maxSubscribers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setThreadNamePrefix("event-delivery-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Single thread that applies every change to the in-memory analytics store (initial
+     * load, incremental updates, compaction), so mutations never race each other.
+     */
+    @Bean(name = "analyticsApplyExecutor")
+    public ThreadPoolTaskExecutor analyticsApplyExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("analytics-apply-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,35 @@
+package com.saasant.invoiceServiceSpring.config;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Copies the caller's MDC (and with it the transactionId) onto pool threads,
+ * so downstream calls made from a worker still send the X-Transaction-ID header.
+ */
+public class MdcTaskDecorator implements TaskDecorator {
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		Map<String, String> callerContext = MDC.getCopyOfContextMap();
+		return () -> {
+			Map<String, String> previous = MDC.getCopyOfContextMap();
+			if (callerContext != null) {
+				MDC.setContextMap(callerContext);
+			} else {
+				MDC.clear();
+			}
+			try {
+				runnable.run();
+			} finally {
+				if (previous != null) {
+					MDC.setContextMap(previous);
+				} else {
+					MDC.clear();
+				}
+			}
+		};
+	}
+}
@@ -1,14 +1,28 @@
 package com.saasant.invoiceServiceSpring.config;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import com.saasant.invoiceServiceSpring.service.ProductClientService;
 
 
+/**
+ * Loads the product cache at startup and keeps it fresh in the background. Every few
+ * seconds it applies the product service's change log; a full reload only happens every
+ * product.cache.refresh-interval-ms or when the change log cannot be used. Each run
+ * schedules the next one: on success after the sync interval plus random jitter (so
+ * several instances do not hit the product service together), on failure after an
+ * exponential backoff. A failed refresh leaves the last good snapshot in place.
+ */
 @Component
 public class ProductCacheLoadRunner implements CommandLineRunner {
 	
@@ -18,14 +32,69 @@ public class ProductCacheLoadRunner implements CommandLineRunner {
 	@Autowired
     private ProductClientService productClientService;
 	
+	@Autowired
+	private TaskScheduler taskScheduler;
+	
+	@Value("${product.cache.sync-interval-ms:5000}")
+	private long syncIntervalMs;
+	
+	@Value("${product.cache.refresh-interval-ms:3600000}")
+	private long refreshIntervalMs;
+	
+	@Value("${product.cache.refresh-jitter-ms:1000}")
+	private long refreshJitterMs;
+	
+	@Value("${product.cache.retry-initial-ms:5000}")
+	private long retryInitialMs;
+	
+	@Value("${product.cache.retry-max-ms:300000}")
+	private long retryMaxMs;
+	
+	private int consecutiveFailures;
+	
+	private long lastFullLoadAt;
+	
 	@Override
     public void run(String... args) throws Exception {
         log.info("CommandLineRunner: Initiating product cache loading...");
-        productClientService.loadProductsIntoCache();
+        refresh();
         log.info("CommandLineRunner: Product cache loading process completed.");
     }
 	
+	private void refresh() {
+		MDC.put(MDC_KEY, "product-cache-refresh");
+		try {
+			boolean ok;
+			long now = System.currentTimeMillis();
+			if (now - lastFullLoadAt >= refreshIntervalMs) {
+				ok = productClientService.loadProductsIntoCache();
+				if (ok) {
+					lastFullLoadAt = now;
+				}
+			} else {
+				ok = productClientService.syncProductChanges();
+			}
+			consecutiveFailures = ok ? 0 : consecutiveFailures + 1;
+		} catch (Exception e) {
+			consecutiveFailures++;
+			log.error("Product cache refresh failed: {}", e.getMessage(), e);
+		} finally {
+			MDC.remove(MDC_KEY);
+			scheduleNext();
+		}
+	}
 	
+	private void scheduleNext() {
+		long delayMs;
+		if (consecutiveFailures == 0) {
+			delayMs = syncIntervalMs + ThreadLocalRandom.current().nextLong(refreshJitterMs + 1);
+		} else {
+			long backoff = retryInitialMs << Math.min(consecutiveFailures - 1, 16);
+			delayMs = Math.min(backoff, retryMaxMs);
+			delayMs += ThreadLocalRandom.current().nextLong(delayMs / 4 + 1);
+			log.warn("Product cache refresh failed {} time(s) in a row. Retrying in {} ms.", consecutiveFailures, delayMs);
+		}
+		taskScheduler.schedule(this::refresh, Instant.now().plus(Duration.ofMillis(delayMs)));
+	}
 	
-
 }
@@ -0,0 +1,58 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.analytics.InvoiceColumnStore;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsQuery;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsResult;
+
+/**
+ * Ad hoc slicing of invoice lines served from the in-memory column store. Answers 503
+ * while the store is still loading after startup.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/analytics")
+public class InvoiceAnalyticsController {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceAnalyticsController.class);
+
+	@Autowired
+	InvoiceColumnStore invoiceColumnStore;
+
+	@PostMapping("/query")
+	public ResponseEntity<?> query(@RequestBody AnalyticsQuery query) {
+		try {
+			AnalyticsResult result = invoiceColumnStore.query(query);
+			log.info("Analytics query {} matched {} lines in {} groups in {} ms ({} blocks skipped)", query,
+					result.getMatchedLines(), result.getTotalGroups(), result.getTookMs(), result.getSkippedBlocks());
+			return ResponseEntity.ok(result);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}
+	}
+
+	@GetMapping("/status")
+	public ResponseEntity<?> status() {
+		return ResponseEntity.ok(invoiceColumnStore.status());
+	}
+
+	@PostMapping("/rebuild")
+	public ResponseEntity<?> rebuild() {
+		log.info("Analytics store rebuild requested");
+		invoiceColumnStore.requestRebuild();
+		return ResponseEntity.accepted().body("Analytics store rebuild queued.");
+	}
+}
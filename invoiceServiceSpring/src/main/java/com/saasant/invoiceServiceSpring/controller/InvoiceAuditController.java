@@ -0,0 +1,66 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.audit.AuditJournal;
+import com.saasant.invoiceServiceSpring.vo.AuditEntry;
+
+/**
+ * Reads the invoice audit journal. from and to are local date-times in the server's zone,
+ * both inclusive.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/audit")
+public class InvoiceAuditController {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceAuditController.class);
+
+	@Autowired
+	AuditJournal auditJournal;
+
+	@Value("${invoice.audit.max-read:10000}")
+	int maxRead;
+
+	@GetMapping
+	public ResponseEntity<?> read(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) String invoiceId,
+			@RequestParam(defaultValue = "1000") int limit) {
+		if (to.isBefore(from)) {
+			return ResponseEntity.badRequest().body("'to' must not be before 'from'.");
+		}
+		if (limit < 1 || limit > maxRead) {
+			return ResponseEntity.badRequest().body("limit must be between 1 and " + maxRead + ".");
+		}
+		ZoneId zone = ZoneId.systemDefault();
+		List<AuditEntry> entries = auditJournal.read(from.atZone(zone).toInstant(), to.atZone(zone).toInstant(), invoiceId, limit);
+		log.info("Audit read {} to {} (invoice {}) returned {} records", from, to, invoiceId, entries.size());
+		return ResponseEntity.ok(entries);
+	}
+
+	@GetMapping("/verify")
+	public ResponseEntity<?> verify() {
+		return ResponseEntity.ok(auditJournal.verify());
+	}
+
+	@GetMapping("/status")
+	public ResponseEntity<?> status() {
+		return ResponseEntity.ok(auditJournal.status());
+	}
+}
@@ -2,19 +2,39 @@ package com.saasant.invoiceServiceSpring.controller;
 
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,31 +43,58 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saasant.invoiceServiceSpring.service.CustomerClientService;
 import com.saasant.invoiceServiceSpring.service.EmployeeClientService;
 //import com.saasant.invoiceServiceSpring.service.InvoiceClientService;
+import com.saasant.invoiceServiceSpring.service.InvoiceAssembler;
+import com.saasant.invoiceServiceSpring.service.InvoiceBatchService;
 import com.saasant.invoiceServiceSpring.service.InvoiceClientServiceInterface;
+import com.saasant.invoiceServiceSpring.service.InvoiceIngestionService;
+import com.saasant.invoiceServiceSpring.service.InvoiceNumberAllocator;
+import com.saasant.invoiceServiceSpring.service.InvoiceResponseCache;
+import com.saasant.invoiceServiceSpring.service.ProductCacheSnapshot;
 import com.saasant.invoiceServiceSpring.service.ProductClientService;
+import com.saasant.invoiceServiceSpring.vo.BatchInvoiceResult;
 import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
 import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.IngestStatus;
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError;
 import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
-import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.InvoicePage;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSummaryPage;
 import com.saasant.invoiceServiceSpring.vo.Product;
 import com.saasant.invoiceServiceSpring.dao.InvoiceDao;
 import com.saasant.invoiceServiceSpring.entity.Invoice;
 import com.saasant.invoiceServiceSpring.exception.CustomerNotFoundException;
 import com.saasant.invoiceServiceSpring.exception.EmployeeNotFoundException;
+import com.saasant.invoiceServiceSpring.exception.InvoiceNotFoundException;
+import com.saasant.invoiceServiceSpring.exception.InvoiceVersionConflictException;
 import com.saasant.invoiceServiceSpring.exception.ProductNotFoundException;
 
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { "X-Next-Cursor", "Location" })
 @RestController
 @RequestMapping("/api/invoice")
 public class InvoiceController {
 	
 	private static final Logger log = LoggerFactory.getLogger(InvoiceController.class);
+	private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+	private static final int EXPORT_CHUNK_BYTES = 64 * 1024;
+	private static final String EXPAND_ITEMS = "items";
+	private static final String EXPAND_CUSTOMER = "customer";
+	private static final String EXPAND_EMPLOYEE = "employee";
+	private static final Set<String> EXPAND_ALL = Collections.unmodifiableSet(
+			new LinkedHashSet<>(List.of(EXPAND_ITEMS, EXPAND_CUSTOMER, EXPAND_EMPLOYEE)));
 	
 	@Autowired
 	CustomerClientService customerClientService;
@@ -58,15 +105,74 @@ public class InvoiceController {
 	@Autowired
 	ProductClientService productClientService;
 	
+	@Autowired
+	InvoiceAssembler invoiceAssembler;
+	
+	@Autowired
+	InvoiceIngestionService invoiceIngestionService;
+	
 	@Autowired
 	InvoiceClientServiceInterface invoiceClientService;
 	
+	@Autowired
+	InvoiceNumberAllocator invoiceNumberAllocator;
+	
+	@Autowired
+	InvoiceBatchService invoiceBatchService;
+	
+	@Value("${invoice.batch.max-size:5000}")
+	int maxBatchSize;
+	
+	@Autowired
+	@Qualifier("enrichmentExecutor")
+	Executor enrichmentExecutor;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Autowired
+	@Qualifier("exportExecutor")
+	Executor exportExecutor;
+	
+	@Value("${invoice.export.timeout-ms:3600000}")
+	long exportTimeoutMs;
+	
+	@Autowired
+	InvoiceResponseCache invoiceResponseCache;
+	
+	private CompletableFuture<Optional<CustomerDetails>> fetchCustomerAsync(String customerId) {
+		return CompletableFuture.supplyAsync(() -> customerClientService.getCustomerById(customerId), enrichmentExecutor);
+	}
+	
+	private CompletableFuture<Optional<Employee>> fetchEmployeeAsync(String employeeId) {
+		return CompletableFuture.supplyAsync(() -> employeeClientService.getEmployeeById(employeeId), enrichmentExecutor);
+	}
+	
+	/**
+	 * Waits for a lookup started on the enrichment pool and rethrows whatever the
+	 * client service threw, so callers see the same exceptions as a direct call.
+	 */
+	private static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+	
 	
 	@GetMapping("/products/refresh-cache")
     public ResponseEntity<String> refreshProductCache() {
         log.info("Request received to refresh product cache.");
         try {
-            productClientService.loadProductsIntoCache(); 
+            if (!productClientService.loadProductsIntoCache()) {
+                log.warn("Product cache refresh failed. Previous snapshot kept.");
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                        .body("Product cache refresh failed. Previous snapshot kept.");
+            }
             log.info("Product cache refreshed successfully.");
             return ResponseEntity.ok("Product cache refreshed successfully.");
         } catch (Exception e) {
@@ -80,9 +186,12 @@ public class InvoiceController {
     public ResponseEntity<Map<String, Object>> getProductCacheStatus() {
         log.info("Request received to get product cache status.");
         try {
+            ProductCacheSnapshot snapshot = productClientService.getSnapshot();
             Map<String, Object> status = new LinkedHashMap<>();
-            status.put("cacheEmpty", productClientService.isCacheEmpty());
-            status.put("cacheSize", productClientService.getCacheSize());
+            status.put("cacheEmpty", snapshot.isEmpty());
+            status.put("cacheSize", snapshot.size());
+            status.put("snapshotVersion", snapshot.getVersion());
+            status.put("loadedAt", snapshot.getLoadedAt());
             status.put("timestamp", java.time.LocalDateTime.now());
             
             log.debug("Product cache status retrieved: {}", status);
@@ -113,33 +222,243 @@ public class InvoiceController {
         }
     }
 	
+	/**
+	 * Lists invoices newest first using keyset pagination on (invoiceDate, invoiceId).
+	 * The cursor for the next page is returned in the X-Next-Cursor header and is absent
+	 * on the last page. view=summary returns header rows only, without items.
+	 */
 	@GetMapping
-	public ResponseEntity<List<InvoiceDetails>> getInvoices(){
-		log.info("Request to fetch invoices");
+	public ResponseEntity<?> getInvoices(
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int size,
+			@RequestParam(defaultValue = "full") String view){
+		log.info("Request to fetch invoices. after: {}, size: {}, view: {}", after, size, view);
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		if (!"full".equalsIgnoreCase(view) && !"summary".equalsIgnoreCase(view)) {
+			return ResponseEntity.badRequest().body("view must be 'full' or 'summary'");
+		}
 		
-		List<InvoiceDetails> invoices = invoiceClientService.fetchInvoices();
-		log.info("Invoices fetched");
+		InvoicePage page;
+		try {
+			page = invoiceClientService.fetchInvoicePage(after, size, "full".equalsIgnoreCase(view));
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejected invoice listing request: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		log.info("Invoices fetched: {}", page.getInvoices().size());
 
-		return ResponseEntity.ok(invoices);
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return builder.body(page.getInvoices());
 		
 	}
 	
 	
 
+	/**
+	 * Lists invoice summaries (number, dates, total, customer and employee names, item count)
+	 * newest first, straight from the invoice_summary read model. One indexed query per page,
+	 * no calls to the customer or employee services. Paging works as in getInvoices.
+	 */
+	@GetMapping("/summaries")
+	public ResponseEntity<?> getInvoiceSummaries(
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int size) {
+		log.info("Request to fetch invoice summaries. after: {}, size: {}", after, size);
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		InvoiceSummaryPage page;
+		try {
+			page = invoiceClientService.fetchInvoiceSummaryPage(after, size);
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejected invoice summary request: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return builder.body(page.getSummaries());
+	}
+
+	/**
+	 * Finds invoice summaries by any combination of customer, employee, invoice number prefix,
+	 * invoice date range (inclusive days) and amount range (inclusive). Results and paging are
+	 * as in getInvoiceSummaries; each filter combination is served by an index on invoice_summary.
+	 */
+	@GetMapping("/search")
+	public ResponseEntity<?> searchInvoices(
+			@RequestParam(required = false) String customerId,
+			@RequestParam(required = false) String employeeId,
+			@RequestParam(required = false) String numberPrefix,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) Float minAmount,
+			@RequestParam(required = false) Float maxAmount,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int size) {
+		log.info("Request to search invoices. customerId: {}, employeeId: {}, numberPrefix: {}, from: {}, to: {}, amount: {}..{}, after: {}, size: {}",
+				customerId, employeeId, numberPrefix, from, to, minAmount, maxAmount, after, size);
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		if (from != null && to != null && from.isAfter(to)) {
+			return ResponseEntity.badRequest().body("from must not be after to");
+		}
+		if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+			return ResponseEntity.badRequest().body("minAmount must not be greater than maxAmount");
+		}
+		InvoiceSearchCriteria criteria = new InvoiceSearchCriteria();
+		criteria.setCustomerId(blankToNull(customerId));
+		criteria.setEmployeeId(blankToNull(employeeId));
+		criteria.setNumberPrefix(blankToNull(numberPrefix));
+		criteria.setFromDate(from != null ? from.atStartOfDay() : null);
+		criteria.setToDate(to != null ? to.plusDays(1).atStartOfDay() : null);
+		criteria.setMinAmount(minAmount);
+		criteria.setMaxAmount(maxAmount);
+
+		InvoiceSummaryPage page;
+		try {
+			page = invoiceClientService.searchInvoiceSummaries(criteria, after, size);
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejected invoice search request: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		log.info("Invoice search matched {} rows on this page", page.getSummaries().size());
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return builder.body(page.getSummaries());
+	}
+	
+	private static String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value.trim();
+	}
+
+	/**
+	 * Streams all invoices with their items as newline-delimited JSON, optionally limited
+	 * to invoiceDate between from and to (inclusive). Each invoice is written as soon as it
+	 * is read, so memory use does not grow with the number of rows. The export runs on
+	 * exportExecutor with its own timeout (invoice.export.timeout-ms); other async
+	 * endpoints keep the default.
+	 */
+	@GetMapping(value = "/export", produces = "application/x-ndjson")
+	public ResponseEntity<ResponseBodyEmitter> exportInvoices(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		log.info("Request to export invoices from {} to {}", from, to);
+		if (from != null && to != null && from.isAfter(to)) {
+			log.warn("Invoice export rejected: from {} is after to {}", from, to);
+			return ResponseEntity.badRequest().build();
+		}
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMs);
+		try {
+			exportExecutor.execute(() -> writeExport(from, to, emitter));
+		} catch (TaskRejectedException e) {
+			log.warn("Invoice export rejected: too many exports in progress");
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "60").build();
+		}
+		return ResponseEntity.ok().contentType(NDJSON).body(emitter);
+	}
+	
+	/** Writes the export in chunks of about EXPORT_CHUNK_BYTES; a failed send stops the database read. */
+	private void writeExport(LocalDate from, LocalDate to, ResponseBodyEmitter emitter) {
+		ByteArrayOutputStream chunk = new ByteArrayOutputStream(EXPORT_CHUNK_BYTES);
+		long[] written = {0};
+		try {
+			invoiceClientService.exportInvoices(from, to, invoice -> {
+				try {
+					chunk.write(objectMapper.writeValueAsBytes(invoice));
+					chunk.write('\n');
+					written[0]++;
+					if (chunk.size() >= EXPORT_CHUNK_BYTES) {
+						emitter.send(chunk.toByteArray(), NDJSON);
+						chunk.reset();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			if (chunk.size() > 0) {
+				emitter.send(chunk.toByteArray(), NDJSON);
+			}
+			emitter.complete();
+			log.info("Invoice export completed. {} invoices written.", written[0]);
+		} catch (IOException | RuntimeException e) {
+			// IOException/UncheckedIOException: client went away; IllegalStateException: timed out.
+			log.warn("Invoice export aborted after {} invoices: {}", written[0], e.getMessage());
+			emitter.completeWithError(e);
+		}
+	}
+
+	/**
+	 * Returns one invoice. expand lists the parts to include, comma separated: items,
+	 * customer, employee. Without the parameter all three are included; expand= (empty)
+	 * returns the header only, which is one primary-key read and no calls to the customer or
+	 * employee services.
+	 * <p>
+	 * Assembled responses are cached per invoice and expand (InvoiceResponseCache) and carry
+	 * an ETag of the invoice version and the body (see getTag); a matching If-None-Match gets
+	 * 304 without a body, and the same tag can be sent as If-Match on PUT. A response with a
+	 * failed customer or employee lookup has no ETag, so it is never revalidated.
+	 */
 	@GetMapping("/{invoiceId}")
-    public ResponseEntity<?> getInvoiceById(@PathVariable String invoiceId) {
-		log.info("Request to fetch invoice with ID: {}", invoiceId);
-        Optional<InvoiceDetails> invoiceDetailsOpt = invoiceClientService.getInvoiceById(invoiceId);
+    public ResponseEntity<?> getInvoiceById(@PathVariable String invoiceId, @RequestParam(required = false) String expand,
+    		@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		log.info("Request to fetch invoice with ID: {}, expand: {}", invoiceId, expand);
+		Set<String> parts;
+		try {
+			parts = parseExpand(expand);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		String variant = EXPAND_ALL.stream().filter(parts::contains).collect(Collectors.joining(","));
+		InvoiceResponseCache.CachedResponse response = invoiceResponseCache.get(invoiceId, variant,
+				() -> loadInvoiceResponse(invoiceId, parts));
+		if (response == null) {
+            log.warn("Invoice not found with ID: {}", invoiceId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not found with Id: " + invoiceId);
+		}
+		if (response.matches(ifNoneMatch)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.getEtag()).cacheControl(CacheControl.noCache()).build();
+		}
+		ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(CacheControl.noCache()).contentType(MediaType.APPLICATION_JSON);
+		if (response.getEtag() != null) {
+			ok.eTag(response.getEtag());
+		}
+		return ok.body(response.getBody());
+	}
+	
+	/**
+	 * Reads the invoice and the requested lookups and serializes the response. A response
+	 * holding a lookup error instead of details is not cacheable.
+	 */
+	private InvoiceResponseCache.Loaded loadInvoiceResponse(String invoiceId, Set<String> parts) {
+        Optional<InvoiceDetails> invoiceDetailsOpt = invoiceClientService.getInvoiceById(invoiceId, parts.contains(EXPAND_ITEMS));
+        if (invoiceDetailsOpt.isEmpty()) {
+        	return new InvoiceResponseCache.Loaded(null, null, false);
+        }
+        InvoiceDetails invoiceDetails = invoiceDetailsOpt.get();
+        log.info("Invoice found: {}", invoiceId);
+        boolean cacheable = true;
 
-        if (invoiceDetailsOpt.isPresent()) {
-            InvoiceDetails invoiceDetails = invoiceDetailsOpt.get();
-            log.info("Invoice found: {}", invoiceId);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("invoiceDetails", invoiceDetails);
 
-            Map<String, Object> response = new LinkedHashMap<>();
-            response.put("invoiceDetails", invoiceDetails);
+        CompletableFuture<Optional<CustomerDetails>> customerFuture = parts.contains(EXPAND_CUSTOMER)
+                ? fetchCustomerAsync(invoiceDetails.getCustomerId()) : null;
+        CompletableFuture<Optional<Employee>> employeeFuture = parts.contains(EXPAND_EMPLOYEE)
+                ? fetchEmployeeAsync(invoiceDetails.getEmployeeId()) : null;
 
+        if (customerFuture != null) {
             try {
-                Optional<CustomerDetails> customerDetailsOpt = customerClientService.getCustomerById(invoiceDetails.getCustomerId());
+                Optional<CustomerDetails> customerDetailsOpt = await(customerFuture);
                 customerDetailsOpt.ifPresentOrElse(
                     customer -> response.put("customerDetails", customer),
                     () -> {
@@ -153,11 +472,13 @@ public class InvoiceController {
             } catch (Exception e) {
                 log.error("Error fetching customer details for customer ID {}: {}", invoiceDetails.getCustomerId(), e.getMessage(), e);
                 response.put("customerDetails", "Error fetching customer details.");
+                cacheable = false;
             }
+        }
 
-
+        if (employeeFuture != null) {
             try {
-                Optional<Employee> employeeDetailsOpt = employeeClientService.getEmployeeById(invoiceDetails.getEmployeeId());
+                Optional<Employee> employeeDetailsOpt = await(employeeFuture);
                 employeeDetailsOpt.ifPresentOrElse(
                     employee -> response.put("employeeDetails", employee),
                     () -> {
@@ -171,113 +492,93 @@ public class InvoiceController {
             } catch (Exception e) {
                 log.error("Error fetching employee details for employee ID {}: {}", invoiceDetails.getEmployeeId(), e.getMessage(), e);
                 response.put("employeeDetails", "Error fetching employee details.");
+                cacheable = false;
             }
-           
-            return ResponseEntity.ok(response);
-        } else {
-            log.warn("Invoice not found with ID: {}", invoiceId);
-             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not found with Id: " + invoiceId);
+        }
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            long version = invoiceDetails.getVersion() == null ? 0 : invoiceDetails.getVersion();
+            return new InvoiceResponseCache.Loaded(body, cacheable ? getTag(version, body) : null, cacheable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 	
+	/** The requested expansions; null (parameter absent) means all of them. */
+	static Set<String> parseExpand(String expand) {
+		if (expand == null) {
+			return EXPAND_ALL;
+		}
+		Set<String> parts = new HashSet<>();
+		for (String part : expand.split(",")) {
+			String name = part.trim().toLowerCase();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!EXPAND_ALL.contains(name)) {
+				throw new IllegalArgumentException("expand may contain only " + String.join(", ", EXPAND_ALL) + ", not '" + part.trim() + "'");
+			}
+			parts.add(name);
+		}
+		return parts;
+	}
+	
+	/**
+	 * Creates an invoice. With async=true the validated, numbered invoice is queued for a
+	 * group commit and 202 is returned with its status URL (Location header); 429 when the
+	 * ingestion queue is full.
+	 */
 	@PostMapping
-    public ResponseEntity<String> createInvoice(@RequestBody InvoiceDetails invoiceDetails) {
+    public ResponseEntity<String> createInvoice(@RequestBody InvoiceDetails invoiceDetails,
+    		@RequestParam(defaultValue = "false") boolean async) {
         log.info("Received request to create invoice for customer ID: {}", invoiceDetails.getCustomerId());
 
-        // 1. Validate Customer
+        // 1. Validate Customer and Employee (looked up in parallel)
         String customerId = invoiceDetails.getCustomerId();
         if (customerId == null || customerId.trim().isEmpty()) {
             log.warn("Customer ID is missing in the request.");
             return ResponseEntity.badRequest().body("Customer ID is required.");
         }
+        String employeeId = invoiceDetails.getEmployeeId();
+        if (employeeId == null || employeeId.trim().isEmpty()) {
+            log.warn("Employee ID is missing in the request.");
+            return ResponseEntity.badRequest().body("Employee ID is required.");
+        }
+        CompletableFuture<Optional<CustomerDetails>> customerFuture = fetchCustomerAsync(customerId);
+        CompletableFuture<Optional<Employee>> employeeFuture = fetchEmployeeAsync(employeeId);
+
         // The CustomerClientService from Canvas returns Optional<CustomerDetailsVO>
-        Optional<CustomerDetails> customerOpt = customerClientService.getCustomerById(customerId);
+        Optional<CustomerDetails> customerOpt = await(customerFuture);
         if (customerOpt.isEmpty()) {
             log.warn("Customer validation failed for ID: {}. Customer not found or error in service call.", customerId);
             throw new CustomerNotFoundException("Customer ID : " + customerId + " cannot be found" );
         }
         CustomerDetails validatedCustomer = customerOpt.get();
         log.info("Customer {} validated successfully: {}", customerId, validatedCustomer.getCustomerName());
+        invoiceDetails.setCustomerName(validatedCustomer.getCustomerName());
 
         // 2. Validate Employee
-        String employeeId = invoiceDetails.getEmployeeId();
-        if (employeeId == null || employeeId.trim().isEmpty()) {
-            log.warn("Employee ID is missing in the request.");
-            return ResponseEntity.badRequest().body("Employee ID is required.");
-        }
-        Optional<Employee> employeeOpt = employeeClientService.getEmployeeById(employeeId); // Assumes this service and VO exist
+        Optional<Employee> employeeOpt = await(employeeFuture); // Assumes this service and VO exist
         if (employeeOpt.isEmpty()) {
             log.warn("Employee validation failed for ID: {}. Employee not found or error in service call.", employeeId);
             throw new EmployeeNotFoundException("Employee ID : " + employeeId + " cannot be found");
         }
         Employee validatedEmployee = employeeOpt.get();
         log.info("Employee {} validated successfully: {}", employeeId, validatedEmployee.getEmpName());
+        invoiceDetails.setEmployeeName(validatedEmployee.getEmpName());
 
 
-        // 3. Validate Products
-        if (invoiceDetails.getItems() == null || invoiceDetails.getItems().isEmpty()) {
-            log.warn("Invoice items are missing or empty.");
-            return ResponseEntity.badRequest().body("Invoice must contain at least one item.");
-        }
-        for (InvoiceItem item : invoiceDetails.getItems()) {
-            if (item.getProductId() == null || item.getProductId().trim().isEmpty()) {
-                log.warn("Product ID is missing for an item.");
-                return ResponseEntity.badRequest().body("Product ID is missing for an item.");
-            }
-            int productIdInt;
-            try {
-                productIdInt = Integer.parseInt(item.getProductId()); // Assuming product ID in item is String, but ProductService uses int
-            } catch (NumberFormatException e) {
-                log.warn("Invalid Product ID format for item: {}", item.getProductId());
-                return ResponseEntity.badRequest().body("Invalid Product ID format: " + item.getProductId());
-            }
-
-            // Assumes ProductClientService.isValidProduct and getProductById exist and use int for product ID
-            if (!productClientService.isValidProduct(productIdInt)) {
-               log.warn("Invalid product ID {} found in invoice items (not in cache or service).", productIdInt);
-               throw new ProductNotFoundException("Product ID : " + productIdInt + " cannot be found");
-            }
-            Product productOpt = productClientService.getProductById(productIdInt);
-            if(productOpt != null){
-                Product validatedProduct = productOpt;
-                log.info("Product {} (ID: {}) validated. Price from service: {}", validatedProduct.getName(), productIdInt, validatedProduct.getPrice());
-                double basePrice = validatedProduct.getPrice();
-                double taxPercent = validatedProduct.getTaxPercent();
-                double priceWithTax = basePrice + (basePrice * (taxPercent / 100.0));
-                item.setPricePerUnit((float) priceWithTax);
-            } else {
-                log.warn("Product ID {} was marked valid but details not found. Possible inconsistency.", productIdInt);
-                throw new ProductNotFoundException("Product ID : " + productIdInt + " cannot be found");
-            }
-        }
-        log.info("All product items validated successfully.");
-        
-        if (invoiceDetails.getItems() != null && !invoiceDetails.getItems().isEmpty()) {
-            Map<String, InvoiceItem> consolidatedItemsMap = new LinkedHashMap<>(); 
-            for (InvoiceItem currentItem : invoiceDetails.getItems()) {
-                String productId = currentItem.getProductId();
-                if (consolidatedItemsMap.containsKey(productId)) {
-                    InvoiceItem existingItem = consolidatedItemsMap.get(productId);
-                    existingItem.setQuantity(existingItem.getQuantity() + currentItem.getQuantity());
-                } else {
-                    consolidatedItemsMap.put(productId, currentItem);
-                }
-            }
-            invoiceDetails.setItems(new ArrayList<>(consolidatedItemsMap.values()));
-            log.info("Invoice items consolidated. Number of unique items: {}", invoiceDetails.getItems().size());
+        // 3. Validate, price and consolidate the items
+        ResponseEntity<String> itemsError = assembleItems(invoiceDetails);
+        if (itemsError != null) {
+            return itemsError;
         }
 
 
         // 4. Set Invoice Number and Dates
         if (invoiceDetails.getInvoiceNumber() == null || invoiceDetails.getInvoiceNumber().trim().isEmpty()) {
-        	LocalDate today = LocalDate.now();
-            DateTimeFormatter dtfDate = DateTimeFormatter.ofPattern("ddMMYYYY");
-            String formattedDatePart = today.format(dtfDate);
-            long countForToday = invoiceClientService.getInvoiceCount(today); //
-            long nextSequence = countForToday + 1;
-            String formattedSequence = String.format("%03d", nextSequence);
-
-            invoiceDetails.setInvoiceNumber("INV-" + formattedDatePart + "-" + formattedSequence);
+            invoiceDetails.setInvoiceNumber(invoiceNumberAllocator.nextInvoiceNumber(LocalDate.now()));
             log.info("Generated new invoice number: {}", invoiceDetails.getInvoiceNumber());
         }
         if(invoiceDetails.getInvoiceId() == null || invoiceDetails.getInvoiceId().trim().isEmpty()) {
@@ -290,9 +591,21 @@ public class InvoiceController {
             invoiceDetails.setDueDate(java.time.LocalDate.now().plusDays(30));
         }
 
-        // 5. Calculate Total Amount (ensure this uses the potentially updated item prices if you override them)
-        invoiceDetails.calculateTotalAmount();
+        // 5. Total Amount was computed with the items
         log.info("Calculated total bill amount: {}", invoiceDetails.getTotalAmount());
+        if (async && invoiceIngestionService.isEnabled()) {
+            if (!invoiceIngestionService.submit(invoiceDetails)) {
+                log.warn("Ingestion queue full, rejecting invoice {}", invoiceDetails.getInvoiceNumber());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1")
+                        .body("Too many invoices are waiting to be saved. Retry shortly.");
+            }
+            String statusUrl = "/api/invoice/ingest/" + invoiceDetails.getInvoiceId();
+            log.info("Invoice {} queued for ingestion", invoiceDetails.getInvoiceNumber());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).header("Location", statusUrl)
+                    .body(String.format("Invoice %s accepted for customer %s, by employee %s. Total: %.2f. Status: %s",
+                            invoiceDetails.getInvoiceNumber(), validatedCustomer.getCustomerName(),
+                            validatedEmployee.getEmpName(), invoiceDetails.getTotalAmount(), statusUrl));
+        }
         try {
         	Invoice savedInvoice = invoiceClientService.saveInvoice(invoiceDetails);
             log.info("Invoice processing complete for invoice number: {}", invoiceDetails.getInvoiceNumber());
@@ -311,84 +624,83 @@ public class InvoiceController {
         }
     }
 	
+	/**
+	 * Creates many invoices in one request. Returns one result per submitted invoice, in
+	 * order, so a bad invoice is reported without failing the others.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<?> createInvoices(@RequestBody List<InvoiceDetails> invoices) {
+		log.info("Received batch invoice request with {} invoices", invoices != null ? invoices.size() : 0);
+		if (invoices == null || invoices.isEmpty()) {
+			return ResponseEntity.badRequest().body("Batch must contain at least one invoice.");
+		}
+		if (invoices.size() > maxBatchSize) {
+			return ResponseEntity.badRequest().body("Batch cannot contain more than " + maxBatchSize + " invoices.");
+		}
+		List<BatchInvoiceResult> results = invoiceBatchService.createInvoices(invoices);
+		return ResponseEntity.ok(results);
+	}
+	
+	@GetMapping("/ingest/{invoiceId}")
+	public ResponseEntity<?> getIngestStatus(@PathVariable String invoiceId) {
+		IngestStatus status = invoiceIngestionService.getStatus(invoiceId);
+		if (status == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No queued invoice with Id: " + invoiceId);
+		}
+		return ResponseEntity.ok(status);
+	}
+	
+	@GetMapping("/ingest/metrics")
+	public ResponseEntity<Map<String, Object>> getIngestMetrics() {
+		return ResponseEntity.ok(invoiceIngestionService.metrics());
+	}
+	
+	/**
+	 * Replaces an invoice. If-Match: "<version>" (the version field of GET) makes the edit
+	 * conditional: 412 when the invoice has moved on, including when another edit commits
+	 * first. Without If-Match the edit only fails if it races another one. 404 when the
+	 * invoice is gone, also when it was archived or deleted while the edit was in flight.
+	 * The new version is returned as the ETag.
+	 */
 	@PutMapping("/{invoiceId}")
-	public ResponseEntity<String> editInvoice(@PathVariable String invoiceId, @RequestBody InvoiceDetails invoiceDetails){
+	public ResponseEntity<String> editInvoice(@PathVariable String invoiceId, @RequestBody InvoiceDetails invoiceDetails,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
 		log.info("Request to edit invoice with ID: {}", invoiceId);
+		Long expectedVersion = parseIfMatch(invoiceId, ifMatch);
 		String customerId = invoiceDetails.getCustomerId();
         if (customerId == null || customerId.trim().isEmpty()) {
             log.warn("Customer ID is missing in the request.");
             return ResponseEntity.badRequest().body("Customer ID is required.");
         }
+        String employeeId = invoiceDetails.getEmployeeId();
+        if (employeeId == null || employeeId.trim().isEmpty()) {
+            log.warn("Employee ID is missing in the request.");
+            return ResponseEntity.badRequest().body("Employee ID is required.");
+        }
+        CompletableFuture<Optional<CustomerDetails>> customerFuture = fetchCustomerAsync(customerId);
+        CompletableFuture<Optional<Employee>> employeeFuture = fetchEmployeeAsync(employeeId);
 
-        Optional<CustomerDetails> customerOpt = customerClientService.getCustomerById(customerId);
+        Optional<CustomerDetails> customerOpt = await(customerFuture);
         if (customerOpt.isEmpty()) {
             log.warn("Customer validation failed for ID: {}. Customer not found or error in service call.", customerId);
             throw new CustomerNotFoundException("Customer ID : " + customerId + " cannot be found" );
         }
         CustomerDetails validatedCustomer = customerOpt.get();
         log.info("Customer {} validated successfully: {}", customerId, validatedCustomer.getCustomerName());
+        invoiceDetails.setCustomerName(validatedCustomer.getCustomerName());
 
-        String employeeId = invoiceDetails.getEmployeeId();
-        if (employeeId == null || employeeId.trim().isEmpty()) {
-            log.warn("Employee ID is missing in the request.");
-            return ResponseEntity.badRequest().body("Employee ID is required.");
-        }
-        Optional<Employee> employeeOpt = employeeClientService.getEmployeeById(employeeId); 
+        Optional<Employee> employeeOpt = await(employeeFuture);
         if (employeeOpt.isEmpty()) {
             log.warn("Employee validation failed for ID: {}. Employee not found or error in service call.", employeeId);
             throw new EmployeeNotFoundException("Employee ID : " + employeeId + " cannot be found");
         }
         Employee validatedEmployee = employeeOpt.get();
         log.info("Employee {} validated successfully: {}", employeeId, validatedEmployee.getEmpName());
+        invoiceDetails.setEmployeeName(validatedEmployee.getEmpName());
 
-        if (invoiceDetails.getItems() == null || invoiceDetails.getItems().isEmpty()) {
-            log.warn("Invoice items are missing or empty.");
-            return ResponseEntity.badRequest().body("Invoice must contain at least one item.");
-        }
-        for (InvoiceItem item : invoiceDetails.getItems()) {
-            if (item.getProductId() == null || item.getProductId().trim().isEmpty()) {
-                log.warn("Product ID is missing for an item.");
-                return ResponseEntity.badRequest().body("Product ID is missing for an item.");
-            }
-            int productIdInt;
-            try {
-                productIdInt = Integer.parseInt(item.getProductId()); 
-            } catch (NumberFormatException e) {
-                log.warn("Invalid Product ID format for item: {}", item.getProductId());
-                return ResponseEntity.badRequest().body("Invalid Product ID format: " + item.getProductId());
-            }
-            if (!productClientService.isValidProduct(productIdInt)) {
-               log.warn("Invalid product ID {} found in invoice items (not in cache or service).", productIdInt);
-               throw new ProductNotFoundException("Product ID : " + productIdInt + " cannot be found");
-            }
-            Product productOpt = productClientService.getProductById(productIdInt);
-            if(productOpt != null){
-                Product validatedProduct = productOpt;
-                log.info("Product {} (ID: {}) validated. Price from service: {}", validatedProduct.getName(), productIdInt, validatedProduct.getPrice());
-                double basePrice = validatedProduct.getPrice();
-                double taxPercent = validatedProduct.getTaxPercent();
-                double priceWithTax = basePrice + (basePrice * (taxPercent / 100.0));
-                item.setPricePerUnit((float) priceWithTax);
-            } else {
-                log.warn("Product ID {} was marked valid but details not found. Possible inconsistency.", productIdInt);
-                throw new ProductNotFoundException("Product ID : " + productIdInt + " cannot be found");
-            }
-        }
-        log.info("All product items validated successfully.");
-        
-        if (invoiceDetails.getItems() != null && !invoiceDetails.getItems().isEmpty()) {
-            Map<String, InvoiceItem> consolidatedItemsMap = new LinkedHashMap<>(); 
-            for (InvoiceItem currentItem : invoiceDetails.getItems()) {
-                String productId = currentItem.getProductId();
-                if (consolidatedItemsMap.containsKey(productId)) {
-                    InvoiceItem existingItem = consolidatedItemsMap.get(productId);
-                    existingItem.setQuantity(existingItem.getQuantity() + currentItem.getQuantity());
-                } else {
-                    consolidatedItemsMap.put(productId, currentItem);
-                }
-            }
-            invoiceDetails.setItems(new ArrayList<>(consolidatedItemsMap.values()));
-            log.info("Invoice items consolidated. Number of unique items: {}", invoiceDetails.getItems().size());
+        ResponseEntity<String> itemsError = assembleItems(invoiceDetails);
+        if (itemsError != null) {
+            return itemsError;
         }
         
         if (invoiceDetails.getInvoiceNumber() == null || invoiceDetails.getInvoiceNumber().trim().isEmpty()) {
@@ -398,10 +710,9 @@ public class InvoiceController {
         	log.error("Enter valid Invoice Id");
         }
 
-        invoiceDetails.calculateTotalAmount();
         log.info("Calculated total bill amount: {}", invoiceDetails.getTotalAmount());
         try {
-        	Invoice savedInvoice = invoiceClientService.updateInvoice(invoiceId, invoiceDetails);
+        	Invoice savedInvoice = invoiceClientService.updateInvoice(invoiceId, invoiceDetails, expectedVersion);
             log.info("Invoice processing complete for invoice number: {}", invoiceDetails.getInvoiceNumber());
             String responseMessage = String.format("Invoice %s edited successfully for customer %s, by employee %s. Total: %.2f. %d item(s) processed.",
                     savedInvoice.getInvoiceNumber(),
@@ -410,14 +721,79 @@ public class InvoiceController {
                     savedInvoice.getTotalAmount(),
                     invoiceDetails.getItems().size()
                     );
-            return ResponseEntity.status(HttpStatus.OK).body(responseMessage);
+            return ResponseEntity.status(HttpStatus.OK).eTag(versionTag(savedInvoice.getVersion())).body(responseMessage);
 
+        } catch (InvoiceVersionConflictException | InvoiceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error during invoice processing for customer {}: {}", customerId, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while processing the invoice.");
         }
 	}
 	
+	/**
+	 * The version an If-Match header asks for: null when absent or *. Both the PUT tag
+	 * "<version>" and the GET tag "<version>-<body hash>" name a version; only the version is
+	 * compared, since an edit replaces the whole invoice whatever the embedded details were.
+	 * Anything else (a weak tag, a list) can never match, so it is answered with 412 before
+	 * any lookups are made.
+	 */
+	static Long parseIfMatch(String invoiceId, String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			String value = tag.substring(1, tag.length() - 1);
+			int dash = value.indexOf('-');
+			try {
+				return Long.parseLong(dash > 0 ? value.substring(0, dash) : value);
+			} catch (NumberFormatException e) {
+				// fall through
+			}
+		}
+		throw new InvoiceVersionConflictException("If-Match " + tag + " is not a version of invoice " + invoiceId + ".", null);
+	}
+	
+	static String versionTag(long version) {
+		return "\"" + version + "\"";
+	}
+	
+	/**
+	 * ETag of a GET response: the version and the first 96 bits of the body's SHA-256, e.g.
+	 * "7-q2xHc0AbQ8Zk7wRf". The body covers the expand variant and the embedded customer and
+	 * employee details, so a rename gives a new tag; equal on every instance for equal bytes.
+	 */
+	static String getTag(long version, byte[] body) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			return "\"" + version + '-' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12)) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+	
+	/**
+	 * Runs the shared item assembly against the current product snapshot. Returns null when
+	 * the items are valid, otherwise the 400 response; unknown products are reported as
+	 * ProductNotFoundException (404) as before. All problems found are listed in the message.
+	 */
+	private ResponseEntity<String> assembleItems(InvoiceDetails invoiceDetails) {
+		List<InvoiceAssemblyError> errors = invoiceAssembler.assemble(invoiceDetails, productClientService.getSnapshot());
+		if (errors.isEmpty()) {
+			log.info("Invoice items validated and consolidated. Number of unique items: {}, total: {}",
+					invoiceDetails.getItems().size(), invoiceDetails.getTotalAmount());
+			return null;
+		}
+		log.warn("Invoice items rejected with {} problem(s), first: {}", errors.size(), errors.get(0).getMessage());
+		String message = errors.stream().map(InvoiceAssemblyError::getMessage).collect(Collectors.joining("; "));
+		boolean onlyMissingProducts = errors.stream().allMatch(e -> e.getKind() == InvoiceAssemblyError.Kind.PRODUCT_NOT_FOUND);
+		if (onlyMissingProducts) {
+			throw new ProductNotFoundException(message);
+		}
+		return ResponseEntity.badRequest().body(message);
+	}
+	
 	@DeleteMapping("/{invoiceId}")
 	public ResponseEntity<String> deleteInvoice(@PathVariable String invoiceId){
 		
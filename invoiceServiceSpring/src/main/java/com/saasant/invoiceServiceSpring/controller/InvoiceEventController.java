@@ -0,0 +1,57 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.service.InvoiceEventRelay;
+import com.saasant.invoiceServiceSpring.service.InvoiceEventRelay.SubscriptionRefusedException;
+
+/**
+ * Server-sent event stream of invoice changes (CREATED, UPDATED, DELETED), one event per
+ * change with the outbox event ID as the SSE id. Reconnecting EventSource clients send
+ * Last-Event-ID automatically; other clients can pass lastEventId. 410 means the resume
+ * point is gone and the consumer must re-sync from GET /api/invoice.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/events")
+public class InvoiceEventController {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceEventController.class);
+	
+	@Autowired
+	InvoiceEventRelay invoiceEventRelay;
+	
+	@GetMapping
+	public ResponseEntity<?> stream(
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+			@RequestParam(required = false) Long lastEventId) throws IOException {
+		Long resumeAfter = lastEventId;
+		if (resumeAfter == null && lastEventIdHeader != null && !lastEventIdHeader.isBlank()) {
+			try {
+				resumeAfter = Long.parseLong(lastEventIdHeader.trim());
+			} catch (NumberFormatException e) {
+				return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Invalid Last-Event-ID: " + lastEventIdHeader);
+			}
+		}
+		log.info("Invoice event stream requested (resume after: {})", resumeAfter);
+		try {
+			return ResponseEntity.ok(invoiceEventRelay.subscribe(resumeAfter));
+		} catch (SubscriptionRefusedException e) {
+			HttpStatus status = e.isResyncRequired() ? HttpStatus.GONE : HttpStatus.SERVICE_UNAVAILABLE;
+			return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.service.InvoiceIntegrityService;
+import com.saasant.invoiceServiceSpring.vo.IntegrityReport;
+
+/**
+ * Invoice integrity verification. A run takes a while on a large table, so POST /verify
+ * starts it in the background and GET /status follows its progress.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/integrity")
+public class InvoiceIntegrityController {
+
+	@Autowired
+	InvoiceIntegrityService invoiceIntegrityService;
+
+	/** Starts a verification; with repair=true the findings that can be fixed are fixed as they are found. */
+	@PostMapping("/verify")
+	public ResponseEntity<?> verify(@RequestParam(defaultValue = "false") boolean repair) {
+		IntegrityReport report = invoiceIntegrityService.start(repair);
+		if (report == null) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body("An integrity verification is already running.");
+		}
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+	}
+
+	/** The running or most recent verification. */
+	@GetMapping("/status")
+	public ResponseEntity<?> status() {
+		IntegrityReport report = invoiceIntegrityService.getLastReport();
+		if (report == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No integrity verification has run yet.");
+		}
+		return ResponseEntity.ok(report);
+	}
+}
@@ -0,0 +1,94 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.dao.RollupDimension;
+import com.saasant.invoiceServiceSpring.service.InvoiceAgingService;
+import com.saasant.invoiceServiceSpring.service.InvoiceReportService;
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+/**
+ * Finance reports over [from, to] (ISO dates, inclusive). The customer, employee and
+ * product reports return per-day rows for one ID when id is given, otherwise one total
+ * row per ID, highest revenue first. The aging report buckets outstanding amounts by days
+ * past due as of a date (default today).
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/reports")
+public class InvoiceReportController {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceReportController.class);
+	
+	@Autowired
+	InvoiceReportService invoiceReportService;
+	
+	@Autowired
+	InvoiceAgingService invoiceAgingService;
+	
+	@GetMapping("/daily")
+	public ResponseEntity<?> daily(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		log.info("Daily revenue report requested for {} to {}", from, to);
+		try {
+			return ResponseEntity.ok(invoiceReportService.daily(from, to));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@GetMapping("/customers")
+	public ResponseEntity<?> byCustomer(
+			@RequestParam(required = false) String id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return report(RollupDimension.CUSTOMER, id, from, to);
+	}
+	
+	@GetMapping("/employees")
+	public ResponseEntity<?> byEmployee(
+			@RequestParam(required = false) String id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return report(RollupDimension.EMPLOYEE, id, from, to);
+	}
+	
+	@GetMapping("/products")
+	public ResponseEntity<?> byProduct(
+			@RequestParam(required = false) String id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return report(RollupDimension.PRODUCT, id, from, to);
+	}
+	
+	@GetMapping("/aging")
+	public ResponseEntity<?> aging(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+		LocalDate date = asOf != null ? asOf : LocalDate.now();
+		log.info("Aging report requested as of {}", date);
+		return ResponseEntity.ok(invoiceAgingService.aging(date));
+	}
+	
+	private ResponseEntity<?> report(RollupDimension dimension, String id, LocalDate from, LocalDate to) {
+		log.info("{} revenue report requested for {} to {} (id: {})", dimension, from, to, id);
+		try {
+			List<RevenueRow> rows = invoiceReportService.byDimension(dimension, id, from, to);
+			return ResponseEntity.ok(rows);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.saasant.invoiceServiceSpring.dao.RecurringInvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.service.InvoiceAssembler;
+import com.saasant.invoiceServiceSpring.service.ProductClientService;
+import com.saasant.invoiceServiceSpring.service.RecurringInvoiceService;
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.RecurringInvoiceTemplate;
+
+/**
+ * Recurring invoice templates. Invoices are generated by RecurringInvoiceService on its
+ * schedule; POST /run generates whatever is due right away.
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/invoice/recurring")
+public class RecurringInvoiceController {
+
+	private static final Logger log = LoggerFactory.getLogger(RecurringInvoiceController.class);
+
+	@Autowired
+	RecurringInvoiceDaoInterface recurringInvoiceDao;
+
+	@Autowired
+	RecurringInvoiceService recurringInvoiceService;
+
+	@Autowired
+	InvoiceAssembler invoiceAssembler;
+
+	@Autowired
+	ProductClientService productClientService;
+
+	/**
+	 * Creates a template; its first occurrence is startDate. Items are checked against the
+	 * product catalog now and stored consolidated per product. Customer and employee are
+	 * checked when each occurrence is generated.
+	 */
+	@PostMapping
+	public ResponseEntity<?> create(@RequestBody RecurringInvoiceTemplate template) {
+		if (template.getCustomerId() == null || template.getCustomerId().trim().isEmpty()) {
+			return ResponseEntity.badRequest().body("Customer ID is required.");
+		}
+		if (template.getEmployeeId() == null || template.getEmployeeId().trim().isEmpty()) {
+			return ResponseEntity.badRequest().body("Employee ID is required.");
+		}
+		if (template.getCadence() == null || template.getStartDate() == null) {
+			return ResponseEntity.badRequest().body("cadence and startDate are required.");
+		}
+		if (template.getEndDate() != null && template.getEndDate().isBefore(template.getStartDate())) {
+			return ResponseEntity.badRequest().body("endDate must not be before startDate.");
+		}
+		if (template.getDueDays() < 0) {
+			return ResponseEntity.badRequest().body("dueDays must not be negative.");
+		}
+		InvoiceDetails probe = new InvoiceDetails();
+		probe.setItems(template.getItems());
+		List<InvoiceAssemblyError> errors = invoiceAssembler.assemble(probe, productClientService.getSnapshot());
+		if (!errors.isEmpty()) {
+			return ResponseEntity.badRequest().body(errors.stream().map(InvoiceAssemblyError::getMessage).collect(Collectors.joining("; ")));
+		}
+		List<InvoiceItem> lines = new ArrayList<>(probe.getItems().size());
+		for (InvoiceItem assembled : probe.getItems()) {
+			InvoiceItem line = new InvoiceItem();
+			line.setProductId(assembled.getProductId());
+			line.setQuantity(assembled.getQuantity());
+			lines.add(line);
+		}
+		template.setItems(lines);
+		template.setTemplateId(UUID.randomUUID().toString());
+		template.setNextRunDate(template.getStartDate());
+		template.setActive(true);
+		template.setLastInvoiceId(null);
+		template.setLastError(null);
+		recurringInvoiceDao.create(template);
+		log.info("Created {} recurring invoice {} for customer {} starting {}", template.getCadence(), template.getTemplateId(),
+				template.getCustomerId(), template.getStartDate());
+		return ResponseEntity.status(HttpStatus.CREATED).body(template);
+	}
+
+	@GetMapping("/{templateId}")
+	public ResponseEntity<?> get(@PathVariable String templateId) {
+		return recurringInvoiceDao.findById(templateId)
+				.<ResponseEntity<?>>map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("No recurring invoice with Id: " + templateId));
+	}
+
+	/** Stops the template; invoices already generated are kept. */
+	@DeleteMapping("/{templateId}")
+	public ResponseEntity<String> deactivate(@PathVariable String templateId) {
+		if (!recurringInvoiceDao.deactivate(templateId)) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No recurring invoice with Id: " + templateId);
+		}
+		return ResponseEntity.ok("Recurring invoice deactivated");
+	}
+
+	/** Generates every occurrence due on or before date (default today, never later). */
+	@PostMapping("/run")
+	public ResponseEntity<?> run(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+		LocalDate today = LocalDate.now();
+		if (date != null && date.isAfter(today)) {
+			return ResponseEntity.badRequest().body("date must not be in the future.");
+		}
+		return ResponseEntity.ok(recurringInvoiceService.run(date != null ? date : today));
+	}
+}
@@ -0,0 +1,35 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InvoiceAgingDao implements InvoiceAgingDaoInterface {
+	
+	// Served from idx_invoice_customer_aging alone: rows come back in index order, no filesort.
+	private static final String AGING_SQL =
+			"SELECT customer_id, due_date, total_amount FROM invoice "
+			+ "WHERE invoice_date IS NULL OR invoice_date < ? "
+			+ "ORDER BY customer_id";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public void streamByCustomer(LocalDate asOf, AgingRowHandler handler) {
+		jdbcTemplate.query(connection -> {
+			PreparedStatement ps = StreamingStatements.prepare(connection, AGING_SQL);
+			ps.setTimestamp(1, Timestamp.valueOf(asOf.plusDays(1).atStartOfDay()));
+			return ps;
+		}, rs -> {
+			Date dueDate = rs.getDate(2);
+			handler.row(rs.getString(1), dueDate != null ? dueDate.toLocalDate() : null, rs.getDouble(3));
+		});
+	}
+}
@@ -0,0 +1,18 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDate;
+
+public interface InvoiceAgingDaoInterface {
+	
+	/** Receives one invoice's customer, due date (may be null) and amount. */
+	@FunctionalInterface
+	interface AgingRowHandler {
+		void row(String customerId, LocalDate dueDate, double amount);
+	}
+	
+	/**
+	 * Streams every invoice issued on or before asOf, ordered by customer, through a
+	 * forward-only cursor. Invoices without an invoice date are included.
+	 */
+	void streamByCustomer(LocalDate asOf, AgingRowHandler handler);
+}
@@ -0,0 +1,46 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InvoiceAnalyticsDao implements InvoiceAnalyticsDaoInterface {
+	
+	private static final String LINES_SQL =
+			"SELECT i.invoice_id, i.invoice_date, i.customer_id, i.emp_id, it.product_id, it.quantity, it.total_cost "
+			+ "FROM invoice i JOIN invoiceitems it ON it.invoice_id = i.invoice_id "
+			+ "WHERE i.invoice_date IS NOT NULL ";
+	
+	private static final String ORDER_BY = "ORDER BY i.invoice_date, i.invoice_id";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public void streamAllLines(LineHandler handler) {
+		jdbcTemplate.query(connection -> {
+			return StreamingStatements.prepare(connection, LINES_SQL + ORDER_BY);
+		}, toRowHandler(handler));
+	}
+	
+	@Override
+	public void streamLines(Collection<String> invoiceIds, LineHandler handler) {
+		if (invoiceIds.isEmpty()) {
+			return;
+		}
+		String sql = LINES_SQL + "AND i.invoice_id IN (" + String.join(", ", Collections.nCopies(invoiceIds.size(), "?")) + ") "
+				+ ORDER_BY;
+		jdbcTemplate.query(sql, toRowHandler(handler), invoiceIds.toArray());
+	}
+	
+	private static RowCallbackHandler toRowHandler(LineHandler handler) {
+		return rs -> handler.line(rs.getString("invoice_id"), rs.getTimestamp("invoice_date").toLocalDateTime().toLocalDate(),
+				rs.getString("customer_id"), rs.getString("emp_id"), rs.getInt("product_id"),
+				rs.getFloat("quantity"), rs.getDouble("total_cost"));
+	}
+}
@@ -0,0 +1,23 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface InvoiceAnalyticsDaoInterface {
+	
+	/** Receives one invoice line joined with its invoice header. */
+	@FunctionalInterface
+	interface LineHandler {
+		void line(String invoiceId, LocalDate invoiceDay, String customerId, String employeeId, int productId,
+				float quantity, double totalCost);
+	}
+	
+	/**
+	 * Streams every dated invoice line ordered by invoice date then invoice, reading through a
+	 * forward-only cursor so the whole table is never held in memory.
+	 */
+	void streamAllLines(LineHandler handler);
+	
+	/** Streams the current lines of the given invoices, grouped by invoice. */
+	void streamLines(Collection<String> invoiceIds, LineHandler handler);
+}
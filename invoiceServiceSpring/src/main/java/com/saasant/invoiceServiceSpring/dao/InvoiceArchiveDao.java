@@ -0,0 +1,169 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Cold storage for old invoices: invoice_archive and invoiceitems_archive mirror the live
+ * tables. Every chunk selects its invoices through idx_invoice_date_id (oldest first) and
+ * locks only those rows, so a chunk holds its locks for a few small statements.
+ * <p>
+ * To everything downstream an archived invoice has left the live tables like a deleted one:
+ * each chunk takes it out of the rollups, records a DELETED outbox event and publishes the
+ * same events as InvoiceDao.deleteInvoice, all in the chunk transaction.
+ */
+@Service
+public class InvoiceArchiveDao implements InvoiceArchiveDaoInterface {
+
+	private static final String SELECT_OLDEST_SQL =
+			"SELECT invoice_id, invoice_number, total_amount FROM invoice WHERE invoice_date < ? "
+			+ "ORDER BY invoice_date, invoice_id LIMIT ? FOR UPDATE";
+
+	// %s is replaced with the invoice ID placeholders in the statements below.
+	private static final String COPY_ITEMS_SQL =
+			"INSERT IGNORE INTO invoiceitems_archive (item_id, invoice_id, product_id, quantity, price_per_unit, total_cost, customer_id, emp_id) "
+			+ "SELECT item_id, invoice_id, product_id, quantity, price_per_unit, total_cost, customer_id, emp_id "
+			+ "FROM invoiceitems WHERE invoice_id IN (%s)";
+
+	private static final String COPY_INVOICES_SQL =
+			"INSERT IGNORE INTO invoice_archive (invoice_id, invoice_number, customer_id, emp_id, total_amount, due_date, invoice_date, archived_at) "
+			+ "SELECT invoice_id, invoice_number, customer_id, emp_id, total_amount, due_date, invoice_date, NOW(6) "
+			+ "FROM invoice WHERE invoice_id IN (%s)";
+
+	private static final String DELETE_ITEMS_SQL = "DELETE FROM invoiceitems WHERE invoice_id IN (%s)";
+
+	private static final String DELETE_SUMMARIES_SQL = "DELETE FROM invoice_summary WHERE invoice_id IN (%s)";
+
+	private static final String DELETE_INVOICES_SQL = "DELETE FROM invoice WHERE invoice_id IN (%s)";
+
+	private static final String SELECT_PURGEABLE_SQL =
+			"SELECT invoice_id FROM invoice_archive WHERE invoice_date < ? ORDER BY invoice_date, invoice_id LIMIT ? FOR UPDATE";
+
+	private static final String PURGE_ITEMS_SQL = "DELETE FROM invoiceitems_archive WHERE invoice_id IN (%s)";
+
+	private static final String PURGE_INVOICES_SQL = "DELETE FROM invoice_archive WHERE invoice_id IN (%s)";
+
+	private static final String FIND_INVOICE_SQL =
+			"SELECT invoice_id, invoice_number, customer_id, emp_id, total_amount, due_date, invoice_date "
+			+ "FROM invoice_archive WHERE invoice_id = ?";
+
+	private static final String FIND_ITEMS_SQL =
+			"SELECT item_id, invoice_id, product_id, quantity, price_per_unit, total_cost, customer_id, emp_id "
+			+ "FROM invoiceitems_archive WHERE invoice_id = ?";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	RevenueRollupDaoInterface revenueRollupDao;
+
+	@Autowired
+	InvoiceOutboxDaoInterface invoiceOutboxDao;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Override
+	@Transactional
+	public int archiveChunk(LocalDateTime cutoff, int limit) {
+		List<String> invoiceIds = new ArrayList<>();
+		List<InvoiceMutationEvent> mutations = new ArrayList<>();
+		jdbcTemplate.query(SELECT_OLDEST_SQL, rs -> {
+			String invoiceId = rs.getString("invoice_id");
+			invoiceIds.add(invoiceId);
+			mutations.add(new InvoiceMutationEvent(InvoiceEvent.DELETED, invoiceId, rs.getString("invoice_number"),
+					rs.getFloat("total_amount"), null));
+		}, Timestamp.valueOf(cutoff), limit);
+		if (invoiceIds.isEmpty()) {
+			return 0;
+		}
+		Object[] args = invoiceIds.toArray();
+		String placeholders = placeholders(invoiceIds.size());
+		// Rollups and the outbox snapshot read the live rows, so both go before the deletes.
+		revenueRollupDao.subtractInvoices(invoiceIds);
+		List<InvoiceEvent> deleted = invoiceOutboxDao.snapshot(InvoiceEvent.DELETED, invoiceIds);
+		// Copy before delete, items before headers, so a failure part way rolls back to the live rows.
+		jdbcTemplate.update(String.format(COPY_ITEMS_SQL, placeholders), args);
+		jdbcTemplate.update(String.format(COPY_INVOICES_SQL, placeholders), args);
+		jdbcTemplate.update(String.format(DELETE_ITEMS_SQL, placeholders), args);
+		jdbcTemplate.update(String.format(DELETE_SUMMARIES_SQL, placeholders), args);
+		jdbcTemplate.update(String.format(DELETE_INVOICES_SQL, placeholders), args);
+		invoiceOutboxDao.append(deleted);
+		eventPublisher.publishEvent(new InvoicesChangedEvent(invoiceIds));
+		mutations.forEach(eventPublisher::publishEvent);
+		return invoiceIds.size();
+	}
+
+	@Override
+	@Transactional
+	public int purgeChunk(LocalDateTime cutoff, int limit) {
+		List<String> invoiceIds = jdbcTemplate.queryForList(SELECT_PURGEABLE_SQL, String.class, Timestamp.valueOf(cutoff), limit);
+		if (invoiceIds.isEmpty()) {
+			return 0;
+		}
+		Object[] args = invoiceIds.toArray();
+		String placeholders = placeholders(invoiceIds.size());
+		jdbcTemplate.update(String.format(PURGE_ITEMS_SQL, placeholders), args);
+		jdbcTemplate.update(String.format(PURGE_INVOICES_SQL, placeholders), args);
+		return invoiceIds.size();
+	}
+
+	@Override
+	public Optional<InvoiceDetails> findArchived(String invoiceId, boolean withItems) {
+		List<InvoiceDetails> found = jdbcTemplate.query(FIND_INVOICE_SQL, (rs, rowNum) -> {
+			InvoiceDetails invoice = new InvoiceDetails();
+			invoice.setInvoiceId(rs.getString("invoice_id"));
+			invoice.setInvoiceNumber(rs.getString("invoice_number"));
+			invoice.setCustomerId(rs.getString("customer_id"));
+			invoice.setEmployeeId(rs.getString("emp_id"));
+			invoice.setTotalAmount(rs.getFloat("total_amount"));
+			java.sql.Date dueDate = rs.getDate("due_date");
+			invoice.setDueDate(dueDate != null ? dueDate.toLocalDate() : null);
+			Timestamp invoiceDate = rs.getTimestamp("invoice_date");
+			invoice.setInvoiceDate(invoiceDate != null ? invoiceDate.toLocalDateTime() : null);
+			return invoice;
+		}, invoiceId);
+		if (found.isEmpty()) {
+			return Optional.empty();
+		}
+		InvoiceDetails invoice = found.get(0);
+		if (!withItems) {
+			invoice.setItems(null);
+			return Optional.of(invoice);
+		}
+		invoice.setItems(jdbcTemplate.query(FIND_ITEMS_SQL, (rs, rowNum) -> {
+			InvoiceItem item = new InvoiceItem();
+			item.setItemId(rs.getString("item_id"));
+			item.setInvoiceId(rs.getString("invoice_id"));
+			item.setProductId(String.valueOf(rs.getInt("product_id")));
+			item.setQuantity((int) rs.getFloat("quantity"));
+			item.setPricePerUnit(rs.getFloat("price_per_unit"));
+			item.setTotalCost(rs.getFloat("total_cost"));
+			item.setCustomerId(rs.getString("customer_id"));
+			item.setEmpId(rs.getString("emp_id"));
+			return item;
+		}, invoiceId));
+		return Optional.of(invoice);
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+}
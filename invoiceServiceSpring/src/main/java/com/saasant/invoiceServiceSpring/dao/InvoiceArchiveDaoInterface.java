@@ -0,0 +1,23 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+public interface InvoiceArchiveDaoInterface {
+
+	/**
+	 * Moves up to limit of the oldest invoices dated before cutoff, with their items, into the
+	 * archive tables and removes them (and their summary rows) from the live tables, in one
+	 * transaction. Rollups, outbox and change events are updated as for a delete. Returns how
+	 * many invoices were moved; 0 when nothing is left to archive.
+	 */
+	int archiveChunk(LocalDateTime cutoff, int limit);
+
+	/** Permanently deletes up to limit archived invoices dated before cutoff. Returns how many. */
+	int purgeChunk(LocalDateTime cutoff, int limit);
+
+	/** An archived invoice, with its items only when withItems is set. */
+	Optional<InvoiceDetails> findArchived(String invoiceId, boolean withItems);
+}
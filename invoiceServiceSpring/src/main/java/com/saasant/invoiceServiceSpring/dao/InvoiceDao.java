@@ -1,24 +1,42 @@
 package com.saasant.invoiceServiceSpring.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
 import com.saasant.invoiceServiceSpring.entity.Invoice;
 import com.saasant.invoiceServiceSpring.entity.InvoiceItemEntity;
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
 import com.saasant.invoiceServiceSpring.exception.InvoiceNotFoundException;
+import com.saasant.invoiceServiceSpring.exception.InvoiceVersionConflictException;
 import com.saasant.invoiceServiceSpring.repo.InvoiceRepository;
 import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
 import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
 import com.saasant.invoiceServiceSpring.repo.InvoiceItemRepository;
 
 import jakarta.transaction.Transactional;
@@ -26,6 +44,34 @@ import jakarta.transaction.Transactional;
 @Service
 public class InvoiceDao implements InvoiceDaoInterface{
 	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceDao.class);
+	
+	static final String INSERT_ITEM_SQL =
+			"INSERT INTO invoiceitems (item_id, invoice_id, product_id, quantity, price_per_unit, total_cost, customer_id, emp_id) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	
+	static final String INSERT_INVOICE_SQL =
+			"INSERT INTO invoice (invoice_id, invoice_number, customer_id, emp_id, total_amount, due_date, invoice_date) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?)";
+	
+	// Claims an edit: matches only while nobody else has committed one since the version was read.
+	static final String BUMP_VERSION_SQL = "UPDATE invoice SET version = version + 1 WHERE invoice_id = ? AND version = ?";
+	
+	static final String EXISTS_SQL = "SELECT COUNT(*) FROM invoice WHERE invoice_id = ?";
+	
+	static final String UPDATE_ITEM_SQL =
+			"UPDATE invoiceitems SET quantity = ?, price_per_unit = ?, total_cost = ?, customer_id = ?, emp_id = ? WHERE item_id = ?";
+	
+	private static final String EXPORT_SQL =
+			"SELECT i.invoice_id, i.invoice_number, i.customer_id, i.emp_id, i.total_amount, i.due_date, i.invoice_date, "
+			+ "it.item_id, it.product_id, it.quantity, it.price_per_unit, it.total_cost "
+			+ "FROM invoice i LEFT JOIN invoiceitems it ON it.invoice_id = i.invoice_id "
+			+ "WHERE i.invoice_date >= ? AND i.invoice_date < ? "
+			+ "ORDER BY i.invoice_date, i.invoice_id";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
 	
 	@Autowired
 	InvoiceRepository invoiceRepository;
@@ -36,6 +82,21 @@ public class InvoiceDao implements InvoiceDaoInterface{
 	@Autowired
 	ModelMapper modelMapper;
 	
+	@Autowired
+	InvoiceSummaryDaoInterface invoiceSummaryDao;
+	
+	@Autowired
+	RevenueRollupDaoInterface revenueRollupDao;
+	
+	@Autowired
+	InvoiceOutboxDaoInterface invoiceOutboxDao;
+	
+	@Autowired
+	InvoiceArchiveDaoInterface invoiceArchiveDao;
+	
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+	
 	private Invoice convertToEntity(InvoiceDetails invoiceDetailsDto) {
         Invoice invoice = modelMapper.map(invoiceDetailsDto, Invoice.class);
         return invoice;
@@ -48,6 +109,7 @@ public class InvoiceDao implements InvoiceDaoInterface{
                 .map(entity -> {
                     InvoiceItem vo = modelMapper.map(entity, InvoiceItem.class);
                     vo.setProductId(String.valueOf(entity.getProductId())); 
+                    vo.setQuantity(wholeQuantity(entity.getItemId(), entity.getQuantity()));
                     return vo;
                 }).collect(Collectors.toList());
             invoiceDetails.setItems(itemVos);
@@ -58,39 +120,154 @@ public class InvoiceDao implements InvoiceDaoInterface{
     private InvoiceItem convertToInvoiceItemVo(InvoiceItemEntity itemEntity) {
         InvoiceItem itemVo = modelMapper.map(itemEntity, InvoiceItem.class);
         itemVo.setProductId(String.valueOf(itemEntity.getProductId())); 
+        itemVo.setQuantity(wholeQuantity(itemEntity.getItemId(), itemEntity.getQuantity()));
         return itemVo;
    }
 	
+    /**
+     * Item quantities are whole units in the API but a FLOAT column. This service only writes
+     * whole numbers; a fractional value written elsewhere is rounded, not truncated, and logged.
+     */
+    static int wholeQuantity(String itemId, float stored) {
+    	int quantity = Math.round(stored);
+    	if (quantity != stored) {
+    		log.warn("Item {} has fractional quantity {}; returned as {}", itemId, stored, quantity);
+    	}
+    	return quantity;
+    }
+	
+    private InvoiceItemEntity buildItemEntity(InvoiceItem itemVo, Invoice invoice) {
+        InvoiceItemEntity itemEntity = new InvoiceItemEntity();
+        itemEntity.setItemId(UUID.randomUUID().toString().substring(0, 30));
+        itemEntity.setInvoiceId(invoice.getInvoiceId());
+        try {
+            itemEntity.setProductId(Integer.parseInt(itemVo.getProductId()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Product ID format: " + itemVo.getProductId(), e);
+        }
+        itemEntity.setQuantity(itemVo.getQuantity());
+        itemEntity.setPricePerUnit(itemVo.getPricePerUnit());
+        itemEntity.setTotalCost(itemVo.getTotalCost());
+        itemEntity.setCustomerId(invoice.getCustomerId());
+        itemEntity.setEmpId(invoice.getEmployeeId());
+        return itemEntity;
+    }
+    
+    /**
+     * Inserts all items with one JDBC batch. Going through invoiceItemRepository.save would
+     * issue a SELECT and an INSERT per line, because item IDs are assigned up front.
+     */
+    private void batchInsertItems(List<InvoiceItemEntity> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(items.size());
+        for (InvoiceItemEntity item : items) {
+            batchArgs.add(new Object[] { item.getItemId(), item.getInvoiceId(), item.getProductId(), item.getQuantity(),
+                    item.getPricePerUnit(), item.getTotalCost(), item.getCustomerId(), item.getEmpId() });
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, batchArgs);
+    }
+    
+    private void batchUpdateItems(List<InvoiceItemEntity> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(items.size());
+        for (InvoiceItemEntity item : items) {
+            batchArgs.add(new Object[] { item.getQuantity(), item.getPricePerUnit(), item.getTotalCost(),
+                    item.getCustomerId(), item.getEmpId(), item.getItemId() });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, batchArgs);
+    }
+	
     @Override
     @Transactional 
     public Invoice saveInvoice(InvoiceDetails invoiceDetailsDto) {
         Invoice invoiceEntityToSave = convertToEntity(invoiceDetailsDto);
-        Invoice savedInvoiceEntity = invoiceRepository.save(invoiceEntityToSave);
+        // Flush the header first so the JDBC item batch below sees it in the same transaction.
+        Invoice savedInvoiceEntity = invoiceRepository.saveAndFlush(invoiceEntityToSave);
         if (invoiceDetailsDto.getItems() != null && !invoiceDetailsDto.getItems().isEmpty()) {
+            List<InvoiceItemEntity> itemEntities = new ArrayList<>(invoiceDetailsDto.getItems().size());
             for (InvoiceItem itemVo : invoiceDetailsDto.getItems()) {
-                InvoiceItemEntity itemEntity = new InvoiceItemEntity();
-                itemEntity.setItemId(UUID.randomUUID().toString().substring(0, 30));
-                itemEntity.setInvoiceId(savedInvoiceEntity.getInvoiceId());
-                try {
-                    itemEntity.setProductId(Integer.parseInt(itemVo.getProductId()));
-                } catch (NumberFormatException e) {
-                    throw new IllegalArgumentException("Invalid Product ID format: " + itemVo.getProductId(), e);
-                }
-                itemEntity.setQuantity(itemVo.getQuantity());
-                itemEntity.setPricePerUnit(itemVo.getPricePerUnit());
-                itemEntity.setTotalCost(itemVo.getTotalCost()); 
-                itemEntity.setCustomerId(savedInvoiceEntity.getCustomerId());
-                itemEntity.setEmpId(savedInvoiceEntity.getEmployeeId());
-
-                invoiceItemRepository.save(itemEntity);
+                itemEntities.add(buildItemEntity(itemVo, savedInvoiceEntity));
             }
+            batchInsertItems(itemEntities);
         }
+        invoiceSummaryDao.upsert(List.of(toSummary(savedInvoiceEntity, invoiceDetailsDto)));
+        revenueRollupDao.addInvoices(List.of(savedInvoiceEntity.getInvoiceId()));
+        invoiceOutboxDao.record(InvoiceEvent.CREATED, List.of(savedInvoiceEntity.getInvoiceId()));
+        eventPublisher.publishEvent(new InvoicesChangedEvent(List.of(savedInvoiceEntity.getInvoiceId())));
+        eventPublisher.publishEvent(new InvoiceMutationEvent(InvoiceEvent.CREATED, savedInvoiceEntity.getInvoiceId(),
+                savedInvoiceEntity.getInvoiceNumber(), null, savedInvoiceEntity.getTotalAmount()));
         return savedInvoiceEntity;
     }
     
+    /**
+     * Persists a chunk of fully validated invoices in one transaction, with one JDBC batch
+     * for the headers and one for all of their items.
+     */
     @Override
-    public Optional<InvoiceDetails> findInvoiceDetailsByInvoiceId(String invoiceId) {
+    @Transactional
+    public void saveInvoices(List<InvoiceDetails> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        List<Object[]> headerArgs = new ArrayList<>(invoices.size());
+        List<InvoiceItemEntity> itemEntities = new ArrayList<>();
+        List<InvoiceSummary> summaries = new ArrayList<>(invoices.size());
+        List<String> invoiceIds = new ArrayList<>(invoices.size());
+        for (InvoiceDetails invoiceDetails : invoices) {
+            Invoice invoice = convertToEntity(invoiceDetails);
+            summaries.add(toSummary(invoice, invoiceDetails));
+            invoiceIds.add(invoice.getInvoiceId());
+            headerArgs.add(new Object[] { invoice.getInvoiceId(), invoice.getInvoiceNumber(), invoice.getCustomerId(),
+                    invoice.getEmployeeId(), invoice.getTotalAmount(),
+                    invoice.getDueDate() != null ? java.sql.Date.valueOf(invoice.getDueDate()) : null,
+                    invoice.getInvoiceDate() != null ? Timestamp.valueOf(invoice.getInvoiceDate()) : null });
+            if (invoiceDetails.getItems() != null) {
+                for (InvoiceItem itemVo : invoiceDetails.getItems()) {
+                    itemEntities.add(buildItemEntity(itemVo, invoice));
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_INVOICE_SQL, headerArgs);
+        batchInsertItems(itemEntities);
+        invoiceSummaryDao.upsert(summaries);
+        revenueRollupDao.addInvoices(invoiceIds);
+        invoiceOutboxDao.record(InvoiceEvent.CREATED, invoiceIds);
+        eventPublisher.publishEvent(new InvoicesChangedEvent(invoiceIds));
+        for (Object[] header : headerArgs) {
+            eventPublisher.publishEvent(new InvoiceMutationEvent(InvoiceEvent.CREATED, (String) header[0], (String) header[1],
+                    null, (Float) header[4]));
+        }
+    }
+    
+    /** Builds the invoice_summary row for a header about to be written. */
+    private static InvoiceSummary toSummary(Invoice invoice, InvoiceDetails source) {
+        InvoiceSummary summary = new InvoiceSummary();
+        summary.setInvoiceId(invoice.getInvoiceId());
+        summary.setInvoiceNumber(invoice.getInvoiceNumber());
+        summary.setInvoiceDate(invoice.getInvoiceDate());
+        summary.setDueDate(invoice.getDueDate());
+        summary.setTotalAmount(invoice.getTotalAmount());
+        summary.setCustomerId(invoice.getCustomerId());
+        summary.setCustomerName(source.getCustomerName());
+        summary.setEmployeeId(invoice.getEmployeeId());
+        summary.setEmployeeName(source.getEmployeeName());
+        summary.setItemCount(source.getItems() != null ? source.getItems().size() : 0);
+        summary.setUpdatedAt(LocalDateTime.now());
+        return summary;
+    }
+    
+    @Override
+    public Optional<InvoiceDetails> findInvoiceDetailsByInvoiceId(String invoiceId, boolean withItems) {
         Optional<Invoice> invoiceOpt = invoiceRepository.findById(invoiceId);
+        if (invoiceOpt.isPresent() && !withItems) {
+            InvoiceDetails header = convertToDto(invoiceOpt.get(), null);
+            header.setItems(null);
+            return Optional.of(header);
+        }
         if (invoiceOpt.isPresent()) {
             Invoice invoiceEntity = invoiceOpt.get();
             List<InvoiceItemEntity> itemEntities = invoiceItemRepository.findByInvoiceId(invoiceEntity.getInvoiceId());
@@ -102,19 +279,118 @@ public class InvoiceDao implements InvoiceDaoInterface{
             
             return Optional.of(invoiceDetailsDto);
         }
-        return Optional.empty();
+        // Not live: it may have been moved to the archive tables.
+        return invoiceArchiveDao.findArchived(invoiceId, withItems);
     }
     
     @Override
     public List<InvoiceDetails> fetchInvoices(){
     	List<Invoice> invoices = invoiceRepository.findAll();
-        List<InvoiceDetails> invoiceDetails = invoices.stream()
-                .map(invoice -> {
-                    List<InvoiceItemEntity> itemEntities = invoiceItemRepository.findByInvoiceId(invoice.getInvoiceId()); //
-                    return convertToDto(invoice, itemEntities);
-                })
-                .collect(Collectors.toList());
-    	return invoiceDetails;
+    	return attachItems(invoices);
+    }
+    
+    @Override
+    public List<InvoiceDetails> fetchInvoicePage(LocalDateTime afterDate, String afterId, int size, boolean withItems) {
+    	PageRequest limit = PageRequest.of(0, size);
+    	List<Invoice> invoices = afterId == null ? invoiceRepository.findFirstPage(limit)
+    			: afterDate == null ? invoiceRepository.findUndatedPageAfter(afterId, limit)
+    			: invoiceRepository.findPageAfter(afterDate, afterId, limit);
+    	if (!withItems) {
+    		// Summary view: header rows only, invoiceitems is never queried.
+    		return invoices.stream()
+    				.map(invoice -> {
+    					InvoiceDetails dto = convertToDto(invoice, null);
+    					dto.setItems(null);
+    					return dto;
+    				})
+    				.collect(Collectors.toList());
+    	}
+    	return attachItems(invoices);
+    }
+    
+    /**
+     * Loads the items of all given invoices with a single IN query and groups
+     * them in memory, instead of one findByInvoiceId call per invoice.
+     */
+    private List<InvoiceDetails> attachItems(List<Invoice> invoices) {
+    	if (invoices.isEmpty()) {
+    		return new ArrayList<>();
+    	}
+    	List<String> invoiceIds = invoices.stream().map(Invoice::getInvoiceId).collect(Collectors.toList());
+    	Map<String, List<InvoiceItemEntity>> itemsByInvoice = invoiceItemRepository.findByInvoiceIdIn(invoiceIds).stream()
+    			.collect(Collectors.groupingBy(InvoiceItemEntity::getInvoiceId));
+    	return invoices.stream()
+    			.map(invoice -> convertToDto(invoice, itemsByInvoice.getOrDefault(invoice.getInvoiceId(), List.of())))
+    			.collect(Collectors.toList());
+    }
+    
+    /**
+     * Streams every invoice in [from, to) with its items to the sink, one invoice at a time.
+     * Rows are streamed from the server one at a time (StreamingStatements), so only the
+     * invoice currently being assembled is held in memory.
+     */
+    @Override
+    public void streamInvoices(LocalDateTime from, LocalDateTime to, Consumer<InvoiceDetails> sink) {
+    	InvoiceStreamAssembler assembler = new InvoiceStreamAssembler(sink);
+    	jdbcTemplate.query(connection -> {
+    		PreparedStatement ps = StreamingStatements.prepare(connection, EXPORT_SQL);
+    		ps.setTimestamp(1, Timestamp.valueOf(from));
+    		ps.setTimestamp(2, Timestamp.valueOf(to));
+    		return ps;
+    	}, assembler);
+    	assembler.finish();
+    }
+    
+    /**
+     * Rebuilds invoices from the joined rows. Rows are ordered by invoice, so an invoice is
+     * complete as soon as the invoice_id changes.
+     */
+    private static class InvoiceStreamAssembler implements RowCallbackHandler {
+    	
+    	private final Consumer<InvoiceDetails> sink;
+    	private InvoiceDetails current;
+    	
+    	InvoiceStreamAssembler(Consumer<InvoiceDetails> sink) {
+    		this.sink = sink;
+    	}
+    	
+    	@Override
+    	public void processRow(ResultSet rs) throws SQLException {
+    		String invoiceId = rs.getString("invoice_id");
+    		if (current == null || !current.getInvoiceId().equals(invoiceId)) {
+    			finish();
+    			current = new InvoiceDetails();
+    			current.setInvoiceId(invoiceId);
+    			current.setInvoiceNumber(rs.getString("invoice_number"));
+    			current.setCustomerId(rs.getString("customer_id"));
+    			current.setEmployeeId(rs.getString("emp_id"));
+    			current.setTotalAmount(rs.getFloat("total_amount"));
+    			java.sql.Date dueDate = rs.getDate("due_date");
+    			current.setDueDate(dueDate != null ? dueDate.toLocalDate() : null);
+    			Timestamp invoiceDate = rs.getTimestamp("invoice_date");
+    			current.setInvoiceDate(invoiceDate != null ? invoiceDate.toLocalDateTime() : null);
+    		}
+    		String itemId = rs.getString("item_id");
+    		if (itemId != null) {
+    			InvoiceItem item = new InvoiceItem();
+    			item.setItemId(itemId);
+    			item.setInvoiceId(invoiceId);
+    			item.setProductId(String.valueOf(rs.getInt("product_id")));
+    			item.setQuantity(wholeQuantity(itemId, rs.getFloat("quantity")));
+    			item.setPricePerUnit(rs.getFloat("price_per_unit"));
+    			item.setTotalCost(rs.getFloat("total_cost"));
+    			item.setCustomerId(current.getCustomerId());
+    			item.setEmpId(current.getEmployeeId());
+    			current.getItems().add(item);
+    		}
+    	}
+    	
+    	void finish() {
+    		if (current != null) {
+    			sink.accept(current);
+    			current = null;
+    		}
+    	}
     }
     
     @Override
@@ -124,26 +400,53 @@ public class InvoiceDao implements InvoiceDaoInterface{
     
     
     @Override
+    @Transactional
     public void deleteInvoice(String invoiceId) { 
-    	Optional<Invoice> invoiceOpt = invoiceRepository.findById(invoiceId);
-    	if(invoiceOpt.isPresent()) {
-    		Invoice invoiceEntity = invoiceOpt.get();
-    		List<InvoiceItemEntity> itemEntities = invoiceItemRepository.findByInvoiceId(invoiceEntity.getInvoiceId());
-    		for (InvoiceItemEntity item : itemEntities) {
-    			invoiceItemRepository.delete(item);
-    			
-    		}
-    	}
+    	Optional<Invoice> existing = invoiceRepository.findById(invoiceId);
+    	revenueRollupDao.subtractInvoices(List.of(invoiceId));
+    	List<InvoiceEvent> deleted = invoiceOutboxDao.snapshot(InvoiceEvent.DELETED, List.of(invoiceId));
+    	invoiceItemRepository.deleteAllByInvoiceId(invoiceId);
     	invoiceRepository.deleteById(invoiceId);
+    	invoiceSummaryDao.delete(invoiceId);
+    	invoiceOutboxDao.append(deleted);
+    	eventPublisher.publishEvent(new InvoicesChangedEvent(List.of(invoiceId)));
+    	existing.ifPresent(invoice -> eventPublisher.publishEvent(new InvoiceMutationEvent(InvoiceEvent.DELETED, invoiceId,
+    			invoice.getInvoiceNumber(), invoice.getTotalAmount(), null)));
     	
     }
     
     
+    /**
+     * Updates the header and writes only the item lines that changed. Lines are matched on
+     * productId (the controller consolidates items per product): new products are batch
+     * inserted, changed ones batch updated, and dropped ones removed with a single delete.
+     * <p>
+     * Optimistic locking: the version is bumped first with a compare-and-set UPDATE against
+     * expectedVersion (or the version just read), so of two concurrent edits exactly one
+     * proceeds and the other fails with InvoiceVersionConflictException before writing
+     * anything. Nothing is locked between a client's read and its PUT.
+     */
     @Override
     @Transactional
-    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails) {
+    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails, Long expectedVersion) {
         Invoice existingInvoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new InvoiceNotFoundException("Invoice with ID " + invoiceId + " not found."));
+        long readVersion = existingInvoice.getVersion();
+        if (expectedVersion != null && expectedVersion != readVersion) {
+            throw new InvoiceVersionConflictException("Invoice " + invoiceId + " is at version " + readVersion
+                    + ", not " + expectedVersion + ".", readVersion);
+        }
+        if (jdbcTemplate.update(BUMP_VERSION_SQL, invoiceId, readVersion) == 0) {
+            // Archived or deleted since it was read: that is a missing invoice, not a conflict.
+            if (jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, invoiceId) == 0) {
+                throw new InvoiceNotFoundException("Invoice with ID " + invoiceId + " not found.");
+            }
+            throw new InvoiceVersionConflictException("Invoice " + invoiceId + " was changed by another edit.", null);
+        }
+        existingInvoice.setVersion(readVersion + 1);
+        // Take the stored state out of the rollups before anything is changed or flushed.
+        revenueRollupDao.subtractInvoices(List.of(invoiceId));
+        float amountBefore = existingInvoice.getTotalAmount();
         existingInvoice.setInvoiceId(invoiceId);
         existingInvoice.setInvoiceNumber(invoiceDetails.getInvoiceNumber());
         existingInvoice.setCustomerId(invoiceDetails.getCustomerId());
@@ -152,26 +455,52 @@ public class InvoiceDao implements InvoiceDaoInterface{
         existingInvoice.setDueDate(invoiceDetails.getDueDate());
         existingInvoice.setInvoiceDate(invoiceDetails.getInvoiceDate());
 
-        List<InvoiceItemEntity> existingItems = invoiceItemRepository.findByInvoiceId(invoiceId);
-        invoiceItemRepository.deleteAll(existingItems);
-        if (invoiceDetails.getItems() != null && !invoiceDetails.getItems().isEmpty()) {
+        Map<Integer, InvoiceItemEntity> existingByProduct = new HashMap<>();
+        List<String> removedItemIds = new ArrayList<>();
+        for (InvoiceItemEntity existing : invoiceItemRepository.findByInvoiceId(invoiceId)) {
+            if (existingByProduct.putIfAbsent(existing.getProductId(), existing) != null) {
+                removedItemIds.add(existing.getItemId()); // duplicate line left by the old delete-and-reinsert path
+            }
+        }
+
+        List<InvoiceItemEntity> inserts = new ArrayList<>();
+        List<InvoiceItemEntity> updates = new ArrayList<>();
+        if (invoiceDetails.getItems() != null) {
             for (InvoiceItem itemVo : invoiceDetails.getItems()) {
-                InvoiceItemEntity itemEntity = new InvoiceItemEntity();
-                itemEntity.setItemId(UUID.randomUUID().toString().substring(0, 30));
-                itemEntity.setInvoiceId(existingInvoice.getInvoiceId());
-                try {
-                    itemEntity.setProductId(Integer.parseInt(itemVo.getProductId()));
-                } catch (NumberFormatException e) {
-                    throw new IllegalArgumentException("Invalid Product ID format: " + itemVo.getProductId(), e);
+                InvoiceItemEntity incoming = buildItemEntity(itemVo, existingInvoice);
+                InvoiceItemEntity existing = existingByProduct.remove(incoming.getProductId());
+                if (existing == null) {
+                    inserts.add(incoming);
+                } else if (isItemChanged(existing, incoming)) {
+                    incoming.setItemId(existing.getItemId());
+                    updates.add(incoming);
                 }
-                itemEntity.setQuantity(itemVo.getQuantity());
-                itemEntity.setPricePerUnit(itemVo.getPricePerUnit());
-                itemEntity.setTotalCost(itemVo.getTotalCost());
-                itemEntity.setCustomerId(existingInvoice.getCustomerId());
-                itemEntity.setEmpId(existingInvoice.getEmployeeId());
-                invoiceItemRepository.save(itemEntity);
             }
         }
-        return invoiceRepository.save(existingInvoice);
+        existingByProduct.values().forEach(removed -> removedItemIds.add(removed.getItemId()));
+
+        if (!removedItemIds.isEmpty()) {
+            invoiceItemRepository.deleteAllByIdInBatch(removedItemIds);
+        }
+        batchUpdateItems(updates);
+        batchInsertItems(inserts);
+        log.debug("Invoice {} items: {} inserted, {} updated, {} removed", invoiceId, inserts.size(), updates.size(), removedItemIds.size());
+        // Flushed so the rollup delta below reads the new header.
+        Invoice savedInvoice = invoiceRepository.saveAndFlush(existingInvoice);
+        invoiceSummaryDao.upsert(List.of(toSummary(savedInvoice, invoiceDetails)));
+        revenueRollupDao.addInvoices(List.of(invoiceId));
+        invoiceOutboxDao.record(InvoiceEvent.UPDATED, List.of(invoiceId));
+        eventPublisher.publishEvent(new InvoicesChangedEvent(List.of(invoiceId)));
+        eventPublisher.publishEvent(new InvoiceMutationEvent(InvoiceEvent.UPDATED, invoiceId, savedInvoice.getInvoiceNumber(),
+                amountBefore, savedInvoice.getTotalAmount()));
+        return savedInvoice;
+    }
+    
+    private static boolean isItemChanged(InvoiceItemEntity existing, InvoiceItemEntity incoming) {
+        return Float.compare(existing.getQuantity(), incoming.getQuantity()) != 0
+                || Float.compare(existing.getPricePerUnit(), incoming.getPricePerUnit()) != 0
+                || Float.compare(existing.getTotalCost(), incoming.getTotalCost()) != 0
+                || !Objects.equals(existing.getCustomerId(), incoming.getCustomerId())
+                || !Objects.equals(existing.getEmpId(), incoming.getEmpId());
     }
 }
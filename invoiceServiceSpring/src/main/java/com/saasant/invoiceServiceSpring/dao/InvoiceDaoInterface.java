@@ -2,6 +2,7 @@ package com.saasant.invoiceServiceSpring.dao;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.saasant.invoiceServiceSpring.entity.*;
 import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
@@ -9,10 +10,19 @@ import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
 public interface InvoiceDaoInterface {
 	
 	public Invoice saveInvoice(InvoiceDetails invoiceDetails);
-	Optional<InvoiceDetails> findInvoiceDetailsByInvoiceId(String invoiceId);
+	public void saveInvoices(List<InvoiceDetails> invoices);
+	/** The invoice, live or archived. Without items only the header is read (one primary-key lookup). */
+	Optional<InvoiceDetails> findInvoiceDetailsByInvoiceId(String invoiceId, boolean withItems);
 	public long getInvoiceCountForDate(LocalDateTime start, LocalDateTime end);
 	public void deleteInvoice(String invoiceId);
-	public Invoice updateInvoice(String invoiceId, InvoiceDetails Invoice);
+	/** expectedVersion null means no If-Match; the edit is still checked against the version it read. */
+	public Invoice updateInvoice(String invoiceId, InvoiceDetails Invoice, Long expectedVersion);
 	List<InvoiceDetails> fetchInvoices();
+	/**
+	 * Newest first; rows without an invoice date come last. afterId null is the first page;
+	 * afterDate null with an afterId continues among the rows without an invoice date.
+	 */
+	List<InvoiceDetails> fetchInvoicePage(LocalDateTime afterDate, String afterId, int size, boolean withItems);
+	void streamInvoices(LocalDateTime from, LocalDateTime to, Consumer<InvoiceDetails> sink);
 
 }
@@ -0,0 +1,228 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.vo.IntegrityFinding;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Range-restricted consistency queries. Every check reads one slice of the invoice primary
+ * key (and idx_invoiceitems_invoice_id for the items), so ranges can be verified in parallel
+ * without scanning each other's rows. Repairs re-check under row locks before writing, so a
+ * finding that an edit has fixed in the meantime is left alone.
+ */
+@Service
+public class InvoiceIntegrityDao implements InvoiceIntegrityDaoInterface {
+
+	// Float totals: also allow one part in a million, so a large repaired total is not re-flagged.
+	private static final double RELATIVE_TOLERANCE = 1e-6;
+
+	private static final String FIRST_BOUNDARY_SQL = "SELECT invoice_id FROM invoice ORDER BY invoice_id LIMIT 1 OFFSET ?";
+
+	private static final String NEXT_BOUNDARY_SQL =
+			"SELECT invoice_id FROM invoice WHERE invoice_id > ? ORDER BY invoice_id LIMIT 1 OFFSET ?";
+
+	private static final String COUNT_SQL = "SELECT COUNT(*) FROM invoice i WHERE 1 = 1";
+
+	private static final String TOTALS_SQL =
+			"SELECT i.invoice_id, i.total_amount, COUNT(it.item_id) AS item_count, COALESCE(SUM(it.total_cost), 0) AS item_total "
+			+ "FROM invoice i LEFT JOIN invoiceitems it ON it.invoice_id = i.invoice_id WHERE 1 = 1";
+
+	private static final String TOTALS_HAVING =
+			" GROUP BY i.invoice_id, i.total_amount HAVING item_count = 0 OR ABS(i.total_amount - item_total) > GREATEST(?, ABS(item_total) * "
+			+ RELATIVE_TOLERANCE + ")";
+
+	private static final String ORPHANS_SQL =
+			"SELECT it.item_id, it.invoice_id FROM invoiceitems it LEFT JOIN invoice i ON i.invoice_id = it.invoice_id "
+			+ "WHERE i.invoice_id IS NULL";
+
+	private static final String PARTY_MISMATCH = "(NOT (it.customer_id <=> i.customer_id) OR NOT (it.emp_id <=> i.emp_id))";
+
+	private static final String PARTIES_SQL =
+			"SELECT it.item_id, it.invoice_id, it.customer_id, it.emp_id, i.customer_id AS header_customer_id, i.emp_id AS header_emp_id "
+			+ "FROM invoice i JOIN invoiceitems it ON it.invoice_id = i.invoice_id WHERE " + PARTY_MISMATCH;
+
+	// %s is replaced with ID placeholders in the statements below.
+	private static final String LOCK_TOTALS_SQL =
+			"SELECT i.invoice_id, i.invoice_number, i.total_amount, "
+			+ "(SELECT COUNT(*) FROM invoiceitems it WHERE it.invoice_id = i.invoice_id) AS item_count, "
+			+ "(SELECT COALESCE(SUM(it.total_cost), 0) FROM invoiceitems it WHERE it.invoice_id = i.invoice_id) AS item_total "
+			+ "FROM invoice i WHERE i.invoice_id IN (%s) FOR UPDATE";
+
+	private static final String SET_TOTAL_SQL = "UPDATE invoice SET total_amount = ?, version = version + 1 WHERE invoice_id = ?";
+
+	private static final String SET_SUMMARY_TOTAL_SQL = "UPDATE invoice_summary SET total_amount = ?, updated_at = NOW(6) WHERE invoice_id = ?";
+
+	private static final String LOCK_ORPHANS_SQL =
+			"SELECT it.item_id FROM invoiceitems it WHERE it.item_id IN (%s) "
+			+ "AND NOT EXISTS (SELECT 1 FROM invoice i WHERE i.invoice_id = it.invoice_id) FOR UPDATE";
+
+	private static final String DELETE_ITEMS_SQL = "DELETE FROM invoiceitems WHERE item_id IN (%s)";
+
+	private static final String LOCK_PARTIES_SQL =
+			"SELECT it.item_id FROM invoiceitems it JOIN invoice i ON i.invoice_id = it.invoice_id "
+			+ "WHERE it.item_id IN (%s) AND " + PARTY_MISMATCH + " FOR UPDATE";
+
+	private static final String SET_PARTIES_SQL =
+			"UPDATE invoiceitems it JOIN invoice i ON i.invoice_id = it.invoice_id "
+			+ "SET it.customer_id = i.customer_id, it.emp_id = i.emp_id WHERE it.item_id IN (%s)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	RevenueRollupDaoInterface revenueRollupDao;
+
+	@Autowired
+	InvoiceOutboxDaoInterface invoiceOutboxDao;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Override
+	public List<String> rangeBoundaries(int rangeSize) {
+		List<String> boundaries = new ArrayList<>();
+		// Index-only probes: each skips rangeSize entries of the primary key from the previous boundary.
+		List<String> next = jdbcTemplate.queryForList(FIRST_BOUNDARY_SQL, String.class, rangeSize);
+		while (!next.isEmpty()) {
+			boundaries.add(next.get(0));
+			next = jdbcTemplate.queryForList(NEXT_BOUNDARY_SQL, String.class, next.get(0), rangeSize - 1);
+		}
+		return boundaries;
+	}
+
+	@Override
+	public long countInvoices(String fromId, String toId) {
+		List<Object> args = new ArrayList<>();
+		Long count = jdbcTemplate.queryForObject(COUNT_SQL + range("i.invoice_id", fromId, toId, args), Long.class, args.toArray());
+		return count != null ? count : 0;
+	}
+
+	@Override
+	public List<IntegrityFinding> findTotalMismatches(String fromId, String toId, double tolerance) {
+		List<Object> args = new ArrayList<>();
+		String sql = TOTALS_SQL + range("i.invoice_id", fromId, toId, args) + TOTALS_HAVING;
+		args.add(tolerance);
+		return jdbcTemplate.query(sql, (rs, rowNum) -> {
+			String invoiceId = rs.getString("invoice_id");
+			if (rs.getLong("item_count") == 0) {
+				return new IntegrityFinding(IntegrityFinding.NO_ITEMS, invoiceId, null,
+						"Stored total " + rs.getFloat("total_amount") + ", no items");
+			}
+			return new IntegrityFinding(IntegrityFinding.TOTAL_MISMATCH, invoiceId, null,
+					"Stored total " + rs.getFloat("total_amount") + ", items sum to " + (float) rs.getDouble("item_total"));
+		}, args.toArray());
+	}
+
+	@Override
+	public List<IntegrityFinding> findOrphanItems(String fromId, String toId) {
+		List<Object> args = new ArrayList<>();
+		return jdbcTemplate.query(ORPHANS_SQL + range("it.invoice_id", fromId, toId, args), (rs, rowNum) -> new IntegrityFinding(
+				IntegrityFinding.ORPHAN_ITEM, rs.getString("invoice_id"), rs.getString("item_id"), "Invoice does not exist"),
+				args.toArray());
+	}
+
+	@Override
+	public List<IntegrityFinding> findPartyMismatches(String fromId, String toId) {
+		List<Object> args = new ArrayList<>();
+		return jdbcTemplate.query(PARTIES_SQL + range("i.invoice_id", fromId, toId, args), (rs, rowNum) -> new IntegrityFinding(
+				IntegrityFinding.PARTY_MISMATCH, rs.getString("invoice_id"), rs.getString("item_id"),
+				"Item customer/employee " + rs.getString("customer_id") + "/" + rs.getString("emp_id") + ", invoice has "
+						+ rs.getString("header_customer_id") + "/" + rs.getString("header_emp_id")),
+				args.toArray());
+	}
+
+	@Override
+	@Transactional
+	public List<String> repairTotals(List<String> invoiceIds, double tolerance) {
+		if (invoiceIds.isEmpty()) {
+			return List.of();
+		}
+		List<String> repaired = new ArrayList<>();
+		List<Object[]> totalArgs = new ArrayList<>();
+		List<InvoiceMutationEvent> mutations = new ArrayList<>();
+		jdbcTemplate.query(String.format(LOCK_TOTALS_SQL, placeholders(invoiceIds.size())), rs -> {
+			float stored = rs.getFloat("total_amount");
+			double itemTotal = rs.getDouble("item_total");
+			if (rs.getLong("item_count") > 0 && isOff(stored, itemTotal, tolerance)) {
+				String invoiceId = rs.getString("invoice_id");
+				repaired.add(invoiceId);
+				totalArgs.add(new Object[] { (float) itemTotal, invoiceId });
+				mutations.add(new InvoiceMutationEvent(InvoiceEvent.UPDATED, invoiceId, rs.getString("invoice_number"), stored, (float) itemTotal));
+			}
+		}, invoiceIds.toArray());
+		if (repaired.isEmpty()) {
+			return repaired;
+		}
+		revenueRollupDao.subtractInvoices(repaired);
+		jdbcTemplate.batchUpdate(SET_TOTAL_SQL, totalArgs);
+		jdbcTemplate.batchUpdate(SET_SUMMARY_TOTAL_SQL, totalArgs);
+		revenueRollupDao.addInvoices(repaired);
+		invoiceOutboxDao.record(InvoiceEvent.UPDATED, repaired);
+		eventPublisher.publishEvent(new InvoicesChangedEvent(repaired));
+		mutations.forEach(eventPublisher::publishEvent);
+		return repaired;
+	}
+
+	@Override
+	@Transactional
+	public List<String> deleteOrphanItems(List<String> itemIds) {
+		if (itemIds.isEmpty()) {
+			return List.of();
+		}
+		List<String> orphans = jdbcTemplate.queryForList(String.format(LOCK_ORPHANS_SQL, placeholders(itemIds.size())), String.class,
+				itemIds.toArray());
+		if (!orphans.isEmpty()) {
+			jdbcTemplate.update(String.format(DELETE_ITEMS_SQL, placeholders(orphans.size())), orphans.toArray());
+		}
+		return orphans;
+	}
+
+	@Override
+	@Transactional
+	public List<String> repairItemParties(List<String> itemIds) {
+		if (itemIds.isEmpty()) {
+			return List.of();
+		}
+		List<String> mismatched = jdbcTemplate.queryForList(String.format(LOCK_PARTIES_SQL, placeholders(itemIds.size())), String.class,
+				itemIds.toArray());
+		if (!mismatched.isEmpty()) {
+			jdbcTemplate.update(String.format(SET_PARTIES_SQL, placeholders(mismatched.size())), mismatched.toArray());
+		}
+		return mismatched;
+	}
+
+	/** Same test as TOTALS_HAVING. */
+	static boolean isOff(float stored, double itemTotal, double tolerance) {
+		return Math.abs(stored - itemTotal) > Math.max(tolerance, Math.abs(itemTotal) * RELATIVE_TOLERANCE);
+	}
+
+	/** Appends [fromId, toId) on column to a WHERE clause; null bounds are open. */
+	static String range(String column, String fromId, String toId, List<Object> args) {
+		StringBuilder sql = new StringBuilder();
+		if (fromId != null) {
+			sql.append(" AND ").append(column).append(" >= ?");
+			args.add(fromId);
+		}
+		if (toId != null) {
+			sql.append(" AND ").append(column).append(" < ?");
+			args.add(toId);
+		}
+		return sql.toString();
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+}
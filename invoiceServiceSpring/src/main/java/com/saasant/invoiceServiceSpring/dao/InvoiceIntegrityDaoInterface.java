@@ -0,0 +1,37 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.util.List;
+
+import com.saasant.invoiceServiceSpring.vo.IntegrityFinding;
+
+/**
+ * Consistency checks between invoice headers and invoiceitems. A range is [fromId, toId) of
+ * invoice IDs; a null bound is open.
+ */
+public interface InvoiceIntegrityDaoInterface {
+
+	/** Invoice IDs that split the invoice table into ranges of rangeSize invoices, in order. */
+	List<String> rangeBoundaries(int rangeSize);
+
+	long countInvoices(String fromId, String toId);
+
+	/** Invoices without items, and invoices whose total is more than tolerance off their item sum. */
+	List<IntegrityFinding> findTotalMismatches(String fromId, String toId, double tolerance);
+
+	List<IntegrityFinding> findOrphanItems(String fromId, String toId);
+
+	List<IntegrityFinding> findPartyMismatches(String fromId, String toId);
+
+	/**
+	 * Sets the total of each invoice that still has items and is still off by more than
+	 * tolerance to its item sum, as an edit would (rollups, summary, outbox, audit, version).
+	 * Returns the IDs repaired.
+	 */
+	List<String> repairTotals(List<String> invoiceIds, double tolerance);
+
+	/** Deletes the items whose invoice still does not exist. Returns the IDs deleted. */
+	List<String> deleteOrphanItems(List<String> itemIds);
+
+	/** Copies the header's customer and employee onto the items. Returns the IDs updated. */
+	List<String> repairItemParties(List<String> itemIds);
+}
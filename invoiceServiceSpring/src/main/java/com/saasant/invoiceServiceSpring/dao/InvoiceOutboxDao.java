@@ -0,0 +1,113 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+
+@Service
+public class InvoiceOutboxDao implements InvoiceOutboxDaoInterface {
+	
+	private static final int PURGE_CHUNK = 10000;
+	
+	// %s is replaced with the invoice ID placeholders.
+	private static final String HEADERS_SQL =
+			"SELECT invoice_id, invoice_number, customer_id, total_amount FROM invoice WHERE invoice_id IN (%s) ORDER BY invoice_id";
+	
+	// Event IDs come from a single counter row instead of AUTO_INCREMENT. The row stays locked
+	// until the writing transaction commits, so IDs are handed out in commit order and a
+	// rollback gives its block back: the relay never sees a gap that is filled in later.
+	// The price is that invoice writes across the whole cluster queue on this one row, so
+	// callers append as the last statement of their transaction to keep the hold to the commit.
+	static final String RESERVE_IDS_SQL =
+			"UPDATE invoice_outbox_sequence SET last_event_id = LAST_INSERT_ID(last_event_id + ?) WHERE id = 1";
+	static final String RESERVED_END_SQL = "SELECT LAST_INSERT_ID()";
+	
+	static final String INSERT_SQL =
+			"INSERT INTO invoice_outbox (event_id, event_type, invoice_id, invoice_number, customer_id, total_amount, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, NOW(6))";
+	
+	private static final String READ_AFTER_SQL =
+			"SELECT event_id, event_type, invoice_id, invoice_number, customer_id, total_amount, created_at "
+			+ "FROM invoice_outbox WHERE event_id > ? ORDER BY event_id LIMIT ?";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public List<InvoiceEvent> snapshot(String type, Collection<String> invoiceIds) {
+		if (invoiceIds.isEmpty()) {
+			return List.of();
+		}
+		return jdbcTemplate.query(
+				String.format(HEADERS_SQL, String.join(", ", Collections.nCopies(invoiceIds.size(), "?"))),
+				(rs, rowNum) -> new InvoiceEvent(0, type, rs.getString("invoice_id"), rs.getString("invoice_number"),
+						rs.getString("customer_id"), rs.getFloat("total_amount"), null),
+				invoiceIds.toArray());
+	}
+	
+	@Override
+	public void append(List<InvoiceEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		if (jdbcTemplate.update(RESERVE_IDS_SQL, events.size()) != 1) {
+			throw new IllegalStateException("invoice_outbox_sequence has no counter row");
+		}
+		long eventId = jdbcTemplate.queryForObject(RESERVED_END_SQL, Long.class) - events.size();
+		List<Object[]> rows = new ArrayList<>(events.size());
+		for (InvoiceEvent event : events) {
+			rows.add(new Object[] { ++eventId, event.getType(), event.getInvoiceId(), event.getInvoiceNumber(),
+					event.getCustomerId(), event.getTotalAmount() });
+		}
+		jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+	}
+	
+	@Override
+	public List<InvoiceEvent> readAfter(long afterEventId, int limit) {
+		return jdbcTemplate.query(READ_AFTER_SQL, (rs, rowNum) -> new InvoiceEvent(rs.getLong("event_id"),
+				rs.getString("event_type"), rs.getString("invoice_id"), rs.getString("invoice_number"),
+				rs.getString("customer_id"), rs.getFloat("total_amount"), rs.getTimestamp("created_at").toLocalDateTime()),
+				afterEventId, limit);
+	}
+	
+	@Override
+	public long countBetween(long afterEventId, long upToEventId) {
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoice_outbox WHERE event_id > ? AND event_id <= ?",
+				Long.class, afterEventId, upToEventId);
+		return count != null ? count : 0;
+	}
+	
+	@Override
+	public long maxEventId() {
+		Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(event_id), 0) FROM invoice_outbox", Long.class);
+		return max != null ? max : 0;
+	}
+	
+	@Override
+	public long minEventId() {
+		Long min = jdbcTemplate.queryForObject("SELECT COALESCE(MIN(event_id), 0) FROM invoice_outbox", Long.class);
+		return min != null ? min : 0;
+	}
+	
+	/** Deletes in chunks so a large backlog never holds one long-running lock. */
+	@Override
+	public int purgeBefore(LocalDateTime cutoff) {
+		int total = 0;
+		int deleted;
+		do {
+			deleted = jdbcTemplate.update("DELETE FROM invoice_outbox WHERE created_at < ? LIMIT " + PURGE_CHUNK,
+					Timestamp.valueOf(cutoff));
+			total += deleted;
+		} while (deleted == PURGE_CHUNK);
+		return total;
+	}
+}
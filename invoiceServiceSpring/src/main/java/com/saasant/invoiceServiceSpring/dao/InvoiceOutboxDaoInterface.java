@@ -0,0 +1,44 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+
+public interface InvoiceOutboxDaoInterface {
+	
+	/**
+	 * Reads the stored header of each invoice into an event of the given type, without an
+	 * event ID yet. Invoices that are not stored are left out. For DELETED, take the
+	 * snapshot before the rows go and {@link #append} it after.
+	 */
+	List<InvoiceEvent> snapshot(String type, Collection<String> invoiceIds);
+	
+	/**
+	 * Numbers the events and inserts them. Event IDs are assigned in commit order without
+	 * gaps from a single counter row, so every invoice write in the cluster queues behind
+	 * this call until the caller commits: make it the last statement of the transaction.
+	 */
+	void append(List<InvoiceEvent> events);
+	
+	/** {@link #snapshot} then {@link #append}, for CREATED and UPDATED once the write is done. */
+	default void record(String type, Collection<String> invoiceIds) {
+		append(snapshot(type, invoiceIds));
+	}
+	
+	/** Events with an ID above afterEventId, in ID order, at most limit of them. */
+	List<InvoiceEvent> readAfter(long afterEventId, int limit);
+	
+	/** Number of events in (afterEventId, upToEventId]. */
+	long countBetween(long afterEventId, long upToEventId);
+	
+	/** Highest event ID, or 0 when the outbox is empty. */
+	long maxEventId();
+	
+	/** Lowest event ID still retained, or 0 when the outbox is empty. */
+	long minEventId();
+	
+	/** Deletes events recorded before the given time; returns how many were removed. */
+	int purgeBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,52 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.transaction.Transactional;
+
+@Service
+public class InvoiceSequenceDao implements InvoiceSequenceDaoInterface {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceSequenceDao.class);
+	
+	private static final String CURRENT_SQL = "SELECT next_value FROM invoice_sequence WHERE seq_date = ?";
+	
+	// One statement for both the first reservation of a day and every later one, so callers
+	// never hold a gap lock between a read and an insert. LAST_INSERT_ID(expr) hands the new
+	// next_value back on this connection.
+	static final String RESERVE_SQL = "INSERT INTO invoice_sequence (seq_date, next_value) VALUES (?, LAST_INSERT_ID(? + ?)) "
+			+ "ON DUPLICATE KEY UPDATE next_value = LAST_INSERT_ID(next_value + ?)";
+	static final String RESERVED_END_SQL = "SELECT LAST_INSERT_ID()";
+	
+	private static final String MAX_ISSUED_SQL =
+			"SELECT MAX(CAST(SUBSTRING_INDEX(invoice_number, '-', -1) AS UNSIGNED)) FROM invoice WHERE invoice_number LIKE ?";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Override
+	@Transactional(Transactional.TxType.REQUIRES_NEW)
+	public long reserveBlock(LocalDate day, String numberPrefix, int count) {
+		Date seqDate = Date.valueOf(day);
+		long seed = 1;
+		if (jdbcTemplate.queryForList(CURRENT_SQL, Long.class, seqDate).isEmpty()) {
+			// First reservation for this day: continue after any numbers already issued for it.
+			// Two instances may both get here; the upsert below still gives them disjoint blocks.
+			Long maxIssued = jdbcTemplate.queryForObject(MAX_ISSUED_SQL, Long.class, numberPrefix + "%");
+			seed = (maxIssued != null ? maxIssued : 0) + 1;
+		}
+		jdbcTemplate.update(RESERVE_SQL, seqDate, seed, count, count);
+		Long end = jdbcTemplate.queryForObject(RESERVED_END_SQL, Long.class);
+		long first = end - count;
+		log.debug("Reserved invoice sequence block [{}, {}) for {}", first, first + count, day);
+		return first;
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDate;
+
+public interface InvoiceSequenceDaoInterface {
+	
+	/**
+	 * Reserves count consecutive sequence numbers for the given day and returns the first one.
+	 * The reservation is committed on its own, so it holds across instances and restarts.
+	 * numberPrefix is used once per day to continue after invoice numbers already issued.
+	 */
+	long reserveBlock(LocalDate day, String numberPrefix, int count);
+
+}
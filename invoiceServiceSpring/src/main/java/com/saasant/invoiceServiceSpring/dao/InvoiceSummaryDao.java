@@ -0,0 +1,205 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
+import com.saasant.invoiceServiceSpring.repo.InvoiceSummaryRepository;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+
+@Service
+public class InvoiceSummaryDao implements InvoiceSummaryDaoInterface {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceSummaryDao.class);
+	
+	// Name columns are assigned before the ID columns: MySQL evaluates the assignments in
+	// order, so the comparison still sees the old ID and drops the old name on a change.
+	private static final String UPSERT_SQL =
+			"INSERT INTO invoice_summary (invoice_id, invoice_number, invoice_date, due_date, total_amount, "
+			+ "customer_id, customer_name, emp_id, employee_name, item_count, updated_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE "
+			+ "customer_name = IF(customer_id <=> VALUES(customer_id), COALESCE(VALUES(customer_name), customer_name), VALUES(customer_name)), "
+			+ "employee_name = IF(emp_id <=> VALUES(emp_id), COALESCE(VALUES(employee_name), employee_name), VALUES(employee_name)), "
+			+ "invoice_number = VALUES(invoice_number), invoice_date = VALUES(invoice_date), due_date = VALUES(due_date), "
+			+ "total_amount = VALUES(total_amount), customer_id = VALUES(customer_id), emp_id = VALUES(emp_id), "
+			+ "item_count = VALUES(item_count), updated_at = VALUES(updated_at)";
+	
+	private static final String DELETE_SQL = "DELETE FROM invoice_summary WHERE invoice_id = ?";
+	
+	private static final String UPDATE_CUSTOMER_NAME_SQL =
+			"UPDATE invoice_summary SET customer_name = ? WHERE customer_id = ? AND NOT (customer_name <=> ?)";
+	
+	private static final String UPDATE_EMPLOYEE_NAME_SQL =
+			"UPDATE invoice_summary SET employee_name = ? WHERE emp_id = ? AND NOT (employee_name <=> ?)";
+	
+	private static final String SEARCH_COLUMNS = "SELECT invoice_id, invoice_number, invoice_date, due_date, total_amount, "
+			+ "customer_id, customer_name, emp_id, employee_name, item_count, updated_at FROM invoice_summary";
+	
+	private static final RowMapper<InvoiceSummary> SUMMARY_ROW_MAPPER = (rs, rowNum) -> {
+		InvoiceSummary summary = new InvoiceSummary();
+		summary.setInvoiceId(rs.getString("invoice_id"));
+		summary.setInvoiceNumber(rs.getString("invoice_number"));
+		Timestamp invoiceDate = rs.getTimestamp("invoice_date");
+		summary.setInvoiceDate(invoiceDate != null ? invoiceDate.toLocalDateTime() : null);
+		java.sql.Date dueDate = rs.getDate("due_date");
+		summary.setDueDate(dueDate != null ? dueDate.toLocalDate() : null);
+		summary.setTotalAmount(rs.getFloat("total_amount"));
+		summary.setCustomerId(rs.getString("customer_id"));
+		summary.setCustomerName(rs.getString("customer_name"));
+		summary.setEmployeeId(rs.getString("emp_id"));
+		summary.setEmployeeName(rs.getString("employee_name"));
+		summary.setItemCount(rs.getInt("item_count"));
+		Timestamp updatedAt = rs.getTimestamp("updated_at");
+		summary.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+		return summary;
+	};
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	InvoiceSummaryRepository invoiceSummaryRepository;
+	
+	@Override
+	public void upsert(List<InvoiceSummary> summaries) {
+		if (summaries.isEmpty()) {
+			return;
+		}
+		List<Object[]> batchArgs = new ArrayList<>(summaries.size());
+		for (InvoiceSummary summary : summaries) {
+			batchArgs.add(new Object[] { summary.getInvoiceId(), summary.getInvoiceNumber(),
+					summary.getInvoiceDate() != null ? Timestamp.valueOf(summary.getInvoiceDate()) : null,
+					summary.getDueDate() != null ? java.sql.Date.valueOf(summary.getDueDate()) : null,
+					summary.getTotalAmount(), summary.getCustomerId(), summary.getCustomerName(),
+					summary.getEmployeeId(), summary.getEmployeeName(), summary.getItemCount(),
+					Timestamp.valueOf(summary.getUpdatedAt() != null ? summary.getUpdatedAt() : LocalDateTime.now()) });
+		}
+		jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+	}
+	
+	@Override
+	public void delete(String invoiceId) {
+		jdbcTemplate.update(DELETE_SQL, invoiceId);
+	}
+	
+	@Override
+	public List<InvoiceSummary> fetchPage(LocalDateTime afterDate, String afterId, int size) {
+		PageRequest limit = PageRequest.of(0, size);
+		return afterId == null ? invoiceSummaryRepository.findFirstPage(limit)
+				: afterDate == null ? invoiceSummaryRepository.findUndatedPageAfter(afterId, limit)
+				: invoiceSummaryRepository.findPageAfter(afterDate, afterId, limit);
+	}
+	
+	@Override
+	public List<InvoiceSummary> search(InvoiceSearchCriteria criteria, LocalDateTime afterDate, String afterId, int size) {
+		List<Object> args = new ArrayList<>();
+		String sql = buildSearchSql(criteria, afterDate, afterId, size, args);
+		return jdbcTemplate.query(sql, SUMMARY_ROW_MAPPER, args.toArray());
+	}
+	
+	/**
+	 * Builds the search query, newest first with the same keyset as fetchPage. The indexes in
+	 * schema.sql cover each filter: a customer or employee filter reads its
+	 * (id, invoice_date, invoice_id) index in order, a number prefix is a range on
+	 * invoice_number, a date range alone uses (invoice_date, invoice_id) and an amount range
+	 * alone a range on total_amount. The keyset is a row comparison so MySQL can use it as a
+	 * range on the date-ordered indexes. MySQL sorts NULL dates last in DESC order, so rows
+	 * without a date follow every dated row and are paged by invoice_id alone.
+	 */
+	static String buildSearchSql(InvoiceSearchCriteria criteria, LocalDateTime afterDate, String afterId, int size, List<Object> args) {
+		StringBuilder sql = new StringBuilder(SEARCH_COLUMNS);
+		List<String> predicates = new ArrayList<>();
+		if (criteria.getCustomerId() != null) {
+			predicates.add("customer_id = ?");
+			args.add(criteria.getCustomerId());
+		}
+		if (criteria.getEmployeeId() != null) {
+			predicates.add("emp_id = ?");
+			args.add(criteria.getEmployeeId());
+		}
+		if (criteria.getNumberPrefix() != null) {
+			predicates.add("invoice_number LIKE ?");
+			args.add(escapeLike(criteria.getNumberPrefix()) + "%");
+		}
+		if (criteria.getFromDate() != null) {
+			predicates.add("invoice_date >= ?");
+			args.add(Timestamp.valueOf(criteria.getFromDate()));
+		}
+		if (criteria.getToDate() != null) {
+			predicates.add("invoice_date < ?");
+			args.add(Timestamp.valueOf(criteria.getToDate()));
+		}
+		if (criteria.getMinAmount() != null) {
+			predicates.add("total_amount >= ?");
+			args.add(criteria.getMinAmount());
+		}
+		if (criteria.getMaxAmount() != null) {
+			predicates.add("total_amount <= ?");
+			args.add(criteria.getMaxAmount());
+		}
+		if (afterId != null && afterDate != null) {
+			predicates.add("((invoice_date, invoice_id) < (?, ?) OR invoice_date IS NULL)");
+			args.add(Timestamp.valueOf(afterDate));
+			args.add(afterId);
+		} else if (afterId != null) {
+			predicates.add("invoice_date IS NULL AND invoice_id < ?");
+			args.add(afterId);
+		}
+		if (!predicates.isEmpty()) {
+			sql.append(" WHERE ").append(String.join(" AND ", predicates));
+		}
+		sql.append(" ORDER BY invoice_date DESC, invoice_id DESC LIMIT ?");
+		args.add(size);
+		return sql.toString();
+	}
+	
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+	
+	@Override
+	public List<String> findDistinctCustomerIds() {
+		return invoiceSummaryRepository.findDistinctCustomerIds();
+	}
+	
+	@Override
+	public List<String> findDistinctEmployeeIds() {
+		return invoiceSummaryRepository.findDistinctEmployeeIds();
+	}
+	
+	@Override
+	public int updateCustomerNames(Map<String, String> namesById) {
+		return updateNames(UPDATE_CUSTOMER_NAME_SQL, namesById);
+	}
+	
+	@Override
+	public int updateEmployeeNames(Map<String, String> namesById) {
+		return updateNames(UPDATE_EMPLOYEE_NAME_SQL, namesById);
+	}
+	
+	private int updateNames(String sql, Map<String, String> namesById) {
+		if (namesById.isEmpty()) {
+			return 0;
+		}
+		List<Object[]> batchArgs = new ArrayList<>(namesById.size());
+		namesById.forEach((id, name) -> batchArgs.add(new Object[] { name, id, name }));
+		int changed = 0;
+		for (int count : jdbcTemplate.batchUpdate(sql, batchArgs)) {
+			changed += Math.max(count, 0);
+		}
+		log.debug("Invoice summary name refresh: {} IDs checked, {} rows changed", namesById.size(), changed);
+		return changed;
+	}
+}
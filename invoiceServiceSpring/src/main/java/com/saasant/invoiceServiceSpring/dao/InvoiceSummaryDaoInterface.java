@@ -0,0 +1,38 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+
+public interface InvoiceSummaryDaoInterface {
+	
+	/**
+	 * Inserts or replaces the summary rows. Meant to run inside the transaction that writes
+	 * the invoices themselves. A null name keeps the stored one as long as the ID is unchanged.
+	 */
+	void upsert(List<InvoiceSummary> summaries);
+	
+	void delete(String invoiceId);
+	
+	/**
+	 * Newest first; rows without an invoice date come last. afterId null is the first page;
+	 * afterDate null with an afterId continues among the rows without an invoice date.
+	 */
+	List<InvoiceSummary> fetchPage(LocalDateTime afterDate, String afterId, int size);
+	
+	/** One page of rows matching all set criteria, in fetchPage order, after the given keyset position. */
+	List<InvoiceSummary> search(InvoiceSearchCriteria criteria, LocalDateTime afterDate, String afterId, int size);
+	
+	List<String> findDistinctCustomerIds();
+	
+	List<String> findDistinctEmployeeIds();
+	
+	/** Sets customer_name for every row of each customer whose stored name differs. Returns rows changed. */
+	int updateCustomerNames(Map<String, String> namesById);
+	
+	/** Sets employee_name for every row of each employee whose stored name differs. Returns rows changed. */
+	int updateEmployeeNames(Map<String, String> namesById);
+}
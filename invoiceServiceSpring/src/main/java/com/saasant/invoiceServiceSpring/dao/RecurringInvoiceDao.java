@@ -0,0 +1,188 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.RecurringCadence;
+import com.saasant.invoiceServiceSpring.vo.RecurringInvoiceTemplate;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * recurring_invoice and recurring_invoice_item. Due templates are read through
+ * idx_recurring_due in (next_run_date, template_id) order, a page at a time.
+ */
+@Service
+public class RecurringInvoiceDao implements RecurringInvoiceDaoInterface {
+
+	private static final int MAX_ERROR_LENGTH = 512;
+
+	private static final String COLUMNS =
+			"template_id, customer_id, emp_id, cadence, start_date, end_date, due_days, next_run_date, active, last_invoice_id, last_error";
+
+	private static final String INSERT_TEMPLATE_SQL =
+			"INSERT INTO recurring_invoice (template_id, customer_id, emp_id, cadence, start_date, end_date, due_days, next_run_date, active, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(6))";
+
+	private static final String INSERT_ITEM_SQL =
+			"INSERT INTO recurring_invoice_item (template_id, line_no, product_id, quantity) VALUES (?, ?, ?, ?)";
+
+	private static final String FIND_BY_ID_SQL = "SELECT " + COLUMNS + " FROM recurring_invoice WHERE template_id = ?";
+
+	private static final String DEACTIVATE_SQL = "UPDATE recurring_invoice SET active = 0 WHERE template_id = ?";
+
+	private static final String COUNT_DUE_SQL = "SELECT COUNT(*) FROM recurring_invoice WHERE active = 1 AND next_run_date <= ?";
+
+	private static final String FIND_DUE_FIRST_SQL =
+			"SELECT " + COLUMNS + " FROM recurring_invoice WHERE active = 1 AND next_run_date <= ? "
+			+ "ORDER BY next_run_date, template_id LIMIT ?";
+
+	private static final String FIND_DUE_AFTER_SQL =
+			"SELECT " + COLUMNS + " FROM recurring_invoice WHERE active = 1 AND next_run_date <= ? "
+			+ "AND (next_run_date, template_id) > (?, ?) ORDER BY next_run_date, template_id LIMIT ?";
+
+	// %s is replaced with the template ID placeholders.
+	private static final String FIND_ITEMS_SQL =
+			"SELECT template_id, product_id, quantity FROM recurring_invoice_item WHERE template_id IN (%s) ORDER BY template_id, line_no";
+
+	// Compare-and-set on the pending occurrence: matches nothing once any run has generated it.
+	static final String ADVANCE_SQL =
+			"UPDATE recurring_invoice SET next_run_date = ?, active = ?, last_invoice_id = ?, last_error = NULL "
+			+ "WHERE template_id = ? AND next_run_date = ? AND active = 1";
+
+	private static final String RECORD_ERROR_SQL = "UPDATE recurring_invoice SET last_error = ? WHERE template_id = ?";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	InvoiceDaoInterface invoiceDao;
+
+	@Override
+	@Transactional
+	public void create(RecurringInvoiceTemplate template) {
+		jdbcTemplate.update(INSERT_TEMPLATE_SQL, template.getTemplateId(), template.getCustomerId(), template.getEmployeeId(),
+				template.getCadence().name(), Date.valueOf(template.getStartDate()),
+				template.getEndDate() != null ? Date.valueOf(template.getEndDate()) : null, template.getDueDays(),
+				Date.valueOf(template.getNextRunDate()), template.isActive());
+		List<Object[]> itemArgs = new ArrayList<>(template.getItems().size());
+		int lineNo = 0;
+		for (InvoiceItem item : template.getItems()) {
+			itemArgs.add(new Object[] { template.getTemplateId(), lineNo++, Integer.parseInt(item.getProductId()), item.getQuantity() });
+		}
+		jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, itemArgs);
+	}
+
+	@Override
+	public Optional<RecurringInvoiceTemplate> findById(String templateId) {
+		List<RecurringInvoiceTemplate> found = jdbcTemplate.query(FIND_BY_ID_SQL, (rs, rowNum) -> mapTemplate(rs), templateId);
+		attachItems(found);
+		return found.stream().findFirst();
+	}
+
+	@Override
+	public boolean deactivate(String templateId) {
+		return jdbcTemplate.update(DEACTIVATE_SQL, templateId) > 0;
+	}
+
+	@Override
+	public int countDue(LocalDate day) {
+		Integer count = jdbcTemplate.queryForObject(COUNT_DUE_SQL, Integer.class, Date.valueOf(day));
+		return count != null ? count : 0;
+	}
+
+	@Override
+	public List<RecurringInvoiceTemplate> findDue(LocalDate day, LocalDate afterDate, String afterId, int limit) {
+		List<RecurringInvoiceTemplate> templates = afterDate == null
+				? jdbcTemplate.query(FIND_DUE_FIRST_SQL, (rs, rowNum) -> mapTemplate(rs), Date.valueOf(day), limit)
+				: jdbcTemplate.query(FIND_DUE_AFTER_SQL, (rs, rowNum) -> mapTemplate(rs), Date.valueOf(day),
+						Date.valueOf(afterDate), afterId, limit);
+		attachItems(templates);
+		return templates;
+	}
+
+	@Override
+	@Transactional
+	public void materialize(List<RecurringInvoiceTemplate> templates, List<InvoiceDetails> invoices) {
+		if (templates.isEmpty()) {
+			return;
+		}
+		// Templates first: their row locks make a concurrent run for the same occurrences wait
+		// here and then find nothing to advance.
+		List<Object[]> advanceArgs = new ArrayList<>(templates.size());
+		for (int i = 0; i < templates.size(); i++) {
+			RecurringInvoiceTemplate template = templates.get(i);
+			LocalDate following = template.followingRunDate();
+			boolean stillActive = template.getEndDate() == null || !following.isAfter(template.getEndDate());
+			advanceArgs.add(new Object[] { Date.valueOf(following), stillActive, invoices.get(i).getInvoiceId(),
+					template.getTemplateId(), Date.valueOf(template.getNextRunDate()) });
+		}
+		int[] counts = jdbcTemplate.batchUpdate(ADVANCE_SQL, advanceArgs);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) {
+				RecurringInvoiceTemplate template = templates.get(i);
+				throw new IllegalStateException("Recurring invoice " + template.getTemplateId() + " for "
+						+ template.getNextRunDate() + " was already generated.");
+			}
+		}
+		invoiceDao.saveInvoices(invoices);
+	}
+
+	@Override
+	public void recordFailures(Map<String, String> errorsByTemplateId) {
+		if (errorsByTemplateId.isEmpty()) {
+			return;
+		}
+		List<Object[]> args = new ArrayList<>(errorsByTemplateId.size());
+		errorsByTemplateId.forEach((templateId, error) -> args.add(new Object[] {
+				error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, templateId }));
+		jdbcTemplate.batchUpdate(RECORD_ERROR_SQL, args);
+	}
+
+	/** Loads the items of all the templates with one query. */
+	private void attachItems(List<RecurringInvoiceTemplate> templates) {
+		if (templates.isEmpty()) {
+			return;
+		}
+		Map<String, RecurringInvoiceTemplate> byId = new HashMap<>(templates.size() * 2);
+		templates.forEach(template -> byId.put(template.getTemplateId(), template));
+		String placeholders = String.join(", ", Collections.nCopies(byId.size(), "?"));
+		jdbcTemplate.query(String.format(FIND_ITEMS_SQL, placeholders), rs -> {
+			InvoiceItem item = new InvoiceItem();
+			item.setProductId(String.valueOf(rs.getInt("product_id")));
+			item.setQuantity(rs.getInt("quantity"));
+			byId.get(rs.getString("template_id")).getItems().add(item);
+		}, byId.keySet().toArray());
+	}
+
+	private static RecurringInvoiceTemplate mapTemplate(ResultSet rs) throws SQLException {
+		RecurringInvoiceTemplate template = new RecurringInvoiceTemplate();
+		template.setTemplateId(rs.getString("template_id"));
+		template.setCustomerId(rs.getString("customer_id"));
+		template.setEmployeeId(rs.getString("emp_id"));
+		template.setCadence(RecurringCadence.valueOf(rs.getString("cadence")));
+		template.setStartDate(rs.getDate("start_date").toLocalDate());
+		Date endDate = rs.getDate("end_date");
+		template.setEndDate(endDate != null ? endDate.toLocalDate() : null);
+		template.setDueDays(rs.getInt("due_days"));
+		template.setNextRunDate(rs.getDate("next_run_date").toLocalDate());
+		template.setActive(rs.getBoolean("active"));
+		template.setLastInvoiceId(rs.getString("last_invoice_id"));
+		template.setLastError(rs.getString("last_error"));
+		return template;
+	}
+}
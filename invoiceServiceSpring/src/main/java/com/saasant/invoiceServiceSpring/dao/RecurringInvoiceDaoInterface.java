@@ -0,0 +1,38 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.RecurringInvoiceTemplate;
+
+public interface RecurringInvoiceDaoInterface {
+
+	void create(RecurringInvoiceTemplate template);
+
+	Optional<RecurringInvoiceTemplate> findById(String templateId);
+
+	/** Stops a template from producing further invoices. False when it does not exist. */
+	boolean deactivate(String templateId);
+
+	/** Active templates with an occurrence on or before day still to invoice. */
+	int countDue(LocalDate day);
+
+	/**
+	 * Up to limit due templates with their items, in (nextRunDate, templateId) order after the
+	 * given position (afterDate null for the first page).
+	 */
+	List<RecurringInvoiceTemplate> findDue(LocalDate day, LocalDate afterDate, String afterId, int limit);
+
+	/**
+	 * Saves invoices.get(i) as the occurrence templates.get(i).getNextRunDate() and moves each
+	 * template on to its following occurrence, in one transaction. Fails, saving nothing, if any
+	 * template no longer has that occurrence pending (another run already generated it).
+	 */
+	void materialize(List<RecurringInvoiceTemplate> templates, List<InvoiceDetails> invoices);
+
+	/** Stores why generating an occurrence failed, by template ID; the occurrence stays pending. */
+	void recordFailures(Map<String, String> errorsByTemplateId);
+}
@@ -0,0 +1,132 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+/**
+ * Maintains the daily revenue rollups with signed deltas. Each delta is computed in SQL from
+ * the rows currently stored for the invoices, so an update is "subtract the stored state,
+ * write the invoice, add the stored state" and the rollups always match invoice/invoiceitems.
+ */
+@Service
+public class RevenueRollupDao implements RevenueRollupDaoInterface {
+	
+	private static final Logger log = LoggerFactory.getLogger(RevenueRollupDao.class);
+	
+	// %s is replaced with the invoice ID placeholders; the first parameters are the sign.
+	// Update targets are table-qualified: with GROUP BY in the SELECT, a bare "quantity"
+	// would be ambiguous with invoiceitems.quantity.
+	private static final String DAILY_DELTA_SQL =
+			"INSERT INTO invoice_rollup_daily (rollup_date, invoice_count, revenue) "
+			+ "SELECT DATE(i.invoice_date), COUNT(*) * ?, SUM(i.total_amount) * ? FROM invoice i "
+			+ "WHERE i.invoice_id IN (%s) AND i.invoice_date IS NOT NULL GROUP BY DATE(i.invoice_date) "
+			+ "ON DUPLICATE KEY UPDATE invoice_count = invoice_rollup_daily.invoice_count + VALUES(invoice_count), revenue = invoice_rollup_daily.revenue + VALUES(revenue)";
+	
+	private static final String CUSTOMER_DELTA_SQL =
+			"INSERT INTO invoice_rollup_customer (customer_id, rollup_date, invoice_count, revenue) "
+			+ "SELECT i.customer_id, DATE(i.invoice_date), COUNT(*) * ?, SUM(i.total_amount) * ? FROM invoice i "
+			+ "WHERE i.invoice_id IN (%s) AND i.invoice_date IS NOT NULL AND i.customer_id IS NOT NULL "
+			+ "GROUP BY i.customer_id, DATE(i.invoice_date) "
+			+ "ON DUPLICATE KEY UPDATE invoice_count = invoice_rollup_customer.invoice_count + VALUES(invoice_count), revenue = invoice_rollup_customer.revenue + VALUES(revenue)";
+	
+	private static final String EMPLOYEE_DELTA_SQL =
+			"INSERT INTO invoice_rollup_employee (emp_id, rollup_date, invoice_count, revenue) "
+			+ "SELECT i.emp_id, DATE(i.invoice_date), COUNT(*) * ?, SUM(i.total_amount) * ? FROM invoice i "
+			+ "WHERE i.invoice_id IN (%s) AND i.invoice_date IS NOT NULL AND i.emp_id IS NOT NULL "
+			+ "GROUP BY i.emp_id, DATE(i.invoice_date) "
+			+ "ON DUPLICATE KEY UPDATE invoice_count = invoice_rollup_employee.invoice_count + VALUES(invoice_count), revenue = invoice_rollup_employee.revenue + VALUES(revenue)";
+	
+	// invoice_count here is the number of invoices containing the product (items are consolidated per product).
+	private static final String PRODUCT_DELTA_SQL =
+			"INSERT INTO invoice_rollup_product (product_id, rollup_date, invoice_count, quantity, revenue) "
+			+ "SELECT it.product_id, DATE(i.invoice_date), COUNT(DISTINCT it.invoice_id) * ?, SUM(it.quantity) * ?, SUM(it.total_cost) * ? "
+			+ "FROM invoiceitems it JOIN invoice i ON i.invoice_id = it.invoice_id "
+			+ "WHERE i.invoice_id IN (%s) AND i.invoice_date IS NOT NULL GROUP BY it.product_id, DATE(i.invoice_date) "
+			+ "ON DUPLICATE KEY UPDATE invoice_count = invoice_rollup_product.invoice_count + VALUES(invoice_count), "
+			+ "quantity = invoice_rollup_product.quantity + VALUES(quantity), revenue = invoice_rollup_product.revenue + VALUES(revenue)";
+	
+	private static final String DAILY_SQL =
+			"SELECT rollup_date, invoice_count, revenue FROM invoice_rollup_daily "
+			+ "WHERE rollup_date BETWEEN ? AND ? AND invoice_count <> 0 ORDER BY rollup_date";
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public void addInvoices(Collection<String> invoiceIds) {
+		applyDelta(invoiceIds, 1);
+	}
+	
+	@Override
+	public void subtractInvoices(Collection<String> invoiceIds) {
+		applyDelta(invoiceIds, -1);
+	}
+	
+	private void applyDelta(Collection<String> invoiceIds, int sign) {
+		if (invoiceIds.isEmpty()) {
+			return;
+		}
+		String placeholders = String.join(", ", Collections.nCopies(invoiceIds.size(), "?"));
+		jdbcTemplate.update(String.format(DAILY_DELTA_SQL, placeholders), args(invoiceIds, sign, 2));
+		jdbcTemplate.update(String.format(CUSTOMER_DELTA_SQL, placeholders), args(invoiceIds, sign, 2));
+		jdbcTemplate.update(String.format(EMPLOYEE_DELTA_SQL, placeholders), args(invoiceIds, sign, 2));
+		jdbcTemplate.update(String.format(PRODUCT_DELTA_SQL, placeholders), args(invoiceIds, sign, 3));
+		log.debug("Applied rollup delta {} for {} invoice(s)", sign > 0 ? "+" : "-", invoiceIds.size());
+	}
+	
+	private static Object[] args(Collection<String> invoiceIds, int sign, int signCount) {
+		List<Object> args = new ArrayList<>(signCount + invoiceIds.size());
+		for (int i = 0; i < signCount; i++) {
+			args.add(sign);
+		}
+		args.addAll(invoiceIds);
+		return args.toArray();
+	}
+	
+	@Override
+	public List<RevenueRow> daily(LocalDate from, LocalDate to) {
+		return jdbcTemplate.query(DAILY_SQL, (rs, rowNum) -> new RevenueRow(rs.getDate("rollup_date").toLocalDate(), null,
+				rs.getLong("invoice_count"), null, rs.getDouble("revenue")), Date.valueOf(from), Date.valueOf(to));
+	}
+	
+	@Override
+	public List<RevenueRow> dailyForKey(RollupDimension dimension, String key, LocalDate from, LocalDate to) {
+		String sql = "SELECT rollup_date, " + dimension.keyColumn + " AS rollup_key, invoice_count, " + quantityColumn(dimension)
+				+ ", revenue FROM " + dimension.table + " WHERE " + dimension.keyColumn + " = ? AND rollup_date BETWEEN ? AND ? "
+				+ "AND invoice_count <> 0 ORDER BY rollup_date";
+		return jdbcTemplate.query(sql, (rs, rowNum) -> toRow(rs, dimension, rs.getDate("rollup_date").toLocalDate()),
+				key, Date.valueOf(from), Date.valueOf(to));
+	}
+	
+	@Override
+	public List<RevenueRow> totalsByKey(RollupDimension dimension, LocalDate from, LocalDate to) {
+		String quantity = dimension == RollupDimension.PRODUCT ? "SUM(quantity) AS quantity" : "NULL AS quantity";
+		String sql = "SELECT " + dimension.keyColumn + " AS rollup_key, SUM(invoice_count) AS invoice_count, " + quantity
+				+ ", SUM(revenue) AS revenue FROM " + dimension.table + " WHERE rollup_date BETWEEN ? AND ? "
+				+ "GROUP BY " + dimension.keyColumn + " HAVING SUM(invoice_count) <> 0 ORDER BY revenue DESC";
+		return jdbcTemplate.query(sql, (rs, rowNum) -> toRow(rs, dimension, null), Date.valueOf(from), Date.valueOf(to));
+	}
+	
+	private static String quantityColumn(RollupDimension dimension) {
+		return dimension == RollupDimension.PRODUCT ? "quantity" : "NULL AS quantity";
+	}
+	
+	private static RevenueRow toRow(ResultSet rs, RollupDimension dimension, LocalDate date) throws SQLException {
+		Double quantity = dimension == RollupDimension.PRODUCT ? rs.getDouble("quantity") : null;
+		return new RevenueRow(date, rs.getString("rollup_key"), rs.getLong("invoice_count"), quantity, rs.getDouble("revenue"));
+	}
+}
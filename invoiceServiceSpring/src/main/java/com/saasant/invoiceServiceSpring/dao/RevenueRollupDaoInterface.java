@@ -0,0 +1,31 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+public interface RevenueRollupDaoInterface {
+	
+	/**
+	 * Adds the stored state of the given invoices (header and items as currently in the
+	 * database) to every rollup. Call after the invoices are written, in the same transaction.
+	 */
+	void addInvoices(Collection<String> invoiceIds);
+	
+	/**
+	 * Subtracts the stored state of the given invoices from every rollup. Call before the
+	 * invoices are changed or deleted, in the same transaction.
+	 */
+	void subtractInvoices(Collection<String> invoiceIds);
+	
+	/** Invoice count and revenue per day in [from, to], days without invoices omitted. */
+	List<RevenueRow> daily(LocalDate from, LocalDate to);
+	
+	/** Per-day rows in [from, to] for one customer, employee or product. */
+	List<RevenueRow> dailyForKey(RollupDimension dimension, String key, LocalDate from, LocalDate to);
+	
+	/** One row per customer, employee or product with its totals over [from, to], highest revenue first. */
+	List<RevenueRow> totalsByKey(RollupDimension dimension, LocalDate from, LocalDate to);
+}
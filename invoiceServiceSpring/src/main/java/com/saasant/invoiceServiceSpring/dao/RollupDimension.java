@@ -0,0 +1,19 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+/**
+ * The per-key daily revenue rollups, with the table and key column backing each one.
+ */
+public enum RollupDimension {
+	
+	CUSTOMER("invoice_rollup_customer", "customer_id"),
+	EMPLOYEE("invoice_rollup_employee", "emp_id"),
+	PRODUCT("invoice_rollup_product", "product_id");
+	
+	final String table;
+	final String keyColumn;
+	
+	RollupDimension(String table, String keyColumn) {
+		this.table = table;
+		this.keyColumn = keyColumn;
+	}
+}
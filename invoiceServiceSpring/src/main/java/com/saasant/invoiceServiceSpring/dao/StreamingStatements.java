@@ -0,0 +1,27 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Statements for whole-table reads (export, aging, analytics load). Connector/J buffers a
+ * full result set unless the statement asks for streaming, so these set the driver's
+ * row-by-row fetch size on the one statement instead of enabling cursor fetch for every
+ * connection in the pool. The connection is busy until the result is read to the end.
+ */
+final class StreamingStatements {
+
+	// Connector/J's marker for "stream rows one at a time".
+	static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+	private StreamingStatements() {
+	}
+
+	static PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		ps.setFetchSize(STREAMING_FETCH_SIZE);
+		return ps;
+	}
+}
@@ -29,4 +29,9 @@ public class Invoice {
 	float totalAmount;
 	private LocalDate dueDate;
     private LocalDateTime invoiceDate;
+    
+    // Edit counter for optimistic locking. Written only by InvoiceDao.updateInvoice's guarded
+    // UPDATE (new rows take the column default 0), never by Hibernate's own statements.
+    @Column(insertable = false, updatable = false)
+    long version;
 }
@@ -0,0 +1,35 @@
+package com.saasant.invoiceServiceSpring.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Denormalized listing row for one invoice, with the customer and employee names copied in.
+ * Written by InvoiceSummaryDao alongside every invoice write; never edited through JPA.
+ */
+@Entity
+@Table(name = "invoice_summary")
+@Data
+public class InvoiceSummary {
+	
+	@Id
+	String invoiceId;
+	String invoiceNumber;
+	private LocalDateTime invoiceDate;
+	private LocalDate dueDate;
+	float totalAmount;
+	String customerId;
+	String customerName;
+	
+	@Column(name = "emp_id")
+	String employeeId;
+	String employeeName;
+	int itemCount;
+	private LocalDateTime updatedAt;
+}
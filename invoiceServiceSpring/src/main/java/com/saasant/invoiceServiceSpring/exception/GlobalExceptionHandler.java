@@ -66,6 +66,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 	
+	@ExceptionHandler(InvoiceVersionConflictException.class)
+    public ResponseEntity<Object> handleInvoiceVersionConflictException(InvoiceVersionConflictException ex, WebRequest request) {
+        log.warn("InvoiceVersionConflictException: {} for request {}", ex.getMessage(), request.getDescription(false));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.PRECONDITION_FAILED.value());
+        body.put("error", "Precondition Failed");
+        body.put("message", ex.getMessage());
+        body.put("currentVersion", ex.getCurrentVersion());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+        return new ResponseEntity<>(body, HttpStatus.PRECONDITION_FAILED);
+    }
+	
 	
 
 
@@ -0,0 +1,24 @@
+package com.saasant.invoiceServiceSpring.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An invoice edit lost the race: its If-Match version is not the stored one, or another
+ * edit committed between reading and writing the invoice.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class InvoiceVersionConflictException extends RuntimeException {
+
+	private final Long currentVersion;
+
+	public InvoiceVersionConflictException(String message, Long currentVersion) {
+		super(message);
+		this.currentVersion = currentVersion;
+	}
+
+	/** The version this request saw stored, or null when it is not known. */
+	public Long getCurrentVersion() {
+		return currentVersion;
+	}
+}
@@ -1,13 +1,23 @@
 package com.saasant.invoiceServiceSpring.repo;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.saasant.invoiceServiceSpring.entity.InvoiceItemEntity;
 
 public interface InvoiceItemRepository extends JpaRepository<InvoiceItemEntity, String> {
 	
 	List<InvoiceItemEntity> findByInvoiceId(String invoiceId);
+	
+	List<InvoiceItemEntity> findByInvoiceIdIn(Collection<String> invoiceIds);
+	
+	@Modifying
+	@Query("delete from InvoiceItemEntity i where i.invoiceId = :invoiceId")
+	int deleteAllByInvoiceId(@Param("invoiceId") String invoiceId);
 
 }
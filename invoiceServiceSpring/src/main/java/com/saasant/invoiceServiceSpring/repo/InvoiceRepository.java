@@ -1,6 +1,7 @@
 package com.saasant.invoiceServiceSpring.repo;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,4 +17,17 @@ public interface InvoiceRepository extends JpaRepository<Invoice, String>{
 	
 	long countByInvoiceDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 	
+	// Keyset pagination, newest first. Backed by idx_invoice_date_id (invoice_date, invoice_id).
+	@Query("select i from Invoice i order by i.invoiceDate desc, i.invoiceId desc")
+	List<Invoice> findFirstPage(Pageable limit);
+	
+	// MySQL sorts NULL dates last in descending order, so undated rows follow every dated one.
+	@Query("select i from Invoice i where i.invoiceDate < :afterDate "
+			+ "or (i.invoiceDate = :afterDate and i.invoiceId < :afterId) or i.invoiceDate is null "
+			+ "order by i.invoiceDate desc, i.invoiceId desc")
+	List<Invoice> findPageAfter(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") String afterId, Pageable limit);
+	
+	@Query("select i from Invoice i where i.invoiceDate is null and i.invoiceId < :afterId order by i.invoiceId desc")
+	List<Invoice> findUndatedPageAfter(@Param("afterId") String afterId, Pageable limit);
+	
 }
@@ -0,0 +1,35 @@
+package com.saasant.invoiceServiceSpring.repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
+
+@Repository
+public interface InvoiceSummaryRepository extends JpaRepository<InvoiceSummary, String> {
+	
+	// Keyset pagination, newest first. Backed by idx_invoice_summary_date_id (invoice_date, invoice_id).
+	@Query("select s from InvoiceSummary s order by s.invoiceDate desc, s.invoiceId desc")
+	List<InvoiceSummary> findFirstPage(Pageable limit);
+	
+	// MySQL sorts NULL dates last in descending order, so undated rows follow every dated one.
+	@Query("select s from InvoiceSummary s where s.invoiceDate < :afterDate "
+			+ "or (s.invoiceDate = :afterDate and s.invoiceId < :afterId) or s.invoiceDate is null "
+			+ "order by s.invoiceDate desc, s.invoiceId desc")
+	List<InvoiceSummary> findPageAfter(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") String afterId, Pageable limit);
+	
+	@Query("select s from InvoiceSummary s where s.invoiceDate is null and s.invoiceId < :afterId order by s.invoiceId desc")
+	List<InvoiceSummary> findUndatedPageAfter(@Param("afterId") String afterId, Pageable limit);
+	
+	@Query("select distinct s.customerId from InvoiceSummary s")
+	List<String> findDistinctCustomerIds();
+	
+	@Query("select distinct s.employeeId from InvoiceSummary s")
+	List<String> findDistinctEmployeeIds();
+}
@@ -1,10 +1,22 @@
 package com.saasant.invoiceServiceSpring.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -15,23 +27,109 @@ import com.saasant.invoiceServiceSpring.vo.*;
 import org.slf4j.LoggerFactory;
 import com.saasant.invoiceServiceSpring.exception.CustomerNotFoundException;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class CustomerClientService {
 	
 	private static final org.slf4j.Logger log = LoggerFactory.getLogger(CustomerClientService.class);
 
+	/** Matches the most IDs the customer service's /batch endpoint accepts per request. */
+	private static final int BATCH_LOOKUP_MAX = 500;
+	
 	@Value("${customer.service.baseurl}")
-	private String customerServiceBaseUrl;
+	String customerServiceBaseUrl;
 	
 	@Autowired
 	public RestTemplate restTemplate;
 	
+	@Autowired
+	@Qualifier("lookupRefreshExecutor")
+	Executor lookupRefreshExecutor;
+	
+	@Value("${customer.cache.max-size:10000}")
+	int cacheMaxSize;
+	
+	@Value("${customer.cache.ttl-ms:300000}")
+	long cacheTtlMs;
+	
+	@Value("${customer.cache.negative-ttl-ms:30000}")
+	long cacheNegativeTtlMs;
+	
+	@Value("${customer.cache.max-stale-ms:3600000}")
+	long cacheMaxStaleMs;
+	
+	private LookupCache<CustomerDetails> customerCache;
+	
+	@PostConstruct
+	void initCache() {
+		customerCache = new LookupCache<>("customer", cacheMaxSize, cacheTtlMs, cacheNegativeTtlMs, cacheMaxStaleMs,
+				lookupRefreshExecutor);
+	}
+	
 	public Optional<CustomerDetails> getCustomerById(String customerId) {
         if (customerId == null || customerId.trim().isEmpty()) {
             log.warn("Attempted to fetch customer with null or empty ID.");
             throw new CustomerNotFoundException("Customer ID cannot be null or empty.");
         }
 
+        try {
+            return customerCache.get(customerId, this::fetchCustomer);
+        } catch (RestClientException ex) {
+            // Handles other client-side errors (e.g., service unavailable, connection refused)
+            log.error("Error calling Customer Service for ID: {}. Error: {}", customerId, ex.getMessage());
+            return Optional.empty();
+        } catch (Exception ex) {
+            // Catch any other unexpected exceptions
+            log.error("Unexpected error while fetching customer ID: {}. Error: {}", customerId, ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+	
+	/**
+	 * Looks up many customers at once, keyed by ID. Cached entries are served directly and
+	 * the rest are POSTed to the customer service's /batch endpoint in chunks of
+	 * BATCH_LOOKUP_MAX IDs (a body, since that many IDs do not fit in a URL). Unknown IDs are absent from the result; if the customer service
+	 * cannot be reached the result is empty.
+	 */
+	public Map<String, CustomerDetails> getCustomersByIds(Collection<String> customerIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : customerIds) {
+            if (id != null && !id.trim().isEmpty()) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return customerCache.getAll(ids, this::fetchCustomers);
+        } catch (RestClientException ex) {
+            log.error("Error calling Customer Service for {} IDs. Error: {}", ids.size(), ex.getMessage());
+            return Map.of();
+        }
+    }
+	
+	private Map<String, CustomerDetails> fetchCustomers(Set<String> customerIds) {
+        List<String> ids = new ArrayList<>(customerIds);
+        Map<String, CustomerDetails> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_LOOKUP_MAX) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_LOOKUP_MAX, ids.size()));
+            log.info("Fetching {} customers in one batch from {}/batch", chunk.size(), customerServiceBaseUrl);
+            ResponseEntity<Map<String, CustomerDetails>> response = restTemplate.exchange(customerServiceBaseUrl + "/batch",
+                    HttpMethod.POST, new HttpEntity<>(chunk), new ParameterizedTypeReference<Map<String, CustomerDetails>>() {});
+            if (response.getBody() != null) {
+                found.putAll(response.getBody());
+            }
+        }
+        return found;
+    }
+
+	/**
+	 * Cache loader: a 404 is a definite "not found" and is cached briefly; every other
+	 * failure is thrown so it is not cached.
+	 */
+	private Optional<CustomerDetails> fetchCustomer(String customerId) {
         String url = customerServiceBaseUrl + "/" + customerId;
         log.info("Attempting to fetch customer details from URL: {}", url);
 
@@ -45,13 +143,8 @@ public class CustomerClientService {
                 log.warn("Received non-OK status ({}) or empty body when fetching customer ID: {}", response.getStatusCode(), customerId);
                 throw new CustomerNotFoundException("Customer ID cannot be null or empty.");
             }
-        } catch (RestClientException ex) {
-            // Handles other client-side errors (e.g., service unavailable, connection refused)
-            log.error("Error calling Customer Service for ID: {}. URL: {}. Error: {}", customerId, url, ex.getMessage());
-            return Optional.empty();
-        } catch (Exception ex) {
-            // Catch any other unexpected exceptions
-            log.error("Unexpected error while fetching customer ID: {}. URL: {}. Error: {}", customerId, url, ex.getMessage(), ex);
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.warn("Customer ID: {} not found. URL: {}", customerId, url);
             return Optional.empty();
         }
     }
@@ -2,7 +2,11 @@ package com.saasant.invoiceServiceSpring.service;
 
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -14,7 +18,17 @@ import com.saasant.invoiceServiceSpring.exception.CustomerNotFoundException;
 import com.saasant.invoiceServiceSpring.exception.EmployeeNotFoundException;
 import com.saasant.invoiceServiceSpring.vo.Employee;
 
+import jakarta.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 
@@ -24,18 +38,97 @@ public class EmployeeClientService {
 	
 	private static final Logger log = LoggerFactory.getLogger(EmployeeClientService.class);
 	
+	/** Matches the most IDs the employee service's /batch endpoint accepts per request. */
+	private static final int BATCH_LOOKUP_MAX = 500;
+	
 	@Value("${employee.service.baseurl}")
 	private String employeeServiceBaseUrl;
 	
 	@Autowired
 	public RestTemplate restTemplate;
 	
+	@Autowired
+	@Qualifier("lookupRefreshExecutor")
+	Executor lookupRefreshExecutor;
+	
+	@Value("${employee.cache.max-size:10000}")
+	private int cacheMaxSize;
+	
+	@Value("${employee.cache.ttl-ms:300000}")
+	private long cacheTtlMs;
+	
+	@Value("${employee.cache.negative-ttl-ms:30000}")
+	private long cacheNegativeTtlMs;
+	
+	@Value("${employee.cache.max-stale-ms:3600000}")
+	private long cacheMaxStaleMs;
+	
+	private LookupCache<Employee> employeeCache;
+	
+	@PostConstruct
+	void initCache() {
+		employeeCache = new LookupCache<>("employee", cacheMaxSize, cacheTtlMs, cacheNegativeTtlMs, cacheMaxStaleMs,
+				lookupRefreshExecutor);
+	}
+	
 	public Optional<Employee> getEmployeeById(String employeeId) {
         if (employeeId == null || employeeId.trim().isEmpty()) {
             log.warn("Attempted to fetch employee with null or empty ID.");
             throw new EmployeeNotFoundException("Employee ID cannot be null or empty.");
         }
 
+        try {
+            return employeeCache.get(employeeId, this::fetchEmployee);
+        } catch (RestClientException ex) {
+            log.error("Error calling Employee Service for ID: {}. Error: {}", employeeId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+	
+	/**
+	 * Looks up many employees at once, keyed by ID. Cached entries are served directly and
+	 * the rest are POSTed to the employee service's /batch endpoint in chunks of
+	 * BATCH_LOOKUP_MAX IDs (a body, since that many IDs do not fit in a URL). Unknown IDs are absent from the result; if the employee service
+	 * cannot be reached the result is empty.
+	 */
+	public Map<String, Employee> getEmployeesByIds(Collection<String> employeeIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : employeeIds) {
+            if (id != null && !id.trim().isEmpty()) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return employeeCache.getAll(ids, this::fetchEmployees);
+        } catch (RestClientException ex) {
+            log.error("Error calling Employee Service for {} IDs. Error: {}", ids.size(), ex.getMessage());
+            return Map.of();
+        }
+    }
+	
+	private Map<String, Employee> fetchEmployees(Set<String> employeeIds) {
+        List<String> ids = new ArrayList<>(employeeIds);
+        Map<String, Employee> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_LOOKUP_MAX) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_LOOKUP_MAX, ids.size()));
+            log.info("Fetching {} employees in one batch from {}/batch", chunk.size(), employeeServiceBaseUrl);
+            ResponseEntity<Map<String, Employee>> response = restTemplate.exchange(employeeServiceBaseUrl + "/batch",
+                    HttpMethod.POST, new HttpEntity<>(chunk), new ParameterizedTypeReference<Map<String, Employee>>() {});
+            if (response.getBody() != null) {
+                found.putAll(response.getBody());
+            }
+        }
+        return found;
+    }
+
+	/**
+	 * Cache loader: a 404 is a definite "not found" and is cached briefly; every other
+	 * failure is thrown so it is not cached.
+	 */
+	private Optional<Employee> fetchEmployee(String employeeId) {
         String url = employeeServiceBaseUrl + "/" + employeeId;
         log.info("Attempting to fetch employee details from URL: {}", url);
 
@@ -49,8 +142,8 @@ public class EmployeeClientService {
                 log.warn("Received non-OK status ({}) or empty body when fetching employee ID: {}", response.getStatusCode(), employeeId);
                 throw new EmployeeNotFoundException("Employee ID cannot be null or empty.");
             }
-        } catch (RestClientException ex) {
-            log.error("Error calling Employee Service for ID: {}. URL: {}. Error: {}", employeeId, url, ex.getMessage());
+        } catch (HttpClientErrorException.NotFound ex) {
+            log.warn("Employee ID: {} not found. URL: {}", employeeId, url);
             return Optional.empty();
         }
     }
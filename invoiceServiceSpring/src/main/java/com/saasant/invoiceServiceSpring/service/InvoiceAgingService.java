@@ -0,0 +1,165 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceAgingDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.AgingBuckets;
+import com.saasant.invoiceServiceSpring.vo.AgingReport;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Receivables aging as of a date, computed in one pass over the invoices ordered by
+ * customer: each customer's buckets are closed as soon as the next customer starts, so only
+ * the report itself is held in memory. Reports are cached per as-of date until the next
+ * invoice write commits: this instance's own writes clear the cache right after commit,
+ * writes on other instances when InvoiceEventRelay reads them from the outbox. The TTL bounds
+ * how long a report can be served should the outbox poll stall.
+ */
+@Service
+public class InvoiceAgingService {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceAgingService.class);
+	
+	@Autowired
+	InvoiceAgingDaoInterface invoiceAgingDao;
+	
+	@Value("${invoice.reports.aging-cache-size:32}")
+	int cacheSize;
+	
+	@Value("${invoice.reports.aging-cache-ttl-ms:300000}")
+	long cacheTtlMs;
+	
+	// Bumped on every committed invoice write; a report computed across a bump is not cached.
+	private final AtomicLong generation = new AtomicLong();
+	private Map<LocalDate, CachedReport> cache;
+	
+	@PostConstruct
+	void initCache() {
+		cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<LocalDate, CachedReport> eldest) {
+				return size() > cacheSize;
+			}
+		});
+	}
+	
+	public AgingReport aging(LocalDate asOf) {
+		long startGeneration = generation.get();
+		CachedReport cached = cache.get(asOf);
+		long start = System.currentTimeMillis();
+		if (cached != null && cached.generation == startGeneration && start < cached.expiresAt) {
+			return cached.report;
+		}
+		AgingReport report = compute(asOf);
+		if (generation.get() == startGeneration) {
+			cache.put(asOf, new CachedReport(startGeneration, report, start + cacheTtlMs));
+		}
+		log.info("Aging report as of {} computed for {} customers in {} ms", asOf, report.getCustomers().size(),
+				System.currentTimeMillis() - start);
+		return report;
+	}
+	
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onInvoicesChanged(InvoicesChangedEvent event) {
+		invalidate();
+	}
+	
+	@EventListener
+	public void onInvoicesCommitted(InvoicesCommittedEvent event) {
+		invalidate();
+	}
+	
+	private void invalidate() {
+		generation.incrementAndGet();
+		cache.clear();
+	}
+	
+	private AgingReport compute(LocalDate asOf) {
+		long asOfDay = asOf.toEpochDay();
+		AgingBuckets total = new AgingBuckets();
+		List<AgingBuckets> customers = new ArrayList<>();
+		AgingBuckets[] current = new AgingBuckets[1];
+		invoiceAgingDao.streamByCustomer(asOf, (customerId, dueDate, amount) -> {
+			// Invoices without a customer sort together and share one "" bucket.
+			String bucketId = customerId != null ? customerId : "";
+			AgingBuckets customer = current[0];
+			if (customer == null || !Objects.equals(customer.getCustomerId(), bucketId)) {
+				if (customer != null) {
+					customers.add(round(customer));
+				}
+				customer = new AgingBuckets();
+				customer.setCustomerId(bucketId);
+				current[0] = customer;
+			}
+			long daysPastDue = dueDate != null ? asOfDay - dueDate.toEpochDay() : 0;
+			add(customer, daysPastDue, amount);
+			add(total, daysPastDue, amount);
+		});
+		if (current[0] != null) {
+			customers.add(round(current[0]));
+		}
+		return new AgingReport(asOf, round(total), customers);
+	}
+	
+	private static void add(AgingBuckets buckets, long daysPastDue, double amount) {
+		if (daysPastDue <= 0) {
+			buckets.setCurrent(buckets.getCurrent() + amount);
+		} else if (daysPastDue <= 30) {
+			buckets.setDays1To30(buckets.getDays1To30() + amount);
+		} else if (daysPastDue <= 60) {
+			buckets.setDays31To60(buckets.getDays31To60() + amount);
+		} else if (daysPastDue <= 90) {
+			buckets.setDays61To90(buckets.getDays61To90() + amount);
+		} else {
+			buckets.setOver90(buckets.getOver90() + amount);
+		}
+		buckets.setTotal(buckets.getTotal() + amount);
+		buckets.setInvoiceCount(buckets.getInvoiceCount() + 1);
+	}
+	
+	/** Sums are accumulated unrounded and rounded to cents once, when the bucket is closed. */
+	private static AgingBuckets round(AgingBuckets buckets) {
+		buckets.setCurrent(cents(buckets.getCurrent()));
+		buckets.setDays1To30(cents(buckets.getDays1To30()));
+		buckets.setDays31To60(cents(buckets.getDays31To60()));
+		buckets.setDays61To90(cents(buckets.getDays61To90()));
+		buckets.setOver90(cents(buckets.getOver90()));
+		buckets.setTotal(cents(buckets.getTotal()));
+		return buckets;
+	}
+	
+	private static double cents(double amount) {
+		return Math.round(amount * 100) / 100.0;
+	}
+	
+	private static final class CachedReport {
+		final long generation;
+		final AgingReport report;
+		final long expiresAt;
+		
+		CachedReport(long generation, AgingReport report, long expiresAt) {
+			this.generation = generation;
+			this.report = report;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceArchiveDaoInterface;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps the live invoice tables small. Each run moves invoices dated more than after-days ago
+ * into the archive tables, then (with retention-days set) deletes archived invoices older
+ * than that for good. Both work in chunks of chunk-size invoices, each its own short
+ * transaction, with a pause between chunks so foreground writes are never queued behind a
+ * long lock.
+ * <p>
+ * Archived invoices are read-only: GET by ID still finds them, edits and deletes report them
+ * as not found. Revenue rollups keep counting them; listings, search, aging and the analytics
+ * store (after its next rebuild) only see live invoices.
+ */
+@Component
+public class InvoiceArchiveService {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceArchiveService.class);
+
+	@Autowired
+	InvoiceArchiveDaoInterface invoiceArchiveDao;
+
+	@Value("${invoice.archive.enabled:false}")
+	boolean enabled;
+
+	@Value("${invoice.archive.after-days:730}")
+	int afterDays;
+
+	// 0 keeps archived invoices forever.
+	@Value("${invoice.archive.retention-days:0}")
+	int retentionDays;
+
+	@Value("${invoice.archive.chunk-size:500}")
+	int chunkSize;
+
+	@Value("${invoice.archive.chunk-pause-ms:50}")
+	long chunkPauseMs;
+
+	@Value("${invoice.archive.max-chunks-per-run:2000}")
+	int maxChunksPerRun;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	@PostConstruct
+	void checkSettings() {
+		if (retentionDays > 0 && retentionDays < afterDays) {
+			throw new IllegalStateException("invoice.archive.retention-days (" + retentionDays
+					+ ") must not be less than invoice.archive.after-days (" + afterDays + ")");
+		}
+	}
+
+	@Scheduled(cron = "${invoice.archive.cron:0 30 2 * * *}")
+	public void scheduledRun() {
+		if (!enabled) {
+			return;
+		}
+		MDC.put("transactionId", "invoice-archive");
+		try {
+			run();
+		} catch (Exception e) {
+			log.error("Invoice archival failed: {}", e.getMessage(), e);
+		} finally {
+			MDC.remove("transactionId");
+		}
+	}
+
+	/** One archive pass and, with a retention set, one purge pass. Returns {archived, purged}. */
+	public int[] run() throws InterruptedException {
+		if (!running.compareAndSet(false, true)) {
+			log.info("Invoice archival already running, skipping this run");
+			return new int[] { 0, 0 };
+		}
+		try {
+			LocalDateTime archiveCutoff = LocalDate.now().minusDays(afterDays).atStartOfDay();
+			int archived = inChunks("archived", archiveCutoff, () -> invoiceArchiveDao.archiveChunk(archiveCutoff, chunkSize));
+			int purged = 0;
+			if (retentionDays > 0) {
+				LocalDateTime purgeCutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+				purged = inChunks("purged", purgeCutoff, () -> invoiceArchiveDao.purgeChunk(purgeCutoff, chunkSize));
+			}
+			return new int[] { archived, purged };
+		} finally {
+			running.set(false);
+		}
+	}
+
+	private int inChunks(String action, LocalDateTime cutoff, IntSupplier chunk) throws InterruptedException {
+		long started = System.currentTimeMillis();
+		int total = 0;
+		int chunks = 0;
+		while (true) {
+			int done = chunk.getAsInt();
+			chunks++;
+			total += done;
+			if (done < chunkSize) {
+				break;
+			}
+			if (chunks >= maxChunksPerRun) {
+				log.warn("Invoice archival stopped after {} chunks; the rest is {} on the next run", chunks, action);
+				break;
+			}
+			if (chunkPauseMs > 0) {
+				Thread.sleep(chunkPauseMs);
+			}
+		}
+		log.info("Invoice archival {} {} invoices dated before {} in {} chunks ({} ms)", action, total, cutoff, chunks,
+				System.currentTimeMillis() - started);
+		return total;
+	}
+}
@@ -0,0 +1,172 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError;
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError.Kind;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+
+/**
+ * Turns submitted invoice items into priced, consolidated lines with their total, in one
+ * pass over the items. Used by create, edit and batch create.
+ * <ul>
+ * <li>Product IDs are parsed without exceptions and priced from the snapshot's precomputed
+ * price including tax.</li>
+ * <li>Items for the same product are merged into the first one (by int product ID, so "7"
+ * and "07" are one product), with the product ID written back in canonical form.</li>
+ * <li>Problems are collected, up to invoice.assembly.max-errors, instead of thrown. The
+ * pass records prices and merged quantities on the side, so the invoice and its items are
+ * only modified when there are no problems.</li>
+ * </ul>
+ */
+@Component
+public class InvoiceAssembler {
+	
+	private static final long INVALID_ID = Long.MIN_VALUE;
+	
+	@Value("${invoice.assembly.max-errors:100}")
+	int maxErrors = 100;
+	
+	/**
+	 * Validates, prices and consolidates the invoice's items against the given catalog
+	 * snapshot. On success replaces the items with the consolidated lines, sets line totals
+	 * and the invoice total, and returns an empty list.
+	 */
+	public List<InvoiceAssemblyError> assemble(InvoiceDetails invoice, ProductCacheSnapshot products) {
+		List<InvoiceAssemblyError> errors = new ArrayList<>();
+		List<InvoiceItem> items = invoice.getItems();
+		if (items == null || items.isEmpty()) {
+			errors.add(new InvoiceAssemblyError(Kind.INVALID, -1, "Invoice must contain at least one item."));
+			return errors;
+		}
+		
+		ProductSlots slots = new ProductSlots(items.size());
+		// Per consolidated line: the item it is written into, its product, price and quantity.
+		int[] firstLine = new int[items.size()];
+		int[] productIds = new int[items.size()];
+		float[] unitPrices = new float[items.size()];
+		int[] quantities = new int[items.size()];
+		int lines = 0;
+		for (int line = 0; line < items.size() && errors.size() < maxErrors; line++) {
+			InvoiceItem item = items.get(line);
+			long parsed = item != null ? parseProductId(item.getProductId()) : INVALID_ID;
+			if (parsed == INVALID_ID) {
+				String productId = item != null ? item.getProductId() : null;
+				errors.add(new InvoiceAssemblyError(Kind.INVALID, line, productId == null || productId.trim().isEmpty()
+						? "Product ID is missing for an item."
+						: "Invalid Product ID format: " + productId));
+				continue;
+			}
+			int productId = (int) parsed;
+			int slot = slots.find(productId);
+			if (slot >= 0) {
+				quantities[slot] += item.getQuantity();
+				continue;
+			}
+			float unitPrice = products.unitPriceWithTax(productId);
+			if (Float.isNaN(unitPrice)) {
+				errors.add(new InvoiceAssemblyError(Kind.PRODUCT_NOT_FOUND, line, "Product ID : " + productId + " cannot be found"));
+				continue;
+			}
+			slots.put(productId, lines);
+			firstLine[lines] = line;
+			productIds[lines] = productId;
+			unitPrices[lines] = unitPrice;
+			quantities[lines] = item.getQuantity();
+			lines++;
+		}
+		if (!errors.isEmpty()) {
+			return errors;
+		}
+		
+		List<InvoiceItem> consolidated = new ArrayList<>(lines);
+		float total = 0;
+		for (int i = 0; i < lines; i++) {
+			InvoiceItem item = items.get(firstLine[i]);
+			item.setProductId(Integer.toString(productIds[i]));
+			item.setPricePerUnit(unitPrices[i]);
+			item.setQuantity(quantities[i]);
+			item.calculateLineTotal();
+			total += item.getTotalCost();
+			consolidated.add(item);
+		}
+		invoice.setItems(consolidated);
+		invoice.setTotalAmount(total);
+		return errors;
+	}
+	
+	/** Parses a decimal int the way Integer.parseInt does, returning INVALID_ID instead of throwing. */
+	static long parseProductId(String value) {
+		if (value == null || value.isEmpty()) {
+			return INVALID_ID;
+		}
+		int i = 0;
+		boolean negative = false;
+		char first = value.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			if (value.length() == 1) {
+				return INVALID_ID;
+			}
+			i = 1;
+		}
+		long result = 0;
+		for (; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return INVALID_ID;
+			}
+			result = result * 10 + (c - '0');
+			if (result > (long) Integer.MAX_VALUE + 1) {
+				return INVALID_ID;
+			}
+		}
+		result = negative ? -result : result;
+		return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? INVALID_ID : result;
+	}
+	
+	/** Open-addressing map from product ID to position in the consolidated list, without boxing. */
+	private static final class ProductSlots {
+		
+		private final int[] keys;
+		private final int[] values;
+		private final int mask;
+		
+		ProductSlots(int expected) {
+			int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+			keys = new int[capacity];
+			values = new int[capacity];
+			mask = capacity - 1;
+			Arrays.fill(values, -1);
+		}
+		
+		int find(int key) {
+			for (int i = mix(key) & mask; values[i] >= 0; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return -1;
+		}
+		
+		void put(int key, int value) {
+			int i = mix(key) & mask;
+			while (values[i] >= 0) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+		
+		private static int mix(int key) {
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.BatchInvoiceResult;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError;
+
+/**
+ * Creates many invoices in one call. Customers and employees are validated with one batch
+ * lookup each, items are assembled by InvoiceAssembler from one product cache snapshot,
+ * invoice numbers are reserved as one block and invoices are persisted in chunked
+ * transactions. Every invoice gets its own
+ * result, so one invalid invoice does not fail the rest of the batch.
+ */
+@Service
+public class InvoiceBatchService {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceBatchService.class);
+
+	@Autowired
+	CustomerClientService customerClientService;
+
+	@Autowired
+	EmployeeClientService employeeClientService;
+
+	@Autowired
+	ProductClientService productClientService;
+
+	@Autowired
+	InvoiceAssembler invoiceAssembler;
+	
+	@Autowired
+	InvoiceNumberAllocator invoiceNumberAllocator;
+
+	@Autowired
+	InvoiceDaoInterface invoiceDao;
+
+	@Autowired
+	@Qualifier("enrichmentExecutor")
+	Executor enrichmentExecutor;
+
+	@Value("${invoice.batch.chunk-size:200}")
+	int chunkSize;
+
+	public List<BatchInvoiceResult> createInvoices(List<InvoiceDetails> invoices) {
+		long start = System.currentTimeMillis();
+		List<BatchInvoiceResult> results = new ArrayList<>(invoices.size());
+		for (int i = 0; i < invoices.size(); i++) {
+			results.add(new BatchInvoiceResult(i, null, null));
+		}
+
+		// One batch lookup per service, both in flight at once.
+		CompletableFuture<Map<String, CustomerDetails>> customersFuture = CompletableFuture.supplyAsync(
+				() -> customerClientService.getCustomersByIds(distinctIds(invoices, InvoiceDetails::getCustomerId)), enrichmentExecutor);
+		CompletableFuture<Map<String, Employee>> employeesFuture = CompletableFuture.supplyAsync(
+				() -> employeeClientService.getEmployeesByIds(distinctIds(invoices, InvoiceDetails::getEmployeeId)), enrichmentExecutor);
+		Map<String, CustomerDetails> validCustomers = customersFuture.join();
+		Map<String, Employee> validEmployees = employeesFuture.join();
+		log.info("Batch of {} invoices: validated {} distinct customers and {} distinct employees",
+				invoices.size(), validCustomers.size(), validEmployees.size());
+
+		// Price the whole batch from one catalog snapshot, even if a refresh lands meanwhile.
+		ProductCacheSnapshot products = productClientService.getSnapshot();
+		List<Integer> accepted = new ArrayList<>();
+		for (int i = 0; i < invoices.size(); i++) {
+			String error = prepare(invoices.get(i), products, validCustomers, validEmployees);
+			if (error != null) {
+				fail(results.get(i), error);
+			} else {
+				accepted.add(i);
+			}
+		}
+
+		assignInvoiceNumbers(invoices, accepted);
+		persistInChunks(invoices, accepted, results);
+
+		long created = results.stream().filter(r -> BatchInvoiceResult.CREATED.equals(r.getStatus())).count();
+		log.info("Batch of {} invoices finished in {} ms: {} created, {} failed",
+				invoices.size(), System.currentTimeMillis() - start, created, invoices.size() - created);
+		return results;
+	}
+
+	/** Distinct, non-blank IDs of the batch; each is looked up once. */
+	private static Set<String> distinctIds(List<InvoiceDetails> invoices, Function<InvoiceDetails, String> idOf) {
+		Set<String> ids = new LinkedHashSet<>();
+		for (InvoiceDetails invoice : invoices) {
+			String id = invoice != null ? idOf.apply(invoice) : null;
+			if (id != null && !id.trim().isEmpty()) {
+				ids.add(id);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Validates the parties, then prices and consolidates the items in place. Returns an error message, or
+	 * null when the invoice is ready to persist. Also used by RecurringInvoiceService.
+	 */
+	String prepare(InvoiceDetails invoice, ProductCacheSnapshot products,
+			Map<String, CustomerDetails> validCustomers, Map<String, Employee> validEmployees) {
+		if (invoice == null) {
+			return "Invoice is empty.";
+		}
+		String customerId = invoice.getCustomerId();
+		if (customerId == null || customerId.trim().isEmpty()) {
+			return "Customer ID is required.";
+		}
+		CustomerDetails customer = validCustomers.get(customerId);
+		if (customer == null) {
+			return "Customer ID : " + customerId + " cannot be found";
+		}
+		String employeeId = invoice.getEmployeeId();
+		if (employeeId == null || employeeId.trim().isEmpty()) {
+			return "Employee ID is required.";
+		}
+		Employee employee = validEmployees.get(employeeId);
+		if (employee == null) {
+			return "Employee ID : " + employeeId + " cannot be found";
+		}
+		invoice.setCustomerName(customer.getCustomerName());
+		invoice.setEmployeeName(employee.getEmpName());
+		List<InvoiceAssemblyError> errors = invoiceAssembler.assemble(invoice, products);
+		if (!errors.isEmpty()) {
+			return errors.get(0).getMessage();
+		}
+		
+		if (invoice.getInvoiceId() == null || invoice.getInvoiceId().trim().isEmpty()) {
+			invoice.setInvoiceId(UUID.randomUUID().toString());
+		}
+		if (invoice.getInvoiceDate() == null) {
+			invoice.setInvoiceDate(LocalDateTime.now());
+		}
+		if (invoice.getDueDate() == null) {
+			invoice.setDueDate(LocalDate.now().plusDays(30));
+		}
+		return null;
+	}
+
+	private void assignInvoiceNumbers(List<InvoiceDetails> invoices, List<Integer> accepted) {
+		List<InvoiceDetails> unnumbered = new ArrayList<>();
+		for (int index : accepted) {
+			InvoiceDetails invoice = invoices.get(index);
+			if (invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().trim().isEmpty()) {
+				unnumbered.add(invoice);
+			}
+		}
+		if (unnumbered.isEmpty()) {
+			return;
+		}
+		LocalDate today = LocalDate.now();
+		long next = invoiceNumberAllocator.reserveRange(today, unnumbered.size());
+		for (InvoiceDetails invoice : unnumbered) {
+			invoice.setInvoiceNumber(InvoiceNumberAllocator.format(today, next++));
+		}
+	}
+
+	/**
+	 * Saves accepted invoices chunkSize at a time, one transaction per chunk. If a chunk
+	 * fails, its invoices are retried one by one so only the offending invoice is reported.
+	 */
+	private void persistInChunks(List<InvoiceDetails> invoices, List<Integer> accepted, List<BatchInvoiceResult> results) {
+		for (int from = 0; from < accepted.size(); from += chunkSize) {
+			List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+			List<InvoiceDetails> chunkInvoices = new ArrayList<>(chunk.size());
+			chunk.forEach(index -> chunkInvoices.add(invoices.get(index)));
+			try {
+				invoiceDao.saveInvoices(chunkInvoices);
+				chunk.forEach(index -> succeed(results.get(index), invoices.get(index)));
+			} catch (Exception e) {
+				log.warn("Batch chunk of {} invoices failed ({}). Retrying invoices individually.", chunk.size(), e.getMessage());
+				for (int index : chunk) {
+					try {
+						invoiceDao.saveInvoices(List.of(invoices.get(index)));
+						succeed(results.get(index), invoices.get(index));
+					} catch (Exception single) {
+						log.error("Failed to persist batch invoice at index {}: {}", index, single.getMessage());
+						fail(results.get(index), "An error occurred while saving the invoice.");
+					}
+				}
+			}
+		}
+	}
+
+	private static void succeed(BatchInvoiceResult result, InvoiceDetails invoice) {
+		result.setStatus(BatchInvoiceResult.CREATED);
+		result.setInvoiceId(invoice.getInvoiceId());
+		result.setInvoiceNumber(invoice.getInvoiceNumber());
+		result.setMessage(String.format("Total: %.2f. %d item(s) processed.", invoice.getTotalAmount(), invoice.getItems().size()));
+	}
+
+	private static void fail(BatchInvoiceResult result, String message) {
+		result.setStatus(BatchInvoiceResult.FAILED);
+		result.setMessage(message);
+	}
+
+}
@@ -4,25 +4,38 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.dao.InvoiceSummaryDaoInterface;
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
 import com.saasant.invoiceServiceSpring.entity.Invoice;
 import com.saasant.invoiceServiceSpring.exception.InvoiceNotFoundException;
 import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoicePage;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSummaryPage;
 
 
 @Service
 public class InvoiceClientService implements InvoiceClientServiceInterface {
 	
 	@Autowired
-    private InvoiceDaoInterface invoiceDao;
+    InvoiceDaoInterface invoiceDao;
+	
+	@Autowired
+    InvoiceSummaryDaoInterface invoiceSummaryDao;
 
-	public Optional<InvoiceDetails> getInvoiceById(String invoiceId) { 
-        return invoiceDao.findInvoiceDetailsByInvoiceId(invoiceId);
+	public Optional<InvoiceDetails> getInvoiceById(String invoiceId, boolean withItems) { 
+        return invoiceDao.findInvoiceDetailsByInvoiceId(invoiceId, withItems);
     }
 
     public Invoice saveInvoice(InvoiceDetails invoiceDetails) {
@@ -33,6 +46,82 @@ public class InvoiceClientService implements InvoiceClientServiceInterface {
     	return invoiceDao.fetchInvoices();
     }
     
+    @Override
+    public InvoicePage fetchInvoicePage(String cursor, int size, boolean withItems) {
+    	Keyset after = Keyset.decode(cursor);
+    	List<InvoiceDetails> invoices = invoiceDao.fetchInvoicePage(after.invoiceDate, after.invoiceId, size, withItems);
+    	return new InvoicePage(invoices, nextCursor(invoices, size, InvoiceDetails::getInvoiceDate, InvoiceDetails::getInvoiceId));
+    }
+    
+    @Override
+    public InvoiceSummaryPage fetchInvoiceSummaryPage(String cursor, int size) {
+    	Keyset after = Keyset.decode(cursor);
+    	List<InvoiceSummary> summaries = invoiceSummaryDao.fetchPage(after.invoiceDate, after.invoiceId, size);
+    	return new InvoiceSummaryPage(summaries, nextCursor(summaries, size, InvoiceSummary::getInvoiceDate, InvoiceSummary::getInvoiceId));
+    }
+    
+    @Override
+    public InvoiceSummaryPage searchInvoiceSummaries(InvoiceSearchCriteria criteria, String cursor, int size) {
+    	Keyset after = Keyset.decode(cursor);
+    	List<InvoiceSummary> summaries = invoiceSummaryDao.search(criteria, after.invoiceDate, after.invoiceId, size);
+    	return new InvoiceSummaryPage(summaries, nextCursor(summaries, size, InvoiceSummary::getInvoiceDate, InvoiceSummary::getInvoiceId));
+    }
+    
+    @Override
+    public void exportInvoices(LocalDate from, LocalDate to, Consumer<InvoiceDetails> sink) {
+    	LocalDateTime start = from != null ? from.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+    	LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 1, 1, 0, 0);
+    	invoiceDao.streamInvoices(start, end, sink);
+    }
+    
+    /** Cursor after the last row of a full page, null when the page is the last one. */
+    private static <T> String nextCursor(List<T> rows, int size, Function<T, LocalDateTime> dateOf, Function<T, String> idOf) {
+    	if (rows.size() < size) {
+    		return null;
+    	}
+    	T last = rows.get(rows.size() - 1);
+    	return Keyset.encode(dateOf.apply(last), idOf.apply(last));
+    }
+    
+    /**
+     * Position after the last row of a page: its (invoice_date, invoice_id). Rows without an
+     * invoice date sort after all dated rows, so a null date with an ID is a position inside
+     * that tail. Encoded as "date|id", with an empty date for those rows.
+     */
+    static final class Keyset {
+    	
+    	static final Keyset FIRST_PAGE = new Keyset(null, null);
+    	
+    	final LocalDateTime invoiceDate;
+    	final String invoiceId;
+    	
+    	private Keyset(LocalDateTime invoiceDate, String invoiceId) {
+    		this.invoiceDate = invoiceDate;
+    		this.invoiceId = invoiceId;
+    	}
+    	
+    	static String encode(LocalDateTime invoiceDate, String invoiceId) {
+    		String raw = (invoiceDate != null ? invoiceDate.toString() : "") + "|" + invoiceId;
+    		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    	}
+    	
+    	static Keyset decode(String cursor) {
+    		if (cursor == null || cursor.isBlank()) {
+    			return FIRST_PAGE;
+    		}
+    		try {
+    			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    			String[] parts = raw.split("\\|", 2);
+    			if (parts.length != 2 || parts[1].isEmpty()) {
+    				throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+    			}
+    			return new Keyset(parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]), parts[1]);
+    		} catch (IllegalArgumentException | DateTimeParseException e) {
+    			throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+    		}
+    	}
+    }
+    
     @Override
     public long getInvoiceCount(LocalDate date) {
         LocalDateTime startOfDay = date.atStartOfDay();
@@ -45,7 +134,7 @@ public class InvoiceClientService implements InvoiceClientServiceInterface {
     }
     
     
-    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails) {
-    	return invoiceDao.updateInvoice(invoiceId, invoiceDetails);
+    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails, Long expectedVersion) {
+    	return invoiceDao.updateInvoice(invoiceId, invoiceDetails, expectedVersion);
     }
 }
@@ -4,13 +4,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.saasant.invoiceServiceSpring.entity.Invoice;
 import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoicePage;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+import com.saasant.invoiceServiceSpring.vo.InvoiceSummaryPage;
 
 public interface InvoiceClientServiceInterface {
 	
-    public Optional<InvoiceDetails> getInvoiceById(String invoiceId);
+    public Optional<InvoiceDetails> getInvoiceById(String invoiceId, boolean withItems);
 
     public Invoice saveInvoice(InvoiceDetails invoiceDetails);
     
@@ -18,8 +22,16 @@ public interface InvoiceClientServiceInterface {
     
     public void deleteInvoiceById(String invoiceId);
     
-    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails);
+    public Invoice updateInvoice(String invoiceId, InvoiceDetails invoiceDetails, Long expectedVersion);
     
     public List<InvoiceDetails> fetchInvoices();
+    
+    public InvoicePage fetchInvoicePage(String cursor, int size, boolean withItems);
+    
+    public InvoiceSummaryPage fetchInvoiceSummaryPage(String cursor, int size);
+    
+    public InvoiceSummaryPage searchInvoiceSummaries(InvoiceSearchCriteria criteria, String cursor, int size);
+    
+    public void exportInvoices(LocalDate from, LocalDate to, Consumer<InvoiceDetails> sink);
   
 }
@@ -0,0 +1,276 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceOutboxDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Relays the invoice outbox to server-sent event subscribers in event ID order.
+ * <ul>
+ * <li>Polls the outbox for events above its watermark. Event IDs are assigned in commit
+ * order without gaps (see InvoiceOutboxDao), so whatever is visible above the watermark can
+ * be relayed at once and nothing can appear below it later.</li>
+ * <li>Sends run on the event delivery executor, at most one task per subscriber at a time,
+ * so a slow client delays only its own stream and never the scheduler thread.</li>
+ * <li>A subscriber that resumes with a last event ID is first replayed the events it missed
+ * from the outbox, then joins the live stream; each subscriber drops anything at or below
+ * the last ID it was sent, so the switch-over never duplicates or reorders events.</li>
+ * <li>A resume point older than the retained outbox, or further behind than max-replay
+ * events, is refused; the consumer has to re-sync from GET /api/invoice.</li>
+ * </ul>
+ * Every instance relays the whole outbox to its own subscribers; nothing is marked as sent.
+ * Each batch is also published in-process as InvoicesCommittedEvent, so local read models
+ * (the analytics store, the aging cache) follow writes committed on other instances.
+ */
+@Service
+public class InvoiceEventRelay {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceEventRelay.class);
+
+	@Autowired
+	InvoiceOutboxDaoInterface invoiceOutboxDao;
+
+	@Autowired
+	@Qualifier("eventDeliveryExecutor")
+	Executor eventDeliveryExecutor;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Value("${invoice.outbox.poll-batch:500}")
+	int pollBatch;
+
+	@Value("${invoice.outbox.retention-hours:168}")
+	long retentionHours;
+
+	@Value("${invoice.events.max-replay:50000}")
+	long maxReplay;
+
+	@Value("${invoice.events.max-subscribers:200}")
+	int maxSubscribers;
+
+	@Value("${invoice.events.emitter-timeout-ms:1800000}")
+	long emitterTimeoutMs;
+
+	private final Object relayLock = new Object();
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+	// Highest event ID handed to subscribers; guarded by relayLock.
+	private long watermark;
+
+	@PostConstruct
+	void init() {
+		try {
+			watermark = invoiceOutboxDao.maxEventId();
+			log.info("Invoice event relay starting after event {}", watermark);
+		} catch (RuntimeException e) {
+			log.warn("Could not read the outbox position at startup, relaying from the beginning: {}", e.getMessage());
+		}
+	}
+
+	/** Thrown when a subscriber cannot be served; the message is safe to return to the client. */
+	public static class SubscriptionRefusedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		private final boolean resyncRequired;
+
+		SubscriptionRefusedException(String message, boolean resyncRequired) {
+			super(message);
+			this.resyncRequired = resyncRequired;
+		}
+
+		public boolean isResyncRequired() {
+			return resyncRequired;
+		}
+	}
+
+	/**
+	 * Opens a stream. With lastEventId the missed events are replayed first; without it the
+	 * stream starts with the next new event.
+	 */
+	public SseEmitter subscribe(Long lastEventId) throws IOException {
+		if (subscribers.size() >= maxSubscribers) {
+			throw new SubscriptionRefusedException("Too many event stream subscribers.", false);
+		}
+		long currentWatermark;
+		synchronized (relayLock) {
+			currentWatermark = watermark;
+		}
+		if (lastEventId != null && lastEventId < currentWatermark) {
+			long oldest = invoiceOutboxDao.minEventId();
+			if (oldest == 0 || lastEventId < oldest - 1) {
+				throw new SubscriptionRefusedException("Event " + lastEventId + " is no longer retained. Re-sync from GET /api/invoice.", true);
+			}
+			if (invoiceOutboxDao.countBetween(lastEventId, currentWatermark) > maxReplay) {
+				throw new SubscriptionRefusedException("More than " + maxReplay + " events were missed. Re-sync from GET /api/invoice.", true);
+			}
+		}
+
+		SseEmitter emitter = newEmitter();
+		Subscriber subscriber = new Subscriber(emitter);
+		long replayUpTo;
+		synchronized (relayLock) {
+			subscribers.add(subscriber);
+			replayUpTo = watermark;
+		}
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+
+		try {
+			// Holding the subscriber lock makes live deliveries wait until the replay is sent.
+			synchronized (subscriber) {
+				long after = lastEventId != null ? lastEventId : replayUpTo;
+				subscriber.lastSentId = after;
+				int replayed = 0;
+				while (after < replayUpTo) {
+					List<InvoiceEvent> page = invoiceOutboxDao.readAfter(after, pollBatch);
+					if (page.isEmpty()) {
+						break;
+					}
+					for (InvoiceEvent event : page) {
+						if (event.getEventId() > replayUpTo) {
+							break;
+						}
+						send(subscriber, event);
+						replayed++;
+					}
+					after = page.get(page.size() - 1).getEventId();
+				}
+				subscriber.lastSentId = Math.max(subscriber.lastSentId, replayUpTo);
+				log.info("Event stream subscriber joined after event {} ({} replayed, {} subscribers)",
+						lastEventId != null ? lastEventId : replayUpTo, replayed, subscribers.size());
+			}
+		} catch (IOException | RuntimeException e) {
+			subscribers.remove(subscriber);
+			throw e;
+		}
+		return emitter;
+	}
+
+	@Scheduled(fixedDelayString = "${invoice.outbox.poll-ms:500}")
+	public void poll() {
+		List<InvoiceEvent> batch;
+		List<Subscriber> targets;
+		synchronized (relayLock) {
+			batch = invoiceOutboxDao.readAfter(watermark, pollBatch);
+			if (batch.isEmpty()) {
+				return;
+			}
+			// Advance before delivering: a subscriber joining now replays up to here from the outbox.
+			watermark = batch.get(batch.size() - 1).getEventId();
+			targets = new ArrayList<>(subscribers);
+		}
+		for (Subscriber subscriber : targets) {
+			subscriber.pending.addAll(batch);
+			schedule(subscriber);
+		}
+		eventPublisher.publishEvent(new InvoicesCommittedEvent(batch));
+	}
+
+	/** Keeps idle connections open through proxies and notices clients that went away. */
+	@Scheduled(fixedRateString = "${invoice.events.heartbeat-ms:15000}")
+	public void heartbeat() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.heartbeatDue = true;
+			schedule(subscriber);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${invoice.outbox.purge-interval-ms:3600000}")
+	public void purge() {
+		int purged = invoiceOutboxDao.purgeBefore(LocalDateTime.now().minusHours(retentionHours));
+		if (purged > 0) {
+			log.info("Purged {} outbox events older than {} hours", purged, retentionHours);
+		}
+	}
+
+	SseEmitter newEmitter() {
+		return new SseEmitter(emitterTimeoutMs);
+	}
+
+	public int subscriberCount() {
+		return subscribers.size();
+	}
+
+	/** Starts a delivery task for the subscriber unless one is already running or queued. */
+	private void schedule(Subscriber subscriber) {
+		if (subscriber.scheduled.compareAndSet(false, true)) {
+			eventDeliveryExecutor.execute(() -> deliver(subscriber));
+		}
+	}
+
+	/** Sends everything pending for one subscriber, in order, on the delivery executor. */
+	private void deliver(Subscriber subscriber) {
+		do {
+			synchronized (subscriber) {
+				try {
+					InvoiceEvent event;
+					while ((event = subscriber.pending.poll()) != null) {
+						if (event.getEventId() > subscriber.lastSentId) {
+							send(subscriber, event);
+						}
+					}
+					if (subscriber.heartbeatDue) {
+						subscriber.heartbeatDue = false;
+						subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+					}
+				} catch (IOException | IllegalStateException e) {
+					subscriber.pending.clear();
+					drop(subscriber, e);
+				}
+			}
+			subscriber.scheduled.set(false);
+			// Work added after the loop above but before the flag was cleared found it still set.
+		} while ((!subscriber.pending.isEmpty() || subscriber.heartbeatDue) && subscribers.contains(subscriber)
+				&& subscriber.scheduled.compareAndSet(false, true));
+	}
+
+	private static void send(Subscriber subscriber, InvoiceEvent event) throws IOException {
+		subscriber.emitter.send(SseEmitter.event()
+				.id(Long.toString(event.getEventId()))
+				.data(event, MediaType.APPLICATION_JSON));
+		subscriber.lastSentId = event.getEventId();
+	}
+
+	private void drop(Subscriber subscriber, Exception cause) {
+		if (subscribers.remove(subscriber)) {
+			log.info("Event stream subscriber dropped: {}", cause.getMessage());
+			subscriber.emitter.completeWithError(cause);
+		}
+	}
+
+	private static final class Subscriber {
+		final SseEmitter emitter;
+		final Queue<InvoiceEvent> pending = new ConcurrentLinkedQueue<>();
+		final AtomicBoolean scheduled = new AtomicBoolean();
+		volatile boolean heartbeatDue;
+		// Guarded by the subscriber's own monitor.
+		long lastSentId;
+
+		Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.IngestStatus;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous persistence for fully validated invoices (group commit). Requests put their
+ * invoice on a bounded queue and return at once; worker threads take whatever has queued
+ * up, waiting at most linger-ms for more, and save up to max-batch invoices in one
+ * transaction. If a group fails, its invoices are retried one by one so only the offending
+ * invoice is marked failed. A full queue is reported to the caller instead of blocking it.
+ * On shutdown everything already accepted is saved before the context closes.
+ * <p>
+ * The queue and the statuses live in this instance's memory only and are kept for
+ * status-ttl-ms after completion. A status can only be read from the instance that accepted
+ * the invoice, and it is gone after a restart even though the invoice itself was saved.
+ */
+@Service
+public class InvoiceIngestionService {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceIngestionService.class);
+	private static final String MDC_KEY = "transactionId";
+	
+	@Autowired
+	InvoiceDaoInterface invoiceDao;
+	
+	@Value("${invoice.ingest.enabled:true}")
+	boolean enabled;
+	
+	@Value("${invoice.ingest.queue-capacity:10000}")
+	int queueCapacity;
+	
+	@Value("${invoice.ingest.workers:2}")
+	int workerCount;
+	
+	@Value("${invoice.ingest.max-batch:200}")
+	int maxBatch;
+	
+	@Value("${invoice.ingest.linger-ms:5}")
+	long lingerMs;
+	
+	@Value("${invoice.ingest.status-ttl-ms:3600000}")
+	long statusTtlMs;
+	
+	@Value("${invoice.ingest.shutdown-wait-ms:30000}")
+	long shutdownWaitMs;
+	
+	private BlockingQueue<Pending> queue;
+	private final List<Thread> workers = new ArrayList<>();
+	private final Map<String, IngestStatus> statuses = new ConcurrentHashMap<>();
+	/** Submits hold the read side, so once stop() has the write side nothing more can be queued. */
+	private final ReadWriteLock intake = new ReentrantReadWriteLock();
+	private volatile boolean running;
+	
+	private final long startedAt = System.currentTimeMillis();
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder created = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder commits = new LongAdder();
+	private final LongAdder commitMillis = new LongAdder();
+	private final LongAdder queuedMillis = new LongAdder();
+	private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+	
+	@PostConstruct
+	void start() {
+		if (!enabled) {
+			return;
+		}
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		for (int i = 0; i < workerCount; i++) {
+			Thread worker = new Thread(this::drainLoop, "invoice-ingest-" + (i + 1));
+			worker.start();
+			workers.add(worker);
+		}
+		log.info("Invoice ingestion started: {} workers, queue capacity {}, max batch {}", workerCount, queueCapacity, maxBatch);
+	}
+	
+	/**
+	 * Stops taking work and saves everything already accepted before the context closes.
+	 * Workers get shutdown-wait-ms to empty the queue; whatever is left after that (a slow
+	 * commit, an interrupted worker) is saved on the calling thread.
+	 */
+	@PreDestroy
+	void stop() throws InterruptedException {
+		intake.writeLock().lock();
+		try {
+			running = false;
+		} finally {
+			intake.writeLock().unlock();
+		}
+		if (queue == null) {
+			return;
+		}
+		long deadline = System.currentTimeMillis() + shutdownWaitMs;
+		for (Thread worker : workers) {
+			worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+		}
+		List<Pending> group = new ArrayList<>(maxBatch);
+		int leftover = 0;
+		while (queue.drainTo(group, maxBatch) > 0) {
+			leftover += group.size();
+			commit(group);
+			group.clear();
+		}
+		if (leftover > 0) {
+			log.warn("Saved {} queued invoices on shutdown after the workers did not finish in {} ms", leftover, shutdownWaitMs);
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Queues a validated, numbered invoice for saving. Returns false without blocking when
+	 * the queue is full or ingestion is shutting down.
+	 */
+	public boolean submit(InvoiceDetails invoice) {
+		intake.readLock().lock();
+		try {
+			if (!running) {
+				rejected.increment();
+				return false;
+			}
+			IngestStatus status = new IngestStatus(invoice.getInvoiceId(), invoice.getInvoiceNumber(), Instant.now());
+			statuses.put(invoice.getInvoiceId(), status);
+			if (!queue.offer(new Pending(invoice, status, MDC.get(MDC_KEY)))) {
+				statuses.remove(invoice.getInvoiceId(), status);
+				rejected.increment();
+				return false;
+			}
+			accepted.increment();
+			return true;
+		} finally {
+			intake.readLock().unlock();
+		}
+	}
+	
+	public IngestStatus getStatus(String invoiceId) {
+		return statuses.get(invoiceId);
+	}
+	
+	public Map<String, Object> metrics() {
+		long createdCount = created.sum();
+		long commitCount = commits.sum();
+		long completed = createdCount + failed.sum();
+		double uptimeSeconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("enabled", enabled);
+		metrics.put("queueDepth", queue != null ? queue.size() : 0);
+		metrics.put("queueCapacity", queueCapacity);
+		metrics.put("accepted", accepted.sum());
+		metrics.put("rejected", rejected.sum());
+		metrics.put("created", createdCount);
+		metrics.put("failed", failed.sum());
+		metrics.put("commits", commitCount);
+		metrics.put("avgInvoicesPerCommit", commitCount > 0 ? (double) createdCount / commitCount : 0);
+		metrics.put("largestCommit", largestBatch.get());
+		metrics.put("avgCommitMs", commitCount > 0 ? (double) commitMillis.sum() / commitCount : 0);
+		metrics.put("avgQueuedMs", completed > 0 ? (double) queuedMillis.sum() / completed : 0);
+		metrics.put("createdPerSecond", createdCount / uptimeSeconds);
+		metrics.put("trackedStatuses", statuses.size());
+		return metrics;
+	}
+	
+	@Scheduled(fixedDelayString = "${invoice.ingest.status-sweep-ms:60000}")
+	public void expireStatuses() {
+		Instant cutoff = Instant.now().minusMillis(statusTtlMs);
+		statuses.values().removeIf(status -> status.getCompletedAt() != null && status.getCompletedAt().isBefore(cutoff));
+	}
+	
+	private void drainLoop() {
+		List<Pending> group = new ArrayList<>(maxBatch);
+		while (running || !queue.isEmpty()) {
+			try {
+				Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				queue.drainTo(group, maxBatch - group.size());
+				if (group.size() < maxBatch && lingerMs > 0) {
+					// Give concurrent requests a moment to join this commit.
+					Pending next = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+					if (next != null) {
+						group.add(next);
+						queue.drainTo(group, maxBatch - group.size());
+					}
+				}
+				commit(group);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Invoice ingestion worker error: {}", e.getMessage(), e);
+			} finally {
+				group.clear();
+			}
+		}
+	}
+	
+	private void commit(List<Pending> group) {
+		MDC.put(MDC_KEY, group.get(0).transactionId != null ? group.get(0).transactionId : "ingest");
+		try {
+			List<InvoiceDetails> invoices = new ArrayList<>(group.size());
+			group.forEach(pending -> invoices.add(pending.invoice));
+			long start = System.currentTimeMillis();
+			try {
+				invoiceDao.saveInvoices(invoices);
+				long took = System.currentTimeMillis() - start;
+				commits.increment();
+				commitMillis.add(took);
+				largestBatch.accumulate(group.size());
+				group.forEach(pending -> complete(pending, IngestStatus.CREATED, null));
+				log.info("Ingested {} invoices in one commit ({} ms, {} still queued)", group.size(), took, queue.size());
+			} catch (Exception e) {
+				log.warn("Group commit of {} invoices failed ({}). Retrying invoices individually.", group.size(), e.getMessage());
+				for (Pending pending : group) {
+					try {
+						invoiceDao.saveInvoices(List.of(pending.invoice));
+						commits.increment();
+						largestBatch.accumulate(1);
+						complete(pending, IngestStatus.CREATED, null);
+					} catch (Exception single) {
+						log.error("Failed to ingest invoice {} (transaction {}): {}", pending.invoice.getInvoiceId(),
+								pending.transactionId, single.getMessage());
+						complete(pending, IngestStatus.FAILED, "An error occurred while saving the invoice.");
+					}
+				}
+			}
+		} finally {
+			MDC.remove(MDC_KEY);
+		}
+	}
+	
+	/** Statuses are replaced, never mutated, so request threads always read a complete one. */
+	private void complete(Pending pending, String state, String message) {
+		Instant now = Instant.now();
+		IngestStatus status = new IngestStatus(pending.status.getInvoiceId(), pending.status.getInvoiceNumber(),
+				pending.status.getSubmittedAt());
+		status.setStatus(state);
+		status.setMessage(message);
+		status.setCompletedAt(now);
+		statuses.put(status.getInvoiceId(), status);
+		queuedMillis.add(now.toEpochMilli() - status.getSubmittedAt().toEpochMilli());
+		(IngestStatus.CREATED.equals(state) ? created : failed).increment();
+	}
+	
+	private static final class Pending {
+		final InvoiceDetails invoice;
+		final IngestStatus status;
+		final String transactionId;
+		
+		Pending(InvoiceDetails invoice, IngestStatus status, String transactionId) {
+			this.invoice = invoice;
+			this.status = status;
+			this.transactionId = transactionId;
+		}
+	}
+}
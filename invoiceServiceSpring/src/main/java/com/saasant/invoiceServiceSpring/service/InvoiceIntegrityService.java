@@ -0,0 +1,198 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceIntegrityDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.IntegrityFinding;
+import com.saasant.invoiceServiceSpring.vo.IntegrityReport;
+
+/**
+ * Verifies that invoice headers agree with their items: stored totals against item sums,
+ * headers without items, items without a header, and item customer/employee against the
+ * header.
+ * <p>
+ * The invoice ID keyspace is cut into ranges of range-size invoices, which a ForkJoinPool of
+ * parallelism workers splits recursively down to single ranges. Each range is a few indexed
+ * range queries. Progress and throughput are kept in the IntegrityReport and logged about
+ * every tenth of the ranges. With repair, each range's findings are fixed right after it is
+ * checked; invoices without items are only reported.
+ */
+@Component
+public class InvoiceIntegrityService {
+
+	private static final Logger log = LoggerFactory.getLogger(InvoiceIntegrityService.class);
+	private static final String MDC_KEY = "transactionId";
+	private static final int REPAIR_BATCH = 500;
+
+	@Autowired
+	InvoiceIntegrityDaoInterface invoiceIntegrityDao;
+
+	@Value("${invoice.integrity.enabled:false}")
+	boolean enabled;
+
+	@Value("${invoice.integrity.repair:false}")
+	boolean scheduledRepair;
+
+	@Value("${invoice.integrity.parallelism:4}")
+	int parallelism;
+
+	@Value("${invoice.integrity.range-size:5000}")
+	int rangeSize;
+
+	@Value("${invoice.integrity.tolerance:0.01}")
+	double tolerance;
+
+	@Value("${invoice.integrity.max-findings:1000}")
+	int maxFindings;
+
+	private IntegrityReport lastReport;
+	private ForkJoinTask<?> currentRun;
+
+	@Scheduled(cron = "${invoice.integrity.cron:0 0 3 * * SUN}")
+	public void scheduledRun() {
+		if (enabled && start(scheduledRepair) == null) {
+			log.info("Invoice integrity verification already running, skipping this run");
+		}
+	}
+
+	/**
+	 * Starts a verification in the background and returns its report, which fills in as ranges
+	 * finish. Returns null when a verification is already running.
+	 */
+	public synchronized IntegrityReport start(boolean repair) {
+		if (currentRun != null && !currentRun.isDone()) {
+			return null;
+		}
+		IntegrityReport report = new IntegrityReport(repair, maxFindings);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		String transactionId = MDC.get(MDC_KEY);
+		lastReport = report;
+		currentRun = pool.submit(() -> {
+			MDC.put(MDC_KEY, transactionId != null ? transactionId : "invoice-integrity");
+			try {
+				verify(report, pool);
+			} finally {
+				MDC.remove(MDC_KEY);
+				pool.shutdown();
+			}
+		});
+		return report;
+	}
+
+	/** The running or most recent verification, or null before the first one. */
+	public synchronized IntegrityReport getLastReport() {
+		return lastReport;
+	}
+
+	/** Waits for the current verification, if any. */
+	void awaitCompletion() {
+		ForkJoinTask<?> run;
+		synchronized (this) {
+			run = currentRun;
+		}
+		if (run != null) {
+			run.join();
+		}
+	}
+
+	private void verify(IntegrityReport report, ForkJoinPool pool) {
+		try {
+			List<String> boundaries = invoiceIntegrityDao.rangeBoundaries(rangeSize);
+			// Ranges [null, b0), [b0, b1), ..., [bn, null).
+			List<String> bounds = new ArrayList<>(boundaries.size() + 2);
+			bounds.add(null);
+			bounds.addAll(boundaries);
+			bounds.add(null);
+			report.setTotalRanges(bounds.size() - 1);
+			log.info("Invoice integrity verification started: {} ranges of up to {} invoices, {} workers, repair={}",
+					report.getTotalRanges(), rangeSize, pool.getParallelism(), report.isRepair());
+			new RangeTask(report, bounds, 0, bounds.size() - 1).invoke();
+			report.finish(IntegrityReport.COMPLETED, null);
+			log.info("Invoice integrity verification finished: {} invoices in {} ms ({}/s), findings {}, repaired {}",
+					report.getInvoicesChecked(), report.getElapsedMs(), report.getInvoicesPerSecond(), report.getCounts(),
+					report.getRepaired());
+		} catch (RuntimeException e) {
+			report.finish(IntegrityReport.FAILED, e.getMessage());
+			log.error("Invoice integrity verification failed after {} of {} ranges: {}", report.getRangesDone(),
+					report.getTotalRanges(), e.getMessage(), e);
+		}
+	}
+
+	/** Ranges [first, last) of the bounds list: halved until one range is left, which is verified. */
+	private final class RangeTask extends RecursiveAction {
+
+		private final IntegrityReport report;
+		private final List<String> bounds;
+		private final int first;
+		private final int last;
+
+		RangeTask(IntegrityReport report, List<String> bounds, int first, int last) {
+			this.report = report;
+			this.bounds = bounds;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new RangeTask(report, bounds, first, middle), new RangeTask(report, bounds, middle, last));
+				return;
+			}
+			verifyRange(report, bounds.get(first), bounds.get(last));
+		}
+	}
+
+	private void verifyRange(IntegrityReport report, String fromId, String toId) {
+		List<IntegrityFinding> findings = new ArrayList<>();
+		long invoices = invoiceIntegrityDao.countInvoices(fromId, toId);
+		List<IntegrityFinding> totals = invoiceIntegrityDao.findTotalMismatches(fromId, toId, tolerance);
+		List<IntegrityFinding> orphans = invoiceIntegrityDao.findOrphanItems(fromId, toId);
+		List<IntegrityFinding> parties = invoiceIntegrityDao.findPartyMismatches(fromId, toId);
+		if (report.isRepair()) {
+			List<IntegrityFinding> fixableTotals = new ArrayList<>();
+			totals.stream().filter(f -> IntegrityFinding.TOTAL_MISMATCH.equals(f.getType())).forEach(fixableTotals::add);
+			repair(fixableTotals, IntegrityFinding::getInvoiceId, ids -> invoiceIntegrityDao.repairTotals(ids, tolerance));
+			repair(orphans, IntegrityFinding::getItemId, invoiceIntegrityDao::deleteOrphanItems);
+			repair(parties, IntegrityFinding::getItemId, invoiceIntegrityDao::repairItemParties);
+		}
+		findings.addAll(totals);
+		findings.addAll(orphans);
+		findings.addAll(parties);
+		report.addFindings(findings);
+		int done = report.rangeDone(invoices);
+		int step = Math.max(1, report.getTotalRanges() / 10);
+		if (done % step == 0 || done == report.getTotalRanges()) {
+			log.info("Invoice integrity verification: {}/{} ranges, {} invoices, {}/s, findings {}", done, report.getTotalRanges(),
+					report.getInvoicesChecked(), report.getInvoicesPerSecond(), report.getCounts());
+		}
+	}
+
+	/** Repairs the findings REPAIR_BATCH at a time and marks the ones the repair still applied to. */
+	private static void repair(List<IntegrityFinding> findings, Function<IntegrityFinding, String> idOf,
+			Function<List<String>, List<String>> fix) {
+		for (int from = 0; from < findings.size(); from += REPAIR_BATCH) {
+			List<IntegrityFinding> batch = findings.subList(from, Math.min(from + REPAIR_BATCH, findings.size()));
+			List<String> ids = new ArrayList<>(batch.size());
+			batch.forEach(finding -> ids.add(idOf.apply(finding)));
+			Set<String> fixed = new HashSet<>(fix.apply(ids));
+			batch.forEach(finding -> finding.setRepaired(fixed.contains(idOf.apply(finding))));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceSequenceDaoInterface;
+
+/**
+ * Hands out INV-ddMMyyyy-NNN invoice numbers without a database round trip per invoice.
+ * Numbers are reserved from the invoice_sequence table in blocks (hi/lo) and handed out
+ * from memory with a CAS; only a block refill takes a lock and touches the database.
+ * Numbers left in a block when the instance stops or the day rolls over are skipped, so
+ * sequences are unique and increasing per day but may have gaps.
+ */
+@Service
+public class InvoiceNumberAllocator {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+	private static final DateTimeFormatter DATE_PART = DateTimeFormatter.ofPattern("ddMMyyyy");
+	
+	@Autowired
+	InvoiceSequenceDaoInterface invoiceSequenceDao;
+	
+	@Value("${invoice.number.block-size:50}")
+	int blockSize;
+	
+	private final AtomicReference<SequenceBlock> currentBlock = new AtomicReference<>();
+	private final Object refillLock = new Object();
+	
+	public String nextInvoiceNumber(LocalDate day) {
+		return format(day, nextSequence(day));
+	}
+	
+	public long nextSequence(LocalDate day) {
+		while (true) {
+			SequenceBlock block = currentBlock.get();
+			if (block != null && block.day.equals(day)) {
+				long value = block.next.getAndIncrement();
+				if (value < block.end) {
+					return value;
+				}
+			}
+			synchronized (refillLock) {
+				SequenceBlock latest = currentBlock.get();
+				if (latest == null || !latest.day.equals(day) || latest.isExhausted()) {
+					long first = invoiceSequenceDao.reserveBlock(day, prefix(day), blockSize);
+					currentBlock.set(new SequenceBlock(day, first, first + blockSize));
+					log.info("Reserved invoice numbers {}-{} for {}", first, first + blockSize - 1, day);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reserves count consecutive numbers straight from the sequence table, for callers that
+	 * number a whole batch of invoices at once. Does not disturb the shared in-memory block.
+	 */
+	public long reserveRange(LocalDate day, int count) {
+		return invoiceSequenceDao.reserveBlock(day, prefix(day), count);
+	}
+	
+	public static String prefix(LocalDate day) {
+		return "INV-" + day.format(DATE_PART) + "-";
+	}
+	
+	public static String format(LocalDate day, long sequence) {
+		return prefix(day) + String.format("%03d", sequence);
+	}
+	
+	private static final class SequenceBlock {
+		
+		private final LocalDate day;
+		private final AtomicLong next;
+		private final long end;
+		
+		SequenceBlock(LocalDate day, long first, long end) {
+			this.day = day;
+			this.next = new AtomicLong(first);
+			this.end = end;
+		}
+		
+		boolean isExhausted() {
+			return next.get() >= end;
+		}
+	}
+
+}
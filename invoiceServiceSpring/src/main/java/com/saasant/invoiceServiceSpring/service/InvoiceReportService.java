@@ -0,0 +1,50 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.saasant.invoiceServiceSpring.dao.RevenueRollupDaoInterface;
+import com.saasant.invoiceServiceSpring.dao.RollupDimension;
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+/**
+ * Revenue reports served from the daily rollup tables. Every report reads at most one row
+ * per day (per key), never the invoice or invoiceitems tables.
+ */
+@Service
+public class InvoiceReportService {
+	
+	@Autowired
+	RevenueRollupDaoInterface revenueRollupDao;
+	
+	@Value("${invoice.reports.max-range-days:1096}")
+	long maxRangeDays;
+	
+	public List<RevenueRow> daily(LocalDate from, LocalDate to) {
+		checkRange(from, to);
+		return revenueRollupDao.daily(from, to);
+	}
+	
+	/** Per-day rows for one key when key is given, otherwise totals per key over the range. */
+	public List<RevenueRow> byDimension(RollupDimension dimension, String key, LocalDate from, LocalDate to) {
+		checkRange(from, to);
+		if (key != null && !key.isBlank()) {
+			return revenueRollupDao.dailyForKey(dimension, key, from, to);
+		}
+		return revenueRollupDao.totalsByKey(dimension, from, to);
+	}
+	
+	private void checkRange(LocalDate from, LocalDate to) {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("'from' must not be after 'to'");
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+			throw new IllegalArgumentException("Report range cannot exceed " + maxRangeDays + " days");
+		}
+	}
+}
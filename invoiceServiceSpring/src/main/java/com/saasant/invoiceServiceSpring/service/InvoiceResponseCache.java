@@ -0,0 +1,201 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+
+/**
+ * Serialized GET /api/invoice/{id} responses with their ETags, one per invoice and expand
+ * variant.
+ * <ul>
+ * <li>At most maxSize entries, least recently used evicted first. Entries also expire after
+ * ttlMs, which bounds how stale the embedded customer and employee details can get.</li>
+ * <li>Concurrent misses for one key share a single load.</li>
+ * <li>Every variant of an invoice is dropped after a committed change to it. A load that
+ * was already running when the change committed is returned to its callers but not
+ * stored, so the cache never goes back to the old state.</li>
+ * </ul>
+ */
+public class InvoiceResponseCache {
+
+	private static final int STRIPES = 1024;
+
+	private final int maxSize;
+	private final long ttlMs;
+	private final Map<String, CachedResponse> entries;
+	private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+	// Change counters per invoice ID hash; a load only stores if its stripe did not move.
+	private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+	// Variant keys cached per invoice, so invalidation can find them all. Guarded by entries.
+	private final Map<String, List<String>> variantsByInvoice = new HashMap<>();
+
+	/** maxSize 0 turns caching off; concurrent loads are still shared. */
+	public InvoiceResponseCache(int maxSize, long ttlMs) {
+		this.maxSize = maxSize;
+		this.ttlMs = ttlMs;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				if (size() > InvoiceResponseCache.this.maxSize) {
+					forgetVariant(eldest.getValue().invoiceId, eldest.getKey());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/** A serialized response body and its strong ETag (null when the response must not be revalidated). */
+	public static final class CachedResponse {
+		final String invoiceId;
+		final byte[] body;
+		final String etag;
+		final boolean cacheable;
+		final long expiresAt;
+
+		CachedResponse(String invoiceId, byte[] body, String etag, boolean cacheable, long expiresAt) {
+			this.invoiceId = invoiceId;
+			this.body = body;
+			this.etag = etag;
+			this.cacheable = cacheable;
+			this.expiresAt = expiresAt;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		/** True when the If-None-Match header value names this response's ETag (or is *). Never without an ETag. */
+		public boolean matches(String ifNoneMatch) {
+			if (ifNoneMatch == null || etag == null) {
+				return false;
+			}
+			for (String tag : ifNoneMatch.split(",")) {
+				String candidate = tag.trim();
+				if (candidate.startsWith("W/")) {
+					candidate = candidate.substring(2);
+				}
+				if (candidate.equals("*") || candidate.equals(etag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * What a loader produced: the body (null when the invoice does not exist), its ETag (null
+	 * for a response that must not be revalidated) and whether it may be cached.
+	 */
+	public static final class Loaded {
+		final byte[] body;
+		final String etag;
+		final boolean cacheable;
+
+		public Loaded(byte[] body, String etag, boolean cacheable) {
+			this.body = body;
+			this.etag = etag;
+			this.cacheable = cacheable;
+		}
+	}
+
+	/**
+	 * The cached response for this invoice and variant, or the one loader produces. Returns
+	 * null when the invoice does not exist; that is not cached.
+	 */
+	public CachedResponse get(String invoiceId, String variant, Supplier<Loaded> loader) {
+		String key = invoiceId + '|' + variant;
+		long now = System.currentTimeMillis();
+		CachedResponse cached;
+		synchronized (entries) {
+			cached = entries.get(key);
+		}
+		if (cached != null && now < cached.expiresAt) {
+			return cached;
+		}
+		CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+		CompletableFuture<CachedResponse> running = inFlight.putIfAbsent(key, mine);
+		if (running != null) {
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException cause ? cause : e;
+			}
+		}
+		try {
+			int stripe = stripe(invoiceId);
+			long startGeneration = generations.get(stripe);
+			Loaded loaded = loader.get();
+			CachedResponse response = loaded.body == null ? null
+					: new CachedResponse(invoiceId, loaded.body, loaded.etag, loaded.cacheable, System.currentTimeMillis() + ttlMs);
+			if (response != null && response.cacheable && maxSize > 0) {
+				synchronized (entries) {
+					if (generations.get(stripe) == startGeneration) {
+						entries.put(key, response);
+						List<String> variants = variantsByInvoice.computeIfAbsent(invoiceId, id -> new ArrayList<>(2));
+						if (!variants.contains(key)) {
+							variants.add(key);
+						}
+					}
+				}
+			}
+			mine.complete(response);
+			return response;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onInvoicesChanged(InvoicesChangedEvent event) {
+		for (String invoiceId : event.getInvoiceIds()) {
+			invalidate(invoiceId);
+		}
+	}
+
+	public void invalidate(String invoiceId) {
+		synchronized (entries) {
+			generations.incrementAndGet(stripe(invoiceId));
+			List<String> variants = variantsByInvoice.remove(invoiceId);
+			if (variants != null) {
+				for (String key : variants) {
+					entries.remove(key);
+				}
+			}
+		}
+	}
+
+	/** Caller holds the entries lock (removeEldestEntry runs inside put). */
+	private void forgetVariant(String invoiceId, String key) {
+		List<String> variants = variantsByInvoice.get(invoiceId);
+		if (variants != null) {
+			variants.remove(key);
+			if (variants.isEmpty()) {
+				variantsByInvoice.remove(invoiceId);
+			}
+		}
+	}
+
+	private static int stripe(String invoiceId) {
+		return (invoiceId.hashCode() & 0x7fffffff) % STRIPES;
+	}
+}
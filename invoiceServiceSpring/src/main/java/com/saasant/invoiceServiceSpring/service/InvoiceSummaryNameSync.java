@@ -0,0 +1,85 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceSummaryDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+
+/**
+ * Keeps the customer and employee names in invoice_summary current. The customer and
+ * employee services do not publish changes, so every run looks up all referenced IDs with
+ * the batch endpoints (through the lookup caches) and rewrites only rows whose name differs.
+ * It also fills names left empty by the schema.sql backfill. A renamed customer therefore
+ * shows up in listings within customer.cache.ttl-ms plus one sync interval.
+ */
+@Component
+public class InvoiceSummaryNameSync {
+	
+	private static final Logger log = LoggerFactory.getLogger(InvoiceSummaryNameSync.class);
+	
+	private static final int CHUNK_SIZE = 500;
+	
+	@Autowired
+	InvoiceSummaryDaoInterface invoiceSummaryDao;
+	
+	@Autowired
+	CustomerClientService customerClientService;
+	
+	@Autowired
+	EmployeeClientService employeeClientService;
+	
+	@Scheduled(initialDelayString = "${invoice.summary.name-sync-initial-delay-ms:60000}",
+			fixedDelayString = "${invoice.summary.name-sync-interval-ms:600000}")
+	public void syncNames() {
+		MDC.put("transactionId", "invoice-summary-name-sync");
+		try {
+			int customerRows = syncCustomerNames();
+			int employeeRows = syncEmployeeNames();
+			log.info("Invoice summary name sync finished: {} customer rows and {} employee rows updated", customerRows, employeeRows);
+		} catch (Exception e) {
+			log.error("Invoice summary name sync failed: {}", e.getMessage(), e);
+		} finally {
+			MDC.remove("transactionId");
+		}
+	}
+	
+	int syncCustomerNames() {
+		List<String> ids = invoiceSummaryDao.findDistinctCustomerIds();
+		int changed = 0;
+		for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+			Map<String, String> names = new HashMap<>();
+			for (CustomerDetails customer : customerClientService.getCustomersByIds(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))).values()) {
+				if (customer.getCustomerName() != null) {
+					names.put(customer.getCustomerId(), customer.getCustomerName());
+				}
+			}
+			changed += invoiceSummaryDao.updateCustomerNames(names);
+		}
+		return changed;
+	}
+	
+	int syncEmployeeNames() {
+		List<String> ids = invoiceSummaryDao.findDistinctEmployeeIds();
+		int changed = 0;
+		for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+			Map<String, String> names = new HashMap<>();
+			for (Employee employee : employeeClientService.getEmployeesByIds(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))).values()) {
+				if (employee.getEmpName() != null) {
+					names.put(employee.getEmpId(), employee.getEmpName());
+				}
+			}
+			changed += invoiceSummaryDao.updateEmployeeNames(names);
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,228 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Small bounded cache for remote lookups by ID (customers, employees).
+ * <ul>
+ * <li>At most maxSize entries, least recently used evicted first.</li>
+ * <li>Found values live for ttlMs, not-found results for negativeTtlMs.</li>
+ * <li>Concurrent misses for one key share a single loader call.</li>
+ * <li>An expired value younger than maxStaleMs is returned as is while one background
+ * refresh reloads it. Older values are reloaded on the caller's thread.</li>
+ * </ul>
+ * The loader returns Optional.empty() for "does not exist" (cached negatively) and throws
+ * on any other failure (never cached; a failed background refresh keeps the stale value).
+ * {@link #getAll} does the same for many keys with one bulk loader call, where a key
+ * missing from the loader's result counts as "does not exist".
+ */
+public class LookupCache<V> {
+
+	private static final Logger log = LoggerFactory.getLogger(LookupCache.class);
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlMs;
+	private final long negativeTtlMs;
+	private final long maxStaleMs;
+	private final Executor refreshExecutor;
+	private final LongSupplier clock;
+
+	private final Map<String, Entry<V>> entries;
+	private final ConcurrentHashMap<String, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+
+	public LookupCache(String name, int maxSize, long ttlMs, long negativeTtlMs, long maxStaleMs, Executor refreshExecutor) {
+		this(name, maxSize, ttlMs, negativeTtlMs, maxStaleMs, refreshExecutor, System::currentTimeMillis);
+	}
+
+	LookupCache(String name, int maxSize, long ttlMs, long negativeTtlMs, long maxStaleMs, Executor refreshExecutor,
+			LongSupplier clock) {
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlMs = ttlMs;
+		this.negativeTtlMs = negativeTtlMs;
+		this.maxStaleMs = maxStaleMs;
+		this.refreshExecutor = refreshExecutor;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+				return size() > LookupCache.this.maxSize;
+			}
+		};
+	}
+
+	public Optional<V> get(String key, Function<String, Optional<V>> loader) {
+		long now = clock.getAsLong();
+		Entry<V> entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry != null) {
+			if (now < entry.expiresAt) {
+				return Optional.ofNullable(entry.value);
+			}
+			if (entry.value != null && now < entry.expiresAt + maxStaleMs) {
+				refreshInBackground(key, loader);
+				return Optional.of(entry.value);
+			}
+		}
+		return load(key, loader);
+	}
+
+	/**
+	 * Returns the found values for the given keys. Fresh and servable stale entries come
+	 * from the cache; all other keys are loaded with one bulkLoader call on the caller's
+	 * thread, and stale keys are refreshed with one more call in the background. Bulk loads
+	 * are not shared with concurrent single-key loads.
+	 */
+	public Map<String, V> getAll(Collection<String> keys, Function<Set<String>, Map<String, V>> bulkLoader) {
+		long now = clock.getAsLong();
+		Map<String, V> found = new LinkedHashMap<>();
+		Set<String> missing = new LinkedHashSet<>();
+		Set<String> stale = new LinkedHashSet<>();
+		synchronized (entries) {
+			for (String key : keys) {
+				Entry<V> entry = entries.get(key);
+				if (entry != null && now < entry.expiresAt) {
+					if (entry.value != null) {
+						found.put(key, entry.value);
+					}
+				} else if (entry != null && entry.value != null && now < entry.expiresAt + maxStaleMs) {
+					found.put(key, entry.value);
+					stale.add(key);
+				} else {
+					missing.add(key);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			Map<String, V> loaded = bulkLoader.apply(missing);
+			storeAll(missing, loaded);
+			for (String key : missing) {
+				V value = loaded.get(key);
+				if (value != null) {
+					found.put(key, value);
+				}
+			}
+		}
+		if (!stale.isEmpty()) {
+			try {
+				refreshExecutor.execute(() -> {
+					try {
+						storeAll(stale, bulkLoader.apply(stale));
+					} catch (RuntimeException e) {
+						log.warn("Background refresh of {} {} cache entries failed, keeping stale values: {}",
+								stale.size(), name, e.getMessage());
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				log.warn("Background refresh of {} {} cache entries rejected, keeping stale values", stale.size(), name);
+			}
+		}
+		return found;
+	}
+
+	public void invalidate(String key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/** Loads on the caller's thread, or waits for a load of the same key already running. */
+	private Optional<V> load(String key, Function<String, Optional<V>> loader) {
+		CompletableFuture<Optional<V>> mine = new CompletableFuture<>();
+		CompletableFuture<Optional<V>> running = inFlight.putIfAbsent(key, mine);
+		if (running != null) {
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException cause ? cause : e;
+			}
+		}
+		try {
+			Optional<V> result = loader.apply(key);
+			store(key, result);
+			mine.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	private void refreshInBackground(String key, Function<String, Optional<V>> loader) {
+		CompletableFuture<Optional<V>> mine = new CompletableFuture<>();
+		if (inFlight.putIfAbsent(key, mine) != null) {
+			return;
+		}
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					Optional<V> result = loader.apply(key);
+					store(key, result);
+					mine.complete(result);
+				} catch (RuntimeException e) {
+					log.warn("Background refresh of {} cache entry {} failed, keeping stale value: {}", name, key, e.getMessage());
+					mine.completeExceptionally(e);
+				} finally {
+					inFlight.remove(key, mine);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.warn("Background refresh of {} cache entry {} rejected, keeping stale value", name, key);
+			mine.cancel(false);
+			inFlight.remove(key, mine);
+		}
+	}
+
+	private void store(String key, Optional<V> result) {
+		long expiresAt = clock.getAsLong() + (result.isPresent() ? ttlMs : negativeTtlMs);
+		synchronized (entries) {
+			entries.put(key, new Entry<>(result.orElse(null), expiresAt));
+		}
+	}
+
+	private void storeAll(Set<String> keys, Map<String, V> loaded) {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			for (String key : keys) {
+				V value = loaded.get(key);
+				entries.put(key, new Entry<>(value, now + (value != null ? ttlMs : negativeTtlMs)));
+			}
+		}
+	}
+
+	private static final class Entry<V> {
+		final V value;
+		final long expiresAt;
+
+		Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
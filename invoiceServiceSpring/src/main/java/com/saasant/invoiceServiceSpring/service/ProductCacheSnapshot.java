@@ -0,0 +1,80 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import com.saasant.invoiceServiceSpring.vo.Product;
+
+/**
+ * Immutable view of the product catalog. ProductClientService replaces the whole snapshot
+ * in one reference swap, so readers never see a half-loaded cache and never need a lock.
+ */
+public final class ProductCacheSnapshot {
+	
+	static final ProductCacheSnapshot EMPTY = new ProductCacheSnapshot(Map.of(), 0, null);
+	
+	private final Map<Integer, Product> products;
+	// Unit price including tax per product, computed once per snapshot rather than per line.
+	// Sorted product IDs with prices at the same index, so pricing a line does not box.
+	private final int[] pricedIds;
+	private final float[] unitPrices;
+	// Product service catalog version this snapshot reflects; 0 when unknown.
+	private final long version;
+	private final Instant loadedAt;
+	
+	ProductCacheSnapshot(Map<Integer, Product> products, long version, Instant loadedAt) {
+		this.products = Map.copyOf(products);
+		this.pricedIds = products.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+		this.unitPrices = new float[pricedIds.length];
+		for (int i = 0; i < pricedIds.length; i++) {
+			unitPrices[i] = priceWithTax(products.get(pricedIds[i]));
+		}
+		this.version = version;
+		this.loadedAt = loadedAt;
+	}
+	
+	public Product get(int productId) {
+		return products.get(productId);
+	}
+	
+	/** Unit price including tax, or NaN when the product is not in the catalog. */
+	public float unitPriceWithTax(int productId) {
+		int i = Arrays.binarySearch(pricedIds, productId);
+		return i >= 0 ? unitPrices[i] : Float.NaN;
+	}
+	
+	static float priceWithTax(Product product) {
+		double basePrice = product.getPrice();
+		return (float) (basePrice + (basePrice * (product.getTaxPercent() / 100.0)));
+	}
+	
+	public boolean contains(int productId) {
+		return products.containsKey(productId);
+	}
+	
+	public int size() {
+		return products.size();
+	}
+	
+	public boolean isEmpty() {
+		return products.isEmpty();
+	}
+	
+	public Collection<Product> products() {
+		return products.values();
+	}
+	
+	Map<Integer, Product> asMap() {
+		return products;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public Instant getLoadedAt() {
+		return loadedAt;
+	}
+}
@@ -16,14 +16,15 @@ import org.springframework.web.client.RestTemplate;
 import com.saasant.invoiceServiceSpring.exception.EmployeeNotFoundException;
 import com.saasant.invoiceServiceSpring.exception.ProductNotFoundException;
 import com.saasant.invoiceServiceSpring.vo.Product;
+import com.saasant.invoiceServiceSpring.vo.ProductChangeSet;
 
 import jakarta.annotation.PostConstruct;
 
-import java.util.HashMap;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -36,26 +37,39 @@ public class ProductClientService {
 	@Autowired
 	public RestTemplate restTemplate;
 	
-	private final Map<Integer, Product> productCache = new HashMap<>();
+	// Replaced wholesale on every successful load; never mutated in place.
+	private volatile ProductCacheSnapshot snapshot = ProductCacheSnapshot.EMPTY;
 	
+	@Value("${product.service.baseurl}")
+	String productServiceBaseUrl;
 	
+	@Value("${product.cache.sync-page-size:500}")
+	int syncPageSize;
 	
+	// Beyond this many versions behind, a full reload is cheaper than replaying changes.
+	@Value("${product.cache.max-version-gap:5000}")
+	long maxVersionGap;
 	
-	@Value("${product.service.baseurl}")
-	private String productServiceBaseUrl;
+	private static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
 	
-	/*@Scheduled(fixedRate = 36000000)*/
-    public void loadProductsIntoCache() {
+    /**
+     * Loads the full product list and swaps it in as a new snapshot. On any failure the
+     * current snapshot is kept untouched. Writers are serialized; readers never lock.
+     *
+     * @return true if a new snapshot was installed
+     */
+    public synchronized boolean loadProductsIntoCache() {
         String url = productServiceBaseUrl;
         log.info("Attempting to load all products into cache from URL: {}", url);
         try {
             ResponseEntity<List<Product>> response = restTemplate.exchange(url,HttpMethod.GET,null,new ParameterizedTypeReference<List<Product>>() {});
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                productCache.clear(); 
                 Map<Integer, Product> fetchedProducts = response.getBody().stream()
-                        .collect(Collectors.toMap(Product::getProductId, product -> product));
-                productCache.putAll(fetchedProducts);
-                log.info("Successfully loaded {} products into cache.", productCache.size());
+                        .collect(Collectors.toMap(Product::getProductId, product -> product, (first, second) -> second));
+                ProductCacheSnapshot loaded = new ProductCacheSnapshot(fetchedProducts, parseCatalogVersion(response), Instant.now());
+                snapshot = loaded;
+                log.info("Successfully loaded {} products into cache (snapshot version {}).", loaded.size(), loaded.getVersion());
+                return true;
             } else {
                 log.warn("Received non-OK status ({}) or empty body when fetching all products. URL: {}", response.getStatusCode(), url);
             }
@@ -64,23 +78,97 @@ public class ProductClientService {
         } catch (Exception ex) {
             log.error("Unexpected error while fetching all products. URL: {}. Error: {}", url, ex.getMessage(), ex);
         }
+        log.warn("Keeping product cache snapshot version {} with {} products.", snapshot.getVersion(), snapshot.size());
+        return false;
+    }
+    
+    private static long parseCatalogVersion(ResponseEntity<?> response) {
+        String header = response.getHeaders().getFirst(CATALOG_VERSION_HEADER);
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid {} header: {}", CATALOG_VERSION_HEADER, header);
+            return 0;
+        }
+    }
+    
+    /**
+     * Brings the cache up to date by applying the product service's change log since the
+     * current snapshot version. Falls back to a full load when the snapshot version is
+     * unknown, the gap is larger than product.cache.max-version-gap, the catalog version
+     * went backwards, or the changes after the snapshot version were already pruned. Each applied page is swapped in as a new snapshot.
+     *
+     * @return true if the cache is now current, false if the sync failed (snapshot kept)
+     */
+    public synchronized boolean syncProductChanges() {
+        ProductCacheSnapshot current = snapshot;
+        if (current.getVersion() <= 0) {
+            return loadProductsIntoCache();
+        }
+        try {
+            while (true) {
+                String url = productServiceBaseUrl + "/changes?since=" + current.getVersion() + "&limit=" + syncPageSize;
+                ResponseEntity<ProductChangeSet> response = restTemplate.getForEntity(url, ProductChangeSet.class);
+                ProductChangeSet changeSet = response.getBody();
+                if (response.getStatusCode() != HttpStatus.OK || changeSet == null) {
+                    log.warn("Received non-OK status ({}) or empty body when fetching product changes. URL: {}", response.getStatusCode(), url);
+                    return false;
+                }
+                long gap = changeSet.getCatalogVersion() - current.getVersion();
+                if (gap < 0 || gap > maxVersionGap || current.getVersion() < changeSet.getOldestVersion()) {
+                    log.info("Product cache is at version {} and catalog at {}. Doing a full reload.", current.getVersion(), changeSet.getCatalogVersion());
+                    return loadProductsIntoCache();
+                }
+                if (changeSet.getChanges().isEmpty()) {
+                    return true;
+                }
+                Map<Integer, Product> products = new HashMap<>(current.asMap());
+                for (ProductChangeSet.Entry change : changeSet.getChanges()) {
+                    if (ProductChangeSet.UPSERT.equals(change.getChangeType()) && change.getProduct() != null) {
+                        products.put(change.getProductId(), change.getProduct());
+                    } else {
+                        products.remove(change.getProductId());
+                    }
+                }
+                current = new ProductCacheSnapshot(products, changeSet.getToVersion(), Instant.now());
+                snapshot = current;
+                log.info("Applied {} product changes. Cache now at catalog version {}.", changeSet.getChanges().size(), current.getVersion());
+                if (!changeSet.isHasMore()) {
+                    return true;
+                }
+            }
+        } catch (RestClientException ex) {
+            log.error("Error calling Product Service for changes since version {}. Error: {}", current.getVersion(), ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Unexpected error while syncing product changes since version {}. Error: {}", current.getVersion(), ex.getMessage(), ex);
+        }
+        return false;
+    }
+    
+    /**
+     * Current product snapshot. Callers that price many items should read this once and use
+     * it throughout, so every line is priced from the same catalog version.
+     */
+    public ProductCacheSnapshot getSnapshot() {
+        return snapshot;
     }
 
 
     public Product getProductById(int productId) {
-        if (productCache.containsKey(productId)) {
+        Product product = snapshot.get(productId);
+        if (product != null) {
             log.debug("Fetching product ID {} from cache.", productId);
-            Product product = productCache.get(productId);
-            if (product != null) {
-                return product;
-            }
+            return product;
         }
         log.warn("Product ID {} not found in cache.", productId);
         throw new ProductNotFoundException("Product not found with ID: " + productId);
     }
 
     public boolean isValidProduct(int productId) {
-        boolean exists = productCache.containsKey(productId);
+        boolean exists = snapshot.contains(productId);
         if(exists) {
             log.debug("Product ID {} found in cache during validation.", productId);
         } else {
@@ -95,8 +183,9 @@ public class ProductClientService {
      * @return true if cache has products, false if empty
      */
     public boolean isCacheEmpty() {
-        boolean empty = productCache.isEmpty();
-        log.debug("Product cache is {} - Size: {}", empty ? "empty" : "not empty", productCache.size());
+        ProductCacheSnapshot current = snapshot;
+        boolean empty = current.isEmpty();
+        log.debug("Product cache is {} - Size: {}", empty ? "empty" : "not empty", current.size());
         return empty;
     }
     
@@ -106,7 +195,7 @@ public class ProductClientService {
      * @return size of the product cache
      */
     public int getCacheSize() {
-        int size = productCache.size();
+        int size = snapshot.size();
         log.debug("Product cache size: {}", size);
         return size;
     }
@@ -117,8 +206,9 @@ public class ProductClientService {
      * @return unmodifiable list of products in the cache
      */
     public List<Product> getAllCachedProducts() {
-        log.debug("Fetching all {} products from cache", productCache.size());
-        return List.copyOf(productCache.values());
+        ProductCacheSnapshot current = snapshot;
+        log.debug("Fetching all {} products from cache", current.size());
+        return List.copyOf(current.products());
     }
 	
 	
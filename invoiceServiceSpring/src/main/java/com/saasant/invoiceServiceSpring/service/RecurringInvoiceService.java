@@ -0,0 +1,280 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.saasant.invoiceServiceSpring.dao.RecurringInvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.RecurringInvoiceTemplate;
+import com.saasant.invoiceServiceSpring.vo.RecurringRunResult;
+
+/**
+ * Generates the invoices of recurring templates whose next occurrence is due.
+ * <ul>
+ * <li>A run prices everything from one product cache snapshot and reserves the invoice
+ * numbers for each pass as one block.</li>
+ * <li>Due templates are read a chunk-size page at a time. Each page is validated (one
+ * customer and one employee batch lookup) and saved as one transaction on the
+ * recurringInvoiceExecutor, so several chunks are in flight at once. A failed chunk is
+ * retried template by template, like a batch create.</li>
+ * <li>Restart-safe: an occurrence's invoice and the move of its template to the following
+ * occurrence commit together, guarded by a compare-and-set on the pending date, and the
+ * invoice ID is derived from the template and date. A crashed or concurrent run can
+ * therefore neither skip nor repeat an occurrence.</li>
+ * <li>Templates that missed occurrences (the service was down) catch up one occurrence per
+ * pass, up to max-passes. Failed templates keep their occurrence pending and are retried
+ * on the next run. An occurrence another run saved first is not counted as failed.</li>
+ * </ul>
+ */
+@Component
+public class RecurringInvoiceService {
+
+	private static final Logger log = LoggerFactory.getLogger(RecurringInvoiceService.class);
+
+	@Autowired
+	RecurringInvoiceDaoInterface recurringInvoiceDao;
+
+	@Autowired
+	CustomerClientService customerClientService;
+
+	@Autowired
+	EmployeeClientService employeeClientService;
+
+	@Autowired
+	ProductClientService productClientService;
+
+	@Autowired
+	InvoiceBatchService invoiceBatchService;
+
+	@Autowired
+	InvoiceNumberAllocator invoiceNumberAllocator;
+
+	@Autowired
+	@Qualifier("recurringInvoiceExecutor")
+	Executor recurringInvoiceExecutor;
+
+	@Value("${invoice.recurring.enabled:true}")
+	boolean enabled;
+
+	@Value("${invoice.recurring.chunk-size:500}")
+	int chunkSize;
+
+	@Value("${invoice.recurring.max-passes:12}")
+	int maxPasses;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	@Scheduled(cron = "${invoice.recurring.cron:0 0 1 * * *}")
+	public void scheduledRun() {
+		if (!enabled) {
+			return;
+		}
+		MDC.put("transactionId", "invoice-recurring");
+		try {
+			run(LocalDate.now());
+		} catch (Exception e) {
+			log.error("Recurring invoice run failed: {}", e.getMessage(), e);
+		} finally {
+			MDC.remove("transactionId");
+		}
+	}
+
+	/** Generates every occurrence due on or before day. */
+	public RecurringRunResult run(LocalDate day) {
+		RecurringRunResult result = new RecurringRunResult();
+		if (!running.compareAndSet(false, true)) {
+			log.info("Recurring invoice run already in progress, skipping this run");
+			return result;
+		}
+		try {
+			long started = System.currentTimeMillis();
+			ProductCacheSnapshot products = productClientService.getSnapshot();
+			Set<String> failedTemplates = ConcurrentHashMap.newKeySet();
+			LongAdder generated = new LongAdder();
+			while (result.getPasses() < maxPasses) {
+				int budget = recurringInvoiceDao.countDue(day) - failedTemplates.size();
+				if (budget <= 0) {
+					break;
+				}
+				long before = generated.sum();
+				runPass(day, budget, products, failedTemplates, generated);
+				result.setPasses(result.getPasses() + 1);
+				if (generated.sum() == before) {
+					break;
+				}
+			}
+			result.setGenerated(generated.intValue());
+			result.setFailed(failedTemplates.size());
+			result.setElapsedMs(System.currentTimeMillis() - started);
+			log.info("Recurring invoice run for {}: {} generated, {} failed, {} pass(es) in {} ms", day,
+					result.getGenerated(), result.getFailed(), result.getPasses(), result.getElapsedMs());
+			return result;
+		} finally {
+			running.set(false);
+		}
+	}
+
+	/**
+	 * One sweep over the due templates. At most budget templates are taken, which is the size
+	 * of the number block; templates that become due meanwhile are left to the next pass.
+	 */
+	private void runPass(LocalDate day, int budget, ProductCacheSnapshot products, Set<String> failedTemplates, LongAdder generated) {
+		LocalDate numberDay = LocalDate.now();
+		AtomicLong nextNumber = new AtomicLong(invoiceNumberAllocator.reserveRange(numberDay, budget));
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		LocalDate afterDate = null;
+		String afterId = null;
+		int taken = 0;
+		while (taken < budget) {
+			List<RecurringInvoiceTemplate> page = recurringInvoiceDao.findDue(day, afterDate, afterId, chunkSize);
+			if (page.isEmpty()) {
+				break;
+			}
+			RecurringInvoiceTemplate last = page.get(page.size() - 1);
+			afterDate = last.getNextRunDate();
+			afterId = last.getTemplateId();
+			List<RecurringInvoiceTemplate> chunk = new ArrayList<>(page.size());
+			for (RecurringInvoiceTemplate template : page) {
+				if (taken < budget && !failedTemplates.contains(template.getTemplateId())) {
+					chunk.add(template);
+					taken++;
+				}
+			}
+			if (!chunk.isEmpty()) {
+				chunks.add(CompletableFuture.runAsync(
+						() -> generateChunk(chunk, products, numberDay, nextNumber, failedTemplates, generated), recurringInvoiceExecutor));
+			}
+			if (page.size() < chunkSize) {
+				break;
+			}
+		}
+		CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+	}
+
+	private void generateChunk(List<RecurringInvoiceTemplate> templates, ProductCacheSnapshot products, LocalDate numberDay,
+			AtomicLong nextNumber, Set<String> failedTemplates, LongAdder generated) {
+		Map<String, String> errors = new LinkedHashMap<>();
+		try {
+			Map<String, CustomerDetails> customers = customerClientService.getCustomersByIds(
+					distinct(templates, RecurringInvoiceTemplate::getCustomerId));
+			Map<String, Employee> employees = employeeClientService.getEmployeesByIds(
+					distinct(templates, RecurringInvoiceTemplate::getEmployeeId));
+			List<RecurringInvoiceTemplate> accepted = new ArrayList<>(templates.size());
+			List<InvoiceDetails> invoices = new ArrayList<>(templates.size());
+			for (RecurringInvoiceTemplate template : templates) {
+				InvoiceDetails invoice = occurrence(template);
+				String error = invoiceBatchService.prepare(invoice, products, customers, employees);
+				if (error != null) {
+					errors.put(template.getTemplateId(), error);
+				} else {
+					accepted.add(template);
+					invoices.add(invoice);
+				}
+			}
+			long number = nextNumber.getAndAdd(invoices.size());
+			for (InvoiceDetails invoice : invoices) {
+				invoice.setInvoiceNumber(InvoiceNumberAllocator.format(numberDay, number++));
+			}
+			try {
+				recurringInvoiceDao.materialize(accepted, invoices);
+				generated.add(invoices.size());
+			} catch (Exception e) {
+				log.warn("Recurring chunk of {} invoices failed ({}). Retrying templates individually.", invoices.size(), e.getMessage());
+				for (int i = 0; i < accepted.size(); i++) {
+					try {
+						recurringInvoiceDao.materialize(List.of(accepted.get(i)), List.of(invoices.get(i)));
+						generated.increment();
+					} catch (Exception single) {
+						if (generatedElsewhere(accepted.get(i))) {
+							log.info("Recurring invoice {} for {} was generated by another run", accepted.get(i).getTemplateId(),
+									accepted.get(i).getNextRunDate());
+							continue;
+						}
+						log.error("Recurring invoice {} failed: {}", accepted.get(i).getTemplateId(), single.getMessage());
+						errors.put(accepted.get(i).getTemplateId(), single.getMessage());
+					}
+				}
+			}
+		} catch (Exception e) {
+			log.error("Recurring chunk of {} templates failed: {}", templates.size(), e.getMessage(), e);
+			templates.forEach(template -> errors.putIfAbsent(template.getTemplateId(), e.getMessage()));
+		}
+		if (!errors.isEmpty()) {
+			failedTemplates.addAll(errors.keySet());
+			recurringInvoiceDao.recordFailures(errors);
+		}
+	}
+
+	/**
+	 * True when the template has already moved past the occurrence this run tried to save: a
+	 * concurrent run (another instance) committed it first, so the compare-and-set or the
+	 * deterministic invoice ID made this save fail. That is not a failure of the template.
+	 */
+	private boolean generatedElsewhere(RecurringInvoiceTemplate template) {
+		try {
+			return recurringInvoiceDao.findById(template.getTemplateId())
+					.map(stored -> stored.getNextRunDate().isAfter(template.getNextRunDate()))
+					.orElse(false);
+		} catch (Exception e) {
+			log.warn("Could not re-read recurring template {}: {}", template.getTemplateId(), e.getMessage());
+			return false;
+		}
+	}
+
+	/** The invoice for the template's pending occurrence, with fresh item copies (assembly rewrites them). */
+	static InvoiceDetails occurrence(RecurringInvoiceTemplate template) {
+		LocalDate date = template.getNextRunDate();
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId(occurrenceInvoiceId(template.getTemplateId(), date));
+		invoice.setCustomerId(template.getCustomerId());
+		invoice.setEmployeeId(template.getEmployeeId());
+		invoice.setInvoiceDate(date.atStartOfDay());
+		invoice.setDueDate(date.plusDays(template.getDueDays()));
+		List<InvoiceItem> items = new ArrayList<>(template.getItems().size());
+		for (InvoiceItem line : template.getItems()) {
+			InvoiceItem item = new InvoiceItem();
+			item.setProductId(line.getProductId());
+			item.setQuantity(line.getQuantity());
+			items.add(item);
+		}
+		invoice.setItems(items);
+		return invoice;
+	}
+
+	/** Same ID on every run, so an occurrence saved twice would collide on the primary key. */
+	static String occurrenceInvoiceId(String templateId, LocalDate date) {
+		return UUID.nameUUIDFromBytes((templateId + "|" + date).getBytes(StandardCharsets.UTF_8)).toString();
+	}
+
+	private static Set<String> distinct(List<RecurringInvoiceTemplate> templates, Function<RecurringInvoiceTemplate, String> idOf) {
+		Set<String> ids = new LinkedHashSet<>();
+		templates.forEach(template -> ids.add(idOf.apply(template)));
+		return ids;
+	}
+}
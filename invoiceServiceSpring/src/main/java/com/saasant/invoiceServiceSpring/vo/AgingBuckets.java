@@ -0,0 +1,24 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/**
+ * Outstanding amounts of one customer (or of all customers) by days past due as of the
+ * report date. Invoices not yet due, or without a due date, count as current.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AgingBuckets {
+	
+	// Null on the report total.
+	private String customerId;
+	private long invoiceCount;
+	private double current;
+	private double days1To30;
+	private double days31To60;
+	private double days61To90;
+	private double over90;
+	private double total;
+}
@@ -0,0 +1,19 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingReport {
+	
+	private LocalDate asOf;
+	private AgingBuckets total;
+	// One entry per customer with invoices issued on or before asOf, ordered by customer ID.
+	private List<AgingBuckets> customers;
+}
@@ -0,0 +1,23 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Ad hoc filter and group-by over invoice lines. Every filter is optional; an empty or
+ * missing list means "any". groupBy takes up to two of day, month, customer, employee and
+ * product; without it the whole selection is one row.
+ */
+@Data
+public class AnalyticsQuery {
+	
+	private LocalDate from;
+	private LocalDate to;
+	private List<String> customerIds;
+	private List<String> employeeIds;
+	private List<Integer> productIds;
+	private List<String> groupBy;
+	private Integer limit;
+}
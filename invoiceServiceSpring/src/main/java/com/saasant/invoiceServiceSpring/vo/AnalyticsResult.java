@@ -0,0 +1,23 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResult {
+	
+	// One map per group: the group-by values followed by lineCount, invoiceCount, quantity
+	// and revenue, highest revenue first.
+	private List<Map<String, Object>> rows;
+	private int totalGroups;
+	private long matchedLines;
+	private int scannedBlocks;
+	private int skippedBlocks;
+	private long tookMs;
+}
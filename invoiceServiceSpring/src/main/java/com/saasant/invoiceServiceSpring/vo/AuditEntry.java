@@ -0,0 +1,26 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One record of the invoice audit journal. type is one of the InvoiceEvent types. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuditEntry {
+	
+	private long sequence;
+	private Instant timestamp;
+	private String type;
+	private String invoiceId;
+	private String invoiceNumber;
+	private Float amountBefore;
+	private Float amountAfter;
+	private String transactionId;
+}
@@ -0,0 +1,25 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import lombok.Data;
+
+@Data
+public class BatchInvoiceResult {
+	
+	public static final String CREATED = "CREATED";
+	public static final String FAILED = "FAILED";
+	
+	// Position of the invoice in the submitted batch.
+	private int index;
+	private String invoiceId;
+	private String invoiceNumber;
+	private String status;
+	private String message;
+	
+	public BatchInvoiceResult() {}
+	
+	public BatchInvoiceResult(int index, String status, String message) {
+		this.index = index;
+		this.status = status;
+		this.message = message;
+	}
+}
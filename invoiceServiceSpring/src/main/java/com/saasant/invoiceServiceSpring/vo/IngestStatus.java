@@ -0,0 +1,33 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/** Progress of one invoice submitted with POST /api/invoice?async=true. */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestStatus {
+	
+	public static final String QUEUED = "QUEUED";
+	public static final String CREATED = "CREATED";
+	public static final String FAILED = "FAILED";
+	
+	private String invoiceId;
+	private String invoiceNumber;
+	private String status;
+	private String message;
+	private Instant submittedAt;
+	private Instant completedAt;
+	
+	public IngestStatus() {}
+	
+	public IngestStatus(String invoiceId, String invoiceNumber, Instant submittedAt) {
+		this.invoiceId = invoiceId;
+		this.invoiceNumber = invoiceNumber;
+		this.status = QUEUED;
+		this.submittedAt = submittedAt;
+	}
+}
@@ -0,0 +1,35 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/** One inconsistency found by the invoice integrity verifier. */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntegrityFinding {
+
+	// Stored total differs from the sum of the invoice's item totals.
+	public static final String TOTAL_MISMATCH = "TOTAL_MISMATCH";
+	// Invoice header without any items.
+	public static final String NO_ITEMS = "NO_ITEMS";
+	// Item whose invoice does not exist.
+	public static final String ORPHAN_ITEM = "ORPHAN_ITEM";
+	// Item whose customerId or empId differs from its invoice header.
+	public static final String PARTY_MISMATCH = "PARTY_MISMATCH";
+
+	private String type;
+	private String invoiceId;
+	private String itemId;
+	private String detail;
+	private boolean repaired;
+
+	public IntegrityFinding() {}
+
+	public IntegrityFinding(String type, String invoiceId, String itemId, String detail) {
+		this.type = type;
+		this.invoiceId = invoiceId;
+		this.itemId = itemId;
+		this.detail = detail;
+	}
+}
@@ -0,0 +1,132 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Progress and outcome of one integrity verification run. Updated concurrently by the range
+ * workers; every getter is a consistent-enough snapshot for polling.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntegrityReport {
+
+	public static final String RUNNING = "RUNNING";
+	public static final String COMPLETED = "COMPLETED";
+	public static final String FAILED = "FAILED";
+
+	private final boolean repair;
+	private final int maxFindings;
+	private final Instant startedAt = Instant.now();
+	private volatile Instant finishedAt;
+	private volatile String status = RUNNING;
+	private volatile String message;
+	private volatile int totalRanges;
+	private final AtomicInteger rangesDone = new AtomicInteger();
+	private final AtomicLong invoicesChecked = new AtomicLong();
+	private final AtomicLong repaired = new AtomicLong();
+	private final Map<String, AtomicLong> countsByType = new ConcurrentHashMap<>();
+	// The first maxFindings findings; the counts above cover all of them.
+	private final List<IntegrityFinding> findings = new ArrayList<>();
+
+	public IntegrityReport(boolean repair, int maxFindings) {
+		this.repair = repair;
+		this.maxFindings = maxFindings;
+	}
+
+	public void addFindings(List<IntegrityFinding> found) {
+		for (IntegrityFinding finding : found) {
+			countsByType.computeIfAbsent(finding.getType(), type -> new AtomicLong()).incrementAndGet();
+			if (finding.isRepaired()) {
+				repaired.incrementAndGet();
+			}
+		}
+		synchronized (findings) {
+			for (int i = 0; i < found.size() && findings.size() < maxFindings; i++) {
+				findings.add(found.get(i));
+			}
+		}
+	}
+
+	/** Counts one finished range; returns how many are finished now. */
+	public int rangeDone(long invoices) {
+		invoicesChecked.addAndGet(invoices);
+		return rangesDone.incrementAndGet();
+	}
+
+	public void finish(String status, String message) {
+		this.message = message;
+		this.finishedAt = Instant.now();
+		this.status = status;
+	}
+
+	public boolean isRepair() {
+		return repair;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public int getTotalRanges() {
+		return totalRanges;
+	}
+
+	public void setTotalRanges(int totalRanges) {
+		this.totalRanges = totalRanges;
+	}
+
+	public int getRangesDone() {
+		return rangesDone.get();
+	}
+
+	public long getInvoicesChecked() {
+		return invoicesChecked.get();
+	}
+
+	public long getRepaired() {
+		return repaired.get();
+	}
+
+	public long getElapsedMs() {
+		return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+	}
+
+	/** Invoices verified per second so far. */
+	public long getInvoicesPerSecond() {
+		long elapsedMs = getElapsedMs();
+		return elapsedMs > 0 ? getInvoicesChecked() * 1000 / elapsedMs : 0;
+	}
+
+	public Map<String, Long> getCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		countsByType.forEach((type, count) -> counts.put(type, count.get()));
+		return counts;
+	}
+
+	public List<IntegrityFinding> getFindings() {
+		synchronized (findings) {
+			return new ArrayList<>(findings);
+		}
+	}
+}
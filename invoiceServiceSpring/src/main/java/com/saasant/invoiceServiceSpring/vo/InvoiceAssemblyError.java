@@ -0,0 +1,21 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One problem found while assembling an invoice's items. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceAssemblyError {
+	
+	public enum Kind {
+		INVALID, PRODUCT_NOT_FOUND
+	}
+	
+	private Kind kind;
+	// Index of the offending item in the submitted list; -1 for the invoice as a whole.
+	private int line;
+	private String message;
+}
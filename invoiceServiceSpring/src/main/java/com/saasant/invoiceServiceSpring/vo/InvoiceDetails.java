@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -19,9 +21,18 @@ public class InvoiceDetails {
 	float totalAmount;
 	private LocalDate dueDate;
     private LocalDateTime invoiceDate;
+    // Current edit version; send it back as If-Match: "<version>" on PUT. Ignored on writes.
+    private Long version;
     
     private List<InvoiceItem> items = new ArrayList<>();
     
+    // Names resolved while validating the invoice, copied into invoice_summary on save.
+    // Not part of the API and not stored on the invoice itself.
+    @JsonIgnore
+    private String customerName;
+    @JsonIgnore
+    private String employeeName;
+    
     public InvoiceDetails() {}
     
     public String getInvoiceId() {
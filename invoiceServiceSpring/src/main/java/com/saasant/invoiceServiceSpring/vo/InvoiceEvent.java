@@ -0,0 +1,29 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One invoice change as recorded in the outbox. Carries the header fields consumers most
+ * often need; fetch the invoice for the rest. For DELETED they are the last stored values.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceEvent {
+	
+	public static final String CREATED = "CREATED";
+	public static final String UPDATED = "UPDATED";
+	public static final String DELETED = "DELETED";
+	
+	private long eventId;
+	private String type;
+	private String invoiceId;
+	private String invoiceNumber;
+	private String customerId;
+	private float totalAmount;
+	private LocalDateTime occurredAt;
+}
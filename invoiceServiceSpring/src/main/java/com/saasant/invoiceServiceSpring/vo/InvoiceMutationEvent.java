@@ -0,0 +1,58 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.Instant;
+
+import org.slf4j.MDC;
+
+/**
+ * Published by InvoiceDao for each created, edited or deleted invoice with its amount before
+ * and after the change (null where there is none). Consumed after commit by the audit journal.
+ */
+public class InvoiceMutationEvent {
+	
+	private final String type;
+	private final String invoiceId;
+	private final String invoiceNumber;
+	private final Float amountBefore;
+	private final Float amountAfter;
+	private final String transactionId;
+	private final Instant occurredAt;
+	
+	public InvoiceMutationEvent(String type, String invoiceId, String invoiceNumber, Float amountBefore, Float amountAfter) {
+		this.type = type;
+		this.invoiceId = invoiceId;
+		this.invoiceNumber = invoiceNumber;
+		this.amountBefore = amountBefore;
+		this.amountAfter = amountAfter;
+		this.transactionId = MDC.get("transactionId");
+		this.occurredAt = Instant.now();
+	}
+	
+	public String getType() {
+		return type;
+	}
+	
+	public String getInvoiceId() {
+		return invoiceId;
+	}
+	
+	public String getInvoiceNumber() {
+		return invoiceNumber;
+	}
+	
+	public Float getAmountBefore() {
+		return amountBefore;
+	}
+	
+	public Float getAmountAfter() {
+		return amountAfter;
+	}
+	
+	public String getTransactionId() {
+		return transactionId;
+	}
+	
+	public Instant getOccurredAt() {
+		return occurredAt;
+	}
+}
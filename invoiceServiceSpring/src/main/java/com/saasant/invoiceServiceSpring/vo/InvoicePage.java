@@ -0,0 +1,22 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class InvoicePage {
+	
+	private List<InvoiceDetails> invoices = new ArrayList<>();
+	
+	// Opaque keyset cursor for the next page, null when this is the last page.
+	private String nextCursor;
+	
+	public InvoicePage() {}
+	
+	public InvoicePage(List<InvoiceDetails> invoices, String nextCursor) {
+		this.invoices = invoices;
+		this.nextCursor = nextCursor;
+	}
+}
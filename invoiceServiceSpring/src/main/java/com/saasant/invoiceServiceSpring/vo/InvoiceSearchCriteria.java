@@ -0,0 +1,21 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * Filters of GET /api/invoice/search. Every field is optional; set fields are combined with AND.
+ * fromDate is inclusive and toDate exclusive.
+ */
+@Data
+public class InvoiceSearchCriteria {
+
+	private String customerId;
+	private String employeeId;
+	private String numberPrefix;
+	private LocalDateTime fromDate;
+	private LocalDateTime toDate;
+	private Float minAmount;
+	private Float maxAmount;
+}
@@ -0,0 +1,24 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
+
+import lombok.Data;
+
+@Data
+public class InvoiceSummaryPage {
+	
+	private List<InvoiceSummary> summaries = new ArrayList<>();
+	
+	// Opaque keyset cursor for the next page, null when this is the last page.
+	private String nextCursor;
+	
+	public InvoiceSummaryPage() {}
+	
+	public InvoiceSummaryPage(List<InvoiceSummary> summaries, String nextCursor) {
+		this.summaries = summaries;
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,20 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.List;
+
+/**
+ * Published by InvoiceDao whenever invoices are created, updated or deleted. Listeners that
+ * need the committed state should use @TransactionalEventListener and re-read the invoices.
+ */
+public class InvoicesChangedEvent {
+	
+	private final List<String> invoiceIds;
+	
+	public InvoicesChangedEvent(List<String> invoiceIds) {
+		this.invoiceIds = List.copyOf(invoiceIds);
+	}
+	
+	public List<String> getInvoiceIds() {
+		return invoiceIds;
+	}
+}
@@ -0,0 +1,32 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by InvoiceEventRelay for each batch of events it reads from the outbox. Unlike
+ * InvoicesChangedEvent, which only this instance's own writes raise, it covers invoices
+ * committed on every instance, in commit order, one outbox poll after the commit.
+ */
+public class InvoicesCommittedEvent {
+	
+	private final List<InvoiceEvent> events;
+	
+	public InvoicesCommittedEvent(List<InvoiceEvent> events) {
+		this.events = List.copyOf(events);
+	}
+	
+	public List<InvoiceEvent> getEvents() {
+		return events;
+	}
+	
+	/** The changed invoices, each once, in the order of their first event. */
+	public List<String> getInvoiceIds() {
+		Set<String> ids = new LinkedHashSet<>();
+		for (InvoiceEvent event : events) {
+			ids.add(event.getInvoiceId());
+		}
+		return List.copyOf(ids);
+	}
+}
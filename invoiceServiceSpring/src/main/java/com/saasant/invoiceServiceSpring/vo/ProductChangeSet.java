@@ -0,0 +1,31 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Response of the product service's GET /api/products/changes?since=.
+ */
+@Data
+public class ProductChangeSet {
+	
+	public static final String UPSERT = "UPSERT";
+	public static final String DELETE = "DELETE";
+	
+	private long catalogVersion;
+	private long toVersion;
+	private boolean hasMore;
+	// Changes up to this version were pruned from the log.
+	private long oldestVersion;
+	private List<Entry> changes = new ArrayList<>();
+	
+	@Data
+	public static class Entry {
+		private long version;
+		private int productId;
+		private String changeType;
+		private Product product;
+	}
+}
@@ -0,0 +1,31 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDate;
+
+/** How often a recurring invoice template produces an invoice. */
+public enum RecurringCadence {
+
+	WEEKLY(0),
+	MONTHLY(1),
+	QUARTERLY(3),
+	YEARLY(12);
+
+	private final int months;
+
+	RecurringCadence(int months) {
+		this.months = months;
+	}
+
+	/**
+	 * The occurrence after this one. Month-based cadences stay on the template's anchor day,
+	 * clamped to short months, so a template started on the 31st bills on 28 Feb and then
+	 * on 31 Mar again rather than drifting to the 28th.
+	 */
+	public LocalDate next(LocalDate occurrence, int anchorDay) {
+		if (months == 0) {
+			return occurrence.plusWeeks(1);
+		}
+		LocalDate month = occurrence.plusMonths(months);
+		return month.withDayOfMonth(Math.min(anchorDay, month.lengthOfMonth()));
+	}
+}
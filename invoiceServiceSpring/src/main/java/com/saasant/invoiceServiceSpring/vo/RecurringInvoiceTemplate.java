@@ -0,0 +1,36 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A fixed invoice billed on a cadence. Items carry only the product and quantity; they are
+ * priced from the product catalog when each occurrence is generated.
+ */
+@Data
+public class RecurringInvoiceTemplate {
+
+	private String templateId;
+	private String customerId;
+	private String employeeId;
+	private RecurringCadence cadence;
+	private LocalDate startDate;
+	// Last day an occurrence may fall on; null bills until the template is deactivated.
+	private LocalDate endDate;
+	// Days from the occurrence date to the invoice's due date.
+	private int dueDays = 30;
+	// Oldest occurrence not yet invoiced. Advanced in the same transaction as its invoice.
+	private LocalDate nextRunDate;
+	private boolean active = true;
+	private List<InvoiceItem> items = new ArrayList<>();
+	private String lastInvoiceId;
+	private String lastError;
+
+	/** The occurrence after nextRunDate. */
+	public LocalDate followingRunDate() {
+		return cadence.next(nextRunDate, startDate.getDayOfMonth());
+	}
+}
@@ -0,0 +1,14 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import lombok.Data;
+
+/** Outcome of one recurring invoice run. */
+@Data
+public class RecurringRunResult {
+
+	private int generated;
+	private int failed;
+	// Catch-up passes: a template that missed several occurrences gets one invoice per pass.
+	private int passes;
+	private long elapsedMs;
+}
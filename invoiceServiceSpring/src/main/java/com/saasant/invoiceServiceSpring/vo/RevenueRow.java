@@ -0,0 +1,27 @@
+package com.saasant.invoiceServiceSpring.vo;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a revenue report: either one day, one key (customer, employee or product)
+ * over a date range, or one key on one day. Fields that do not apply are left out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RevenueRow {
+	
+	private LocalDate date;
+	private String key;
+	private long invoiceCount;
+	// Units sold; product reports only.
+	private Double quantity;
+	private double revenue;
+}
@@ -0,0 +1,288 @@
+-- Schema additions for invoiceServiceSpring. The base invoice and invoiceitems
+-- tables are created outside the application; this script only adds indexes and
+-- helper tables. It runs on every start and must succeed each time: MySQL has no
+-- CREATE INDEX IF NOT EXISTS, so index and column changes check information_schema
+-- first and run through a prepared statement only when still needed.
+
+-- Keyset pagination of GET /api/invoice (newest first).
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_date_id ON invoice (invoice_date, invoice_id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice' AND index_name = 'idx_invoice_date_id');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Item lookups by invoice (findByInvoiceId / findByInvoiceIdIn).
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoiceitems_invoice_id ON invoiceitems (invoice_id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoiceitems' AND index_name = 'idx_invoiceitems_invoice_id');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Invoice number prefix lookups (INV-ddMMyyyy-%).
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_number ON invoice (invoice_number)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice' AND index_name = 'idx_invoice_number');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Aging report: one ordered, index-only scan by customer (InvoiceAgingDao).
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_customer_aging ON invoice (customer_id, due_date, total_amount, invoice_date)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice' AND index_name = 'idx_invoice_customer_aging');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Per-day invoice number sequence, reserved in blocks by InvoiceNumberAllocator.
+CREATE TABLE IF NOT EXISTS invoice_sequence (
+    seq_date DATE NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+-- Denormalized listing rows for GET /api/invoice/summaries, written in the same
+-- transaction as the invoice (InvoiceSummaryDao) and kept current by InvoiceSummaryNameSync.
+CREATE TABLE IF NOT EXISTS invoice_summary (
+    invoice_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    invoice_number VARCHAR(255),
+    invoice_date DATETIME(6),
+    due_date DATE,
+    total_amount FLOAT NOT NULL,
+    customer_id VARCHAR(255),
+    customer_name VARCHAR(255),
+    emp_id VARCHAR(255),
+    employee_name VARCHAR(255),
+    item_count INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_summary_date_id ON invoice_summary (invoice_date, invoice_id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_date_id');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- GET /api/invoice/search (InvoiceSummaryDao.search): the equality filter first and then the
+-- keyset order, so a customer's or employee's invoices come back as one ordered range read.
+-- They also serve the name refresh updates, which filter on the leading column.
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_summary_customer_date ON invoice_summary (customer_id, invoice_date, invoice_id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_customer_date');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_summary_emp_date ON invoice_summary (emp_id, invoice_date, invoice_id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_emp_date');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_summary_number ON invoice_summary (invoice_number)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_number');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_summary_amount ON invoice_summary (total_amount)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_amount');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Single-column indexes replaced by the composite ones above, dropped only while present.
+SET @ddl = (SELECT IF(COUNT(*) > 0,
+    'DROP INDEX idx_invoice_summary_customer ON invoice_summary', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_customer');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) > 0,
+    'DROP INDEX idx_invoice_summary_emp ON invoice_summary', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_summary' AND index_name = 'idx_invoice_summary_emp');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Backfill invoices written before the read model existed. Names are filled in by the
+-- next InvoiceSummaryNameSync run. Only missing rows are inserted, so re-running is cheap.
+INSERT INTO invoice_summary (invoice_id, invoice_number, invoice_date, due_date, total_amount, customer_id, emp_id, item_count, updated_at)
+SELECT i.invoice_id, i.invoice_number, i.invoice_date, i.due_date, i.total_amount, i.customer_id, i.emp_id,
+       (SELECT COUNT(*) FROM invoiceitems it WHERE it.invoice_id = i.invoice_id), NOW(6)
+FROM invoice i
+WHERE NOT EXISTS (SELECT 1 FROM invoice_summary s WHERE s.invoice_id = i.invoice_id);
+
+-- Daily revenue rollups for /api/invoice/reports/*, kept in step by InvoiceDao through
+-- RevenueRollupDao (stored state subtracted before a change, added back after it).
+-- Keyed by (key, date) so a one-key report is a single range read.
+CREATE TABLE IF NOT EXISTS invoice_rollup_daily (
+    rollup_date DATE NOT NULL PRIMARY KEY,
+    invoice_count BIGINT NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS invoice_rollup_customer (
+    customer_id VARCHAR(255) NOT NULL,
+    rollup_date DATE NOT NULL,
+    invoice_count BIGINT NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL,
+    PRIMARY KEY (customer_id, rollup_date),
+    KEY idx_rollup_customer_date (rollup_date)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_rollup_employee (
+    emp_id VARCHAR(255) NOT NULL,
+    rollup_date DATE NOT NULL,
+    invoice_count BIGINT NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL,
+    PRIMARY KEY (emp_id, rollup_date),
+    KEY idx_rollup_employee_date (rollup_date)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_rollup_product (
+    product_id INT NOT NULL,
+    rollup_date DATE NOT NULL,
+    invoice_count BIGINT NOT NULL,
+    quantity DECIMAL(19, 4) NOT NULL,
+    revenue DECIMAL(19, 4) NOT NULL,
+    PRIMARY KEY (product_id, rollup_date),
+    KEY idx_rollup_product_date (rollup_date)
+);
+
+-- One-time backfill: each rollup is built from the existing invoices only while it is
+-- still empty, so later startups do not count anything twice.
+INSERT INTO invoice_rollup_daily (rollup_date, invoice_count, revenue)
+SELECT DATE(invoice_date), COUNT(*), SUM(total_amount) FROM invoice
+WHERE invoice_date IS NOT NULL AND NOT EXISTS (SELECT 1 FROM invoice_rollup_daily)
+GROUP BY DATE(invoice_date);
+
+INSERT INTO invoice_rollup_customer (customer_id, rollup_date, invoice_count, revenue)
+SELECT customer_id, DATE(invoice_date), COUNT(*), SUM(total_amount) FROM invoice
+WHERE invoice_date IS NOT NULL AND customer_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM invoice_rollup_customer)
+GROUP BY customer_id, DATE(invoice_date);
+
+INSERT INTO invoice_rollup_employee (emp_id, rollup_date, invoice_count, revenue)
+SELECT emp_id, DATE(invoice_date), COUNT(*), SUM(total_amount) FROM invoice
+WHERE invoice_date IS NOT NULL AND emp_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM invoice_rollup_employee)
+GROUP BY emp_id, DATE(invoice_date);
+
+INSERT INTO invoice_rollup_product (product_id, rollup_date, invoice_count, quantity, revenue)
+SELECT it.product_id, DATE(i.invoice_date), COUNT(DISTINCT it.invoice_id), SUM(it.quantity), SUM(it.total_cost)
+FROM invoiceitems it JOIN invoice i ON i.invoice_id = it.invoice_id
+WHERE i.invoice_date IS NOT NULL AND NOT EXISTS (SELECT 1 FROM invoice_rollup_product)
+GROUP BY it.product_id, DATE(i.invoice_date);
+
+-- Transactional outbox: one row per invoice create, update and delete, written by InvoiceDao
+-- in the same transaction as the change, with event IDs from invoice_outbox_sequence.
+-- InvoiceEventRelay streams it to GET /api/invoice/events in event_id order; rows are
+-- purged after the retention period.
+CREATE TABLE IF NOT EXISTS invoice_outbox (
+    event_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(16) NOT NULL,
+    invoice_id VARCHAR(255) NOT NULL,
+    invoice_number VARCHAR(255),
+    customer_id VARCHAR(255),
+    total_amount FLOAT,
+    created_at DATETIME(6) NOT NULL
+);
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_invoice_outbox_created ON invoice_outbox (created_at)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'invoice_outbox' AND index_name = 'idx_invoice_outbox_created');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Last event ID handed out by InvoiceOutboxDao.append. Writers lock this row until they
+-- commit, so outbox IDs follow commit order without gaps. That makes every invoice write in
+-- the cluster serialize from its append to its commit, so appends are the last statement of
+-- each write transaction. Seeded once from the outbox.
+CREATE TABLE IF NOT EXISTS invoice_outbox_sequence (
+    id TINYINT NOT NULL PRIMARY KEY,
+    last_event_id BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO invoice_outbox_sequence (id, last_event_id)
+    SELECT 1, COALESCE(MAX(event_id), 0) FROM invoice_outbox;
+
+-- Cold storage for invoices moved out of the live tables by InvoiceArchiveService.
+-- Same columns as invoice and invoiceitems; GET /api/invoice/{id} falls back to these
+-- on a miss. Rows past invoice.archive.retention-days are purged oldest first.
+CREATE TABLE IF NOT EXISTS invoice_archive (
+    invoice_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    invoice_number VARCHAR(255),
+    customer_id VARCHAR(255),
+    emp_id VARCHAR(255),
+    total_amount FLOAT NOT NULL,
+    due_date DATE,
+    invoice_date DATETIME(6),
+    archived_at DATETIME(6) NOT NULL,
+    KEY idx_invoice_archive_date_id (invoice_date, invoice_id)
+);
+
+CREATE TABLE IF NOT EXISTS invoiceitems_archive (
+    item_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    invoice_id VARCHAR(255) NOT NULL,
+    product_id INT NOT NULL,
+    quantity FLOAT NOT NULL,
+    price_per_unit FLOAT NOT NULL,
+    total_cost FLOAT NOT NULL,
+    customer_id VARCHAR(255),
+    emp_id VARCHAR(255),
+    KEY idx_invoiceitems_archive_invoice_id (invoice_id)
+);
+
+-- Optimistic locking for PUT /api/invoice/{id}: InvoiceDao.updateInvoice bumps this with a
+-- compare-and-set UPDATE and the edit fails with 412 when it does not match.
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE invoice ADD COLUMN version BIGINT NOT NULL DEFAULT 0', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'invoice' AND column_name = 'version');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Recurring invoice templates (RecurringInvoiceService). next_run_date is the oldest
+-- occurrence not yet invoiced; it is advanced in the same transaction as that invoice.
+CREATE TABLE IF NOT EXISTS recurring_invoice (
+    template_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    customer_id VARCHAR(255) NOT NULL,
+    emp_id VARCHAR(255) NOT NULL,
+    cadence VARCHAR(16) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE,
+    due_days INT NOT NULL,
+    next_run_date DATE NOT NULL,
+    active TINYINT(1) NOT NULL,
+    last_invoice_id VARCHAR(255),
+    last_error VARCHAR(512),
+    created_at DATETIME(6) NOT NULL,
+    KEY idx_recurring_due (active, next_run_date, template_id)
+);
+
+CREATE TABLE IF NOT EXISTS recurring_invoice_item (
+    template_id VARCHAR(255) NOT NULL,
+    line_no INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    PRIMARY KEY (template_id, line_no)
+);
@@ -0,0 +1,214 @@
+package com.saasant.invoiceServiceSpring.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceAnalyticsDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsQuery;
+import com.saasant.invoiceServiceSpring.vo.AnalyticsResult;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+/**
+ * Runs the column store against an in-memory list of invoice lines. The apply executor runs
+ * inline, so loads and updates are visible as soon as the call returns.
+ */
+class InvoiceColumnStoreTest {
+
+	private final List<Object[]> lines = new ArrayList<>();
+	private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+	private int failingLoads;
+	private InvoiceColumnStore store;
+
+	@BeforeEach
+	void setUp() {
+		line("INV1", "2025-01-05", "C1", "E1", 10, 2, 20.0);
+		line("INV1", "2025-01-05", "C1", "E1", 11, 1, 5.0);
+		line("INV2", "2025-01-20", "C2", "E2", 10, 3, 30.0);
+		line("INV3", "2025-02-03", "C1", "E2", 10, 1, 10.0);
+
+		store = new InvoiceColumnStore();
+		store.invoiceAnalyticsDao = new FakeAnalyticsDao();
+		store.applyExecutor = Runnable::run;
+		store.taskScheduler = taskScheduler;
+		store.retryInitialMs = 1000;
+		store.retryMaxMs = 60000;
+		store.enabled = true;
+		store.blockSize = 1;
+		store.compactDeletedRatio = 0.5;
+		store.parallelism = 2;
+		store.init();
+		store.loadOnStartup();
+	}
+
+	@AfterEach
+	void tearDown() {
+		store.shutdown();
+	}
+
+	@Test
+	void filtersByProductAndGroupsByEmployee() {
+		AnalyticsQuery query = new AnalyticsQuery();
+		query.setProductIds(List.of(10));
+		query.setFrom(LocalDate.parse("2025-01-01"));
+		query.setTo(LocalDate.parse("2025-01-31"));
+		query.setGroupBy(List.of("employee"));
+
+		AnalyticsResult result = store.query(query);
+
+		assertEquals(2, result.getTotalGroups());
+		assertEquals(Map.of("employeeId", "E2", "lineCount", 1L, "invoiceCount", 1L, "quantity", 3.0, "revenue", 30.0),
+				result.getRows().get(0));
+		assertEquals("E1", result.getRows().get(1).get("employeeId"));
+		assertEquals(1, result.getSkippedBlocks(), "the February block lies outside the range");
+	}
+
+	@Test
+	void countsEachInvoiceOncePerGroup() {
+		AnalyticsQuery query = new AnalyticsQuery();
+		query.setGroupBy(List.of("customer", "month"));
+
+		List<Map<String, Object>> rows = store.query(query).getRows();
+
+		assertEquals(3, rows.size());
+		assertEquals("C2", rows.get(0).get("customerId"));
+		assertEquals("2025-01", rows.get(1).get("month"));
+		assertEquals(2L, rows.get(1).get("lineCount"));
+		assertEquals(1L, rows.get(1).get("invoiceCount"));
+	}
+
+	@Test
+	void changedInvoicesAreReplacedAndDeletedOnesRemoved() {
+		lines.removeIf(line -> line[0].equals("INV1") || line[0].equals("INV2"));
+		line("INV1", "2025-01-05", "C1", "E1", 12, 4, 100.0);
+
+		store.onInvoicesCommitted(committed("INV1", "INV2"));
+
+		AnalyticsResult result = store.query(new AnalyticsQuery());
+		assertEquals(2L, result.getMatchedLines());
+		assertEquals(110.0, result.getRows().get(0).get("revenue"));
+		assertEquals(0L, store.status().get("deletedLines"), "more than half the lines were deleted, so it compacted");
+	}
+
+	@Test
+	void productFiltersUseTheDictionaryAndIgnoreUnknownIds() {
+		AnalyticsQuery query = new AnalyticsQuery();
+		query.setProductIds(List.of(Integer.MAX_VALUE, 11, -5));
+		query.setGroupBy(List.of("product"));
+
+		AnalyticsResult result = store.query(query);
+
+		assertEquals(1, result.getTotalGroups());
+		assertEquals(11, result.getRows().get(0).get("productId"));
+		assertEquals(2, store.status().get("products"));
+	}
+
+	@Test
+	void groupsByProductIdAfterCompaction() {
+		lines.removeIf(line -> line[0].equals("INV1") || line[0].equals("INV2"));
+		line("INV1", "2025-01-05", "C1", "E1", 4242, 1, 1.0);
+		store.onInvoicesCommitted(committed("INV1", "INV2"));
+
+		AnalyticsQuery query = new AnalyticsQuery();
+		query.setGroupBy(List.of("product"));
+		List<Map<String, Object>> rows = store.query(query).getRows();
+
+		assertEquals(List.of(10, 4242), rows.stream().map(row -> row.get("productId")).toList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedInitialLoadIsRetried() {
+		store.shutdown();
+		failingLoads = 2;
+		store = new InvoiceColumnStore();
+		store.invoiceAnalyticsDao = new FakeAnalyticsDao();
+		store.applyExecutor = Runnable::run;
+		store.taskScheduler = taskScheduler;
+		store.retryInitialMs = 1000;
+		store.retryMaxMs = 60000;
+		store.enabled = true;
+		store.blockSize = 1;
+		store.parallelism = 1;
+		store.init();
+		ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		when(taskScheduler.schedule(retry.capture(), any(Instant.class))).thenReturn(null);
+
+		store.loadOnStartup();
+		assertFalse(store.isReady());
+		retry.getValue().run();
+		assertFalse(store.isReady());
+		retry.getValue().run();
+
+		assertTrue(store.isReady());
+		verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+		assertEquals(4L, store.query(new AnalyticsQuery()).getMatchedLines());
+	}
+
+	@Test
+	void rejectsUnknownGroupBy() {
+		AnalyticsQuery query = new AnalyticsQuery();
+		query.setGroupBy(List.of("region"));
+
+		assertThrows(IllegalArgumentException.class, () -> store.query(query));
+	}
+
+	/** An outbox batch as InvoiceEventRelay publishes it; the invoices may come from any instance. */
+	private static InvoicesCommittedEvent committed(String... invoiceIds) {
+		List<InvoiceEvent> events = new ArrayList<>();
+		for (String invoiceId : invoiceIds) {
+			events.add(new InvoiceEvent(events.size() + 1, InvoiceEvent.UPDATED, invoiceId, null, null, 0, null));
+		}
+		return new InvoicesCommittedEvent(events);
+	}
+
+	private void line(String invoiceId, String day, String customerId, String employeeId, int productId, float quantity,
+			double totalCost) {
+		lines.add(new Object[] { invoiceId, LocalDate.parse(day), customerId, employeeId, productId, quantity, totalCost });
+	}
+
+	private class FakeAnalyticsDao implements InvoiceAnalyticsDaoInterface {
+
+		@Override
+		public void streamAllLines(LineHandler handler) {
+			if (failingLoads > 0) {
+				failingLoads--;
+				throw new IllegalStateException("database down");
+			}
+			lines.stream()
+					.sorted((a, b) -> ((LocalDate) a[1]).compareTo((LocalDate) b[1]))
+					.forEach(line -> emit(line, handler));
+		}
+
+		@Override
+		public void streamLines(Collection<String> invoiceIds, LineHandler handler) {
+			lines.stream().filter(line -> invoiceIds.contains(line[0])).forEach(line -> emit(line, handler));
+		}
+
+		private void emit(Object[] line, LineHandler handler) {
+			handler.line((String) line[0], (LocalDate) line[1], (String) line[2], (String) line[3], (Integer) line[4],
+					(Float) line[5], (Double) line[6]);
+		}
+	}
+}
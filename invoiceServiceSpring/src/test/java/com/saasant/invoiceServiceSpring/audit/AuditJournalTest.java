@@ -0,0 +1,194 @@
+package com.saasant.invoiceServiceSpring.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.saasant.invoiceServiceSpring.vo.AuditEntry;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+
+/**
+ * Writes through a real journal in a temporary directory. Small segments and index intervals
+ * make a few dozen records span several segments and index entries.
+ */
+class AuditJournalTest {
+
+	@TempDir
+	Path directory;
+
+	private AuditJournal journal;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		journal = open();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		journal.close();
+	}
+
+	@Test
+	void readsBackATimeRangeAcrossSegments() throws Exception {
+		Instant start = Instant.now();
+		for (int i = 0; i < 40; i++) {
+			journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.UPDATED, "ID" + (i % 4), "INV" + i, (float) i, i + 1f));
+		}
+		restart();
+
+		assertTrue(segmentFiles().size() > 1, "small segments should have rolled");
+		List<AuditEntry> all = journal.read(start.minusSeconds(1), Instant.now().plusSeconds(1), null, 1000);
+		assertEquals(40, all.size());
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals(i + 1, all.get(i).getSequence());
+			assertEquals("INV" + i, all.get(i).getInvoiceNumber());
+		}
+		List<AuditEntry> one = journal.read(start.minusSeconds(1), Instant.now().plusSeconds(1), "ID2", 3);
+		assertEquals(List.of("INV2", "INV6", "INV10"), one.stream().map(AuditEntry::getInvoiceNumber).toList());
+		assertTrue(journal.read(Instant.now().plusSeconds(60), Instant.now().plusSeconds(120), null, 10).isEmpty());
+		assertEquals(Boolean.TRUE, journal.verify().get("valid"));
+	}
+
+	@Test
+	void cutsOffATornTailAndContinuesTheChain() throws Exception {
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID1", "INV1", null, 10f));
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.DELETED, "ID1", "INV1", 10f, null));
+		journal.close();
+		Path last = segmentFiles().get(segmentFiles().size() - 1);
+		long goodSize = Files.size(last);
+		try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 90, 1, 2, 3 }));
+		}
+
+		journal = open();
+		assertEquals(goodSize, Files.size(last));
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID2", "INV2", null, 5f));
+		restart();
+
+		List<AuditEntry> all = journal.read(Instant.EPOCH, Instant.now().plusSeconds(1), null, 10);
+		assertEquals(3, all.size());
+		assertNull(all.get(1).getAmountAfter());
+		assertEquals(3L, all.get(2).getSequence());
+		assertEquals(Boolean.TRUE, journal.verify().get("valid"));
+	}
+
+	@Test
+	void verifyReportsAnEditedRecord() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID" + i, "INV" + i, null, 1f));
+		}
+		restart();
+		Path first = segmentFiles().get(0);
+		// Rewrite the second record with a different chain but a matching CRC, as a tamperer would.
+		JournalCodec codec = new JournalCodec();
+		List<AuditEntry> entries = journal.read(Instant.EPOCH, Instant.now().plusSeconds(1), null, 10);
+		AuditEntry forged = entries.get(1);
+		forged.setAmountAfter(1000f);
+		ByteBuffer buffer = ByteBuffer.allocate(512);
+		buffer = codec.encode(forged, JournalCodec.GENESIS, buffer, new byte[1][]);
+		buffer.flip();
+		long secondOffset = Files.size(first) / entries.size();
+		try (RandomAccessFile file = new RandomAccessFile(first.toFile(), "rw")) {
+			file.seek(secondOffset);
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			file.write(bytes);
+		}
+
+		Map<String, Object> report = journal.verify();
+		assertFalse((Boolean) report.get("valid"));
+		assertTrue(((String) report.get("problem")).contains("sequence 2"), report.toString());
+	}
+
+	@Test
+	void failedWriteIsCutOffAndTheChainContinuesFromTheLastGoodRecord() throws Exception {
+		journal.close();
+		AtomicBoolean failNext = new AtomicBoolean();
+		journal = open(new AuditJournal() {
+			@Override
+			int write(FileChannel channel, ByteBuffer buffer) throws IOException {
+				if (!failNext.compareAndSet(true, false)) {
+					return super.write(channel, buffer);
+				}
+				// Half the record reaches the file before the disk gives up.
+				ByteBuffer half = buffer.duplicate();
+				half.limit(buffer.position() + buffer.remaining() / 2);
+				channel.write(half);
+				throw new IOException("No space left on device");
+			}
+		});
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID1", "INV1", null, 10f));
+		awaitAtLeast("bytes", 1);
+		failNext.set(true);
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID2", "INV2", null, 20f));
+		awaitAtLeast("dropped", 1);
+		journal.onInvoiceMutation(new InvoiceMutationEvent(InvoiceEvent.CREATED, "ID3", "INV3", null, 30f));
+		restart();
+
+		List<AuditEntry> all = journal.read(Instant.EPOCH, Instant.now().plusSeconds(1), null, 10);
+		assertEquals(List.of("INV1", "INV3"), all.stream().map(AuditEntry::getInvoiceNumber).toList());
+		assertEquals(2L, all.get(1).getSequence());
+		assertEquals(Boolean.TRUE, journal.verify().get("valid"));
+	}
+
+	private AuditJournal open() throws IOException {
+		return open(new AuditJournal());
+	}
+
+	private AuditJournal open(AuditJournal opened) throws IOException {
+		opened.enabled = true;
+		opened.directory = directory.toString();
+		opened.segmentBytes = 1024;
+		opened.indexIntervalBytes = 200;
+		opened.fsyncIntervalMs = 10;
+		opened.queueCapacity = 1000;
+		opened.open();
+		return opened;
+	}
+
+	/** Closing drains the queue, so everything offered so far is on disk afterwards. */
+	private void restart() throws Exception {
+		journal.close();
+		journal = open();
+	}
+
+	private void awaitAtLeast(String key, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (((Number) journal.status().get(key)).longValue() < expected) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError(key + " did not reach " + expected + ": " + journal.status());
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "audit-*.log")) {
+			stream.forEach(files::add);
+		}
+		files.sort(null);
+		return files;
+	}
+}
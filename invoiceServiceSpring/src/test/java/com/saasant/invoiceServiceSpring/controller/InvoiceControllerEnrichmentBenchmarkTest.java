@@ -0,0 +1,106 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saasant.invoiceServiceSpring.config.ApplicationConfig;
+import com.saasant.invoiceServiceSpring.service.CustomerClientService;
+import com.saasant.invoiceServiceSpring.service.EmployeeClientService;
+import com.saasant.invoiceServiceSpring.service.InvoiceClientServiceInterface;
+import com.saasant.invoiceServiceSpring.service.InvoiceResponseCache;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+/**
+ * Latency benchmark for the customer/employee enrichment in getInvoiceById.
+ * Both client calls are stubbed with a fixed delay, so a parallel lookup should
+ * take about max(customer, employee) instead of customer + employee.
+ * <p>
+ * Wall-clock based, so it is tagged out of the default test run: mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class InvoiceControllerEnrichmentBenchmarkTest {
+
+	private static final long CUSTOMER_DELAY_MS = 300;
+	private static final long EMPLOYEE_DELAY_MS = 200;
+	private static final int ROUNDS = 5;
+
+	private InvoiceController controller;
+	private ThreadPoolTaskExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = new ApplicationConfig().enrichmentExecutor(4, 10);
+
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId("INV-1");
+		invoice.setCustomerId("C1");
+		invoice.setEmployeeId("E1");
+
+		InvoiceClientServiceInterface invoiceClientService = mock(InvoiceClientServiceInterface.class);
+		when(invoiceClientService.getInvoiceById("INV-1", true)).thenReturn(Optional.of(invoice));
+
+		CustomerClientService customerClientService = mock(CustomerClientService.class);
+		when(customerClientService.getCustomerById(anyString())).thenAnswer(call -> {
+			Thread.sleep(CUSTOMER_DELAY_MS);
+			return Optional.of(new CustomerDetails("C1", "Asha", "9999999999", "Chennai"));
+		});
+
+		EmployeeClientService employeeClientService = mock(EmployeeClientService.class);
+		when(employeeClientService.getEmployeeById(anyString())).thenAnswer(call -> {
+			Thread.sleep(EMPLOYEE_DELAY_MS);
+			Employee employee = new Employee();
+			employee.setEmpId("E1");
+			employee.setEmpName("Ravi");
+			return Optional.of(employee);
+		});
+
+		controller = new InvoiceController();
+		controller.invoiceClientService = invoiceClientService;
+		controller.customerClientService = customerClientService;
+		controller.employeeClientService = employeeClientService;
+		controller.enrichmentExecutor = executor;
+		controller.objectMapper = new ObjectMapper().findAndRegisterModules();
+		// Caching off, so every call measures the lookups.
+		controller.invoiceResponseCache = new InvoiceResponseCache(0, 60_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void enrichmentLatencyIsCloseToSlowestLookup() {
+		controller.getInvoiceById("INV-1", null, null); // warm up the pool threads
+
+		long totalNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			ResponseEntity<?> response = controller.getInvoiceById("INV-1", null, null);
+			totalNanos += System.nanoTime() - start;
+			assertEquals(200, response.getStatusCode().value());
+		}
+		long averageMs = totalNanos / ROUNDS / 1_000_000;
+		long slowest = Math.max(CUSTOMER_DELAY_MS, EMPLOYEE_DELAY_MS);
+		long sequential = CUSTOMER_DELAY_MS + EMPLOYEE_DELAY_MS;
+
+		assertTrue(averageMs >= slowest, "lookups cannot finish faster than the slowest one");
+		assertTrue(averageMs < slowest + (sequential - slowest) / 2,
+				"expected close to " + slowest + " ms but averaged " + averageMs + " ms");
+	}
+}
@@ -0,0 +1,138 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.saasant.invoiceServiceSpring.config.ApplicationConfig;
+import com.saasant.invoiceServiceSpring.exception.CustomerNotFoundException;
+import com.saasant.invoiceServiceSpring.service.CustomerClientService;
+import com.saasant.invoiceServiceSpring.service.EmployeeClientService;
+import com.saasant.invoiceServiceSpring.service.InvoiceClientServiceInterface;
+import com.saasant.invoiceServiceSpring.service.InvoiceResponseCache;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+/**
+ * Customer/employee enrichment in getInvoiceById: both lookups run on the enrichment pool at
+ * the same time, carry the caller's transaction ID, and a missing customer still gives a
+ * response. The timing benchmark is InvoiceControllerEnrichmentBenchmarkTest.
+ */
+class InvoiceControllerEnrichmentTest {
+
+	private InvoiceController controller;
+	private ThreadPoolTaskExecutor executor;
+	private final AtomicReference<String> customerThreadTxId = new AtomicReference<>();
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@BeforeEach
+	void setUp() {
+		executor = new ApplicationConfig().enrichmentExecutor(4, 10);
+
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId("INV-1");
+		invoice.setCustomerId("C1");
+		invoice.setEmployeeId("E1");
+
+		InvoiceClientServiceInterface invoiceClientService = mock(InvoiceClientServiceInterface.class);
+		when(invoiceClientService.getInvoiceById("INV-1", true)).thenReturn(Optional.of(invoice));
+
+		CustomerClientService customerClientService = mock(CustomerClientService.class);
+		when(customerClientService.getCustomerById(anyString())).thenAnswer(call -> {
+			customerThreadTxId.set(MDC.get("transactionId"));
+			return Optional.of(new CustomerDetails("C1", "Asha", "9999999999", "Chennai"));
+		});
+
+		EmployeeClientService employeeClientService = mock(EmployeeClientService.class);
+		when(employeeClientService.getEmployeeById(anyString())).thenAnswer(call -> {
+			Employee employee = new Employee();
+			employee.setEmpId("E1");
+			employee.setEmpName("Ravi");
+			return Optional.of(employee);
+		});
+
+		controller = new InvoiceController();
+		controller.invoiceClientService = invoiceClientService;
+		controller.customerClientService = customerClientService;
+		controller.employeeClientService = employeeClientService;
+		controller.enrichmentExecutor = executor;
+		controller.objectMapper = objectMapper;
+		// Caching off, so every call runs the lookups.
+		controller.invoiceResponseCache = new InvoiceResponseCache(0, 60_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+		MDC.clear();
+	}
+
+	@Test
+	void customerAndEmployeeLookupsAreInFlightTogether() throws Exception {
+		// Each lookup waits until the other has started; run one after the other, both time out.
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		List<Boolean> overlapped = new CopyOnWriteArrayList<>();
+		when(controller.customerClientService.getCustomerById(anyString())).thenAnswer(call -> {
+			bothStarted.countDown();
+			overlapped.add(bothStarted.await(5, TimeUnit.SECONDS));
+			return Optional.of(new CustomerDetails("C1", "Asha", "9999999999", "Chennai"));
+		});
+		when(controller.employeeClientService.getEmployeeById(anyString())).thenAnswer(call -> {
+			bothStarted.countDown();
+			overlapped.add(bothStarted.await(5, TimeUnit.SECONDS));
+			return Optional.of(new Employee());
+		});
+
+		ResponseEntity<?> response = controller.getInvoiceById("INV-1", null, null);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals(List.of(true, true), overlapped);
+	}
+
+	@Test
+	void transactionIdIsCarriedToWorkerThreads() {
+		MDC.put("transactionId", "tx-123");
+		controller.getInvoiceById("INV-1", null, null);
+		assertEquals("tx-123", customerThreadTxId.get());
+	}
+
+	@Test
+	void missingCustomerStillReturnsMessage() throws IOException {
+		doThrow(new CustomerNotFoundException("Customer ID : C1 cannot be found"))
+				.when(controller.customerClientService).getCustomerById(anyString());
+
+		ResponseEntity<?> response = controller.getInvoiceById("INV-1", null, null);
+
+		assertEquals(200, response.getStatusCode().value());
+		Map<String, Object> body = body(response);
+		assertEquals("Customer ID : C1 cannot be found", body.get("customerDetails"));
+		assertTrue(body.get("employeeDetails") instanceof Map);
+	}
+
+	private Map<String, Object> body(ResponseEntity<?> response) throws IOException {
+		return objectMapper.readValue((byte[]) response.getBody(), new TypeReference<Map<String, Object>>() {});
+	}
+}
@@ -0,0 +1,81 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saasant.invoiceServiceSpring.service.InvoiceClientServiceInterface;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+class InvoiceControllerExportTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private InvoiceController controller;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		InvoiceClientServiceInterface invoiceClientService = mock(InvoiceClientServiceInterface.class);
+		doAnswer(call -> {
+			Consumer<InvoiceDetails> sink = call.getArgument(2);
+			for (int i = 1; i <= 3; i++) {
+				InvoiceDetails invoice = new InvoiceDetails();
+				invoice.setInvoiceId("INV-" + i);
+				sink.accept(invoice);
+			}
+			return null;
+		}).when(invoiceClientService).exportInvoices(any(), any(), any());
+
+		controller = new InvoiceController();
+		controller.invoiceClientService = invoiceClientService;
+		controller.objectMapper = objectMapper;
+		controller.exportExecutor = Runnable::run;
+		controller.exportTimeoutMs = 5_000;
+		mvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void exportWritesOneJsonDocumentPerLine() throws Exception {
+		MvcResult started = mvc.perform(get("/api/invoice/export")).andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+		List<String> lines = started.getResponse().getContentAsString().lines().toList();
+		assertEquals(3, lines.size());
+		for (int i = 0; i < lines.size(); i++) {
+			assertEquals("INV-" + (i + 1), objectMapper.readValue(lines.get(i), InvoiceDetails.class).getInvoiceId());
+		}
+		assertEquals(5_000L, started.getRequest().getAsyncContext().getTimeout());
+	}
+
+	@Test
+	void exportIsRefusedWhenThePoolIsFull() throws Exception {
+		controller.exportExecutor = task -> {
+			throw new TaskRejectedException("full");
+		};
+		mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+		mvc.perform(get("/api/invoice/export")).andExpect(status().isServiceUnavailable());
+	}
+
+	@Test
+	void reversedRangeIsRejected() throws Exception {
+		mvc.perform(get("/api/invoice/export").param("from", "2026-10-02").param("to", "2026-10-01"))
+				.andExpect(status().isBadRequest());
+	}
+}
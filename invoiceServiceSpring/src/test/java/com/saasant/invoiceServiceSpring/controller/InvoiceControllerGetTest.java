@@ -0,0 +1,170 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.saasant.invoiceServiceSpring.exception.InvoiceVersionConflictException;
+import com.saasant.invoiceServiceSpring.service.CustomerClientService;
+import com.saasant.invoiceServiceSpring.service.EmployeeClientService;
+import com.saasant.invoiceServiceSpring.service.InvoiceClientServiceInterface;
+import com.saasant.invoiceServiceSpring.service.InvoiceResponseCache;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+/**
+ * GET /api/invoice/{id} beyond the enrichment itself: expand, ETag revalidation with 304, and
+ * the If-Match tags PUT accepts. Lookups run inline on the calling thread.
+ */
+class InvoiceControllerGetTest {
+
+	private InvoiceController controller;
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@BeforeEach
+	void setUp() {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId("INV-1");
+		invoice.setCustomerId("C1");
+		invoice.setEmployeeId("E1");
+
+		InvoiceClientServiceInterface invoiceClientService = mock(InvoiceClientServiceInterface.class);
+		when(invoiceClientService.getInvoiceById("INV-1", true)).thenReturn(Optional.of(invoice));
+
+		CustomerClientService customerClientService = mock(CustomerClientService.class);
+		when(customerClientService.getCustomerById(anyString()))
+				.thenReturn(Optional.of(new CustomerDetails("C1", "Asha", "9999999999", "Chennai")));
+
+		EmployeeClientService employeeClientService = mock(EmployeeClientService.class);
+		Employee employee = new Employee();
+		employee.setEmpId("E1");
+		employee.setEmpName("Ravi");
+		when(employeeClientService.getEmployeeById(anyString())).thenReturn(Optional.of(employee));
+
+		controller = new InvoiceController();
+		controller.invoiceClientService = invoiceClientService;
+		controller.customerClientService = customerClientService;
+		controller.employeeClientService = employeeClientService;
+		controller.enrichmentExecutor = Runnable::run;
+		controller.objectMapper = objectMapper;
+		controller.invoiceResponseCache = new InvoiceResponseCache(0, 60_000);
+	}
+
+	@Test
+	void headerOnlyExpandMakesNoServiceCalls() throws IOException {
+		InvoiceDetails header = new InvoiceDetails();
+		header.setInvoiceId("INV-1");
+		header.setItems(null);
+		when(controller.invoiceClientService.getInvoiceById("INV-1", false)).thenReturn(Optional.of(header));
+
+		ResponseEntity<?> response = controller.getInvoiceById("INV-1", "", null);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals(Set.of("invoiceDetails"), body(response).keySet());
+		verify(controller.invoiceClientService).getInvoiceById("INV-1", false);
+		verifyNoInteractions(controller.customerClientService, controller.employeeClientService);
+	}
+
+	@Test
+	void expandFetchesOnlyTheRequestedParts() throws IOException {
+		ResponseEntity<?> response = controller.getInvoiceById("INV-1", "items, Customer", null);
+
+		Map<String, Object> body = body(response);
+		assertTrue(body.get("customerDetails") instanceof Map);
+		assertFalse(body.containsKey("employeeDetails"));
+		verifyNoInteractions(controller.employeeClientService);
+	}
+
+	@Test
+	void unknownExpandIsRejected() {
+		assertEquals(400, controller.getInvoiceById("INV-1", "items,payments", null).getStatusCode().value());
+	}
+
+	@Test
+	void cachedResponseRevalidatesWithNotModified() {
+		controller.invoiceResponseCache = new InvoiceResponseCache(100, 60_000);
+		InvoiceDetails header = new InvoiceDetails();
+		header.setInvoiceId("INV-1");
+		header.setVersion(7L);
+		header.setItems(null);
+		when(controller.invoiceClientService.getInvoiceById("INV-1", false)).thenReturn(Optional.of(header));
+
+		ResponseEntity<?> first = controller.getInvoiceById("INV-1", "", null);
+		String etag = first.getHeaders().getETag();
+		ResponseEntity<?> revalidated = controller.getInvoiceById("INV-1", "", etag);
+		controller.invoiceResponseCache.invalidate("INV-1");
+		ResponseEntity<?> afterChange = controller.getInvoiceById("INV-1", "", "\"other\", " + etag);
+
+		assertEquals(304, revalidated.getStatusCode().value());
+		assertNull(revalidated.getBody());
+		assertEquals(etag, revalidated.getHeaders().getETag());
+		verify(controller.invoiceClientService, times(2)).getInvoiceById("INV-1", false);
+		assertTrue(etag.startsWith("\"7-"), etag);
+		assertEquals(304, afterChange.getStatusCode().value(), "same version and bytes reloaded, so the same ETag");
+	}
+
+	@Test
+	void renamedCustomerGetsANewTag() {
+		when(controller.customerClientService.getCustomerById(anyString()))
+				.thenReturn(Optional.of(new CustomerDetails("C1", "Asha", "9999999999", "Chennai")))
+				.thenReturn(Optional.of(new CustomerDetails("C1", "Asha R", "9999999999", "Chennai")));
+
+		String before = controller.getInvoiceById("INV-1", "items,customer", null).getHeaders().getETag();
+		ResponseEntity<?> renamed = controller.getInvoiceById("INV-1", "items,customer", before);
+
+		assertEquals(200, renamed.getStatusCode().value());
+		assertNotEquals(before, renamed.getHeaders().getETag());
+	}
+
+	@Test
+	void failedLookupIsNeverRevalidated() throws IOException {
+		doThrow(new IllegalStateException("connection refused")).when(controller.customerClientService).getCustomerById(anyString());
+
+		ResponseEntity<?> response = controller.getInvoiceById("INV-1", "items,customer", null);
+		ResponseEntity<?> again = controller.getInvoiceById("INV-1", "items,customer", "*");
+
+		assertEquals("Error fetching customer details.", body(response).get("customerDetails"));
+		assertNull(response.getHeaders().getETag());
+		assertEquals(200, again.getStatusCode().value());
+	}
+
+	@Test
+	void ifMatchAcceptsThePutAndGetTagsOfAVersion() {
+		assertNull(InvoiceController.parseIfMatch("INV-1", null));
+		assertNull(InvoiceController.parseIfMatch("INV-1", " * "));
+		assertEquals(7L, InvoiceController.parseIfMatch("INV-1", InvoiceController.versionTag(7)));
+		assertEquals(7L, InvoiceController.parseIfMatch("INV-1", InvoiceController.getTag(7, new byte[] { 1, 2 })));
+		controller.invoiceClientService.getInvoiceById("INV-1", true).get().setVersion(3L);
+		String getTag = controller.getInvoiceById("INV-1", null, null).getHeaders().getETag();
+		assertEquals(3L, InvoiceController.parseIfMatch("INV-1", getTag), "the tag from GET is accepted on PUT");
+		assertThrows(InvoiceVersionConflictException.class, () -> InvoiceController.parseIfMatch("INV-1", "W/\"7\""));
+		assertThrows(InvoiceVersionConflictException.class, () -> InvoiceController.parseIfMatch("INV-1", "\"q2x-Hc0\""));
+	}
+
+	private Map<String, Object> body(ResponseEntity<?> response) throws IOException {
+		return objectMapper.readValue((byte[]) response.getBody(), new TypeReference<Map<String, Object>>() {});
+	}
+}
@@ -0,0 +1,94 @@
+package com.saasant.invoiceServiceSpring.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.saasant.invoiceServiceSpring.dao.RollupDimension;
+import com.saasant.invoiceServiceSpring.service.InvoiceReportService;
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+/**
+ * Report endpoints: parameter binding per dimension, JSON shape of the rows, and 400 for
+ * ranges the report service rejects.
+ */
+class InvoiceReportControllerTest {
+
+	private static final LocalDate FROM = LocalDate.of(2026, 10, 1);
+	private static final LocalDate TO = LocalDate.of(2026, 10, 31);
+
+	private InvoiceReportService reportService;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		reportService = mock(InvoiceReportService.class);
+
+		InvoiceReportController controller = new InvoiceReportController();
+		controller.invoiceReportService = reportService;
+		ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		mvc = MockMvcBuilders.standaloneSetup(controller).setMessageConverters(new StringHttpMessageConverter(),
+				new MappingJackson2HttpMessageConverter(objectMapper)).build();
+	}
+
+	@Test
+	void dailyReportReturnsOneRowPerDay() throws Exception {
+		when(reportService.daily(FROM, TO)).thenReturn(List.of(new RevenueRow(FROM, null, 2, null, 40.0)));
+
+		mvc.perform(get("/api/invoice/reports/daily").param("from", "2026-10-01").param("to", "2026-10-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].date").value("2026-10-01"))
+				.andExpect(jsonPath("$[0].invoiceCount").value(2))
+				.andExpect(jsonPath("$[0].key").doesNotExist())
+				.andExpect(jsonPath("$[0].quantity").doesNotExist());
+	}
+
+	@Test
+	void eachEndpointReportsItsOwnDimension() throws Exception {
+		when(reportService.byDimension(RollupDimension.CUSTOMER, null, FROM, TO))
+				.thenReturn(List.of(new RevenueRow(null, "C2", 5, null, 90.0), new RevenueRow(null, "C1", 1, null, 10.0)));
+		when(reportService.byDimension(RollupDimension.PRODUCT, "7", FROM, TO))
+				.thenReturn(List.of(new RevenueRow(FROM, "7", 3, 12.0, 150.0)));
+
+		mvc.perform(get("/api/invoice/reports/customers").param("from", "2026-10-01").param("to", "2026-10-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].key").value("C2"))
+				.andExpect(jsonPath("$[1].key").value("C1"));
+		mvc.perform(get("/api/invoice/reports/products").param("id", "7").param("from", "2026-10-01").param("to", "2026-10-31"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].quantity").value(12.0));
+		mvc.perform(get("/api/invoice/reports/employees").param("id", "E1").param("from", "2026-10-01").param("to", "2026-10-31"))
+				.andExpect(status().isOk());
+		verify(reportService).byDimension(RollupDimension.EMPLOYEE, "E1", FROM, TO);
+	}
+
+	@Test
+	void rejectedRangesAreBadRequests() throws Exception {
+		when(reportService.daily(TO, FROM)).thenThrow(new IllegalArgumentException("'from' must not be after 'to'"));
+
+		mvc.perform(get("/api/invoice/reports/daily").param("from", "2026-10-31").param("to", "2026-10-01"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("'from' must not be after 'to'"));
+		mvc.perform(get("/api/invoice/reports/customers").param("from", "not-a-date").param("to", "2026-10-01"))
+				.andExpect(status().isBadRequest());
+		verify(reportService, never()).byDimension(any(), any(), any(), any());
+	}
+}
@@ -0,0 +1,98 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoiceMutationEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+
+/**
+ * An archived invoice leaves the live tables like a deleted one: rollups and outbox are
+ * updated from the live rows before they go, and the caches hear about it.
+ */
+class InvoiceArchiveDaoTest {
+
+	private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 10, 18, 0, 0);
+
+	private JdbcTemplate jdbcTemplate;
+	private InvoiceArchiveDao dao;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		dao = new InvoiceArchiveDao();
+		dao.jdbcTemplate = jdbcTemplate;
+		dao.revenueRollupDao = mock(RevenueRollupDaoInterface.class);
+		dao.invoiceOutboxDao = mock(InvoiceOutboxDaoInterface.class);
+		dao.eventPublisher = mock(ApplicationEventPublisher.class);
+	}
+
+	@Test
+	void archivedInvoicesLeaveRollupsOutboxAndCachesLikeDeletedOnes() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString("invoice_id")).thenReturn("INV-1", "INV-2");
+		when(rs.getString("invoice_number")).thenReturn("N-1", "N-2");
+		when(rs.getFloat("total_amount")).thenReturn(10f, 20f);
+		doAnswer(call -> {
+			RowCallbackHandler handler = call.getArgument(1);
+			handler.processRow(rs);
+			handler.processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(startsWith("SELECT invoice_id, invoice_number, total_amount FROM invoice "),
+				any(RowCallbackHandler.class), eq(Timestamp.valueOf(CUTOFF)), eq(50));
+
+		List<InvoiceEvent> deleted = List.of(new InvoiceEvent(0, InvoiceEvent.DELETED, "INV-1", "N-1", "C1", 10f, null),
+				new InvoiceEvent(0, InvoiceEvent.DELETED, "INV-2", "N-2", "C1", 20f, null));
+		when(dao.invoiceOutboxDao.snapshot(InvoiceEvent.DELETED, List.of("INV-1", "INV-2"))).thenReturn(deleted);
+
+		assertEquals(2, dao.archiveChunk(CUTOFF, 50));
+
+		List<String> ids = List.of("INV-1", "INV-2");
+		InOrder order = inOrder(dao.revenueRollupDao, dao.invoiceOutboxDao, jdbcTemplate, dao.eventPublisher);
+		order.verify(dao.revenueRollupDao).subtractInvoices(ids);
+		order.verify(dao.invoiceOutboxDao).snapshot(InvoiceEvent.DELETED, ids);
+		order.verify(jdbcTemplate).update(startsWith("INSERT IGNORE INTO invoiceitems_archive"), eq("INV-1"), eq("INV-2"));
+		order.verify(jdbcTemplate).update(startsWith("DELETE FROM invoice WHERE"), eq("INV-1"), eq("INV-2"));
+		order.verify(dao.invoiceOutboxDao).append(deleted);
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		order.verify(dao.eventPublisher, times(3)).publishEvent(events.capture());
+		assertEquals(ids, ((InvoicesChangedEvent) events.getAllValues().get(0)).getInvoiceIds());
+		InvoiceMutationEvent second = (InvoiceMutationEvent) events.getAllValues().get(2);
+		assertEquals(InvoiceEvent.DELETED, second.getType());
+		assertEquals("N-2", second.getInvoiceNumber());
+		assertEquals(20f, second.getAmountBefore());
+	}
+
+	@Test
+	void emptyChunkChangesNothing() {
+		assertEquals(0, dao.archiveChunk(CUTOFF, 50));
+
+		verifyNoInteractions(dao.revenueRollupDao, dao.invoiceOutboxDao, dao.eventPublisher);
+		verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+	}
+}
@@ -0,0 +1,76 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+
+class InvoiceDaoExportTest {
+
+	private final PreparedStatement statement = mock(PreparedStatement.class);
+	private InvoiceDao invoiceDao;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		invoiceDao = new InvoiceDao();
+		invoiceDao.jdbcTemplate = jdbcTemplate;
+
+		Connection connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+		// Two invoices, the first with two items and a fractional quantity, the second without items.
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString("invoice_id")).thenReturn("INV-1", "INV-1", "INV-2");
+		when(rs.getString("item_id")).thenReturn("IT-1", "IT-2", null);
+		when(rs.getFloat("quantity")).thenReturn(3f, 2.6f);
+		when(rs.getInt("product_id")).thenReturn(7);
+		doAnswer(call -> {
+			call.getArgument(0, PreparedStatementCreator.class).createPreparedStatement(connection);
+			RowCallbackHandler handler = call.getArgument(1);
+			for (int row = 0; row < 3; row++) {
+				handler.processRow(rs);
+			}
+			return null;
+		}).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+	}
+
+	@Test
+	void exportStreamsRowsFromOneStatementAndGroupsThemPerInvoice() throws Exception {
+		List<InvoiceDetails> exported = new ArrayList<>();
+
+		invoiceDao.streamInvoices(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2027, 1, 1, 0, 0), exported::add);
+
+		verify(statement).setFetchSize(StreamingStatements.STREAMING_FETCH_SIZE);
+		assertEquals(List.of("INV-1", "INV-2"), exported.stream().map(InvoiceDetails::getInvoiceId).toList());
+		assertEquals(List.of(3, 3), exported.get(0).getItems().stream().map(InvoiceItem::getQuantity).toList());
+		assertEquals(0, exported.get(1).getItems().size());
+	}
+
+	@Test
+	void fractionalQuantitiesAreRoundedNotTruncated() {
+		assertEquals(3, InvoiceDao.wholeQuantity("IT-1", 2.6f));
+		assertEquals(2, InvoiceDao.wholeQuantity("IT-1", 2.4f));
+		assertEquals(5, InvoiceDao.wholeQuantity("IT-1", 5f));
+	}
+}
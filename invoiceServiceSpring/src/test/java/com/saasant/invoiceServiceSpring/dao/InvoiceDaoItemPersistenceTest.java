@@ -0,0 +1,217 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.saasant.invoiceServiceSpring.entity.Invoice;
+import com.saasant.invoiceServiceSpring.entity.InvoiceItemEntity;
+import com.saasant.invoiceServiceSpring.exception.InvoiceNotFoundException;
+import com.saasant.invoiceServiceSpring.exception.InvoiceVersionConflictException;
+import com.saasant.invoiceServiceSpring.repo.InvoiceItemRepository;
+import com.saasant.invoiceServiceSpring.repo.InvoiceRepository;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+
+/**
+ * Counts the statements InvoiceDao issues for item persistence. Every repository or
+ * JdbcTemplate call below maps to one SQL statement (or one JDBC batch).
+ */
+class InvoiceDaoItemPersistenceTest {
+
+	private static final int LINES = 500;
+
+	private InvoiceDao invoiceDao;
+	private InvoiceRepository invoiceRepository;
+	private InvoiceItemRepository invoiceItemRepository;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		invoiceRepository = mock(InvoiceRepository.class);
+		invoiceItemRepository = mock(InvoiceItemRepository.class);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		when(invoiceRepository.saveAndFlush(any(Invoice.class))).thenAnswer(call -> call.getArgument(0));
+		when(invoiceRepository.save(any(Invoice.class))).thenAnswer(call -> call.getArgument(0));
+		when(jdbcTemplate.update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L)).thenReturn(1);
+
+		invoiceDao = new InvoiceDao();
+		invoiceDao.invoiceRepository = invoiceRepository;
+		invoiceDao.invoiceItemRepository = invoiceItemRepository;
+		invoiceDao.jdbcTemplate = jdbcTemplate;
+		invoiceDao.modelMapper = new ModelMapper();
+		invoiceDao.invoiceSummaryDao = mock(InvoiceSummaryDaoInterface.class);
+		invoiceDao.revenueRollupDao = mock(RevenueRollupDaoInterface.class);
+		invoiceDao.invoiceOutboxDao = mock(InvoiceOutboxDaoInterface.class);
+		invoiceDao.eventPublisher = mock(ApplicationEventPublisher.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void saveInsertsAllLinesInOneBatch() {
+		invoiceDao.saveInvoice(invoice(LINES));
+
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(invoiceRepository, times(1)).saveAndFlush(any(Invoice.class));
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+		assertEquals(LINES, batch.getValue().size());
+		verify(invoiceItemRepository, never()).save(any());
+		verifyNoMoreInteractions(jdbcTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void updateWritesOnlyChangedLines() {
+		Invoice header = new Invoice();
+		header.setInvoiceId("INV-1");
+		header.setCustomerId("C1");
+		header.setEmployeeId("E1");
+		when(invoiceRepository.findById("INV-1")).thenReturn(Optional.of(header));
+		when(invoiceItemRepository.findByInvoiceId("INV-1")).thenReturn(existingItems(LINES));
+
+		// Same 500 lines, except line 0 changes quantity, line 1 is dropped and product 9999 is added.
+		InvoiceDetails edited = invoice(LINES);
+		edited.getItems().get(0).setQuantity(5);
+		edited.getItems().get(0).calculateLineTotal();
+		edited.getItems().remove(1);
+		edited.getItems().add(item(9999, 1));
+
+		invoiceDao.updateInvoice("INV-1", edited, null);
+
+		ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<List<String>> deletes = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(eq(InvoiceDao.UPDATE_ITEM_SQL), updates.capture());
+		verify(jdbcTemplate).batchUpdate(eq(InvoiceDao.INSERT_ITEM_SQL), inserts.capture());
+		verify(invoiceItemRepository, times(1)).deleteAllByIdInBatch(deletes.capture());
+		assertEquals(1, updates.getValue().size());
+		assertEquals(1, inserts.getValue().size());
+		assertEquals(List.of("item-1"), deletes.getValue());
+		verify(invoiceItemRepository, never()).save(any());
+		verify(invoiceItemRepository, never()).deleteAll(anyList());
+		verify(jdbcTemplate).update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L);
+		verifyNoMoreInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void unchangedUpdateWritesNoItemStatements() {
+		Invoice header = new Invoice();
+		header.setInvoiceId("INV-1");
+		header.setCustomerId("C1");
+		header.setEmployeeId("E1");
+		when(invoiceRepository.findById("INV-1")).thenReturn(Optional.of(header));
+		when(invoiceItemRepository.findByInvoiceId("INV-1")).thenReturn(existingItems(LINES));
+
+		Invoice saved = invoiceDao.updateInvoice("INV-1", invoice(LINES), 0L);
+
+		assertEquals(1, saved.getVersion(), "the version moves even when nothing else changed");
+		verify(jdbcTemplate).update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L);
+		verifyNoMoreInteractions(jdbcTemplate);
+		verify(invoiceItemRepository, never()).deleteAllByIdInBatch(anyList());
+	}
+
+	@Test
+	void staleIfMatchFailsBeforeAnyWrite() {
+		Invoice header = new Invoice();
+		header.setInvoiceId("INV-1");
+		header.setVersion(3);
+		when(invoiceRepository.findById("INV-1")).thenReturn(Optional.of(header));
+
+		InvoiceVersionConflictException conflict = assertThrows(InvoiceVersionConflictException.class,
+				() -> invoiceDao.updateInvoice("INV-1", invoice(LINES), 2L));
+
+		assertEquals(3L, conflict.getCurrentVersion());
+		verifyNoInteractions(jdbcTemplate, invoiceItemRepository, invoiceDao.revenueRollupDao, invoiceDao.invoiceOutboxDao);
+	}
+
+	@Test
+	void editLosingTheRaceFailsBeforeAnyWrite() {
+		Invoice header = new Invoice();
+		header.setInvoiceId("INV-1");
+		when(invoiceRepository.findById("INV-1")).thenReturn(Optional.of(header));
+		// Another edit committed version 1 after this one read version 0.
+		when(jdbcTemplate.update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L)).thenReturn(0);
+		when(jdbcTemplate.queryForObject(InvoiceDao.EXISTS_SQL, Integer.class, "INV-1")).thenReturn(1);
+
+		assertThrows(InvoiceVersionConflictException.class, () -> invoiceDao.updateInvoice("INV-1", invoice(LINES), null));
+
+		verifyNoInteractions(invoiceItemRepository, invoiceDao.revenueRollupDao, invoiceDao.invoiceOutboxDao);
+		verify(invoiceRepository, never()).saveAndFlush(any(Invoice.class));
+	}
+
+	@Test
+	void editOfAnInvoiceArchivedSinceItWasReadIsNotFound() {
+		Invoice header = new Invoice();
+		header.setInvoiceId("INV-1");
+		when(invoiceRepository.findById("INV-1")).thenReturn(Optional.of(header));
+		// The archive job moved the row out between the read and the version bump.
+		when(jdbcTemplate.update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L)).thenReturn(0);
+		when(jdbcTemplate.queryForObject(InvoiceDao.EXISTS_SQL, Integer.class, "INV-1")).thenReturn(0);
+
+		assertThrows(InvoiceNotFoundException.class, () -> invoiceDao.updateInvoice("INV-1", invoice(LINES), null));
+
+		verifyNoInteractions(invoiceItemRepository, invoiceDao.revenueRollupDao, invoiceDao.invoiceOutboxDao);
+	}
+
+	@Test
+	void deleteUsesSingleBulkItemDelete() {
+		invoiceDao.deleteInvoice("INV-1");
+
+		verify(invoiceItemRepository, times(1)).deleteAllByInvoiceId("INV-1");
+		verify(invoiceItemRepository, never()).findByInvoiceId(anyString());
+		verify(invoiceItemRepository, never()).delete(any());
+		verify(invoiceRepository, times(1)).deleteById("INV-1");
+	}
+
+	private static InvoiceDetails invoice(int lines) {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId("INV-1");
+		invoice.setCustomerId("C1");
+		invoice.setEmployeeId("E1");
+		List<InvoiceItem> items = new ArrayList<>();
+		for (int productId = 0; productId < lines; productId++) {
+			items.add(item(productId, 2));
+		}
+		invoice.setItems(items);
+		invoice.calculateTotalAmount();
+		return invoice;
+	}
+
+	private static InvoiceItem item(int productId, int quantity) {
+		InvoiceItem item = new InvoiceItem();
+		item.setProductId(String.valueOf(productId));
+		item.setQuantity(quantity);
+		item.setPricePerUnit(10f);
+		item.calculateLineTotal();
+		return item;
+	}
+
+	private static List<InvoiceItemEntity> existingItems(int lines) {
+		List<InvoiceItemEntity> items = new ArrayList<>();
+		for (int productId = 0; productId < lines; productId++) {
+			items.add(new InvoiceItemEntity("item-" + productId, "INV-1", productId, 2f, 10f, 20f, "C1", "E1"));
+		}
+		return items;
+	}
+}
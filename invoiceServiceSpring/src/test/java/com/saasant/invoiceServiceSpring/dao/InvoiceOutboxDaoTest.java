@@ -0,0 +1,78 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+
+class InvoiceOutboxDaoTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private InvoiceOutboxDao dao;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		dao = new InvoiceOutboxDao();
+		dao.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void eventsGetConsecutiveIdsFromTheLockedCounter() {
+		List<InvoiceEvent> headers = List.of(new InvoiceEvent(0, InvoiceEvent.CREATED, "INV-1", "N-1", "C1", 10.0f, null),
+				new InvoiceEvent(0, InvoiceEvent.CREATED, "INV-2", "N-2", "C2", 20.0f, null));
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("INV-1"), eq("INV-2"))).thenReturn(headers);
+		when(jdbcTemplate.update(InvoiceOutboxDao.RESERVE_IDS_SQL, 2)).thenReturn(1);
+		when(jdbcTemplate.queryForObject(InvoiceOutboxDao.RESERVED_END_SQL, Long.class)).thenReturn(42L);
+
+		dao.record(InvoiceEvent.CREATED, List.of("INV-1", "INV-2"));
+
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		InOrder order = inOrder(jdbcTemplate);
+		order.verify(jdbcTemplate).update(InvoiceOutboxDao.RESERVE_IDS_SQL, 2);
+		order.verify(jdbcTemplate).batchUpdate(eq(InvoiceOutboxDao.INSERT_SQL), rows.capture());
+		assertArrayEquals(new Object[] { 41L, InvoiceEvent.CREATED, "INV-1", "N-1", "C1", 10.0f }, rows.getValue().get(0));
+		assertEquals(42L, rows.getValue().get(1)[0]);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void invoicesThatAreNotStoredReserveNoIds() {
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("INV-9"))).thenReturn(List.of());
+
+		dao.record(InvoiceEvent.UPDATED, List.of("INV-9"));
+
+		verify(jdbcTemplate, never()).update(eq(InvoiceOutboxDao.RESERVE_IDS_SQL), any(Object[].class));
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void missingCounterRowFailsTheWrite() {
+		List<InvoiceEvent> headers = List.of(new InvoiceEvent(0, InvoiceEvent.DELETED, "INV-1", "N-1", "C1", 10.0f, null));
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("INV-1"))).thenReturn(headers);
+
+		assertThrows(IllegalStateException.class, () -> dao.record(InvoiceEvent.DELETED, List.of("INV-1")));
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+}
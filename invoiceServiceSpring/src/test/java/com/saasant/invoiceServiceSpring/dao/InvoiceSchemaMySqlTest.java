@@ -0,0 +1,103 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs schema.sql against a throwaway MySQL and checks the query plans it is meant to give,
+ * and that it succeeds again on an existing schema, as it does on every start. Needs Docker;
+ * the class is skipped where none is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class InvoiceSchemaMySqlTest {
+
+	@Container
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	// The base tables are created outside the application; these carry the columns schema.sql uses.
+	private static final String[] BASE_TABLES = {
+			"CREATE TABLE invoice (invoice_id VARCHAR(255) NOT NULL PRIMARY KEY, invoice_number VARCHAR(255), "
+					+ "customer_id VARCHAR(255), emp_id VARCHAR(255), total_amount FLOAT NOT NULL, due_date DATE, invoice_date DATETIME(6))",
+			"CREATE TABLE invoiceitems (item_id VARCHAR(255) NOT NULL PRIMARY KEY, invoice_id VARCHAR(255), product_id INT NOT NULL, "
+					+ "quantity FLOAT NOT NULL, price_per_unit FLOAT NOT NULL, total_cost FLOAT NOT NULL, customer_id VARCHAR(255), emp_id VARCHAR(255))" };
+
+	private static JdbcTemplate jdbcTemplate;
+	private static DriverManagerDataSource dataSource;
+
+	@BeforeAll
+	static void createSchema() {
+		dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		for (String table : BASE_TABLES) {
+			jdbcTemplate.execute(table);
+		}
+		runSchemaScript();
+
+		// Enough spread over customers, employees, dates and amounts for realistic plans.
+		List<Object[]> rows = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+		for (int i = 0; i < 5000; i++) {
+			LocalDateTime invoiceDate = start.plusHours(5L * i);
+			rows.add(new Object[] { "ID-" + i, "INV-" + i, Timestamp.valueOf(invoiceDate), Date.valueOf(invoiceDate.toLocalDate().plusDays(30)),
+					(float) (i % 1000), "C" + (i % 100), "E" + (i % 50), 1, Timestamp.valueOf(invoiceDate) });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO invoice_summary (invoice_id, invoice_number, invoice_date, due_date, total_amount, "
+				+ "customer_id, emp_id, item_count, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+		jdbcTemplate.execute("ANALYZE TABLE invoice_summary");
+	}
+
+	@Test
+	void everySearchCombinationIsServedByAnIndex() {
+		// Without any filter the query is a plain listing, served by idx_invoice_summary_date_id.
+		for (int mask = 0; mask < 1 << InvoiceSummarySearchTest.FILTERS; mask++) {
+			List<Object> args = new ArrayList<>();
+			String sql = InvoiceSummarySearchTest.buildSql(mask, args);
+			Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args.toArray()).get(0);
+
+			String key = (String) plan.get("key");
+			assertNotNull(key, "no index used for " + sql);
+			assertNotEquals("ALL", plan.get("type"), sql);
+			if ((mask & 3) != 0 && (mask & 3) != 3) {
+				assertEquals((mask & 1) != 0 ? "idx_invoice_summary_customer_date" : "idx_invoice_summary_emp_date", key, sql);
+			}
+		}
+	}
+
+	@Test
+	void schemaScriptRunsAgainOnRestart() {
+		String indexes = "SELECT table_name, index_name, column_name FROM information_schema.statistics "
+				+ "WHERE table_schema = DATABASE() ORDER BY table_name, index_name, seq_in_index";
+		List<Map<String, Object>> before = jdbcTemplate.queryForList(indexes);
+		long events = jdbcTemplate.queryForObject("SELECT last_event_id FROM invoice_outbox_sequence WHERE id = 1", Long.class);
+
+		runSchemaScript();
+
+		assertEquals(before, jdbcTemplate.queryForList(indexes));
+		assertEquals(events, jdbcTemplate.queryForObject("SELECT last_event_id FROM invoice_outbox_sequence WHERE id = 1", Long.class));
+		assertEquals(5000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoice_summary", Integer.class));
+	}
+
+	private static void runSchemaScript() {
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+		populator.setContinueOnError(false);
+		populator.execute(dataSource);
+	}
+}
@@ -0,0 +1,54 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class InvoiceSequenceDaoTest {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 10, 18);
+	private static final Date SEQ_DATE = Date.valueOf(DAY);
+
+	private InvoiceSequenceDao dao;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		dao = new InvoiceSequenceDao();
+		dao.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void firstReservationOfADaySeedsAfterIssuedNumbersInOneUpsert() {
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(SEQ_DATE))).thenReturn(List.of());
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("INV-18102026-%"))).thenReturn(41L);
+		when(jdbcTemplate.queryForObject(InvoiceSequenceDao.RESERVED_END_SQL, Long.class)).thenReturn(92L);
+
+		assertEquals(42, dao.reserveBlock(DAY, "INV-18102026-", 50));
+		verify(jdbcTemplate).update(InvoiceSequenceDao.RESERVE_SQL, SEQ_DATE, 42L, 50, 50);
+	}
+
+	@Test
+	void laterReservationsSkipTheSeedQuery() {
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(SEQ_DATE))).thenReturn(List.of(92L));
+		when(jdbcTemplate.queryForObject(InvoiceSequenceDao.RESERVED_END_SQL, Long.class)).thenReturn(142L);
+
+		assertEquals(92, dao.reserveBlock(DAY, "INV-18102026-", 50));
+		verify(jdbcTemplate).update(InvoiceSequenceDao.RESERVE_SQL, SEQ_DATE, 1L, 50, 50);
+		verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(String.class));
+	}
+}
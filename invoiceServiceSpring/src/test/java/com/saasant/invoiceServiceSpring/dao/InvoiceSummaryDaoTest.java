@@ -0,0 +1,119 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.saasant.invoiceServiceSpring.entity.InvoiceSummary;
+
+class InvoiceSummaryDaoTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private InvoiceSummaryDao invoiceSummaryDao;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		invoiceSummaryDao = new InvoiceSummaryDao();
+		invoiceSummaryDao.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void upsertWritesEveryRowInOneBatch() {
+		InvoiceSummary dated = summary("INV-1", "C1", "Asha");
+		dated.setInvoiceDate(LocalDateTime.of(2026, 10, 1, 9, 30));
+		dated.setDueDate(LocalDate.of(2026, 10, 31));
+		dated.setUpdatedAt(LocalDateTime.of(2026, 10, 1, 9, 31));
+		InvoiceSummary undated = summary("INV-2", "C2", null);
+
+		invoiceSummaryDao.upsert(List.of(dated, undated));
+
+		ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+		assertEquals(2, args.getValue().size());
+		assertArrayEquals(new Object[] { "INV-1", "N-1", Timestamp.valueOf("2026-10-01 09:30:00"), java.sql.Date.valueOf("2026-10-31"),
+				12.5f, "C1", "Asha", "E1", "Ravi", 2, Timestamp.valueOf("2026-10-01 09:31:00") }, args.getValue().get(0));
+		Object[] second = args.getValue().get(1);
+		assertNull(second[2]);
+		assertNull(second[3]);
+		assertNull(second[6], "an unknown name is sent as NULL so the stored one is kept");
+		assertTrue(second[10] instanceof Timestamp, "updated_at defaults to now");
+	}
+
+	@Test
+	void upsertKeepsTheStoredNameOnlyWhileTheIdIsUnchanged() {
+		String sql = captureUpsertSql();
+
+		assertTrue(sql.contains("customer_name = IF(customer_id <=> VALUES(customer_id), COALESCE(VALUES(customer_name), customer_name), VALUES(customer_name))"), sql);
+		assertTrue(sql.contains("employee_name = IF(emp_id <=> VALUES(emp_id), COALESCE(VALUES(employee_name), employee_name), VALUES(employee_name))"), sql);
+		// MySQL applies the assignments left to right: the name rules must see the old IDs.
+		assertTrue(sql.indexOf("customer_name = IF(") < sql.indexOf("customer_id = VALUES(customer_id)"), sql);
+		assertTrue(sql.indexOf("employee_name = IF(") < sql.indexOf("emp_id = VALUES(emp_id)"), sql);
+	}
+
+	@Test
+	void emptyUpsertDoesNotTouchTheDatabase() {
+		invoiceSummaryDao.upsert(List.of());
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void nameRefreshCountsOnlyChangedRows() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 3, 0, -2 });
+		Map<String, String> names = new LinkedHashMap<>();
+		names.put("C1", "Asha");
+		names.put("C2", "Bala");
+		names.put("C3", "Chitra");
+
+		assertEquals(3, invoiceSummaryDao.updateCustomerNames(names));
+
+		ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(startsWith("UPDATE invoice_summary SET customer_name"), args.capture());
+		assertArrayEquals(new Object[] { "Asha", "C1", "Asha" }, args.getValue().get(0));
+		assertEquals(0, invoiceSummaryDao.updateEmployeeNames(Map.of()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private String captureUpsertSql() {
+		invoiceSummaryDao.upsert(List.of(summary("INV-1", "C1", "Asha")));
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+		return sql.getValue();
+	}
+
+	private static InvoiceSummary summary(String invoiceId, String customerId, String customerName) {
+		InvoiceSummary summary = new InvoiceSummary();
+		summary.setInvoiceId(invoiceId);
+		summary.setInvoiceNumber("N-" + invoiceId.substring(4));
+		summary.setTotalAmount(12.5f);
+		summary.setCustomerId(customerId);
+		summary.setCustomerName(customerName);
+		summary.setEmployeeId("E1");
+		summary.setEmployeeName("Ravi");
+		summary.setItemCount(2);
+		return summary;
+	}
+}
@@ -0,0 +1,76 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceSearchCriteria;
+
+/**
+ * Builds the search query for every combination of filters. InvoiceSchemaMySqlTest checks
+ * the plans of the same combinations against a real MySQL.
+ */
+class InvoiceSummarySearchTest {
+
+	// customerId, employeeId, numberPrefix, fromDate, toDate, minAmount, maxAmount, keyset position
+	static final int FILTERS = 8;
+
+	@Test
+	void everyCombinationBindsOneArgumentPerPlaceholder() {
+		for (int mask = 0; mask < 1 << FILTERS; mask++) {
+			List<Object> args = new ArrayList<>();
+			String sql = buildSql(mask, args);
+
+			assertEquals(sql.chars().filter(c -> c == '?').count(), args.size(), sql);
+			assertEquals((mask & 1) != 0, sql.contains("customer_id = ?"), sql);
+			assertEquals((mask & 2) != 0, sql.contains("emp_id = ?"), sql);
+			assertEquals((mask & 1 << 7) != 0, sql.contains("((invoice_date, invoice_id) < (?, ?) OR invoice_date IS NULL)"), sql);
+			assertTrue(sql.endsWith("ORDER BY invoice_date DESC, invoice_id DESC LIMIT ?"), sql);
+			assertEquals(25, args.get(args.size() - 1));
+		}
+	}
+
+	@Test
+	void numberPrefixWildcardsAreEscaped() {
+		InvoiceSearchCriteria criteria = new InvoiceSearchCriteria();
+		criteria.setNumberPrefix("INV_10%");
+		List<Object> args = new ArrayList<>();
+
+		InvoiceSummaryDao.buildSearchSql(criteria, null, null, 10, args);
+
+		assertEquals("INV\\_10\\%%", args.get(0));
+	}
+
+	static String buildSql(int mask, List<Object> args) {
+		InvoiceSearchCriteria criteria = new InvoiceSearchCriteria();
+		if ((mask & 1) != 0) {
+			criteria.setCustomerId("C1");
+		}
+		if ((mask & 2) != 0) {
+			criteria.setEmployeeId("E1");
+		}
+		if ((mask & 4) != 0) {
+			criteria.setNumberPrefix("INV-01022025-");
+		}
+		if ((mask & 8) != 0) {
+			criteria.setFromDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+		}
+		if ((mask & 16) != 0) {
+			criteria.setToDate(LocalDateTime.of(2025, 3, 1, 0, 0));
+		}
+		if ((mask & 32) != 0) {
+			criteria.setMinAmount(100f);
+		}
+		if ((mask & 64) != 0) {
+			criteria.setMaxAmount(500f);
+		}
+		boolean keyset = (mask & 128) != 0;
+		return InvoiceSummaryDao.buildSearchSql(criteria, keyset ? LocalDateTime.of(2025, 2, 1, 12, 0) : null,
+				keyset ? "some-invoice-id" : null, 25, args);
+	}
+}
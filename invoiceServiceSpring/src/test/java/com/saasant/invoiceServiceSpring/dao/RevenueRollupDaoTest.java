@@ -0,0 +1,225 @@
+package com.saasant.invoiceServiceSpring.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.saasant.invoiceServiceSpring.entity.Invoice;
+import com.saasant.invoiceServiceSpring.repo.InvoiceItemRepository;
+import com.saasant.invoiceServiceSpring.repo.InvoiceRepository;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+/**
+ * The rollup deltas are symmetric (the same statements with the sign flipped), and InvoiceDao
+ * takes the stored state out before a write and puts it back after, so rollups follow every
+ * create, update and delete.
+ */
+class RevenueRollupDaoTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private RevenueRollupDao revenueRollupDao;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		revenueRollupDao = new RevenueRollupDao();
+		revenueRollupDao.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Test
+	void subtractRunsTheSameStatementsAsAddWithTheSignFlipped() {
+		revenueRollupDao.addInvoices(List.of("INV-1", "INV-2"));
+		List<String> addSql = capturedSql();
+		List<Object[]> addArgs = capturedArgs();
+
+		jdbcTemplate = mock(JdbcTemplate.class);
+		revenueRollupDao.jdbcTemplate = jdbcTemplate;
+		revenueRollupDao.subtractInvoices(List.of("INV-1", "INV-2"));
+
+		assertEquals(4, addSql.size(), "daily, customer, employee and product rollups");
+		assertEquals(addSql, capturedSql());
+		List<Object[]> subtractArgs = capturedArgs();
+		for (int statement = 0; statement < addArgs.size(); statement++) {
+			Object[] added = addArgs.get(statement);
+			Object[] subtracted = subtractArgs.get(statement);
+			assertEquals(added.length, subtracted.length);
+			for (int i = 0; i < added.length; i++) {
+				if (added[i] instanceof Integer sign) {
+					assertEquals(-sign, subtracted[i]);
+				} else {
+					assertEquals(added[i], subtracted[i]);
+				}
+			}
+		}
+		assertArrayEquals(new Object[] { 1, 1, 1, "INV-1", "INV-2" }, addArgs.get(3), "product delta signs count, quantity and revenue");
+	}
+
+	@Test
+	void everyStatementHasOnePlaceholderPerArgument() {
+		revenueRollupDao.addInvoices(List.of("INV-1", "INV-2", "INV-3"));
+
+		List<String> sql = capturedSql();
+		List<Object[]> args = capturedArgs();
+		for (int i = 0; i < sql.size(); i++) {
+			assertEquals(sql.get(i).chars().filter(c -> c == '?').count(), args.get(i).length, sql.get(i));
+		}
+	}
+
+	@Test
+	void emptyDeltaDoesNotTouchTheDatabase() {
+		revenueRollupDao.addInvoices(List.of());
+		revenueRollupDao.subtractInvoices(List.of());
+
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void totalsAreGroupedPerKeyAndOnlyProductsCarryQuantity() throws Exception {
+		LocalDate from = LocalDate.of(2026, 10, 1);
+		LocalDate to = LocalDate.of(2026, 10, 31);
+		revenueRollupDao.totalsByKey(RollupDimension.CUSTOMER, from, to);
+		revenueRollupDao.totalsByKey(RollupDimension.PRODUCT, from, to);
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		ArgumentCaptor<RowMapper<RevenueRow>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+		verify(jdbcTemplate, times(2)).query(sql.capture(), mapper.capture(), eq(Date.valueOf(from)), eq(Date.valueOf(to)));
+		assertTrue(sql.getAllValues().get(0).contains("FROM invoice_rollup_customer"), sql.getAllValues().get(0));
+		assertTrue(sql.getAllValues().get(0).contains("GROUP BY customer_id HAVING SUM(invoice_count) <> 0 ORDER BY revenue DESC"));
+		assertTrue(sql.getAllValues().get(1).contains("GROUP BY product_id"));
+
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString("rollup_key")).thenReturn("7");
+		when(rs.getLong("invoice_count")).thenReturn(3L);
+		when(rs.getDouble("quantity")).thenReturn(12.0);
+		when(rs.getDouble("revenue")).thenReturn(150.0);
+		RevenueRow customerRow = mapper.getAllValues().get(0).mapRow(rs, 0);
+		RevenueRow productRow = mapper.getAllValues().get(1).mapRow(rs, 0);
+		assertNull(customerRow.getQuantity());
+		assertNull(customerRow.getDate());
+		assertEquals(new RevenueRow(null, "7", 3, 12.0, 150.0), productRow);
+	}
+
+	@Test
+	void dailyRowsForOneKeyFilterOnTheKeyColumn() {
+		LocalDate day = LocalDate.of(2026, 10, 1);
+		revenueRollupDao.dailyForKey(RollupDimension.EMPLOYEE, "E1", day, day);
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq("E1"), eq(Date.valueOf(day)), eq(Date.valueOf(day)));
+		assertTrue(sql.getValue().contains("FROM invoice_rollup_employee WHERE emp_id = ?"), sql.getValue());
+		assertTrue(sql.getValue().contains("NULL AS quantity"), sql.getValue());
+	}
+
+	@Test
+	void createAddsTheInvoiceAfterItIsWritten() {
+		InvoiceDao invoiceDao = invoiceDao();
+		when(invoiceDao.invoiceRepository.saveAndFlush(any(Invoice.class))).thenAnswer(call -> call.getArgument(0));
+
+		invoiceDao.saveInvoice(invoice());
+
+		InOrder order = inOrder(invoiceDao.invoiceRepository, invoiceDao.revenueRollupDao);
+		order.verify(invoiceDao.invoiceRepository).saveAndFlush(any(Invoice.class));
+		order.verify(invoiceDao.revenueRollupDao).addInvoices(List.of("INV-1"));
+		verify(invoiceDao.revenueRollupDao, times(0)).subtractInvoices(any());
+	}
+
+	@Test
+	void updateSubtractsTheStoredStateBeforeWritingAndAddsTheNewOneAfter() {
+		InvoiceDao invoiceDao = invoiceDao();
+		Invoice stored = new Invoice();
+		stored.setInvoiceId("INV-1");
+		when(invoiceDao.invoiceRepository.findById("INV-1")).thenReturn(Optional.of(stored));
+		when(invoiceDao.invoiceRepository.saveAndFlush(any(Invoice.class))).thenAnswer(call -> call.getArgument(0));
+		when(invoiceDao.jdbcTemplate.update(InvoiceDao.BUMP_VERSION_SQL, "INV-1", 0L)).thenReturn(1);
+
+		invoiceDao.updateInvoice("INV-1", invoice(), null);
+
+		InOrder order = inOrder(invoiceDao.revenueRollupDao, invoiceDao.invoiceItemRepository, invoiceDao.invoiceRepository);
+		order.verify(invoiceDao.revenueRollupDao).subtractInvoices(List.of("INV-1"));
+		order.verify(invoiceDao.invoiceItemRepository).findByInvoiceId("INV-1");
+		order.verify(invoiceDao.invoiceRepository).saveAndFlush(any(Invoice.class));
+		order.verify(invoiceDao.revenueRollupDao).addInvoices(List.of("INV-1"));
+	}
+
+	@Test
+	void deleteSubtractsTheInvoiceWhileItIsStillStored() {
+		InvoiceDao invoiceDao = invoiceDao();
+
+		List<InvoiceEvent> deleted = List.of(new InvoiceEvent(0, InvoiceEvent.DELETED, "INV-1", "N-1", "C1", 10f, null));
+		when(invoiceDao.invoiceOutboxDao.snapshot(InvoiceEvent.DELETED, List.of("INV-1"))).thenReturn(deleted);
+
+		invoiceDao.deleteInvoice("INV-1");
+
+		// The outbox counter row is locked cluster-wide until commit, so it is taken last.
+		InOrder order = inOrder(invoiceDao.revenueRollupDao, invoiceDao.invoiceOutboxDao, invoiceDao.invoiceItemRepository,
+				invoiceDao.invoiceRepository);
+		order.verify(invoiceDao.revenueRollupDao).subtractInvoices(List.of("INV-1"));
+		order.verify(invoiceDao.invoiceOutboxDao).snapshot(InvoiceEvent.DELETED, List.of("INV-1"));
+		order.verify(invoiceDao.invoiceItemRepository).deleteAllByInvoiceId("INV-1");
+		order.verify(invoiceDao.invoiceRepository).deleteById("INV-1");
+		order.verify(invoiceDao.invoiceOutboxDao).append(deleted);
+		verify(invoiceDao.revenueRollupDao, times(0)).addInvoices(any());
+	}
+
+	private List<String> capturedSql() {
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate, times(4)).update(sql.capture(), any(Object[].class));
+		return sql.getAllValues();
+	}
+
+	private List<Object[]> capturedArgs() {
+		ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+		verify(jdbcTemplate, times(4)).update(anyString(), args.capture());
+		return args.getAllValues();
+	}
+
+	private static InvoiceDao invoiceDao() {
+		InvoiceDao invoiceDao = new InvoiceDao();
+		invoiceDao.invoiceRepository = mock(InvoiceRepository.class);
+		invoiceDao.invoiceItemRepository = mock(InvoiceItemRepository.class);
+		invoiceDao.jdbcTemplate = mock(JdbcTemplate.class);
+		invoiceDao.modelMapper = new ModelMapper();
+		invoiceDao.invoiceSummaryDao = mock(InvoiceSummaryDaoInterface.class);
+		invoiceDao.revenueRollupDao = mock(RevenueRollupDaoInterface.class);
+		invoiceDao.invoiceOutboxDao = mock(InvoiceOutboxDaoInterface.class);
+		invoiceDao.eventPublisher = mock(ApplicationEventPublisher.class);
+		return invoiceDao;
+	}
+
+	private static InvoiceDetails invoice() {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId("INV-1");
+		invoice.setCustomerId("C1");
+		invoice.setEmployeeId("E1");
+		invoice.setItems(new java.util.ArrayList<>());
+		return invoice;
+	}
+}
@@ -0,0 +1,85 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+
+/**
+ * Batch lookups go to POST /batch with the IDs in the body, at most 500 per request, and
+ * cached customers are not asked for again.
+ */
+class CustomerClientServiceTest {
+
+	private static final String BASE_URL = "http://customers/api/customers";
+
+	private final List<List<String>> requests = new ArrayList<>();
+	private CustomerClientService service;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		RestTemplate restTemplate = mock(RestTemplate.class);
+		when(restTemplate.exchange(eq(BASE_URL + "/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+				.thenAnswer(call -> {
+					List<String> ids = (List<String>) call.getArgument(2, HttpEntity.class).getBody();
+					requests.add(List.copyOf(ids));
+					Map<String, CustomerDetails> found = new HashMap<>();
+					for (String id : ids) {
+						if (!id.equals("C-gone")) {
+							found.put(id, new CustomerDetails(id, "Asha", "9999999999", "Chennai"));
+						}
+					}
+					return ResponseEntity.ok(found);
+				});
+		service = new CustomerClientService();
+		service.restTemplate = restTemplate;
+		service.customerServiceBaseUrl = BASE_URL;
+		service.lookupRefreshExecutor = Runnable::run;
+		service.cacheMaxSize = 10000;
+		service.cacheTtlMs = 60_000;
+		service.cacheNegativeTtlMs = 60_000;
+		service.cacheMaxStaleMs = 60_000;
+		service.initCache();
+	}
+
+	@Test
+	void idsArePostedInChunksTheCustomerServiceAccepts() {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			ids.add(String.format("C%019d", i));
+		}
+		ids.add("C-gone");
+
+		Map<String, CustomerDetails> found = service.getCustomersByIds(ids);
+
+		assertEquals(1200, found.size());
+		assertEquals(List.of(500, 500, 201), requests.stream().map(List::size).toList());
+	}
+
+	@Test
+	void cachedCustomersAreNotFetchedAgain() {
+		service.getCustomersByIds(List.of("C1", "C2"));
+		service.getCustomersByIds(List.of("C2", "C3"));
+
+		assertEquals(List.of(List.of("C1", "C2"), List.of("C3")), requests);
+		assertEquals(Set.of("C1"), service.getCustomersByIds(List.of("C1")).keySet());
+	}
+}
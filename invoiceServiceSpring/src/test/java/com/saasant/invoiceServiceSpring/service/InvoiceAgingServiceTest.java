@@ -0,0 +1,108 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.vo.AgingBuckets;
+import com.saasant.invoiceServiceSpring.vo.AgingReport;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+class InvoiceAgingServiceTest {
+
+	private static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+	private final AtomicInteger scans = new AtomicInteger();
+	private InvoiceAgingService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new InvoiceAgingService();
+		service.cacheSize = 4;
+		service.cacheTtlMs = 60_000;
+		service.initCache();
+		service.invoiceAgingDao = (asOf, handler) -> {
+			scans.incrementAndGet();
+			handler.row("C1", AS_OF.plusDays(5), 100.0);
+			handler.row("C1", AS_OF.minusDays(30), 50.0);
+			handler.row("C1", AS_OF.minusDays(31), 25.0);
+			handler.row("C2", null, 10.0);
+			handler.row("C2", AS_OF.minusDays(91), 40.0);
+		};
+	}
+
+	@Test
+	void bucketsPerCustomerAndInTotal() {
+		AgingReport report = service.aging(AS_OF);
+
+		List<AgingBuckets> customers = report.getCustomers();
+		assertEquals(2, customers.size());
+		AgingBuckets c1 = customers.get(0);
+		assertEquals("C1", c1.getCustomerId());
+		assertEquals(100.0, c1.getCurrent());
+		assertEquals(50.0, c1.getDays1To30());
+		assertEquals(25.0, c1.getDays31To60());
+		assertEquals(3, c1.getInvoiceCount());
+		assertEquals(10.0, customers.get(1).getCurrent());
+		assertEquals(40.0, customers.get(1).getOver90());
+
+		assertEquals(225.0, report.getTotal().getTotal());
+		assertEquals(5, report.getTotal().getInvoiceCount());
+	}
+
+	@Test
+	void invoicesWithoutACustomerShareOneBucket() {
+		service.invoiceAgingDao = (asOf, handler) -> {
+			handler.row(null, AS_OF, 5.0);
+			handler.row(null, AS_OF.minusDays(10), 7.0);
+			handler.row(null, null, 1.0);
+			handler.row("C1", AS_OF, 100.0);
+		};
+
+		List<AgingBuckets> customers = service.aging(AS_OF).getCustomers();
+
+		assertEquals(2, customers.size());
+		assertEquals("", customers.get(0).getCustomerId());
+		assertEquals(3, customers.get(0).getInvoiceCount());
+		assertEquals(7.0, customers.get(0).getDays1To30());
+		assertEquals("C1", customers.get(1).getCustomerId());
+	}
+
+	@Test
+	void cachedUntilTheNextInvoiceWrite() {
+		AgingReport first = service.aging(AS_OF);
+		assertSame(first, service.aging(AS_OF));
+		assertEquals(1, scans.get());
+
+		service.onInvoicesChanged(new InvoicesChangedEvent(List.of("INV1")));
+		service.aging(AS_OF);
+		assertEquals(2, scans.get());
+	}
+
+	@Test
+	void writesOnOtherInstancesArriveThroughTheOutbox() {
+		service.aging(AS_OF);
+		service.onInvoicesCommitted(new InvoicesCommittedEvent(
+				List.of(new InvoiceEvent(7, InvoiceEvent.UPDATED, "INV1", "N-1", "C1", 10f, null))));
+		service.aging(AS_OF);
+
+		assertEquals(2, scans.get());
+	}
+
+	@Test
+	void expiredReportsAreComputedAgain() {
+		service.cacheTtlMs = 0;
+		service.aging(AS_OF);
+		service.aging(AS_OF);
+
+		assertEquals(2, scans.get());
+	}
+}
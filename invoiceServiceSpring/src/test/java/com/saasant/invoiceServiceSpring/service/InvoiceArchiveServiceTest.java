@@ -0,0 +1,95 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceArchiveDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+class InvoiceArchiveServiceTest {
+
+	private final FakeArchiveDao dao = new FakeArchiveDao();
+	private InvoiceArchiveService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new InvoiceArchiveService();
+		service.invoiceArchiveDao = dao;
+		service.enabled = true;
+		service.afterDays = 365;
+		service.chunkSize = 10;
+		service.chunkPauseMs = 0;
+		service.maxChunksPerRun = 100;
+	}
+
+	@Test
+	void archivesInChunksUntilAShortOne() throws InterruptedException {
+		dao.liveOld = 25;
+
+		assertArrayEquals(new int[] { 25, 0 }, service.run());
+		assertEquals(List.of(10, 10, 10), dao.archiveLimits, "the third chunk came back short, so the run stopped");
+		assertEquals(LocalDate.now().minusDays(365).atStartOfDay(), dao.archiveCutoff);
+		assertTrue(dao.purgeLimits.isEmpty(), "no retention configured");
+	}
+
+	@Test
+	void stopsAtTheChunkLimitAndPurgesPastRetention() throws InterruptedException {
+		dao.liveOld = 1000;
+		dao.archivedOld = 5;
+		service.maxChunksPerRun = 3;
+		service.retentionDays = 3650;
+
+		assertArrayEquals(new int[] { 30, 5 }, service.run());
+		assertEquals(LocalDate.now().minusDays(3650).atStartOfDay(), dao.purgeCutoff);
+	}
+
+	@Test
+	void rejectsRetentionShorterThanTheArchiveAge() {
+		service.retentionDays = 30;
+
+		assertThrows(IllegalStateException.class, service::checkSettings);
+	}
+
+	private static class FakeArchiveDao implements InvoiceArchiveDaoInterface {
+		int liveOld;
+		int archivedOld;
+		LocalDateTime archiveCutoff;
+		LocalDateTime purgeCutoff;
+		final List<Integer> archiveLimits = new ArrayList<>();
+		final List<Integer> purgeLimits = new ArrayList<>();
+
+		@Override
+		public int archiveChunk(LocalDateTime cutoff, int limit) {
+			archiveCutoff = cutoff;
+			archiveLimits.add(limit);
+			int moved = Math.min(limit, liveOld);
+			liveOld -= moved;
+			return moved;
+		}
+
+		@Override
+		public int purgeChunk(LocalDateTime cutoff, int limit) {
+			purgeCutoff = cutoff;
+			purgeLimits.add(limit);
+			int purged = Math.min(limit, archivedOld);
+			archivedOld -= purged;
+			return purged;
+		}
+
+		@Override
+		public Optional<InvoiceDetails> findArchived(String invoiceId, boolean withItems) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.vo.InvoiceAssemblyError;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.Product;
+
+class InvoiceAssemblerTest {
+
+	private final ProductCacheSnapshot products = new ProductCacheSnapshot(Map.of(
+			1, new Product(1, "Pen", 10.0, 18.0),
+			2, new Product(2, "Book", 100.0, 5.0)), 1, null);
+	private final InvoiceAssembler assembler = new InvoiceAssembler();
+
+	@Test
+	void pricesConsolidatesAndTotalsInOnePass() {
+		InvoiceDetails invoice = invoice(item("1", 2), item("2", 1), item("01", 3));
+
+		List<InvoiceAssemblyError> errors = assembler.assemble(invoice, products);
+
+		assertTrue(errors.isEmpty());
+		assertEquals(2, invoice.getItems().size());
+		InvoiceItem pen = invoice.getItems().get(0);
+		assertEquals("1", pen.getProductId());
+		assertEquals(5, pen.getQuantity());
+		assertEquals(11.8f, pen.getPricePerUnit());
+		assertEquals(11.8f * 5, pen.getTotalCost());
+		assertEquals(11.8f * 5 + 105.0f, invoice.getTotalAmount());
+	}
+
+	@Test
+	void collectsEveryProblemAndLeavesTheInvoiceUntouched() {
+		InvoiceDetails invoice = invoice(item("01", 1), item("abc", 1), item("1", 4), item("99", 1), item(" ", 1));
+		List<InvoiceItem> submitted = invoice.getItems();
+
+		List<InvoiceAssemblyError> errors = assembler.assemble(invoice, products);
+
+		assertEquals(3, errors.size());
+		assertEquals(new InvoiceAssemblyError(InvoiceAssemblyError.Kind.INVALID, 1, "Invalid Product ID format: abc"), errors.get(0));
+		assertEquals(InvoiceAssemblyError.Kind.PRODUCT_NOT_FOUND, errors.get(1).getKind());
+		assertEquals("Product ID is missing for an item.", errors.get(2).getMessage());
+		assertSame(submitted, invoice.getItems());
+		InvoiceItem first = submitted.get(0);
+		assertEquals("01", first.getProductId(), "the product ID is not canonicalised");
+		assertEquals(1, first.getQuantity(), "the duplicate line is not merged in");
+		assertEquals(0f, first.getPricePerUnit());
+		assertEquals(5, submitted.size());
+	}
+
+	@Test
+	void unknownProductsHaveNoPrice() {
+		assertEquals(11.8f, products.unitPriceWithTax(1));
+		assertTrue(Float.isNaN(products.unitPriceWithTax(3)));
+		assertTrue(Float.isNaN(ProductCacheSnapshot.EMPTY.unitPriceWithTax(1)));
+	}
+
+	@Test
+	void parsesProductIdsLikeIntegerParseInt() {
+		assertEquals(42, InvoiceAssembler.parseProductId("42"));
+		assertEquals(-7, InvoiceAssembler.parseProductId("-7"));
+		assertEquals(Integer.MIN_VALUE, InvoiceAssembler.parseProductId("-2147483648"));
+		assertEquals(Long.MIN_VALUE, InvoiceAssembler.parseProductId("2147483648"));
+		assertEquals(Long.MIN_VALUE, InvoiceAssembler.parseProductId("+"));
+		assertEquals(Long.MIN_VALUE, InvoiceAssembler.parseProductId(" 1"));
+	}
+
+	private static InvoiceDetails invoice(InvoiceItem... items) {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setItems(new ArrayList<>(List.of(items)));
+		return invoice;
+	}
+
+	private static InvoiceItem item(String productId, int quantity) {
+		InvoiceItem item = new InvoiceItem();
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		return item;
+	}
+}
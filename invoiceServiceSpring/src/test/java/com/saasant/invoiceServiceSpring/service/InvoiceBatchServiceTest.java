@@ -0,0 +1,121 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.BatchInvoiceResult;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.Product;
+
+class InvoiceBatchServiceTest {
+
+	private final List<Set<?>> customerLookups = new ArrayList<>();
+	private final List<Set<?>> employeeLookups = new ArrayList<>();
+	private InvoiceDaoInterface invoiceDao;
+	private InvoiceBatchService service;
+
+	@BeforeEach
+	void setUp() {
+		CustomerClientService customers = mock(CustomerClientService.class);
+		when(customers.getCustomersByIds(anyCollection())).thenAnswer(call -> {
+			customerLookups.add(Set.copyOf((Collection<?>) call.getArgument(0)));
+			Map<String, CustomerDetails> found = new HashMap<>();
+			for (Object id : (Collection<?>) call.getArgument(0)) {
+				found.put((String) id, new CustomerDetails((String) id, "Asha", "9999999999", "Chennai"));
+			}
+			return found;
+		});
+		EmployeeClientService employees = mock(EmployeeClientService.class);
+		when(employees.getEmployeesByIds(anyCollection())).thenAnswer(call -> {
+			employeeLookups.add(Set.copyOf((Collection<?>) call.getArgument(0)));
+			Map<String, Employee> found = new HashMap<>();
+			for (Object id : (Collection<?>) call.getArgument(0)) {
+				Employee employee = new Employee();
+				employee.setEmpId((String) id);
+				employee.setEmpName("Ravi");
+				found.put((String) id, employee);
+			}
+			return found;
+		});
+		ProductClientService products = mock(ProductClientService.class);
+		when(products.getSnapshot()).thenReturn(new ProductCacheSnapshot(Map.of(1, new Product(1, "Pen", 10.0, 0.0)), 1, null));
+		InvoiceNumberAllocator allocator = mock(InvoiceNumberAllocator.class);
+		when(allocator.reserveRange(any(), anyInt())).thenReturn(1L);
+		invoiceDao = mock(InvoiceDaoInterface.class);
+
+		service = new InvoiceBatchService();
+		service.customerClientService = customers;
+		service.employeeClientService = employees;
+		service.productClientService = products;
+		service.invoiceAssembler = new InvoiceAssembler();
+		service.invoiceNumberAllocator = allocator;
+		service.invoiceDao = invoiceDao;
+		service.enrichmentExecutor = Runnable::run;
+		service.chunkSize = 2;
+	}
+
+	@Test
+	void nullElementFailsOnlyItsOwnSlot() {
+		List<BatchInvoiceResult> results = service.createInvoices(Arrays.asList(invoice("C1", "E1"), null, invoice("C2", "E1")));
+
+		assertEquals(List.of(BatchInvoiceResult.CREATED, BatchInvoiceResult.FAILED, BatchInvoiceResult.CREATED),
+				results.stream().map(BatchInvoiceResult::getStatus).toList());
+		assertEquals("Invoice is empty.", results.get(1).getMessage());
+		assertEquals(List.of(0, 1, 2), results.stream().map(BatchInvoiceResult::getIndex).toList());
+	}
+
+	@Test
+	void eachDistinctPartyIsLookedUpOnce() {
+		service.createInvoices(List.of(invoice("C1", "E1"), invoice("C1", "E2"), invoice("C2", "E1"), invoice(" ", "E2")));
+
+		assertEquals(List.of(Set.of("C1", "C2")), customerLookups);
+		assertEquals(List.of(Set.of("E1", "E2")), employeeLookups);
+	}
+
+	@Test
+	void failedChunkIsRetriedOneInvoiceAtATime() {
+		InvoiceDetails bad = invoice("C1", "E1");
+		doThrow(new IllegalStateException("duplicate")).when(invoiceDao).saveInvoices(argThat(chunk -> chunk.contains(bad)));
+
+		List<BatchInvoiceResult> results = service.createInvoices(List.of(invoice("C1", "E1"), bad, invoice("C2", "E2")));
+
+		assertEquals(List.of(BatchInvoiceResult.CREATED, BatchInvoiceResult.FAILED, BatchInvoiceResult.CREATED),
+				results.stream().map(BatchInvoiceResult::getStatus).toList());
+		// First chunk once as a whole and twice one by one, second chunk once.
+		verify(invoiceDao, times(4)).saveInvoices(any());
+	}
+
+	private static InvoiceDetails invoice(String customerId, String employeeId) {
+		InvoiceItem item = new InvoiceItem();
+		item.setProductId("1");
+		item.setQuantity(2);
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setCustomerId(customerId);
+		invoice.setEmployeeId(employeeId);
+		invoice.setItems(new ArrayList<>(List.of(item)));
+		return invoice;
+	}
+}
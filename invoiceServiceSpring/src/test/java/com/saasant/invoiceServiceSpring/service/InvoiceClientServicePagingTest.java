@@ -0,0 +1,120 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.dao.InvoiceSummaryDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoicePage;
+
+class InvoiceClientServicePagingTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2026, 10, 1, 9, 30);
+
+	private final List<InvoiceDetails> stored = new ArrayList<>();
+	private InvoiceClientService service;
+
+	@BeforeEach
+	void setUp() {
+		// Same dates on several rows, and undated rows that sort after all dated ones.
+		for (int i = 0; i < 7; i++) {
+			stored.add(invoice("INV-" + i, DAY.minusDays(i / 2)));
+		}
+		stored.add(invoice("INV-u1", null));
+		stored.add(invoice("INV-u2", null));
+		stored.add(invoice("INV-u3", null));
+
+		InvoiceDaoInterface invoiceDao = mock(InvoiceDaoInterface.class);
+		when(invoiceDao.fetchInvoicePage(any(), any(), anyInt(), anyBoolean()))
+				.thenAnswer(call -> page(call.getArgument(0), call.getArgument(1), call.getArgument(2)));
+		service = new InvoiceClientService();
+		service.invoiceDao = invoiceDao;
+		service.invoiceSummaryDao = mock(InvoiceSummaryDaoInterface.class);
+	}
+
+	@Test
+	void cursorsWalkEveryRowOnceIncludingUndatedOnes() {
+		List<String> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			InvoicePage page = service.fetchInvoicePage(cursor, 3, false);
+			page.getInvoices().forEach(invoice -> seen.add(invoice.getInvoiceId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null && pages < 10);
+
+		assertEquals(sorted().stream().map(InvoiceDetails::getInvoiceId).toList(), seen);
+		assertEquals(4, pages);
+	}
+
+	@Test
+	void cursorAfterAnUndatedRowContinuesInTheUndatedTail() {
+		InvoiceClientService.Keyset keyset = InvoiceClientService.Keyset.decode(InvoiceClientService.Keyset.encode(null, "INV-u3"));
+
+		assertNull(keyset.invoiceDate);
+		assertEquals("INV-u3", keyset.invoiceId);
+		assertEquals(List.of("INV-u2", "INV-u1"),
+				service.fetchInvoicePage(InvoiceClientService.Keyset.encode(null, "INV-u3"), 5, false).getInvoices().stream()
+						.map(InvoiceDetails::getInvoiceId).toList());
+	}
+
+	@Test
+	void malformedCursorsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> service.fetchInvoicePage("not a cursor!", 3, false));
+		assertThrows(IllegalArgumentException.class, () -> service.fetchInvoicePage(encode("2026-10-01T09:30"), 3, false));
+		assertThrows(IllegalArgumentException.class, () -> service.fetchInvoicePage(encode("yesterday|INV-1"), 3, false));
+		assertThrows(IllegalArgumentException.class, () -> service.fetchInvoicePage(encode("2026-10-01T09:30|"), 3, false));
+	}
+
+	/** The keyset the repository queries apply: date desc then id desc, undated rows last. */
+	private List<InvoiceDetails> page(LocalDateTime afterDate, String afterId, int size) {
+		return sorted().stream()
+				.filter(invoice -> afterId == null || isAfter(invoice, afterDate, afterId))
+				.limit(size)
+				.toList();
+	}
+
+	private static boolean isAfter(InvoiceDetails invoice, LocalDateTime afterDate, String afterId) {
+		LocalDateTime date = invoice.getInvoiceDate();
+		if (afterDate == null) {
+			return date == null && invoice.getInvoiceId().compareTo(afterId) < 0;
+		}
+		return date == null || date.isBefore(afterDate) || (date.equals(afterDate) && invoice.getInvoiceId().compareTo(afterId) < 0);
+	}
+
+	private List<InvoiceDetails> sorted() {
+		return stored.stream()
+				.sorted(Comparator.comparing(InvoiceDetails::getInvoiceDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+						.thenComparing(InvoiceDetails::getInvoiceId).reversed())
+				.toList();
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static InvoiceDetails invoice(String id, LocalDateTime date) {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId(id);
+		invoice.setInvoiceDate(date);
+		return invoice;
+	}
+}
@@ -0,0 +1,179 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceOutboxDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.InvoiceEvent;
+import com.saasant.invoiceServiceSpring.vo.InvoicesCommittedEvent;
+
+/**
+ * Drives the relay against an in-memory outbox. Emitters record the SSE ids they are sent
+ * instead of writing to a response.
+ */
+class InvoiceEventRelayTest {
+
+	private static final Pattern SSE_ID = Pattern.compile("^id:(\\d+)", Pattern.MULTILINE);
+
+	private final List<InvoiceEvent> outbox = new ArrayList<>();
+	private final List<Long> received = new ArrayList<>();
+	private final List<Runnable> deliveries = new ArrayList<>();
+	private final List<Object> published = new ArrayList<>();
+	private InvoiceEventRelay relay;
+
+	@BeforeEach
+	void setUp() {
+		for (long id = 1; id <= 3; id++) {
+			append(id);
+		}
+		relay = new InvoiceEventRelay() {
+			@Override
+			SseEmitter newEmitter() {
+				return new RecordingEmitter();
+			}
+		};
+		relay.invoiceOutboxDao = new FakeOutboxDao();
+		relay.eventDeliveryExecutor = deliveries::add;
+		relay.eventPublisher = published::add;
+		relay.pollBatch = 2;
+		relay.maxReplay = 100;
+		relay.maxSubscribers = 10;
+		relay.init();
+	}
+
+	@Test
+	void resumedSubscriberGetsMissedEventsThenLiveOnesInOrder() throws IOException {
+		relay.subscribe(1L);
+		append(4);
+		append(5);
+		relay.poll();
+		runDeliveries();
+
+		assertEquals(List.of(2L, 3L, 4L, 5L), received);
+	}
+
+	@Test
+	void liveEventsAreSentOnTheDeliveryExecutorOneTaskPerSubscriber() throws IOException {
+		relay.subscribe(null);
+		append(4);
+		append(5);
+		append(6);
+		relay.poll();
+		relay.poll();
+		relay.heartbeat();
+
+		assertEquals(List.of(), received, "the polling thread never sends");
+		assertEquals(1, deliveries.size(), "work for a subscriber with a task pending joins that task");
+		runDeliveries();
+		assertEquals(List.of(4L, 5L, 6L), received);
+	}
+
+	@Test
+	void everyVisibleEventIsRelayedWithoutWaitingOnLowerIds() throws IOException {
+		// IDs follow commit order, so there is no gap to wait for behind what is visible.
+		relay.subscribe(null);
+		append(5);
+		relay.poll();
+		runDeliveries();
+
+		assertEquals(List.of(5L), received);
+	}
+
+	@Test
+	void everyPolledBatchIsPublishedInProcessEvenWithoutSubscribers() {
+		append(4);
+		append(5);
+		append(6);
+		relay.poll();
+		relay.poll();
+		relay.poll();
+
+		assertEquals(2, published.size(), "one event per non-empty batch of two");
+		assertEquals(List.of("INV4", "INV5"), ((InvoicesCommittedEvent) published.get(0)).getInvoiceIds());
+		assertEquals(List.of("INV6"), ((InvoicesCommittedEvent) published.get(1)).getInvoiceIds());
+	}
+
+	@Test
+	void resumePointOlderThanTheOutboxNeedsAResync() {
+		outbox.remove(0);
+		outbox.remove(0);
+
+		InvoiceEventRelay.SubscriptionRefusedException refused =
+				assertThrows(InvoiceEventRelay.SubscriptionRefusedException.class, () -> relay.subscribe(0L));
+		assertTrue(refused.isResyncRequired());
+	}
+
+	private void runDeliveries() {
+		while (!deliveries.isEmpty()) {
+			deliveries.remove(0).run();
+		}
+	}
+
+	private void append(long eventId) {
+		outbox.add(new InvoiceEvent(eventId, InvoiceEvent.CREATED, "INV" + eventId, null, null, 0, LocalDateTime.now()));
+		outbox.sort((a, b) -> Long.compare(a.getEventId(), b.getEventId()));
+	}
+
+	private class RecordingEmitter extends SseEmitter {
+		@Override
+		public void send(SseEventBuilder builder) {
+			for (DataWithMediaType part : builder.build()) {
+				Matcher matcher = SSE_ID.matcher(String.valueOf(part.getData()));
+				if (matcher.find()) {
+					received.add(Long.parseLong(matcher.group(1)));
+				}
+			}
+		}
+	}
+
+	private class FakeOutboxDao implements InvoiceOutboxDaoInterface {
+
+		@Override
+		public List<InvoiceEvent> snapshot(String type, Collection<String> invoiceIds) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void append(List<InvoiceEvent> events) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<InvoiceEvent> readAfter(long afterEventId, int limit) {
+			return outbox.stream().filter(e -> e.getEventId() > afterEventId).limit(limit).toList();
+		}
+
+		@Override
+		public long countBetween(long afterEventId, long upToEventId) {
+			return outbox.stream().filter(e -> e.getEventId() > afterEventId && e.getEventId() <= upToEventId).count();
+		}
+
+		@Override
+		public long maxEventId() {
+			return outbox.isEmpty() ? 0 : outbox.get(outbox.size() - 1).getEventId();
+		}
+
+		@Override
+		public long minEventId() {
+			return outbox.isEmpty() ? 0 : outbox.get(0).getEventId();
+		}
+
+		@Override
+		public int purgeBefore(LocalDateTime cutoff) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.IngestStatus;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+
+class InvoiceIngestionServiceTest {
+
+	private final List<Integer> commitSizes = new CopyOnWriteArrayList<>();
+	private final CountDownLatch firstCommitStarted = new CountDownLatch(1);
+	private final CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+	private InvoiceIngestionService service;
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		releaseFirstCommit.countDown();
+		service.stop();
+	}
+
+	@Test
+	void invoicesQueuedDuringACommitShareTheNextOne() throws Exception {
+		start(100);
+
+		assertTrue(service.submit(invoice("INV-0")));
+		assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+		for (int i = 1; i <= 10; i++) {
+			assertTrue(service.submit(invoice("INV-" + i)));
+		}
+		releaseFirstCommit.countDown();
+
+		awaitStatus("INV-10", IngestStatus.CREATED);
+		assertEquals(List.of(1, 10), commitSizes);
+		assertEquals(11L, service.metrics().get("created"));
+	}
+
+	@Test
+	void fullQueueRejectsInsteadOfBlocking() throws Exception {
+		start(2);
+
+		assertTrue(service.submit(invoice("INV-0")));
+		assertTrue(firstCommitStarted.await(5, TimeUnit.SECONDS));
+		assertTrue(service.submit(invoice("INV-1")));
+		assertTrue(service.submit(invoice("INV-2")));
+		assertFalse(service.submit(invoice("INV-3")));
+
+		assertEquals(1L, service.metrics().get("rejected"));
+		assertEquals(null, service.getStatus("INV-3"));
+		assertEquals(IngestStatus.QUEUED, service.getStatus("INV-2").getStatus());
+	}
+
+	@Test
+	void stopSavesEverythingAlreadyAccepted() throws Exception {
+		// No workers and no wait: everything accepted is left for stop() itself.
+		start(200, 0);
+		service.shutdownWaitMs = 0;
+		releaseFirstCommit.countDown();
+		for (int i = 0; i < 120; i++) {
+			assertTrue(service.submit(invoice("INV-" + i)));
+		}
+
+		service.stop();
+
+		assertEquals(List.of(50, 50, 20), commitSizes);
+		assertEquals(IngestStatus.CREATED, service.getStatus("INV-119").getStatus());
+		assertEquals(120L, service.metrics().get("created"));
+		assertFalse(service.submit(invoice("INV-120")), "nothing is accepted once stopped");
+	}
+
+	private void start(int queueCapacity) {
+		start(queueCapacity, 1);
+	}
+
+	private void start(int queueCapacity, int workerCount) {
+		InvoiceDaoInterface invoiceDao = mock(InvoiceDaoInterface.class);
+		doAnswer(call -> {
+			List<?> invoices = call.getArgument(0);
+			if (firstCommitStarted.getCount() > 0) {
+				firstCommitStarted.countDown();
+				releaseFirstCommit.await(5, TimeUnit.SECONDS);
+			}
+			commitSizes.add(invoices.size());
+			return null;
+		}).when(invoiceDao).saveInvoices(anyList());
+
+		service = new InvoiceIngestionService();
+		service.invoiceDao = invoiceDao;
+		service.enabled = true;
+		service.queueCapacity = queueCapacity;
+		service.workerCount = workerCount;
+		service.maxBatch = 50;
+		service.lingerMs = 0;
+		service.statusTtlMs = 60_000;
+		service.shutdownWaitMs = 5_000;
+		service.start();
+	}
+
+	private void awaitStatus(String invoiceId, String state) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < deadline) {
+			IngestStatus status = service.getStatus(invoiceId);
+			if (status != null && state.equals(status.getStatus())) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError(invoiceId + " did not reach " + state);
+	}
+
+	private static InvoiceDetails invoice(String invoiceId) {
+		InvoiceDetails invoice = new InvoiceDetails();
+		invoice.setInvoiceId(invoiceId);
+		invoice.setInvoiceNumber(invoiceId);
+		return invoice;
+	}
+}
@@ -0,0 +1,201 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceIntegrityDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.IntegrityFinding;
+import com.saasant.invoiceServiceSpring.vo.IntegrityReport;
+
+class InvoiceIntegrityServiceTest {
+
+	private final FakeIntegrityDao dao = new FakeIntegrityDao();
+	private InvoiceIntegrityService service;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 95; i++) {
+			dao.totals.put(String.format("INV-%03d", i), 10f);
+		}
+		dao.totals.put("INV-007", 12f);
+		dao.totals.put("INV-051", 0f);
+		dao.itemCounts.put("INV-051", 0);
+		dao.orphanItems.put("IT-orphan", "INV-200");
+		dao.partyMismatches.put("IT-party", "INV-033");
+
+		service = new InvoiceIntegrityService();
+		service.invoiceIntegrityDao = dao;
+		service.parallelism = 4;
+		service.rangeSize = 10;
+		service.tolerance = 0.01;
+		service.maxFindings = 100;
+	}
+
+	@Test
+	void verifiesEveryRangeAndCountsFindings() {
+		IntegrityReport report = service.start(false);
+		service.awaitCompletion();
+
+		assertEquals(IntegrityReport.COMPLETED, report.getStatus());
+		assertEquals(10, report.getTotalRanges());
+		assertEquals(10, report.getRangesDone());
+		assertEquals(95, report.getInvoicesChecked());
+		assertEquals(Map.of(IntegrityFinding.TOTAL_MISMATCH, 1L, IntegrityFinding.NO_ITEMS, 1L, IntegrityFinding.ORPHAN_ITEM, 1L,
+				IntegrityFinding.PARTY_MISMATCH, 1L), report.getCounts());
+		assertEquals(0, report.getRepaired());
+		assertTrue(dao.repairCalls.isEmpty(), "nothing is repaired unless asked");
+		assertSame(report, service.getLastReport());
+		assertNotNull(report.getFinishedAt());
+	}
+
+	@Test
+	void repairFixesTotalsOrphansAndPartiesButNotEmptyInvoices() {
+		IntegrityReport report = service.start(true);
+		service.awaitCompletion();
+
+		assertEquals(IntegrityReport.COMPLETED, report.getStatus());
+		assertEquals(3, report.getRepaired());
+		assertEquals(List.of("INV-007"), dao.repairCalls.get("totals"));
+		assertEquals(List.of("IT-orphan"), dao.repairCalls.get("orphans"));
+		assertEquals(List.of("IT-party"), dao.repairCalls.get("parties"));
+		report.getFindings().forEach(finding -> assertEquals(!IntegrityFinding.NO_ITEMS.equals(finding.getType()), finding.isRepaired(),
+				finding.getType()));
+	}
+
+	@Test
+	void secondRunIsRejectedWhileOneIsInProgress() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		dao.blockOn = release;
+
+		IntegrityReport first = service.start(false);
+		assertNull(service.start(false));
+		assertEquals(IntegrityReport.RUNNING, first.getStatus());
+
+		release.countDown();
+		service.awaitCompletion();
+		assertEquals(IntegrityReport.COMPLETED, first.getStatus());
+		assertNotNull(service.start(false), "a new run can start once the previous one is done");
+		service.awaitCompletion();
+	}
+
+	@Test
+	void failedRangeFailsTheRun() {
+		dao.failOn = "INV-040";
+
+		IntegrityReport report = service.start(false);
+		service.awaitCompletion();
+
+		assertEquals(IntegrityReport.FAILED, report.getStatus());
+		assertEquals("range read failed", report.getMessage());
+	}
+
+	/** invoice totals, item counts and item references in memory; ranges follow the same [from, to) rule as the SQL. */
+	private static class FakeIntegrityDao implements InvoiceIntegrityDaoInterface {
+		final TreeMap<String, Float> totals = new TreeMap<>();
+		final Map<String, Integer> itemCounts = new ConcurrentHashMap<>();
+		final Map<String, String> orphanItems = new ConcurrentHashMap<>();
+		final Map<String, String> partyMismatches = new ConcurrentHashMap<>();
+		final Map<String, List<String>> repairCalls = new ConcurrentHashMap<>();
+		volatile CountDownLatch blockOn;
+		volatile String failOn;
+
+		@Override
+		public List<String> rangeBoundaries(int rangeSize) {
+			List<String> ids = new ArrayList<>(totals.keySet());
+			List<String> boundaries = new ArrayList<>();
+			for (int i = rangeSize; i < ids.size(); i += rangeSize) {
+				boundaries.add(ids.get(i));
+			}
+			return boundaries;
+		}
+
+		@Override
+		public long countInvoices(String fromId, String toId) {
+			if (blockOn != null) {
+				try {
+					blockOn.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (failOn != null && inRange(failOn, fromId, toId)) {
+				throw new IllegalStateException("range read failed");
+			}
+			return totals.keySet().stream().filter(id -> inRange(id, fromId, toId)).count();
+		}
+
+		@Override
+		public List<IntegrityFinding> findTotalMismatches(String fromId, String toId, double tolerance) {
+			List<IntegrityFinding> found = new ArrayList<>();
+			totals.forEach((id, total) -> {
+				if (!inRange(id, fromId, toId)) {
+					return;
+				}
+				if (itemCounts.getOrDefault(id, 1) == 0) {
+					found.add(new IntegrityFinding(IntegrityFinding.NO_ITEMS, id, null, "no items"));
+				} else if (Math.abs(total - 10f) > tolerance) {
+					found.add(new IntegrityFinding(IntegrityFinding.TOTAL_MISMATCH, id, null, "items sum to 10"));
+				}
+			});
+			return found;
+		}
+
+		@Override
+		public List<IntegrityFinding> findOrphanItems(String fromId, String toId) {
+			return items(orphanItems, IntegrityFinding.ORPHAN_ITEM, fromId, toId);
+		}
+
+		@Override
+		public List<IntegrityFinding> findPartyMismatches(String fromId, String toId) {
+			return items(partyMismatches, IntegrityFinding.PARTY_MISMATCH, fromId, toId);
+		}
+
+		@Override
+		public List<String> repairTotals(List<String> invoiceIds, double tolerance) {
+			return repaired("totals", invoiceIds);
+		}
+
+		@Override
+		public List<String> deleteOrphanItems(List<String> itemIds) {
+			return repaired("orphans", itemIds);
+		}
+
+		@Override
+		public List<String> repairItemParties(List<String> itemIds) {
+			return repaired("parties", itemIds);
+		}
+
+		private List<String> repaired(String kind, List<String> ids) {
+			repairCalls.computeIfAbsent(kind, k -> new ArrayList<>()).addAll(ids);
+			return ids;
+		}
+
+		private static List<IntegrityFinding> items(Map<String, String> invoiceIdByItem, String type, String fromId, String toId) {
+			List<IntegrityFinding> found = new ArrayList<>();
+			invoiceIdByItem.forEach((itemId, invoiceId) -> {
+				if (inRange(invoiceId, fromId, toId)) {
+					found.add(new IntegrityFinding(type, invoiceId, itemId, type));
+				}
+			});
+			return found;
+		}
+
+		private static boolean inRange(String id, String fromId, String toId) {
+			return (fromId == null || id.compareTo(fromId) >= 0) && (toId == null || id.compareTo(toId) < 0);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceSequenceDaoInterface;
+
+class InvoiceNumberAllocatorTest {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 10, 18);
+
+	private final Map<LocalDate, Long> nextByDay = new ConcurrentHashMap<>();
+	private final AtomicInteger reservations = new AtomicInteger();
+	private InvoiceNumberAllocator allocator;
+
+	@BeforeEach
+	void setUp() {
+		// invoice_sequence in memory: one row per day, advanced atomically like the upsert.
+		InvoiceSequenceDaoInterface sequenceDao = (day, prefix, count) -> {
+			reservations.incrementAndGet();
+			return nextByDay.merge(day, 1L + count, (next, ignored) -> next + count) - count;
+		};
+		allocator = new InvoiceNumberAllocator();
+		allocator.invoiceSequenceDao = sequenceDao;
+		allocator.blockSize = 10;
+	}
+
+	@Test
+	void numbersComeFromBlocksAndRestartPerDay() {
+		for (int i = 1; i <= 25; i++) {
+			assertEquals(i, allocator.nextSequence(DAY));
+		}
+		assertEquals(3, reservations.get());
+		assertEquals("INV-19102026-001", allocator.nextInvoiceNumber(DAY.plusDays(1)));
+		assertEquals(26 + 5, allocator.nextSequence(DAY), "the rest of the previous block was dropped at the day change");
+	}
+
+	@Test
+	void concurrentCallersNeverShareANumber() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<Long>>> results = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				results.add(pool.submit(() -> {
+					List<Long> taken = new ArrayList<>();
+					for (int i = 0; i < 500; i++) {
+						taken.add(allocator.nextSequence(DAY));
+					}
+					return taken;
+				}));
+			}
+			Set<Long> all = ConcurrentHashMap.newKeySet();
+			for (Future<List<Long>> result : results) {
+				all.addAll(result.get());
+			}
+			assertEquals(4000, all.size());
+			assertEquals(400, reservations.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void reserveRangeLeavesTheSharedBlockAlone() {
+		assertEquals(1, allocator.nextSequence(DAY));
+		assertEquals(11, allocator.reserveRange(DAY, 100));
+		assertEquals(2, allocator.nextSequence(DAY));
+		assertEquals("INV-18102026-1234", InvoiceNumberAllocator.format(DAY, 1234));
+	}
+}
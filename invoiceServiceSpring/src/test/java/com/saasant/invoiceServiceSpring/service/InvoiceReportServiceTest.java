@@ -0,0 +1,81 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.RevenueRollupDaoInterface;
+import com.saasant.invoiceServiceSpring.dao.RollupDimension;
+import com.saasant.invoiceServiceSpring.vo.RevenueRow;
+
+class InvoiceReportServiceTest {
+
+	private static final LocalDate FROM = LocalDate.of(2026, 10, 1);
+	private static final LocalDate TO = LocalDate.of(2026, 10, 31);
+
+	private RevenueRollupDaoInterface revenueRollupDao;
+	private InvoiceReportService service;
+
+	@BeforeEach
+	void setUp() {
+		revenueRollupDao = mock(RevenueRollupDaoInterface.class);
+		service = new InvoiceReportService();
+		service.revenueRollupDao = revenueRollupDao;
+		service.maxRangeDays = 366;
+	}
+
+	@Test
+	void withoutAKeyRowsAreGroupedPerKey() {
+		List<RevenueRow> totals = List.of(new RevenueRow(null, "C2", 5, null, 90.0));
+		when(revenueRollupDao.totalsByKey(RollupDimension.CUSTOMER, FROM, TO)).thenReturn(totals);
+
+		assertEquals(totals, service.byDimension(RollupDimension.CUSTOMER, null, FROM, TO));
+		service.byDimension(RollupDimension.CUSTOMER, "  ", FROM, TO);
+
+		verify(revenueRollupDao, never()).dailyForKey(any(), any(), any(), any());
+	}
+
+	@Test
+	void withAKeyRowsArePerDayForThatKey() {
+		List<RevenueRow> days = List.of(new RevenueRow(FROM, "7", 1, 2.0, 20.0));
+		when(revenueRollupDao.dailyForKey(RollupDimension.PRODUCT, "7", FROM, TO)).thenReturn(days);
+
+		assertEquals(days, service.byDimension(RollupDimension.PRODUCT, "7", FROM, TO));
+		verify(revenueRollupDao, never()).totalsByKey(any(), any(), any());
+	}
+
+	@Test
+	void rangesAreCheckedBeforeReading() {
+		assertThrows(IllegalArgumentException.class, () -> service.daily(TO, FROM));
+		assertThrows(IllegalArgumentException.class, () -> service.byDimension(RollupDimension.EMPLOYEE, null, FROM.minusDays(366), FROM));
+		assertEquals(List.of(), service.daily(FROM, FROM.plusDays(365)));
+
+		verify(revenueRollupDao).daily(FROM, FROM.plusDays(365));
+		verify(revenueRollupDao, never()).totalsByKey(any(), any(), any());
+	}
+
+	@Test
+	void singleDayRangeIsAllowed() {
+		service.daily(FROM, FROM);
+
+		verify(revenueRollupDao).daily(FROM, FROM);
+	}
+
+	@Test
+	void invalidRangeDoesNotTouchTheRollups() {
+		assertThrows(IllegalArgumentException.class, () -> service.byDimension(RollupDimension.CUSTOMER, "C1", TO, FROM));
+
+		verifyNoInteractions(revenueRollupDao);
+	}
+}
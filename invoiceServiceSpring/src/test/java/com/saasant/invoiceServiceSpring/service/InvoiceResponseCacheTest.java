@@ -0,0 +1,108 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.vo.InvoicesChangedEvent;
+
+class InvoiceResponseCacheTest {
+
+	private final InvoiceResponseCache cache = new InvoiceResponseCache(100, 60_000);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<InvoiceResponseCache.CachedResponse>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(pool.submit(() -> cache.get("INV-1", "items", () -> {
+					await(release);
+					return body("v1");
+				})));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			InvoiceResponseCache.CachedResponse first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<InvoiceResponseCache.CachedResponse> result : results) {
+				assertSame(first, result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loads.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void changeDropsEveryVariantAndOutdatesRunningLoads() {
+		cache.get("INV-1", "items", () -> body("v1"));
+		cache.get("INV-1", "", () -> body("header"));
+
+		// The change commits while this load is still reading the old state.
+		InvoiceResponseCache.CachedResponse racing = cache.get("INV-2", "", () -> {
+			cache.onInvoicesChanged(new InvoicesChangedEvent(List.of("INV-1", "INV-2")));
+			return body("old");
+		});
+		cache.get("INV-1", "items", () -> body("v2"));
+		cache.get("INV-1", "", () -> body("header"));
+		InvoiceResponseCache.CachedResponse reloaded = cache.get("INV-2", "", () -> body("new"));
+
+		assertEquals("old", new String(racing.getBody(), StandardCharsets.UTF_8));
+		assertEquals("new", new String(reloaded.getBody(), StandardCharsets.UTF_8));
+		assertEquals(6, loads.get());
+	}
+
+	@Test
+	void etagsComeFromTheLoaderAndMatchIfNoneMatchLists() {
+		InvoiceResponseCache.CachedResponse response = cache.get("INV-1", "", () -> body("v1"));
+
+		assertEquals("\"v1\"", response.getEtag());
+		assertTrue(response.matches("\"x\", W/" + response.getEtag()));
+		assertTrue(response.matches("*"));
+		assertFalse(response.matches("\"x\""));
+		assertFalse(response.matches(null));
+	}
+
+	@Test
+	void missingInvoicesAndFailedLookupsAreNotCached() {
+		assertNull(cache.get("INV-9", "", () -> new InvoiceResponseCache.Loaded(null, null, false)));
+		cache.get("INV-1", "customer", () -> new InvoiceResponseCache.Loaded(bytes("error"), "\"1\"", false));
+		cache.get("INV-1", "customer", () -> body("ok"));
+		cache.get("INV-1", "customer", () -> body("ok"));
+
+		assertEquals(1, loads.get());
+	}
+
+	private InvoiceResponseCache.Loaded body(String text) {
+		loads.incrementAndGet();
+		return new InvoiceResponseCache.Loaded(bytes(text), "\"" + text + "\"", true);
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.saasant.invoiceServiceSpring.dao.InvoiceSummaryDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+
+class InvoiceSummaryNameSyncTest {
+
+	private final List<Integer> customerLookupSizes = new ArrayList<>();
+	private final List<Map<String, String>> customerUpdates = new ArrayList<>();
+	private InvoiceSummaryDaoInterface invoiceSummaryDao;
+	private EmployeeClientService employees;
+	private InvoiceSummaryNameSync sync;
+
+	@BeforeEach
+	void setUp() {
+		invoiceSummaryDao = mock(InvoiceSummaryDaoInterface.class);
+		when(invoiceSummaryDao.updateCustomerNames(anyMap())).thenAnswer(call -> {
+			Map<String, String> names = call.getArgument(0);
+			customerUpdates.add(names);
+			return names.size();
+		});
+		CustomerClientService customers = mock(CustomerClientService.class);
+		when(customers.getCustomersByIds(anyCollection())).thenAnswer(call -> {
+			Collection<?> ids = call.getArgument(0);
+			customerLookupSizes.add(ids.size());
+			Map<String, CustomerDetails> found = new HashMap<>();
+			for (Object id : ids) {
+				// C7 no longer exists; C8 has no name on record.
+				if (!"C7".equals(id)) {
+					found.put((String) id, new CustomerDetails((String) id, "C8".equals(id) ? null : "Name " + id, null, null));
+				}
+			}
+			return found;
+		});
+		employees = mock(EmployeeClientService.class);
+
+		sync = new InvoiceSummaryNameSync();
+		sync.invoiceSummaryDao = invoiceSummaryDao;
+		sync.customerClientService = customers;
+		sync.employeeClientService = employees;
+	}
+
+	@Test
+	void customerIdsAreLookedUpInChunksAndOnlyKnownNamesWritten() {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			ids.add("C" + i);
+		}
+		when(invoiceSummaryDao.findDistinctCustomerIds()).thenReturn(ids);
+
+		assertEquals(1198, sync.syncCustomerNames());
+
+		assertEquals(List.of(500, 500, 200), customerLookupSizes);
+		assertEquals(498, customerUpdates.get(0).size());
+		assertEquals("Name C1", customerUpdates.get(0).get("C1"));
+	}
+
+	@Test
+	void employeeNamesAreMappedByEmployeeId() {
+		when(invoiceSummaryDao.findDistinctEmployeeIds()).thenReturn(List.of("E1"));
+		Employee employee = new Employee();
+		employee.setEmpId("E1");
+		employee.setEmpName("Ravi");
+		when(employees.getEmployeesByIds(anyCollection())).thenReturn(Map.of("E1", employee));
+		when(invoiceSummaryDao.updateEmployeeNames(Map.of("E1", "Ravi"))).thenReturn(4);
+
+		assertEquals(4, sync.syncEmployeeNames());
+	}
+
+	@Test
+	void failedRunIsLoggedNotThrown() {
+		when(invoiceSummaryDao.findDistinctCustomerIds()).thenThrow(new IllegalStateException("database down"));
+
+		sync.syncNames();
+
+		verify(invoiceSummaryDao, never()).findDistinctEmployeeIds();
+	}
+}
@@ -0,0 +1,152 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the LookupCache guarantees the customer and employee clients rely on. Time is
+ * driven by a fake clock; background refreshes run inline unless a test needs otherwise.
+ */
+class LookupCacheTest {
+
+	private final AtomicLong now = new AtomicLong(1_000);
+	private final AtomicInteger loads = new AtomicInteger();
+	private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void tearDown() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		LookupCache<String> cache = cache(Runnable::run);
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<Optional<String>>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(callers.submit(() -> cache.get("C1", id -> {
+				loads.incrementAndGet();
+				await(release);
+				return Optional.of("Asha");
+			})));
+		}
+		Thread.sleep(100);
+		release.countDown();
+
+		for (Future<Optional<String>> result : results) {
+			assertEquals(Optional.of("Asha"), result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void notFoundIsCachedForTheNegativeTtl() {
+		LookupCache<String> cache = cache(Runnable::run);
+
+		assertFalse(cache.get("C404", this::notFound).isPresent());
+		assertFalse(cache.get("C404", this::notFound).isPresent());
+		assertEquals(1, loads.get());
+
+		now.addAndGet(1_001);
+		cache.get("C404", this::notFound);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void expiredValueIsServedWhileRefreshRuns() {
+		List<Runnable> pending = new ArrayList<>();
+		LookupCache<String> cache = cache(pending::add);
+		cache.get("C1", id -> Optional.of("v" + loads.incrementAndGet()));
+
+		now.addAndGet(10_001);
+		assertEquals(Optional.of("v1"), cache.get("C1", id -> Optional.of("v" + loads.incrementAndGet())));
+		assertEquals(Optional.of("v1"), cache.get("C1", id -> Optional.of("v" + loads.incrementAndGet())));
+		assertEquals(1, pending.size(), "only one refresh per key may be in flight");
+
+		pending.get(0).run();
+		assertEquals(Optional.of("v2"), cache.get("C1", id -> Optional.of("v" + loads.incrementAndGet())));
+	}
+
+	@Test
+	void failedLoadsAreNotCached() {
+		LookupCache<String> cache = cache(Runnable::run);
+		try {
+			cache.get("C1", id -> {
+				loads.incrementAndGet();
+				throw new IllegalStateException("customer service down");
+			});
+		} catch (IllegalStateException expected) {
+			// the caller sees the loader's own exception
+		}
+		assertEquals(Optional.of("Asha"), cache.get("C1", id -> Optional.of("Asha")));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void bulkLookupOnlyLoadsUncachedKeys() {
+		LookupCache<String> cache = cache(Runnable::run);
+		cache.get("C1", id -> Optional.of("Asha"));
+		List<Set<String>> requested = new ArrayList<>();
+
+		Map<String, String> found = cache.getAll(List.of("C1", "C2", "C404"), ids -> {
+			requested.add(Set.copyOf(ids));
+			return Map.of("C2", "Ravi");
+		});
+		assertEquals(Map.of("C1", "Asha", "C2", "Ravi"), found);
+		assertEquals(List.of(Set.of("C2", "C404")), requested);
+
+		cache.getAll(List.of("C1", "C2", "C404"), ids -> {
+			requested.add(Set.copyOf(ids));
+			return Map.of();
+		});
+		assertEquals(1, requested.size(), "C404 is negatively cached, the rest are fresh");
+	}
+
+	@Test
+	void leastRecentlyUsedEntryIsEvicted() {
+		LookupCache<String> cache = new LookupCache<>("test", 2, 10_000, 1_000, 60_000, Runnable::run, now::get);
+		cache.get("A", Optional::of);
+		cache.get("B", Optional::of);
+		cache.get("A", Optional::of);
+		cache.get("C", Optional::of);
+
+		assertEquals(2, cache.size());
+		cache.get("B", id -> Optional.of("reloaded"));
+		assertEquals(Optional.of("reloaded"), cache.get("B", Optional::of));
+	}
+
+	private LookupCache<String> cache(Executor refreshExecutor) {
+		return new LookupCache<>("test", 100, 10_000, 1_000, 60_000, refreshExecutor, now::get);
+	}
+
+	private Optional<String> notFound(String id) {
+		loads.incrementAndGet();
+		return Optional.empty();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
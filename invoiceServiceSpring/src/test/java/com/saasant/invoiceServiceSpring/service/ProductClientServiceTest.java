@@ -0,0 +1,128 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.saasant.invoiceServiceSpring.vo.Product;
+import com.saasant.invoiceServiceSpring.vo.ProductChangeSet;
+
+class ProductClientServiceTest {
+
+	private static final String BASE_URL = "http://products/api/products";
+
+	private final List<String> changeUrls = new ArrayList<>();
+	private final List<ProductChangeSet> pages = new ArrayList<>();
+	private RestTemplate restTemplate;
+	private ProductClientService service;
+
+	@BeforeEach
+	void setUp() {
+		restTemplate = mock(RestTemplate.class);
+		when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+				.thenReturn(ResponseEntity.ok().header("X-Catalog-Version", "10")
+						.body(List.of(new Product(1, "Pen", 10.0, 0.0), new Product(2, "Ink", 4.0, 0.0))));
+		when(restTemplate.getForEntity(anyString(), eq(ProductChangeSet.class))).thenAnswer(call -> {
+			changeUrls.add(call.getArgument(0));
+			return ResponseEntity.ok(pages.remove(0));
+		});
+		service = new ProductClientService();
+		service.restTemplate = restTemplate;
+		service.productServiceBaseUrl = BASE_URL;
+		service.syncPageSize = 2;
+		service.maxVersionGap = 100;
+		assertTrue(service.loadProductsIntoCache());
+	}
+
+	@Test
+	void changePagesAreAppliedOnTopOfTheSnapshot() {
+		pages.add(changeSet(13, 13, 0, true, upsert(12, new Product(3, "Pad", 2.0, 0.0)), delete(13, 2)));
+		pages.add(changeSet(14, 14, 0, false, upsert(14, new Product(1, "Pen", 12.0, 0.0))));
+
+		assertTrue(service.syncProductChanges());
+
+		assertEquals(List.of(BASE_URL + "/changes?since=10&limit=2", BASE_URL + "/changes?since=13&limit=2"), changeUrls);
+		assertEquals(14, service.getSnapshot().getVersion());
+		assertEquals(12.0, service.getSnapshot().get(1).getPrice());
+		assertNull(service.getSnapshot().get(2));
+		assertEquals("Pad", service.getSnapshot().get(3).getName());
+	}
+
+	@Test
+	void prunedChangesForceAFullReload() {
+		pages.add(changeSet(15, 15, 12, false, upsert(15, new Product(3, "Pad", 2.0, 0.0))));
+
+		assertTrue(service.syncProductChanges());
+
+		verify(restTemplate, times(2)).exchange(eq(BASE_URL), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class));
+		assertNull(service.getSnapshot().get(3), "the page was not applied over the gap");
+	}
+
+	@Test
+	void largeOrBackwardGapsForceAFullReload() {
+		pages.add(changeSet(500, 500, 0, false));
+		pages.add(changeSet(3, 3, 0, false));
+
+		assertTrue(service.syncProductChanges());
+		assertTrue(service.syncProductChanges());
+
+		verify(restTemplate, times(3)).exchange(eq(BASE_URL), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class));
+	}
+
+	@Test
+	void failedSyncKeepsTheCurrentSnapshot() {
+		ProductCacheSnapshot before = service.getSnapshot();
+		when(restTemplate.getForEntity(anyString(), eq(ProductChangeSet.class))).thenThrow(new ResourceAccessException("down"));
+
+		assertFalse(service.syncProductChanges());
+		assertEquals(before, service.getSnapshot());
+	}
+
+	private static ProductChangeSet changeSet(long catalogVersion, long toVersion, long oldestVersion, boolean hasMore,
+			ProductChangeSet.Entry... entries) {
+		ProductChangeSet changeSet = new ProductChangeSet();
+		changeSet.setCatalogVersion(catalogVersion);
+		changeSet.setToVersion(toVersion);
+		changeSet.setOldestVersion(oldestVersion);
+		changeSet.setHasMore(hasMore);
+		changeSet.setChanges(List.of(entries));
+		return changeSet;
+	}
+
+	private static ProductChangeSet.Entry upsert(long version, Product product) {
+		ProductChangeSet.Entry entry = new ProductChangeSet.Entry();
+		entry.setVersion(version);
+		entry.setProductId(product.getProductId());
+		entry.setChangeType(ProductChangeSet.UPSERT);
+		entry.setProduct(product);
+		return entry;
+	}
+
+	private static ProductChangeSet.Entry delete(long version, int productId) {
+		ProductChangeSet.Entry entry = new ProductChangeSet.Entry();
+		entry.setVersion(version);
+		entry.setProductId(productId);
+		entry.setChangeType(ProductChangeSet.DELETE);
+		return entry;
+	}
+}
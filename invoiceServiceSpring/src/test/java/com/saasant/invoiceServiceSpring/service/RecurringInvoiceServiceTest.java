@@ -0,0 +1,268 @@
+package com.saasant.invoiceServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.saasant.invoiceServiceSpring.dao.RecurringInvoiceDaoInterface;
+import com.saasant.invoiceServiceSpring.vo.CustomerDetails;
+import com.saasant.invoiceServiceSpring.vo.Employee;
+import com.saasant.invoiceServiceSpring.vo.InvoiceDetails;
+import com.saasant.invoiceServiceSpring.vo.InvoiceItem;
+import com.saasant.invoiceServiceSpring.vo.Product;
+import com.saasant.invoiceServiceSpring.vo.RecurringCadence;
+import com.saasant.invoiceServiceSpring.vo.RecurringInvoiceTemplate;
+import com.saasant.invoiceServiceSpring.vo.RecurringRunResult;
+
+class RecurringInvoiceServiceTest {
+
+	private static final LocalDate FIRST = LocalDate.of(2026, 10, 1);
+
+	private final FakeRecurringDao dao = new FakeRecurringDao();
+	private final AtomicInteger numberBlocks = new AtomicInteger();
+	private ExecutorService pool;
+	private RecurringInvoiceService service;
+
+	@BeforeEach
+	void setUp() {
+		pool = Executors.newFixedThreadPool(3);
+		AtomicLong nextNumber = new AtomicLong(1);
+
+		CustomerClientService customers = mock(CustomerClientService.class);
+		when(customers.getCustomersByIds(anyCollection())).thenAnswer(call -> {
+			Map<String, CustomerDetails> found = new HashMap<>();
+			for (Object id : (Collection<?>) call.getArgument(0)) {
+				if (!"C-gone".equals(id)) {
+					found.put((String) id, new CustomerDetails((String) id, "Asha", "9999999999", "Chennai"));
+				}
+			}
+			return found;
+		});
+		EmployeeClientService employees = mock(EmployeeClientService.class);
+		when(employees.getEmployeesByIds(anyCollection())).thenAnswer(call -> {
+			Map<String, Employee> found = new HashMap<>();
+			for (Object id : (Collection<?>) call.getArgument(0)) {
+				Employee employee = new Employee();
+				employee.setEmpId((String) id);
+				employee.setEmpName("Ravi");
+				found.put((String) id, employee);
+			}
+			return found;
+		});
+		ProductClientService products = mock(ProductClientService.class);
+		when(products.getSnapshot()).thenReturn(new ProductCacheSnapshot(Map.of(1, new Product(1, "Pen", 10.0, 0.0)), 1, null));
+		InvoiceNumberAllocator allocator = mock(InvoiceNumberAllocator.class);
+		when(allocator.reserveRange(any(), anyInt())).thenAnswer(call -> {
+			numberBlocks.incrementAndGet();
+			return nextNumber.getAndAdd(call.getArgument(1, Integer.class));
+		});
+		InvoiceBatchService batchService = new InvoiceBatchService();
+		batchService.invoiceAssembler = new InvoiceAssembler();
+
+		service = new RecurringInvoiceService();
+		service.recurringInvoiceDao = dao;
+		service.customerClientService = customers;
+		service.employeeClientService = employees;
+		service.productClientService = products;
+		service.invoiceBatchService = batchService;
+		service.invoiceNumberAllocator = allocator;
+		service.recurringInvoiceExecutor = pool;
+		service.chunkSize = 100;
+		service.maxPasses = 12;
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void generatesEveryDueOccurrenceOnceFromOneNumberBlock() {
+		for (int i = 0; i < 1050; i++) {
+			dao.add(template(String.format("T%04d", i), "C1", FIRST));
+		}
+
+		RecurringRunResult result = service.run(FIRST);
+
+		assertEquals(1050, result.getGenerated());
+		assertEquals(1, numberBlocks.get(), "one block for the pass, then a pass that finds nothing due");
+		assertEquals(1050, dao.invoices.stream().map(InvoiceDetails::getInvoiceNumber).distinct().count());
+		assertTrue(dao.stored.values().stream().allMatch(t -> t.getNextRunDate().equals(LocalDate.of(2026, 11, 1))));
+		assertEquals(0, service.run(FIRST).getGenerated(), "a second run finds nothing left to generate");
+	}
+
+	@Test
+	void missedOccurrencesCatchUpOnTheAnchorDay() {
+		RecurringInvoiceTemplate template = template("T1", "C1", LocalDate.of(2026, 1, 31));
+		template.setEndDate(LocalDate.of(2026, 3, 31));
+		dao.add(template);
+
+		RecurringRunResult result = service.run(LocalDate.of(2026, 4, 30));
+
+		assertEquals(3, result.getGenerated());
+		assertEquals(List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31)),
+				dao.invoices.stream().map(invoice -> invoice.getInvoiceDate().toLocalDate()).sorted().toList());
+		assertEquals(false, dao.stored.get("T1").isActive(), "the next occurrence is past endDate");
+	}
+
+	@Test
+	void failuresStayPendingAndDoNotHoldUpTheRest() {
+		dao.add(template("T-ok", "C1", FIRST));
+		dao.add(template("T-gone", "C-gone", FIRST));
+		dao.add(template("T-raced", "C1", FIRST));
+		dao.add(template("T-dup", "C1", FIRST));
+		// Another instance generates T-raced and T-dup between this run reading and saving them;
+		// T-raced loses on the compare-and-set, T-dup on the invoice ID.
+		dao.afterFindDue = stored -> {
+			stored.get("T-raced").setNextRunDate(LocalDate.of(2026, 11, 1));
+			stored.get("T-dup").setNextRunDate(LocalDate.of(2026, 11, 1));
+			dao.savedElsewhere.add(RecurringInvoiceService.occurrenceInvoiceId("T-dup", FIRST));
+		};
+
+		RecurringRunResult result = service.run(FIRST);
+
+		assertEquals(1, result.getGenerated());
+		assertEquals(1, result.getFailed(), "occurrences generated by the other instance are not failures");
+		assertEquals(List.of(RecurringInvoiceService.occurrenceInvoiceId("T-ok", FIRST)),
+				dao.invoices.stream().map(InvoiceDetails::getInvoiceId).toList());
+		assertEquals("Customer ID : C-gone cannot be found", dao.errors.get("T-gone"));
+		assertEquals(FIRST, dao.stored.get("T-gone").getNextRunDate());
+		assertEquals(Set.of("T-gone"), dao.errors.keySet());
+	}
+
+	private static RecurringInvoiceTemplate template(String id, String customerId, LocalDate start) {
+		RecurringInvoiceTemplate template = new RecurringInvoiceTemplate();
+		template.setTemplateId(id);
+		template.setCustomerId(customerId);
+		template.setEmployeeId("E1");
+		template.setCadence(RecurringCadence.MONTHLY);
+		template.setStartDate(start);
+		template.setNextRunDate(start);
+		InvoiceItem item = new InvoiceItem();
+		item.setProductId("1");
+		item.setQuantity(2);
+		template.getItems().add(item);
+		return template;
+	}
+
+	/** recurring_invoice in memory; materialize applies the same compare-and-set as the SQL. */
+	private static class FakeRecurringDao implements RecurringInvoiceDaoInterface {
+		final Map<String, RecurringInvoiceTemplate> stored = new HashMap<>();
+		final List<InvoiceDetails> invoices = new ArrayList<>();
+		final Map<String, String> errors = new HashMap<>();
+		// Invoice IDs another instance has saved; saving one again is a duplicate key.
+		final Set<String> savedElsewhere = new HashSet<>();
+		Consumer<Map<String, RecurringInvoiceTemplate>> afterFindDue;
+
+		void add(RecurringInvoiceTemplate template) {
+			stored.put(template.getTemplateId(), template);
+		}
+
+		@Override
+		public void create(RecurringInvoiceTemplate template) {
+			add(template);
+		}
+
+		@Override
+		public synchronized Optional<RecurringInvoiceTemplate> findById(String templateId) {
+			return Optional.ofNullable(stored.get(templateId));
+		}
+
+		@Override
+		public synchronized boolean deactivate(String templateId) {
+			return false;
+		}
+
+		@Override
+		public synchronized int countDue(LocalDate day) {
+			return (int) stored.values().stream().filter(t -> t.isActive() && !t.getNextRunDate().isAfter(day)).count();
+		}
+
+		@Override
+		public synchronized List<RecurringInvoiceTemplate> findDue(LocalDate day, LocalDate afterDate, String afterId, int limit) {
+			List<RecurringInvoiceTemplate> due = stored.values().stream()
+					.filter(t -> t.isActive() && !t.getNextRunDate().isAfter(day))
+					.filter(t -> afterDate == null || t.getNextRunDate().isAfter(afterDate)
+							|| (t.getNextRunDate().equals(afterDate) && t.getTemplateId().compareTo(afterId) > 0))
+					.sorted(Comparator.comparing(RecurringInvoiceTemplate::getNextRunDate).thenComparing(RecurringInvoiceTemplate::getTemplateId))
+					.limit(limit)
+					.map(FakeRecurringDao::copy)
+					.toList();
+			if (afterFindDue != null) {
+				afterFindDue.accept(stored);
+				afterFindDue = null;
+			}
+			return due;
+		}
+
+		@Override
+		public synchronized void materialize(List<RecurringInvoiceTemplate> templates, List<InvoiceDetails> batch) {
+			for (InvoiceDetails invoice : batch) {
+				if (savedElsewhere.contains(invoice.getInvoiceId())) {
+					throw new DuplicateKeyException("Duplicate entry '" + invoice.getInvoiceId() + "' for key 'invoice.PRIMARY'");
+				}
+			}
+			for (RecurringInvoiceTemplate template : templates) {
+				RecurringInvoiceTemplate current = stored.get(template.getTemplateId());
+				if (!current.isActive() || !current.getNextRunDate().equals(template.getNextRunDate())) {
+					throw new IllegalStateException("Recurring invoice " + template.getTemplateId() + " was already generated.");
+				}
+			}
+			Set<String> ids = new HashSet<>();
+			invoices.forEach(invoice -> ids.add(invoice.getInvoiceId()));
+			for (int i = 0; i < templates.size(); i++) {
+				RecurringInvoiceTemplate current = stored.get(templates.get(i).getTemplateId());
+				LocalDate following = templates.get(i).followingRunDate();
+				current.setNextRunDate(following);
+				current.setActive(current.getEndDate() == null || !following.isAfter(current.getEndDate()));
+				assertTrue(ids.add(batch.get(i).getInvoiceId()), "duplicate invoice");
+			}
+			invoices.addAll(batch);
+		}
+
+		@Override
+		public synchronized void recordFailures(Map<String, String> errorsByTemplateId) {
+			errors.putAll(errorsByTemplateId);
+		}
+
+		private static RecurringInvoiceTemplate copy(RecurringInvoiceTemplate source) {
+			RecurringInvoiceTemplate copy = new RecurringInvoiceTemplate();
+			copy.setTemplateId(source.getTemplateId());
+			copy.setCustomerId(source.getCustomerId());
+			copy.setEmployeeId(source.getEmployeeId());
+			copy.setCadence(source.getCadence());
+			copy.setStartDate(source.getStartDate());
+			copy.setEndDate(source.getEndDate());
+			copy.setDueDays(source.getDueDays());
+			copy.setNextRunDate(source.getNextRunDate());
+			copy.setActive(source.isActive());
+			copy.setItems(source.getItems());
+			return copy;
+		}
+	}
+}
@@ -2,8 +2,10 @@ package com.example.productServiceSpring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductServiceSpringApplication {
 	
 	public static final String APPLICATION_INSTANCE_ID = java.util.UUID.randomUUID().toString();
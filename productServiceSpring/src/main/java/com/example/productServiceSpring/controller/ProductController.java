@@ -2,6 +2,7 @@ package com.example.productServiceSpring.controller;
 import com.example.productServiceSpring.model.Product;
 import com.example.productServiceSpring.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -9,12 +10,14 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@CrossOrigin
+@CrossOrigin(exposedHeaders = "X-Catalog-Version")
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
 	private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+	private static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+	private static final int MAX_CHANGES = 5000;
 	
     @Autowired
     private ProductService productService;
@@ -30,10 +33,25 @@ public class ProductController {
         }
     }
 
+    // The catalog version is read before the list, so a client that resumes from it with
+    // /changes never misses a change made while the list was being read.
     @GetMapping
-    public List<Product> getAllProducts() throws Exception {
+    public ResponseEntity<List<Product>> getAllProducts() throws Exception {
     	logger.info("Fetching all products");
-        return productService.getAllProducts();
+    	long catalogVersion = productService.getCatalogVersion();
+        return ResponseEntity.ok()
+                .header(CATALOG_VERSION_HEADER, String.valueOf(catalogVersion))
+                .body(productService.getAllProducts());
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam("since") long since,
+                                        @RequestParam(defaultValue = "500") int limit) {
+    	logger.info("Fetching product changes since version {}", since);
+    	if (since < 0 || limit < 1 || limit > MAX_CHANGES) {
+    		return ResponseEntity.badRequest().body("since must be >= 0 and limit between 1 and " + MAX_CHANGES);
+    	}
+        return ResponseEntity.ok(productService.getChangesSince(since, limit));
     }
 
     @PutMapping("/{id}")
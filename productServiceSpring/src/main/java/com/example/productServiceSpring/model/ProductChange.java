@@ -0,0 +1,45 @@
+package com.example.productServiceSpring.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * One entry of the catalog change log. version is the catalog version the change produced;
+ * versions are handed out under a row lock on product_catalog_version, so they become
+ * visible in commit order.
+ */
+@Entity
+@Table(name="product_changes")
+public class ProductChange {
+	
+	public static final String UPSERT = "UPSERT";
+	public static final String DELETE = "DELETE";
+	
+	@Id
+	private long version;
+	private int productId;
+	private String changeType;
+	private LocalDateTime changedAt;
+	
+	public ProductChange() {}
+	
+	public ProductChange(long version, int productId, String changeType, LocalDateTime changedAt) {
+		this.version = version;
+		this.productId = productId;
+		this.changeType = changeType;
+		this.changedAt = changedAt;
+	}
+	
+	public long getVersion() { return version; }
+	public void setVersion(long version) { this.version = version; }
+	
+	public int getProductId() { return productId; }
+	public void setProductId(int productId) { this.productId = productId; }
+	
+	public String getChangeType() { return changeType; }
+	public void setChangeType(String changeType) { this.changeType = changeType; }
+	
+	public LocalDateTime getChangedAt() { return changedAt; }
+	public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+}
@@ -0,0 +1,64 @@
+package com.example.productServiceSpring.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response of GET /api/products/changes. Holds the changes after the caller's version, one
+ * entry per product (latest change wins), with the current product state for upserts.
+ */
+public class ProductChangeSet {
+	
+	private long catalogVersion;
+	// Version of the last change included; pass it as since to continue.
+	private long toVersion;
+	private boolean hasMore;
+	// Lowest since this log can still answer; older entries were pruned, so a caller
+	// behind it has to reload the full list.
+	private long oldestVersion;
+	private List<Entry> changes = new ArrayList<>();
+	
+	public long getCatalogVersion() { return catalogVersion; }
+	public void setCatalogVersion(long catalogVersion) { this.catalogVersion = catalogVersion; }
+	
+	public long getToVersion() { return toVersion; }
+	public void setToVersion(long toVersion) { this.toVersion = toVersion; }
+	
+	public boolean isHasMore() { return hasMore; }
+	public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+	
+	public long getOldestVersion() { return oldestVersion; }
+	public void setOldestVersion(long oldestVersion) { this.oldestVersion = oldestVersion; }
+	
+	public List<Entry> getChanges() { return changes; }
+	public void setChanges(List<Entry> changes) { this.changes = changes; }
+	
+	public static class Entry {
+		
+		private long version;
+		private int productId;
+		private String changeType;
+		private Product product;
+		
+		public Entry() {}
+		
+		public Entry(long version, int productId, String changeType, Product product) {
+			this.version = version;
+			this.productId = productId;
+			this.changeType = changeType;
+			this.product = product;
+		}
+		
+		public long getVersion() { return version; }
+		public void setVersion(long version) { this.version = version; }
+		
+		public int getProductId() { return productId; }
+		public void setProductId(int productId) { this.productId = productId; }
+		
+		public String getChangeType() { return changeType; }
+		public void setChangeType(String changeType) { this.changeType = changeType; }
+		
+		public Product getProduct() { return product; }
+		public void setProduct(Product product) { this.product = product; }
+	}
+}
@@ -0,0 +1,31 @@
+package com.example.productServiceSpring.repository;
+
+import com.example.productServiceSpring.model.ProductChange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+	
+	List<ProductChange> findByVersionGreaterThanOrderByVersionAsc(long since, Pageable limit);
+	
+	// Takes the row lock on the counter; it is held until the surrounding transaction commits.
+	@Modifying
+	@Query(value = "UPDATE product_catalog_version SET version = version + 1 WHERE id = 1", nativeQuery = true)
+	int incrementCatalogVersion();
+	
+	@Query(value = "SELECT version FROM product_catalog_version WHERE id = 1", nativeQuery = true)
+	Long currentCatalogVersion();
+	
+	@Query(value = "SELECT MIN(version) FROM product_changes", nativeQuery = true)
+	Long oldestChangeVersion();
+	
+	@Modifying
+	@Query(value = "DELETE FROM product_changes WHERE changed_at < ?1", nativeQuery = true)
+	int deleteChangedBefore(LocalDateTime cutoff);
+}
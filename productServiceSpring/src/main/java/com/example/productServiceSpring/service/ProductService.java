@@ -2,8 +2,10 @@ package com.example.productServiceSpring.service;
 
 
 import com.example.productServiceSpring.model.Product;
+import com.example.productServiceSpring.model.ProductChangeSet;
 
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ProductService {
@@ -15,4 +17,10 @@ public interface ProductService {
     void updateProduct(int productId, Product product) throws SQLException;
 
     void deleteProduct(int productId) throws SQLException;
+
+    long getCatalogVersion();
+
+    ProductChangeSet getChangesSince(long since, int limit);
+
+    int pruneChangesBefore(LocalDateTime cutoff);
 }
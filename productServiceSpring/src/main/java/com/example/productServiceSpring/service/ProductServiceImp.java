@@ -1,12 +1,24 @@
 package com.example.productServiceSpring.service;
 
 import com.example.productServiceSpring.model.Product;
+import com.example.productServiceSpring.model.ProductChange;
+import com.example.productServiceSpring.model.ProductChangeSet;
+import com.example.productServiceSpring.repository.ProductChangeRepository;
 import com.example.productServiceSpring.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,12 +28,32 @@ public class ProductServiceImp implements ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImp.class);
 
     @Autowired
-    private ProductRepository productRepository;
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductChangeRepository productChangeRepository;
+
+    @Value("${product.changes.retention-days:7}")
+    int changeRetentionDays;
+
+    /**
+     * Bumps the catalog version and logs the change in the caller's transaction. The counter
+     * row stays locked until commit, so concurrent writers get versions in commit order and a
+     * reader that has seen version N has seen every change up to N.
+     */
+    private void recordChange(int productId, String changeType) {
+        productChangeRepository.incrementCatalogVersion();
+        long version = productChangeRepository.currentCatalogVersion();
+        productChangeRepository.save(new ProductChange(version, productId, changeType, LocalDateTime.now()));
+        logger.debug("Recorded {} of product {} as catalog version {}", changeType, productId, version);
+    }
 
     @Override
+    @Transactional
     public void addProduct(Product product) {
         logger.info("Adding product: {}", product.getName());
         productRepository.save(product);
+        recordChange(product.getProductId(), ProductChange.UPSERT);
         logger.debug("Product saved successfully");
     }
 
@@ -32,12 +64,14 @@ public class ProductServiceImp implements ProductService {
     }
 
     @Override
+    @Transactional
     public void updateProduct(int productId, Product product) {
         logger.info("Updating product with ID: {}", productId);
         Optional<Product> existing = productRepository.findById(productId);
         if (existing.isPresent()) {
             product.setProductId(productId);
             productRepository.save(product);
+            recordChange(productId, ProductChange.UPSERT);
             logger.debug("Product updated successfully");
         } else {
             logger.error("Product with ID {} not found for update", productId);
@@ -46,6 +80,7 @@ public class ProductServiceImp implements ProductService {
     }
 
     @Override
+    @Transactional
     public void deleteProduct(int productId) {
         logger.info("Deleting product with ID: {}", productId);
         if (!productRepository.existsById(productId)) {
@@ -53,8 +88,72 @@ public class ProductServiceImp implements ProductService {
             throw new RuntimeException("Product not found with id " + productId);
         }
         productRepository.deleteById(productId);
+        recordChange(productId, ProductChange.DELETE);
         logger.debug("Product deleted successfully");
     }
-}
 
+    @Override
+    public long getCatalogVersion() {
+        Long version = productChangeRepository.currentCatalogVersion();
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Returns up to limit change log entries after since, collapsed to the latest change per
+     * product. Upserts carry the product as it is now, which may already include a later change;
+     * that change is delivered again in a later call, so applying it twice is harmless.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ProductChangeSet getChangesSince(long since, int limit) {
+        ProductChangeSet changeSet = new ProductChangeSet();
+        changeSet.setCatalogVersion(getCatalogVersion());
+        changeSet.setOldestVersion(oldestVersion(changeSet.getCatalogVersion()));
+        List<ProductChange> changes = productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(since, PageRequest.of(0, limit));
+        Map<Integer, ProductChange> latestPerProduct = new LinkedHashMap<>();
+        for (ProductChange change : changes) {
+            latestPerProduct.remove(change.getProductId());
+            latestPerProduct.put(change.getProductId(), change);
+        }
+        List<Integer> upserted = latestPerProduct.values().stream()
+                .filter(change -> ProductChange.UPSERT.equals(change.getChangeType()))
+                .map(ProductChange::getProductId)
+                .collect(Collectors.toList());
+        Map<Integer, Product> current = productRepository.findAllById(upserted).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        for (ProductChange change : latestPerProduct.values()) {
+            Product product = current.get(change.getProductId());
+            String type = product != null ? change.getChangeType() : ProductChange.DELETE;
+            changeSet.getChanges().add(new ProductChangeSet.Entry(change.getVersion(), change.getProductId(), type, product));
+        }
+        changeSet.setToVersion(changes.isEmpty() ? since : changes.get(changes.size() - 1).getVersion());
+        changeSet.setHasMore(changes.size() == limit);
+        logger.info("Returning {} product changes after version {} (catalog version {})",
+                changeSet.getChanges().size(), since, changeSet.getCatalogVersion());
+        return changeSet;
+    }
+
+    /**
+     * Everything after the returned version is still in the log. With an empty log that is
+     * the catalog version itself, since every earlier change may have been pruned.
+     */
+    private long oldestVersion(long catalogVersion) {
+        Long oldest = productChangeRepository.oldestChangeVersion();
+        return oldest != null ? oldest - 1 : catalogVersion;
+    }
+
+    @Override
+    @Transactional
+    public int pruneChangesBefore(LocalDateTime cutoff) {
+        int deleted = productChangeRepository.deleteChangedBefore(cutoff);
+        logger.info("Pruned {} product changes recorded before {}", deleted, cutoff);
+        return deleted;
+    }
 
+    // Clients further behind than the retention window get oldestVersion past their version and reload in full.
+    @Scheduled(cron = "${product.changes.prune-cron:0 15 3 * * *}")
+    @Transactional
+    public void pruneChangeLog() {
+        pruneChangesBefore(LocalDateTime.now().minusDays(changeRetentionDays));
+    }
+}
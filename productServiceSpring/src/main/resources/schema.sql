@@ -0,0 +1,16 @@
+-- Catalog versioning for incremental sync (GET /api/products/changes).
+-- The products table itself is created outside the application.
+
+CREATE TABLE IF NOT EXISTS product_catalog_version (
+    id INT NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO product_catalog_version (id, version) VALUES (1, 0);
+
+CREATE TABLE IF NOT EXISTS product_changes (
+    version BIGINT NOT NULL PRIMARY KEY,
+    product_id INT NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    changed_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,101 @@
+package com.example.productServiceSpring.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.productServiceSpring.model.Product;
+import com.example.productServiceSpring.model.ProductChange;
+import com.example.productServiceSpring.model.ProductChangeSet;
+import com.example.productServiceSpring.repository.ProductChangeRepository;
+import com.example.productServiceSpring.repository.ProductRepository;
+
+class ProductServiceImpTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    private ProductRepository productRepository;
+    private ProductChangeRepository productChangeRepository;
+    private ProductServiceImp service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productChangeRepository = mock(ProductChangeRepository.class);
+        service = new ProductServiceImp();
+        service.productRepository = productRepository;
+        service.productChangeRepository = productChangeRepository;
+        service.changeRetentionDays = 7;
+    }
+
+    @Test
+    void changesAreCollapsedToTheLatestPerProduct() {
+        when(productChangeRepository.currentCatalogVersion()).thenReturn(14L);
+        when(productChangeRepository.oldestChangeVersion()).thenReturn(9L);
+        when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any())).thenReturn(List.of(
+                new ProductChange(11, 1, ProductChange.UPSERT, NOW),
+                new ProductChange(12, 2, ProductChange.UPSERT, NOW),
+                new ProductChange(13, 1, ProductChange.DELETE, NOW),
+                new ProductChange(14, 3, ProductChange.UPSERT, NOW)));
+        // Product 3 was deleted after change 14 was read; it goes out as a delete.
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(new Product(2, "Pen", 10.0, 5.0)));
+
+        ProductChangeSet changeSet = service.getChangesSince(10, 4);
+
+        assertEquals(List.of(2, 1, 3), changeSet.getChanges().stream().map(ProductChangeSet.Entry::getProductId).toList());
+        assertEquals(List.of(ProductChange.UPSERT, ProductChange.DELETE, ProductChange.DELETE),
+                changeSet.getChanges().stream().map(ProductChangeSet.Entry::getChangeType).toList());
+        assertEquals("Pen", changeSet.getChanges().get(0).getProduct().getName());
+        assertNull(changeSet.getChanges().get(2).getProduct());
+        assertEquals(14, changeSet.getToVersion());
+        assertEquals(14, changeSet.getCatalogVersion());
+        assertEquals(8, changeSet.getOldestVersion());
+        assertTrue(changeSet.isHasMore(), "a full page may have more behind it");
+    }
+
+    @Test
+    void emptyPageKeepsTheCallersVersion() {
+        when(productChangeRepository.currentCatalogVersion()).thenReturn(20L);
+        when(productChangeRepository.oldestChangeVersion()).thenReturn(5L);
+        when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(anyLong(), any())).thenReturn(List.of());
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        ProductChangeSet changeSet = service.getChangesSince(20, 50);
+
+        assertEquals(20, changeSet.getToVersion());
+        assertFalse(changeSet.isHasMore());
+        assertTrue(changeSet.getChanges().isEmpty());
+    }
+
+    @Test
+    void fullyPrunedLogOnlyAnswersFromTheCatalogVersion() {
+        when(productChangeRepository.currentCatalogVersion()).thenReturn(30L);
+        when(productChangeRepository.oldestChangeVersion()).thenReturn(null);
+        when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(anyLong(), any())).thenReturn(List.of());
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        assertEquals(30, service.getChangesSince(12, 50).getOldestVersion());
+    }
+
+    @Test
+    void pruningDeletesEntriesOlderThanTheRetention() {
+        when(productChangeRepository.deleteChangedBefore(any())).thenReturn(3);
+
+        assertEquals(3, service.pruneChangesBefore(NOW.minusDays(7)));
+        verify(productChangeRepository).deleteChangedBefore(NOW.minusDays(7));
+    }
+}